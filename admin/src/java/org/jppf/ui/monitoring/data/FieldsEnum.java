@@ -317,6 +317,96 @@ public enum FieldsEnum implements Fields {
    * Total outbound network traffic.
    */
   TOTAL_OUTBOUND_MB,
+  /**
+   * 50th percentile of the execution time.
+   * @since 6.3
+   */
+  EXECUTION_TIME_P50,
+  /**
+   * 99th percentile of the execution time.
+   * @since 6.3
+   */
+  EXECUTION_TIME_P99,
+  /**
+   * 99.9th percentile of the execution time.
+   * @since 6.3
+   */
+  EXECUTION_TIME_P999,
+  /**
+   * 50th percentile of the node execution time.
+   * @since 6.3
+   */
+  NODE_EXECUTION_TIME_P50,
+  /**
+   * 99th percentile of the node execution time.
+   * @since 6.3
+   */
+  NODE_EXECUTION_TIME_P99,
+  /**
+   * 99.9th percentile of the node execution time.
+   * @since 6.3
+   */
+  NODE_EXECUTION_TIME_P999,
+  /**
+   * 50th percentile of the transport time.
+   * @since 6.3
+   */
+  TRANSPORT_TIME_P50,
+  /**
+   * 99th percentile of the transport time.
+   * @since 6.3
+   */
+  TRANSPORT_TIME_P99,
+  /**
+   * 99.9th percentile of the transport time.
+   * @since 6.3
+   */
+  TRANSPORT_TIME_P999,
+  /**
+   * 50th percentile of the queue time.
+   * @since 6.3
+   */
+  QUEUE_TIME_P50,
+  /**
+   * 99th percentile of the queue time.
+   * @since 6.3
+   */
+  QUEUE_TIME_P99,
+  /**
+   * 99.9th percentile of the queue time.
+   * @since 6.3
+   */
+  QUEUE_TIME_P999,
+  /**
+   * 50th percentile of the job execution time.
+   * @since 6.3
+   */
+  JOBS_TIME_P50,
+  /**
+   * 99th percentile of the job execution time.
+   * @since 6.3
+   */
+  JOBS_TIME_P99,
+  /**
+   * 99.9th percentile of the job execution time.
+   * @since 6.3
+   */
+  JOBS_TIME_P999,
+  /**
+   * 50th percentile of the job dispatch time.
+   * @since 6.3
+   */
+  JOB_DISPATCHES_TIME_P50,
+  /**
+   * 99th percentile of the job dispatch time.
+   * @since 6.3
+   */
+  JOB_DISPATCHES_TIME_P99,
+  /**
+   * 99.9th percentile of the job dispatch time.
+   * @since 6.3
+   */
+  JOB_DISPATCHES_TIME_P999,
   /**
    * Amount of heap used.
    * @since 5.0
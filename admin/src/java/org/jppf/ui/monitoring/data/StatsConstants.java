@@ -98,6 +98,15 @@ public class StatsConstants {
    * List of stats properties for inbound network traffic.
    */
   public static final Fields[] OUTBOUND_NETWORK_TRAFFIC_FIELDS = { CLIENT_OUTBOUND_MB, NODE_OUTBOUND_MB, JMX_OUTBOUND_MB, TOTAL_OUTBOUND_MB };
+  /**
+   * List of stats properties for latency percentiles.
+   */
+  public static final Fields[] LATENCY_PERCENTILE_FIELDS = { EXECUTION_TIME_P50, EXECUTION_TIME_P99, EXECUTION_TIME_P999,
+    NODE_EXECUTION_TIME_P50, NODE_EXECUTION_TIME_P99, NODE_EXECUTION_TIME_P999,
+    TRANSPORT_TIME_P50, TRANSPORT_TIME_P99, TRANSPORT_TIME_P999,
+    QUEUE_TIME_P50, QUEUE_TIME_P99, QUEUE_TIME_P999,
+    JOBS_TIME_P50, JOBS_TIME_P99, JOBS_TIME_P999,
+    JOB_DISPATCHES_TIME_P50, JOB_DISPATCHES_TIME_P99, JOB_DISPATCHES_TIME_P999 };
   /**
    * List of properties for health snapshots.
    * @since 5.0
@@ -121,14 +130,14 @@ public class StatsConstants {
    */
   public static final Fields[] ALL_FIELDS = CollectionUtils.concatArrays(
     EXECUTION_FIELDS, NODE_EXECUTION_FIELDS, TRANSPORT_FIELDS, JOB_FIELDS, JOB_DISPATCH_FIELDS, TASK_DISTRIB_FIELDS, QUEUE_FIELDS, CONNECTION_FIELDS,
-    NODE_CL_REQUEST_TIME_FIELDS, INBOUND_NETWORK_TRAFFIC_FIELDS, OUTBOUND_NETWORK_TRAFFIC_FIELDS);
+    NODE_CL_REQUEST_TIME_FIELDS, INBOUND_NETWORK_TRAFFIC_FIELDS, OUTBOUND_NETWORK_TRAFFIC_FIELDS, LATENCY_PERCENTILE_FIELDS);
   /**
    * List of all fields available in the charts.
    * @since 5.0
    */
   public static final Fields[] ALL_CHART_FIELDS = CollectionUtils.concatArrays(Fields.class,
     EXECUTION_FIELDS, NODE_EXECUTION_FIELDS, TRANSPORT_FIELDS, JOB_FIELDS, JOB_DISPATCH_FIELDS, TASK_DISTRIB_FIELDS, QUEUE_FIELDS, CONNECTION_FIELDS,
-    NODE_CL_REQUEST_TIME_FIELDS, INBOUND_NETWORK_TRAFFIC_FIELDS, OUTBOUND_NETWORK_TRAFFIC_FIELDS, HEALTH_FIELDS);
+    NODE_CL_REQUEST_TIME_FIELDS, INBOUND_NETWORK_TRAFFIC_FIELDS, OUTBOUND_NETWORK_TRAFFIC_FIELDS, LATENCY_PERCENTILE_FIELDS, HEALTH_FIELDS);
   /**
    * Mapping of fields to their name.
    */
@@ -188,6 +197,10 @@ public class StatsConstants {
    * Name of the outboud network traffic requests table.
    */
   public static final String OUTBOUND_NETWORK_TRAFFIC = "OutboundTrafficTable";
+  /**
+   * Name of the latency percentiles table.
+   */
+  public static final String LATENCY_PERCENTILES = "LatencyPercentilesTable";
   /**
    * Mapping of table names to the associated fields.
    */
@@ -211,6 +224,7 @@ public class StatsConstants {
     map.put(CLIENT_CL_REQUEST_TIME, CLIENT_CL_REQUEST_TIME_FIELDS);
     map.put(INBOUND_NETWORK_TRAFFIC, INBOUND_NETWORK_TRAFFIC_FIELDS);
     map.put(OUTBOUND_NETWORK_TRAFFIC, OUTBOUND_NETWORK_TRAFFIC_FIELDS);
+    map.put(LATENCY_PERCENTILES, LATENCY_PERCENTILE_FIELDS);
     return Collections.unmodifiableMap(map);
   }
 
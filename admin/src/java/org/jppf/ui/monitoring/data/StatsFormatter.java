@@ -56,7 +56,9 @@ public final class StatsFormatter {
     LATEST_NODE_EXECUTION_TIME, MIN_NODE_EXECUTION_TIME, MAX_NODE_EXECUTION_TIME, AVG_NODE_EXECUTION_TIME, LATEST_TRANSPORT_TIME, MIN_TRANSPORT_TIME, MAX_TRANSPORT_TIME, AVG_TRANSPORT_TIME,
     LATEST_QUEUE_TIME, MIN_QUEUE_TIME, MAX_QUEUE_TIME, AVG_QUEUE_TIME, JOBS_LATEST_TIME, JOBS_MIN_TIME, JOBS_MAX_TIME, JOBS_AVG_TIME, JOBS_AVG_TASKS, NODE_AVG_CL_REQUEST_TIME,
     NODE_MIN_CL_REQUEST_TIME, NODE_MAX_CL_REQUEST_TIME, NODE_LATEST_CL_REQUEST_TIME, CLIENT_AVG_CL_REQUEST_TIME, CLIENT_MIN_CL_REQUEST_TIME, CLIENT_MAX_CL_REQUEST_TIME,
-    CLIENT_LATEST_CL_REQUEST_TIME, HEALTH_HEAP_PCT, HEALTH_NON_HEAP_PCT, HEALTH_RAM_PCT, HEALTH_CPU, HEALTH_SYSTEM_CPU);
+    CLIENT_LATEST_CL_REQUEST_TIME, HEALTH_HEAP_PCT, HEALTH_NON_HEAP_PCT, HEALTH_RAM_PCT, HEALTH_CPU, HEALTH_SYSTEM_CPU, EXECUTION_TIME_P50, EXECUTION_TIME_P99,
+    EXECUTION_TIME_P999, NODE_EXECUTION_TIME_P50, NODE_EXECUTION_TIME_P99, NODE_EXECUTION_TIME_P999, TRANSPORT_TIME_P50, TRANSPORT_TIME_P99, TRANSPORT_TIME_P999, QUEUE_TIME_P50,
+    QUEUE_TIME_P99, QUEUE_TIME_P999, JOBS_TIME_P50, JOBS_TIME_P99, JOBS_TIME_P999, JOB_DISPATCHES_TIME_P50, JOB_DISPATCHES_TIME_P99, JOB_DISPATCHES_TIME_P999);
   /**
    * The set of fields formated as int.
    */
@@ -176,6 +176,24 @@ public class StatsTransformer {
     sum += (d = stats.getSnapshot(JMX_OUT_TRAFFIC).getTotal());
     map.put(JMX_OUTBOUND_MB, d);
     map.put(TOTAL_OUTBOUND_MB, sum);
+    formatPercentiles(map, stats.getSnapshot(EXECUTION), EXECUTION_TIME_P50, EXECUTION_TIME_P99, EXECUTION_TIME_P999);
+    formatPercentiles(map, stats.getSnapshot(NODE_EXECUTION), NODE_EXECUTION_TIME_P50, NODE_EXECUTION_TIME_P99, NODE_EXECUTION_TIME_P999);
+    formatPercentiles(map, stats.getSnapshot(TRANSPORT_TIME), TRANSPORT_TIME_P50, TRANSPORT_TIME_P99, TRANSPORT_TIME_P999);
+    formatPercentiles(map, stats.getSnapshot(TASK_QUEUE_TIME), QUEUE_TIME_P50, QUEUE_TIME_P99, QUEUE_TIME_P999);
+    formatPercentiles(map, stats.getSnapshot(JOB_TIME), JOBS_TIME_P50, JOBS_TIME_P99, JOBS_TIME_P999);
+    formatPercentiles(map, stats.getSnapshot(JOB_DISPATCH_TIME), JOB_DISPATCHES_TIME_P50, JOB_DISPATCHES_TIME_P99, JOB_DISPATCHES_TIME_P999);
+  }
+
+  /**
+   * Fill the map with the 50th, 99th and 99.9th percentiles of the specified snapshot.
+   * The values are set to 0 if the snapshot is not a histogram, for instance when the server has histograms disabled.
+   * @param map the map to fill.
+   * @param snapshot the snapshot to get the percentiles from.
+   * @param fields the fields for the 50th, 99th and 99.9th percentiles, in this order.
+   */
+  private static void formatPercentiles(final Map<Fields, Double> map, final JPPFSnapshot snapshot, final Fields... fields) {
+    final double[] values = (snapshot instanceof HistogramSnapshot) ? ((HistogramSnapshot) snapshot).getValuesAtPercentiles(50d, 99d, 99.9d) : new double[fields.length];
+    for (int i=0; i<fields.length; i++) map.put(fields[i], values[i]);
   }
 
   /**
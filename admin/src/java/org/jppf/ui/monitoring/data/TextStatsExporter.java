@@ -90,6 +90,7 @@ public class TextStatsExporter implements StatsExporter {
     sb.append(format(map, CLIENT_CL_REQUEST_TIME_FIELDS, "ClientClassLoadingRequestTable.label"));
     sb.append(format(map, INBOUND_NETWORK_TRAFFIC_FIELDS, "InboundTrafficTable.label"));
     sb.append(format(map, OUTBOUND_NETWORK_TRAFFIC_FIELDS, "OutboundTrafficTable.label"));
+    sb.append(format(map, LATENCY_PERCENTILE_FIELDS, "LatencyPercentilesTable.label"));
     return sb.toString();
   }
 
@@ -0,0 +1,115 @@
+/*
+ * JPPF.
+ * Copyright (C) 2005-2019 JPPF Team.
+ * http://www.jppf.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jppf.benchmark.bundler;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.jppf.load.balancer.Bundler;
+import org.jppf.load.balancer.impl.*;
+import org.jppf.utils.TypedProperties;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Measures the cost of a {@link Bundler#feedback(int, double) feedback()} call for the adaptive load-balancing algorithms,
+ * with one bundler per simulated node. The feedback is sent to the nodes in a round-robin fashion.
+ * <p>The node counts show that the cost of a feedback does not depend on the number of nodes, including for the "proportional"
+ * algorithm which shares global state between all its bundlers.
+ * @author Laurent Cohen
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+public class BundlerFeedbackBenchmark {
+  /**
+   * The number of distinct feedback samples.
+   */
+  private static final int NB_SAMPLES = 1024;
+  /**
+   * The load-balancing algorithm.
+   */
+  @Param({ "rl2", "proportional", "autotuned" })
+  public String algorithm;
+  /**
+   * The number of simulated nodes, each with its own bundler.
+   */
+  @Param({ "10", "100", "1000", "5000" })
+  public int nbNodes;
+  /**
+   * The bundlers of the simulated nodes.
+   */
+  private Bundler<?>[] bundlers;
+  /**
+   * The task counts sent in the feedback.
+   */
+  private final int[] sizes = new int[NB_SAMPLES];
+  /**
+   * The execution times sent in the feedback, in nanoseconds.
+   */
+  private final double[] times = new double[NB_SAMPLES];
+  /**
+   * Index of the next feedback.
+   */
+  private int index;
+
+  /**
+   * Create the bundlers and the feedback samples.
+   */
+  @Setup
+  public void setup() {
+    final TypedProperties config = new TypedProperties();
+    bundlers = new Bundler<?>[nbNodes];
+    for (int i=0; i<nbNodes; i++) {
+      switch(algorithm) {
+        case "rl2": bundlers[i] = new RL2Bundler(new RL2Profile(config)); break;
+        case "proportional": bundlers[i] = new ProportionalBundler(new ProportionalProfile(config)); break;
+        case "autotuned": bundlers[i] = new AutoTunedBundler(new AnnealingTuneProfile(config)); break;
+        default: throw new IllegalArgumentException("unknown algorithm " + algorithm);
+      }
+      bundlers[i].setup();
+    }
+    final Random rand = new Random(42L);
+    for (int i=0; i<NB_SAMPLES; i++) {
+      sizes[i] = 1 + rand.nextInt(100);
+      // between 1 and 10 ms per task
+      times[i] = sizes[i] * (1_000_000d + rand.nextInt(9_000_000));
+    }
+  }
+
+  /**
+   * Dispose the bundlers, so those of the "proportional" algorithm do not leak into the next trials.
+   */
+  @TearDown
+  public void tearDown() {
+    for (final Bundler<?> bundler: bundlers) bundler.dispose();
+  }
+
+  /**
+   * Send a feedback to the next bundler.
+   * @return the resulting bundle size.
+   */
+  @Benchmark
+  public int feedback() {
+    final int n = index++ & Integer.MAX_VALUE;
+    final Bundler<?> bundler = bundlers[n % nbNodes];
+    final int sample = n & (NB_SAMPLES - 1);
+    bundler.feedback(sizes[sample], times[sample]);
+    return bundler.getBundleSize();
+  }
+}
@@ -0,0 +1,128 @@
+/*
+ * JPPF.
+ * Copyright (C) 2005-2019 JPPF Team.
+ * http://www.jppf.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jppf.benchmark.io;
+
+import java.io.*;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.jppf.io.*;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Measures the transfer throughput of the in-memory and file-backed data locations, to and from streams.
+ * The JMH throughput is in operations per second, where each operation transfers {@code size} bytes.
+ * @author Laurent Cohen
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Thread)
+public class DataLocationBenchmark {
+  /**
+   * The type of data location.
+   */
+  @Param({ "memory", "file" })
+  public String type;
+  /**
+   * The number of bytes to transfer.
+   */
+  @Param({ "1024", "65536", "1048576" })
+  public int size;
+  /**
+   * The data to transfer.
+   */
+  private byte[] data;
+  /**
+   * The location to transfer from.
+   */
+  private DataLocation source;
+  /**
+   * The location to transfer to.
+   */
+  private DataLocation destination;
+  /**
+   * The files used by the file-backed locations.
+   */
+  private File sourceFile, destinationFile;
+  /**
+   * An in-memory stream which receives the transferred data. It is reset before each transfer, so its buffer is reused.
+   */
+  private final ByteArrayOutputStream sink = new ByteArrayOutputStream();
+  /**
+   * A destination which copies the data into {@link #sink}.
+   */
+  private final OutputDestination sinkDestination = new StreamOutputDestination(sink);
+
+  /**
+   * Create the data locations.
+   * @throws Exception if any error occurs.
+   */
+  @Setup
+  public void setup() throws Exception {
+    data = new byte[size];
+    new Random(42L).nextBytes(data);
+    switch(type) {
+      case "memory":
+        source = new MultipleBuffersLocation(data);
+        destination = new MultipleBuffersLocation(size);
+        break;
+      case "file":
+        sourceFile = File.createTempFile("jppf-benchmark", ".tmp");
+        destinationFile = File.createTempFile("jppf-benchmark", ".tmp");
+        try (final OutputStream os = new FileOutputStream(sourceFile)) {
+          os.write(data);
+        }
+        source = new FileDataLocation(sourceFile, size);
+        destination = new FileDataLocation(destinationFile, size);
+        break;
+      default:
+        throw new IllegalArgumentException("unknown data location type " + type);
+    }
+  }
+
+  /**
+   * Delete the files, if any.
+   */
+  @TearDown
+  public void tearDown() {
+    if (sourceFile != null) sourceFile.delete();
+    if (destinationFile != null) destinationFile.delete();
+  }
+
+  /**
+   * Transfer the whole content of a location to an in-memory stream.
+   * @return the number of bytes transferred.
+   * @throws Exception if any error occurs.
+   */
+  @Benchmark
+  public int transferTo() throws Exception {
+    sink.reset();
+    return source.transferTo(sinkDestination, true);
+  }
+
+  /**
+   * Fill a location from a stream.
+   * @return the number of bytes transferred.
+   * @throws Exception if any error occurs.
+   */
+  @Benchmark
+  public int transferFrom() throws Exception {
+    return destination.transferFrom(new StreamInputSource(new ByteArrayInputStream(data)), true);
+  }
+}
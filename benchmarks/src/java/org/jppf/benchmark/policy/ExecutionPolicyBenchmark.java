@@ -0,0 +1,110 @@
+/*
+ * JPPF.
+ * Copyright (C) 2005-2019 JPPF Team.
+ * http://www.jppf.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jppf.benchmark.policy;
+
+import java.util.concurrent.TimeUnit;
+
+import org.jppf.management.JPPFSystemInformation;
+import org.jppf.node.policy.*;
+import org.jppf.utils.*;
+import org.jppf.utils.configuration.JPPFProperties;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Measures the cost of evaluating an execution policy against the information of a node, in its interpreted form,
+ * in its compiled form, and in its compiled form with the per-node cache of results.
+ * @author Laurent Cohen
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+public class ExecutionPolicyBenchmark {
+  /**
+   * The policy to evaluate.
+   */
+  @Param({ "simple", "composite", "regexp" })
+  public String policyType;
+  /**
+   * The information of the node.
+   */
+  private JPPFSystemInformation info;
+  /**
+   * The policy to evaluate.
+   */
+  private ExecutionPolicy policy;
+  /**
+   * The compiled form of the policy.
+   */
+  private CompiledPolicy compiled;
+
+  /**
+   * Create the node information and the policy.
+   */
+  @Setup
+  public void setup() {
+    // the "composite" policy requires these properties, which are not set by default in the node information
+    final TypedProperties config = new TypedProperties().set(JPPFProperties.SERVER_PORT, 11111).set(JPPFProperties.MANAGEMENT_ENABLED, true);
+    info = new JPPFSystemInformation(config, JPPFUuid.normalUUID(), false, false).populate();
+    switch(policyType) {
+      case "simple":
+        policy = new AtLeast("availableProcessors", 1);
+        break;
+      case "composite":
+        policy = new AtLeast("availableProcessors", 1).and(
+          new AtLeast("maxMemory", 1024 * 1024),
+          new Contains("java.vm.name", true, "vm"),
+          new OneOf("jppf.server.port", 11111, 11443).or(new Equal("jppf.management.enabled", true)).not());
+        break;
+      case "regexp":
+        policy = new RegExp("os.name", ".*(Linux|Windows|Mac).*").or(new Contains("os.arch", true, "64"));
+        break;
+      default:
+        throw new IllegalArgumentException("unknown policy type " + policyType);
+    }
+    compiled = CompiledPolicy.compile(policy);
+    if (compiled == null) throw new IllegalStateException("could not compile policy " + policy);
+  }
+
+  /**
+   * Evaluate the policy by interpreting its tree of rules.
+   * @return whether the node is accepted.
+   */
+  @Benchmark
+  public boolean interpreted() {
+    return policy.evaluate(info);
+  }
+
+  /**
+   * Evaluate the compiled form of the policy, bypassing the cache of results.
+   * @return whether the node is accepted.
+   */
+  @Benchmark
+  public boolean compiled() {
+    return compiled.evaluate((PropertiesCollection<String>) info);
+  }
+
+  /**
+   * Evaluate the compiled form of the policy, using the cache of results for the node.
+   * @return whether the node is accepted.
+   */
+  @Benchmark
+  public boolean compiledCached() {
+    return compiled.evaluate(info);
+  }
+}
@@ -0,0 +1,199 @@
+/*
+ * JPPF.
+ * Copyright (C) 2005-2019 JPPF Team.
+ * http://www.jppf.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jppf.benchmark.queue;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+import org.jppf.io.*;
+import org.jppf.node.protocol.*;
+import org.jppf.server.JPPFDriver;
+import org.jppf.server.protocol.*;
+import org.jppf.server.queue.JPPFPriorityQueue;
+import org.jppf.utils.*;
+import org.jppf.utils.configuration.JPPFProperties;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Measures the throughput of the server job queue when several threads concurrently add jobs to it and
+ * drain them in node dispatches, the way client and node channels do in the driver.
+ * <p>The "scheduling" group also reads the jobs in priority order from another thread, the way the job scheduler does,
+ * to measure how much the scheduler contends with job submission and dispatch.
+ * <p>The driver is created but not started, so no network server and no job scheduling are involved.
+ * @author Laurent Cohen
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+public class JobQueueBenchmark {
+  /**
+   * The number of tasks in each job.
+   */
+  @Param({ "100" })
+  public int nbTasks;
+  /**
+   * The number of tasks in each dispatch to a node.
+   */
+  @Param({ "1", "10", "100" })
+  public int bundleSize;
+  /**
+   * The number of jobs that remain in the queue during the benchmark.
+   */
+  @Param({ "0", "500" })
+  public int queuedJobs;
+  /**
+   * The driver which holds the queue.
+   */
+  private JPPFDriver driver;
+  /**
+   * The queue to benchmark.
+   */
+  private JPPFPriorityQueue queue;
+
+  /**
+   * Create the driver and its queue.
+   */
+  @Setup
+  public void setup() {
+    final TypedProperties config = new TypedProperties()
+      .set(JPPFProperties.DISCOVERY_ENABLED, false)
+      .set(JPPFProperties.PEER_DISCOVERY_ENABLED, false)
+      .set(JPPFProperties.MANAGEMENT_ENABLED, false);
+    driver = new JPPFDriver(config);
+    queue = driver.getQueue();
+    final JobData data = new JobData();
+    data.setup(this);
+    for (int i=0; i<queuedJobs; i++) queue.addBundle(data.newClientBundle());
+  }
+
+  /**
+   * Shutdown the driver.
+   */
+  @TearDown
+  public void tearDown() {
+    driver.shutdown();
+  }
+
+  /**
+   * Add a job to the queue then remove all its tasks.
+   * @param data the serialized job data of the calling thread.
+   * @return the number of dispatches created for the job.
+   */
+  @Benchmark
+  @Threads(4)
+  public int addAndDrain(final JobData data) {
+    return submitAndDispatch(data);
+  }
+
+  /**
+   * Add a job to the queue then remove all its tasks, while another thread reads the jobs in priority order.
+   * @param data the serialized job data of the calling thread.
+   * @return the number of dispatches created for the job.
+   */
+  @Benchmark
+  @Group("scheduling")
+  @GroupThreads(3)
+  public int schedulingAddAndDrain(final JobData data) {
+    return submitAndDispatch(data);
+  }
+
+  /**
+   * Read the jobs in priority order, the way the job scheduler does at each scheduling pass.
+   * @return the number of jobs in the queue.
+   */
+  @Benchmark
+  @Group("scheduling")
+  @GroupThreads(1)
+  public int schedulingReadJobs() {
+    if (queue.isEmpty()) return 0;
+    return queue.getAllJobsFromPriorityMap().size();
+  }
+
+  /**
+   * Add a job to the queue then remove all its tasks.
+   * @param data the serialized job data.
+   * @return the number of dispatches created for the job.
+   */
+  private int submitAndDispatch(final JobData data) {
+    final ServerJob serverJob = queue.addBundle(data.newClientBundle());
+    int count = 0;
+    while (serverJob.getTaskCount() > 0) {
+      queue.nextBundle(serverJob, bundleSize, null);
+      count++;
+    }
+    queue.removeBundle(serverJob);
+    return count;
+  }
+
+  /**
+   * The serialized data of a job, created once for each benchmark thread.
+   */
+  @State(Scope.Thread)
+  public static class JobData {
+    /**
+     * The serialized data provider.
+     */
+    private DataLocation dataProvider;
+    /**
+     * The serialized tasks.
+     */
+    private final List<DataLocation> tasks = new ArrayList<>();
+    /**
+     * The positions of the tasks in the job.
+     */
+    private int[] positions;
+    /**
+     * The number of tasks in each job.
+     */
+    private int nbTasks;
+
+    /**
+     * Create the serialized job data.
+     * @param benchmark the benchmark state, which provides the number of tasks.
+     */
+    @Setup
+    public void setup(final JobQueueBenchmark benchmark) {
+      nbTasks = benchmark.nbTasks;
+      dataProvider = new MultipleBuffersLocation(new byte[16]);
+      positions = new int[nbTasks];
+      for (int i=0; i<nbTasks; i++) {
+        tasks.add(new MultipleBuffersLocation(new byte[128]));
+        positions[i] = i;
+      }
+    }
+
+    /**
+     * Create a new client bundle for a job with a new uuid.
+     * @return a {@link ServerTaskBundleClient} instance.
+     */
+    ServerTaskBundleClient newClientBundle() {
+      final TaskBundle header = new JPPFTaskBundle();
+      final String uuid = JPPFUuid.normalUUID();
+      header.setUuid(uuid);
+      header.setName(uuid);
+      header.setSLA(new JobSLA());
+      header.setMetadata(new JPPFJobMetadata());
+      header.setParameter(BundleParameter.CLIENT_BUNDLE_ID, 1L);
+      header.setParameter(BundleParameter.TASK_POSITIONS, positions);
+      header.setTaskCount(nbTasks);
+      header.setInitialTaskCount(nbTasks);
+      return new ServerTaskBundleClient(header, dataProvider, tasks, false);
+    }
+  }
+}
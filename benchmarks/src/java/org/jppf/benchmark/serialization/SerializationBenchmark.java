@@ -0,0 +1,212 @@
+/*
+ * JPPF.
+ * Copyright (C) 2005-2019 JPPF Team.
+ * http://www.jppf.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jppf.benchmark.serialization;
+
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+import org.jppf.serialization.*;
+import org.jppf.utils.JPPFConfiguration;
+import org.jppf.utils.configuration.JPPFProperties;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Measures the serialization and deserialization throughput of the JPPF serialization schemes, as well as the
+ * LZ4 and ZLIB composite serializations, on object graphs shaped like typical job tasks.
+ * @author Laurent Cohen
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+public class SerializationBenchmark {
+  /**
+   * The serialization scheme, expressed as the value of the {@code jppf.object.serialization.class} property.
+   */
+  @Param({
+    "org.jppf.serialization.DefaultJPPFSerialization",
+    "org.jppf.serialization.SchemaCachedSerialization",
+    "org.jppf.serialization.DefaultJavaSerialization",
+    "LZ4 org.jppf.serialization.DefaultJPPFSerialization",
+    "ZLIB org.jppf.serialization.DefaultJPPFSerialization"
+  })
+  public String scheme;
+  /**
+   * The number of tasks in the serialized graph.
+   */
+  @Param({ "1", "100" })
+  public int nbTasks;
+  /**
+   * The serialization to benchmark.
+   */
+  private JPPFSerialization serialization;
+  /**
+   * The graph to serialize.
+   */
+  private List<BenchmarkTask> graph;
+  /**
+   * The serialized graph.
+   */
+  private byte[] bytes;
+  /**
+   * Reusable serialization output.
+   */
+  private final ByteArrayOutputStream baos = new ByteArrayOutputStream(64 * 1024);
+
+  /**
+   * Create the serialization and the object graph.
+   * @throws Exception if any error occurs.
+   */
+  @Setup
+  public void setup() throws Exception {
+    // composite serializations can only be built by the factory, from the configuration
+    JPPFConfiguration.set(JPPFProperties.OBJECT_SERIALIZATION_CLASS, scheme);
+    JPPFSerialization.Factory.reset();
+    serialization = JPPFSerialization.Factory.getSerialization();
+    final Map<String, Object> sharedParams = new TreeMap<>();
+    sharedParams.put("threshold", 0.75d);
+    sharedParams.put("mode", "fast");
+    graph = new ArrayList<>(nbTasks);
+    for (int i=0; i<nbTasks; i++) graph.add(new BenchmarkTask(i, sharedParams));
+    serialization.serialize(graph, baos);
+    bytes = baos.toByteArray();
+    // make sure the scheme produces a faithful copy, so we don't measure a broken round trip
+    final List<?> copy = (List<?>) serialization.deserialize(new ByteArrayInputStream(bytes));
+    if (copy.size() != nbTasks) throw new IllegalStateException(String.format("expected %d tasks but got %d", nbTasks, copy.size()));
+    for (int i=0; i<nbTasks; i++) {
+      if (((BenchmarkTask) copy.get(i)).id != i) throw new IllegalStateException("bad copy for task " + i);
+    }
+  }
+
+  /**
+   * Restore the default serialization.
+   */
+  @TearDown
+  public void tearDown() {
+    JPPFConfiguration.remove(JPPFProperties.OBJECT_SERIALIZATION_CLASS);
+    JPPFSerialization.Factory.reset();
+  }
+
+  /**
+   * Serialize the object graph.
+   * @return the serialized size, so it is not optimized away.
+   * @throws Exception if any error occurs.
+   */
+  @Benchmark
+  public int serialize() throws Exception {
+    baos.reset();
+    serialization.serialize(graph, baos);
+    return baos.size();
+  }
+
+  /**
+   * Deserialize the object graph.
+   * @return the deserialized graph.
+   * @throws Exception if any error occurs.
+   */
+  @Benchmark
+  public Object deserialize() throws Exception {
+    return serialization.deserialize(new ByteArrayInputStream(bytes));
+  }
+
+  /**
+   * An object shaped like a typical task, with primitive fields, strings, arrays, a list of nested objects,
+   * a reference shared with the other tasks and a back reference which makes the graph cyclic.
+   */
+  public static class BenchmarkTask implements Serializable {
+    /**
+     * Explicit serialVersionUID.
+     */
+    private static final long serialVersionUID = 1L;
+    /**
+     * Identifier of this task.
+     */
+    private final int id;
+    /**
+     * A primitive field.
+     */
+    private final long timestamp = System.currentTimeMillis();
+    /**
+     * A primitive field.
+     */
+    private final double weight;
+    /**
+     * A string field.
+     */
+    private final String name;
+    /**
+     * An array field.
+     */
+    private final double[] values = new double[32];
+    /**
+     * A list of nested objects.
+     */
+    private final List<Item> items = new ArrayList<>();
+    /**
+     * Parameters shared by all the tasks.
+     */
+    private final Map<String, Object> params;
+
+    /**
+     * @param id the identifier of this task.
+     * @param params parameters shared by all the tasks.
+     */
+    public BenchmarkTask(final int id, final Map<String, Object> params) {
+      this.id = id;
+      this.weight = id / 3d;
+      this.name = "task-" + id;
+      this.params = params;
+      for (int i=0; i<values.length; i++) values[i] = id + i / 7d;
+      for (int i=0; i<10; i++) items.add(new Item(this, "item-" + i, i));
+    }
+  }
+
+  /**
+   * A nested object which refers back to its task.
+   */
+  public static class Item implements Serializable {
+    /**
+     * Explicit serialVersionUID.
+     */
+    private static final long serialVersionUID = 1L;
+    /**
+     * The task which owns this item.
+     */
+    private final BenchmarkTask owner;
+    /**
+     * The key of this item.
+     */
+    private final String key;
+    /**
+     * The value of this item.
+     */
+    private final int value;
+
+    /**
+     * @param owner the task which owns this item.
+     * @param key the key of this item.
+     * @param value the value of this item.
+     */
+    public Item(final BenchmarkTask owner, final String key, final int value) {
+      this.owner = owner;
+      this.key = key;
+      this.value = value;
+    }
+  }
+}
@@ -26,6 +26,7 @@ import javax.sql.DataSource;
 import org.jppf.client.balancer.*;
 import org.jppf.client.balancer.queue.JPPFPriorityQueue;
 import org.jppf.client.event.*;
+import org.jppf.client.nio.ClientJobNioServer;
 import org.jppf.discovery.*;
 import org.jppf.load.balancer.persistence.*;
 import org.jppf.load.balancer.spi.JPPFBundlerFactory;
@@ -64,6 +65,18 @@ public abstract class AbstractGenericClient extends AbstractJPPFClient implement
    * The pool of threads used for submitting execution requests.
    */
   private ThreadPoolExecutor executor;
+  /**
+   * The pool of threads which serialize the tasks sent to the servers, or {@code null} if they are serialized by the sending threads.
+   */
+  private ThreadPoolExecutor serializationExecutor;
+  /**
+   * The NIO server which handles the non-blocking connections to the drivers, created on first use.
+   */
+  private ClientJobNioServer jobNioServer;
+  /**
+   * Used to synchronize the creation and shutdown of the {@link #jobNioServer}.
+   */
+  private final Object jobNioServerLock = new Object();
   /**
    * Performs server discovery.
    */
@@ -154,6 +167,11 @@ public abstract class AbstractGenericClient extends AbstractJPPFClient implement
     final BlockingQueue<Runnable> queue = new SynchronousQueue<>();
     executor = new ThreadPoolExecutor(coreThreads, Integer.MAX_VALUE, 60L, TimeUnit.SECONDS, queue, new JPPFThreadFactory("JPPF Client"));
     executor.allowCoreThreadTimeOut(true);
+    final int serializationThreads = config.get(JPPFProperties.CLIENT_SERIALIZATION_THREADS);
+    if (serializationThreads > 1) {
+      serializationExecutor = new ThreadPoolExecutor(serializationThreads, serializationThreads, 60L, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), new JPPFThreadFactory("JPPF Client Serializer"));
+      serializationExecutor.allowCoreThreadTimeOut(true);
+    }
     if (jobManager == null) jobManager = createJobManager();
     defaultPolicy.set(retrieveDefaultPolicy(JPPFProperties.JOB_SLA_DEFAULT_POLICY));
     defaultClientPolicy.set(retrieveDefaultPolicy(JPPFProperties.JOB_CLIENT_SLA_DEFAULT_POLICY));
@@ -315,9 +333,20 @@ public abstract class AbstractGenericClient extends AbstractJPPFClient implement
         executor.shutdownNow();
         executor = null;
       }
+      if (serializationExecutor != null) {
+        serializationExecutor.shutdownNow();
+        serializationExecutor = null;
+      }
       if (debugEnabled) log.debug("clearing registered class loaders");
       classLoaderRegistrationHandler.close();
       super.close();
+      synchronized(jobNioServerLock) {
+        if (jobNioServer != null) {
+          if (debugEnabled) log.debug("shutting down the NIO server");
+          jobNioServer.shutdown();
+          jobNioServer = null;
+        }
+      }
     } catch(final Throwable t) {
       log.error(t.getMessage(), t);
     }
@@ -372,6 +401,32 @@ public abstract class AbstractGenericClient extends AbstractJPPFClient implement
     return executor;
   }
 
+  /**
+   * Get the pool of threads which serialize the tasks sent to the servers.
+   * @return a {@link ThreadPoolExecutor} instance, or {@code null} if the tasks are serialized by the sending threads.
+   * @exclude
+   */
+  public ThreadPoolExecutor getSerializationExecutor() {
+    return serializationExecutor;
+  }
+
+  /**
+   * Get the NIO server which handles the non-blocking connections to the drivers, creating and starting it if needed.
+   * It is shared by all the connection pools of this client.
+   * @return a {@link ClientJobNioServer} instance.
+   * @throws Exception if the server could not be created.
+   * @exclude
+   */
+  public ClientJobNioServer getJobNioServer() throws Exception {
+    synchronized(jobNioServerLock) {
+      if (jobNioServer == null) {
+        jobNioServer = new ClientJobNioServer(config);
+        jobNioServer.start();
+      }
+      return jobNioServer;
+    }
+  }
+
   /**
    * Get the job manager for this JPPF client.
    * @return a <code>JobManager</code> instance.
@@ -91,6 +91,10 @@ public abstract class AbstractJPPFJob<J extends AbstractJPPFJob<J>> implements S
    * The list of listeners registered with this job.
    */
   transient List<JobListener> listeners = new CopyOnWriteArrayList<>();
+  /**
+   * The list of listeners notified of each task result received by this job.
+   */
+  transient List<TaskResultListener> taskResultListeners = new CopyOnWriteArrayList<>();
   /**
    * The persistence manager that enables saving and restoring the state of this job.
    */
@@ -428,6 +432,7 @@ public abstract class AbstractJPPFJob<J extends AbstractJPPFJob<J>> implements S
     in.defaultReadObject();
     statusListeners = new ArrayList<>();
     listeners = new CopyOnWriteArrayList<>();
+    taskResultListeners = new CopyOnWriteArrayList<>();
     cancelled = new AtomicBoolean(false);
     cancelling = new AtomicBoolean(false);
   }
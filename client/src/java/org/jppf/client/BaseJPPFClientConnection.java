@@ -22,17 +22,20 @@ import static org.jppf.client.JPPFClientConnectionStatus.NEW;
 
 import java.io.NotSerializableException;
 import java.util.*;
+import java.util.concurrent.*;
 import java.util.concurrent.atomic.*;
 import java.util.concurrent.locks.*;
 
 import org.jppf.JPPFException;
 import org.jppf.client.balancer.ClientTaskBundle;
+import org.jppf.client.nio.*;
 import org.jppf.comm.socket.*;
-import org.jppf.io.IOHelper;
+import org.jppf.io.*;
 import org.jppf.node.protocol.*;
 import org.jppf.node.protocol.graph.TaskGraphInfo;
 import org.jppf.serialization.*;
 import org.jppf.utils.*;
+import org.jppf.utils.configuration.JPPFProperties;
 import org.slf4j.*;
 
 /**
@@ -142,41 +145,142 @@ abstract class BaseJPPFClientConnection implements JPPFClientConnection {
     }
     if (debugEnabled) log.debug("found {} dependencies for bundle {}", (deps == null ? 0 : deps.size()), clientBundle);
     final List<Task<?>> tasks = prepareTasksToSend(header, clientBundle);
-
+    final ClientJobContext context = taskServerConnection.getJobContext();
+    if (context != null) {
+      // the job is queued as a whole, then written by a selector thread
+      final ClientJobMessage message = context.newMessage(header);
+      final List<Task<?>> notSerializableTasks = writeJob(job, ser, header, tasks, deps, message::addLocation);
+      context.offerMessageToSend(message);
+      return notSerializableTasks;
+    }
     final SocketWrapper socketClient = taskServerConnection.getSocketClient();
-    IOHelper.sendData(socketClient, header, ser);
+    final OutputDestination destination = new SocketWrapperOutputDestination(socketClient);
+    final List<Task<?>> notSerializableTasks = writeJob(job, ser, header, tasks, deps, data -> {
+      if (data == null) IOHelper.sendNullData(socketClient);
+      else IOHelper.writeData(data, destination);
+    });
+    socketClient.flush();
+    return notSerializableTasks;
+  }
+
+  /**
+   * Serialize a job and write it with the specified writer.
+   * @param job the job to write.
+   * @param ser the serializer to use.
+   * @param header the job header.
+   * @param tasks the tasks to send.
+   * @param deps the dependencies of the tasks, may be {@code null}.
+   * @param writer writes the serialized objects to the driver connection.
+   * @return a list of tasks that couldn't be serialized, possibly empty.
+   * @throws Exception if an error occurs while sending the request.
+   */
+  private List<Task<?>> writeJob(final JPPFJob job, final ObjectSerializer ser, final TaskBundle header, final List<Task<?>> tasks, final List<? extends PositionalElement<?>> deps,
+    final DataWriter writer) throws Exception {
+    writer.write(IOHelper.serializeData(header, ser));
+    DataLocation dataProvider = null;
     try {
-      IOHelper.sendData(socketClient, job.getDataProvider(), ser);
+      dataProvider = IOHelper.serializeData(job.getDataProvider(), ser);
     } catch(final NotSerializableException e) {
       log.error("error serializing data provider for {} : {}\nthe job will be cancelled", job, ExceptionUtils.getStackTrace(e));
-      IOHelper.sendData(socketClient, null, ser);
+      dataProvider = IOHelper.serializeData(null, ser);
     }
-    final List<Task<?>> notSerializableTasks = sendTasks(job, ser, socketClient, tasks);
-    if (deps != null) sendTasks(job, ser, socketClient, deps);
-    socketClient.flush();
+    writer.write(dataProvider);
+    final List<Task<?>> notSerializableTasks = writeTasks(job, ser, tasks, writer);
+    if (deps != null) writeTasks(job, ser, deps, writer);
     return notSerializableTasks;
   }
 
   /**
-   * Send a set of tasks to a driver.
+   * Serialize a set of tasks and write them with the specified writer. The tasks are serialized in parallel if the client has a pool of serialization threads.
+   * <p>{@code ChannelWrapperRemoteAsync} sends all the remote jobs through {@link #sendTasks(ObjectSerializer, ClassLoader, TaskBundle, ClientTaskBundle) sendTasks()},
+   * from its {@code RemoteSender} thread for blocking connections and from the client executor for non-blocking ones. Serializing the tasks here
+   * thus applies to both transports, and the channel wrapper remains unaware of how the tasks are serialized.
+   * @param job the job towhich the tasks belong.
+   * @param ser the serializer to use.
+   * @param tasks the tasks to send.
+   * @param writer writes the serialized tasks to the driver connection.
+   * @return a list of tasks that couldn't be serialized, possibly empty.
+   * @throws Exception if an error occurs while sending the request.
+   */
+  private List<Task<?>> writeTasks(final JPPFJob job, final ObjectSerializer ser, final List<? extends PositionalElement<?>> tasks, final DataWriter writer) throws Exception {
+    final JPPFClient client = pool.getClient();
+    final ExecutorService executor = client.getSerializationExecutor();
+    if ((executor == null) || (tasks.size() <= 1)) return writeTasksSequentially(job, ser, tasks, writer);
+    return writeTasksInParallel(job, ser, tasks, writer, executor, client.getConfig().get(JPPFProperties.CLIENT_SERIALIZATION_WINDOW));
+  }
+
+  /**
+   * Serialize a set of tasks in parallel and write them in their original order.
+   * <p>At most {@code window} tasks are serialized ahead of the task being written. Since writing to a blocking connection blocks while the driver
+   * does not read from it, this ties the serialization rate, and the memory it uses, to what the driver consumes.
    * @param job the job towhich the tasks belong.
    * @param ser the serializer to use.
-   * @param socketClient an abstraction of the socket connection to send the tasks through.
    * @param tasks the tasks to send.
+   * @param writer writes the serialized tasks to the driver connection.
+   * @param executor the pool of threads which serialize the tasks.
+   * @param window the maximum number of tasks serialized ahead of the task being written.
    * @return a list of tasks that couldn't be serialized, possibly empty.
    * @throws Exception if an error occurs while sending the request.
    */
-  private static List<Task<?>> sendTasks(final JPPFJob job, final ObjectSerializer ser, final SocketWrapper socketClient, final List<? extends PositionalElement<?>> tasks) throws Exception {
+  private static List<Task<?>> writeTasksInParallel(final JPPFJob job, final ObjectSerializer ser, final List<? extends PositionalElement<?>> tasks, final DataWriter writer,
+    final ExecutorService executor, final int window) throws Exception {
+    final int size = tasks.size();
+    final List<Task<?>> notSerializableTasks =  new ArrayList<>();
+    final Deque<Future<DataLocation>> futures = new ArrayDeque<>(Math.min(size, window));
+    int submitted = 0;
+    try {
+      for (int i=0; i<size; i++) {
+        while ((submitted < size) && (submitted - i < window)) {
+          final PositionalElement<?> task = tasks.get(submitted++);
+          futures.offer(executor.submit(() -> IOHelper.serializeData(task, ser)));
+        }
+        final PositionalElement<?> task = tasks.get(i);
+        final DataLocation data;
+        try {
+          data = futures.poll().get();
+        } catch (final ExecutionException e) {
+          final Throwable cause = e.getCause();
+          if (!(cause instanceof NotSerializableException)) {
+            if (cause instanceof Error) throw (Error) cause;
+            throw (cause instanceof Exception) ? (Exception) cause : e;
+          }
+          log.error("error serializing task {} for {} : {}", task, job, ExceptionUtils.getStackTrace(cause));
+          ((Task<?>) task).setThrowable(cause);
+          writer.write(null);
+          notSerializableTasks.add((Task<?>) task);
+          continue;
+        }
+        writer.write(data);
+      }
+    } finally {
+      // only happens if an exception was raised
+      for (final Future<DataLocation> future: futures) future.cancel(false);
+    }
+    return notSerializableTasks;
+  }
+
+  /**
+   * Serialize a set of tasks in the current thread and write them.
+   * @param job the job towhich the tasks belong.
+   * @param ser the serializer to use.
+   * @param tasks the tasks to send.
+   * @param writer writes the serialized tasks to the driver connection.
+   * @return a list of tasks that couldn't be serialized, possibly empty.
+   * @throws Exception if an error occurs while sending the request.
+   */
+  private static List<Task<?>> writeTasksSequentially(final JPPFJob job, final ObjectSerializer ser, final List<? extends PositionalElement<?>> tasks, final DataWriter writer)
+    throws Exception {
     final List<Task<?>> notSerializableTasks =  new ArrayList<>(tasks.size());
     for (final PositionalElement<?> task : tasks) {
+      DataLocation data = null;
       try {
-        IOHelper.sendData(socketClient, task, ser);
+        data = IOHelper.serializeData(task, ser);
       } catch(final NotSerializableException e) {
         log.error("error serializing task {} for {} : {}", task, job, ExceptionUtils.getStackTrace(e));
         ((Task<?>) task).setThrowable(e);
-        IOHelper.sendNullData(socketClient);
         notSerializableTasks.add((Task<?>) task);
       }
+      writer.write(data);
     }
     return notSerializableTasks;
   }
@@ -229,6 +333,15 @@ abstract class BaseJPPFClientConnection implements JPPFClientConnection {
     header.setParameter(BundleParameter.CONNECTION_UUID, connectionUuid);
     header.setSLA(null);
     header.setMetadata(null);
+    final ClientJobContext context = taskServerConnection.getJobContext();
+    if (context != null) {
+      final ClientJobMessage message = context.newMessage(header);
+      message.addLocation(IOHelper.serializeData(header, ser));
+      message.addLocation(IOHelper.serializeData(null, ser)); // null data provider
+      context.offerMessageToSend(message);
+      if (debugEnabled) log.debug("{} sent handshake job, receiving handshake results", toDebugString());
+      return context.awaitHandshakeResponse();
+    }
     final SocketWrapper socketClient = taskServerConnection.getSocketClient();
     IOHelper.sendData(socketClient, header, ser);
     IOHelper.sendData(socketClient, null, ser); // null data provider
@@ -242,7 +355,8 @@ abstract class BaseJPPFClientConnection implements JPPFClientConnection {
    * @throws Exception if an error occurs while sending the request.
    */
   void sendCloseConnectionCommand() throws Exception {
-    if (taskServerConnection == null) return;
+    // a non-blocking connection is closed right away, which has the same effect on the driver
+    if ((taskServerConnection == null) || (taskServerConnection.getJobContext() != null)) return;
     final TaskBundle header = new JPPFTaskBundle();
     final ObjectSerializer ser = new ObjectSerializerImpl();
     final TraversalList<String> uuidPath = new TraversalList<>();
@@ -308,11 +422,37 @@ abstract class BaseJPPFClientConnection implements JPPFClientConnection {
    * @throws Exception if an error is raised while reading the results from the server.
    */
   public List<Task<?>> receiveTasks(final TaskBundle bundle, final ObjectSerializer ser, final ClassLoader cl) throws Exception {
+    final InputSource source = new SocketWrapperInputSource(taskServerConnection.getSocketClient());
+    return receiveTasks(bundle, ser, cl, () -> IOHelper.readData(source));
+  }
+
+  /**
+   * Deserialize the results of tasks execution read by a non-blocking connection.
+   * @param message the message read from the driver.
+   * @param ser the serializer to use.
+   * @param cl the class loader to use for deserializing the tasks.
+   * @return the list of deserialized tasks.
+   * @throws Exception if an error is raised while deserializing the results.
+   */
+  public List<Task<?>> receiveTasks(final ClientJobMessage message, final ObjectSerializer ser, final ClassLoader cl) throws Exception {
+    final Iterator<DataLocation> locations = message.getResultLocations().iterator();
+    return receiveTasks(message.getBundle(), ser, cl, locations::next);
+  }
+
+  /**
+   * Deserialize the results of tasks execution.
+   * @param bundle the job header.
+   * @param ser the serializer to use.
+   * @param cl the class loader to use for deserializing the tasks.
+   * @param reader provides the serialized results.
+   * @return the list of deserialized tasks.
+   * @throws Exception if an error is raised while reading the results.
+   */
+  private List<Task<?>> receiveTasks(final TaskBundle bundle, final ObjectSerializer ser, final ClassLoader cl, final DataReader reader) throws Exception {
     final ClassLoader ctxCl = Thread.currentThread().getContextClassLoader();
     try {
       final ClassLoader loader = (cl == null) ? getClass().getClassLoader() : cl;
       Thread.currentThread().setContextClassLoader(loader);
-      final SocketWrapper socketClient = taskServerConnection.getSocketClient();
       final int count = bundle.getTaskCount();
       final int[] positions = bundle.getParameter(BundleParameter.TASK_POSITIONS);
       final List<Task<?>> taskList = new ArrayList<>(count);
@@ -320,7 +460,8 @@ abstract class BaseJPPFClientConnection implements JPPFClientConnection {
       if (SEQUENTIAL_DESERIALIZATION) lock.lock();
       try {
         for (int i = 0; i < count; i++) {
-          final Task<?> task = (Task<?>) IOHelper.unwrappedData(socketClient, ser);
+          final DataLocation data = reader.read();
+          final Task<?> task = (data == null) ? null : (Task<?>) IOHelper.unwrappedData(data, ser);
           if (task != null) {
             if ((positions != null) && (i < positions.length)) task.setPosition(positions[i]);
             taskList.add(task);
@@ -435,4 +576,30 @@ abstract class BaseJPPFClientConnection implements JPPFClientConnection {
     sb.append(']');
     return sb.toString();
   }
+
+  /**
+   * Writes the serialized objects of a job to a driver connection.
+   */
+  @FunctionalInterface
+  private interface DataWriter {
+    /**
+     * Write the specified serialized object.
+     * @param data the serialized object, or {@code null} to write a {@code null} object.
+     * @throws Exception if any error occurs.
+     */
+    void write(DataLocation data) throws Exception;
+  }
+
+  /**
+   * Reads the serialized results of a job from a driver connection.
+   */
+  @FunctionalInterface
+  private interface DataReader {
+    /**
+     * Read the next serialized object.
+     * @return the serialized object, or {@code null} for a {@code null} object.
+     * @throws Exception if any error occurs.
+     */
+    DataLocation read() throws Exception;
+  }
 }
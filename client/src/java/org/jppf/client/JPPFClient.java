@@ -157,6 +157,7 @@ public class JPPFClient extends AbstractGenericClient {
       if (!job.isDone()) throw new IllegalStateException("this job is already submitted");
       job.cancelled.set(false);
       job.getResults().clear();
+      job.resetResultsFuture();
     }
     job.client = this;
     if (debugEnabled) log.debug("submitting job {}", job);
@@ -26,10 +26,12 @@ import java.util.concurrent.atomic.*;
 
 import org.jppf.JPPFError;
 import org.jppf.client.event.*;
+import org.jppf.client.nio.*;
 import org.jppf.comm.socket.*;
 import org.jppf.management.JPPFSystemInformation;
 import org.jppf.node.protocol.*;
 import org.jppf.utils.*;
+import org.jppf.utils.configuration.JPPFProperties;
 import org.jppf.utils.concurrent.ThreadUtils;
 import org.slf4j.*;
 
@@ -71,6 +73,10 @@ public class JPPFClientConnectionImpl extends BaseJPPFClientConnection {
    * Instance number for this instance.
    */
   final long instanceNumber = instanceCount.incrementAndGet();
+  /**
+   * Receives the job results and connection failures when this connection is non-blocking.
+   */
+  private volatile ClientJobResultsHandler resultsHandler;
 
   /**
    * Initialize this client with a specified application UUID.
@@ -249,6 +255,35 @@ public class JPPFClientConnectionImpl extends BaseJPPFClientConnection {
     return pool;
   }
 
+  /**
+   * Determine whether this connection uses the non-blocking transport shared by all the connections of the client.
+   * @return {@code true} if this connection is non-blocking, {@code false} otherwise.
+   * @exclude
+   */
+  public boolean isNio() {
+    return pool.getClient().getConfig().get(JPPFProperties.CLIENT_NIO_ENABLED);
+  }
+
+  /**
+   * Get the object which receives the job results and connection failures when this connection is non-blocking.
+   * @return a {@link ClientJobResultsHandler} instance, or {@code null} if none was set.
+   */
+  ClientJobResultsHandler getResultsHandler() {
+    return resultsHandler;
+  }
+
+  /**
+   * Set the object which receives the job results and connection failures when this connection is non-blocking.
+   * @param resultsHandler a {@link ClientJobResultsHandler} instance.
+   * @exclude
+   */
+  public void setResultsHandler(final ClientJobResultsHandler resultsHandler) {
+    this.resultsHandler = resultsHandler;
+    final TaskServerConnectionHandler handler = taskServerConnection;
+    final ClientJobContext context = (handler == null) ? null : handler.getJobContext();
+    if (context != null) context.setResultsHandler(resultsHandler);
+  }
+
   /**
    * Submit the initialization of this connetion, some time in the future.
    * @exclude
@@ -55,6 +55,10 @@ public class JPPFJob extends AbstractJPPFJob<JPPFJob> implements Iterable<Task<?
    * Explicit serialVersionUID.
    */
   private static final long serialVersionUID = 1L;
+  /**
+   * Completed with the results of this job when it is done, lazily created by {@link #toCompletableFuture()}.
+   */
+  private transient volatile CompletableFuture<List<Task<?>>> resultsFuture;
 
   /**
    * Default constructor, creates a blocking job with no data provider, default SLA values and a priority of 0.
@@ -224,6 +228,28 @@ public class JPPFJob extends AbstractJPPFJob<JPPFJob> implements Iterable<Task<?
     listeners.remove(listener);
   }
 
+  /**
+   * Add a listener notified of each task result, as soon as it is received.
+   * @param listener a {@link TaskResultListener} instance.
+   * @return this job, for method call chaining.
+   * @since 6.3
+   */
+  public JPPFJob addTaskResultListener(final TaskResultListener listener) {
+    if (listener != null) taskResultListeners.add(listener);
+    return this;
+  }
+
+  /**
+   * Remove a listener from the list of task result listeners.
+   * @param listener a {@link TaskResultListener} instance.
+   * @return this job, for method call chaining.
+   * @since 6.3
+   */
+  public JPPFJob removeTaskResultListener(final TaskResultListener listener) {
+    if (listener != null) taskResultListeners.remove(listener);
+    return this;
+  }
+
   /**
    * Notify all listeners of the specified event type.
    * @param type the type of the event.
@@ -381,6 +407,54 @@ public class JPPFJob extends AbstractJPPFJob<JPPFJob> implements Iterable<Task<?
     return results.getResultsList();
   }
 
+  /**
+   * Get a {@link CompletableFuture} which is completed with the list of resulting tasks when this job is done.
+   * Unlike {@link #get()} and {@link #awaitResults()}, this allows chaining dependent actions without blocking a thread on the job.
+   * Cancelling the returned future cancels the job. Dependent actions registered with the non-async methods of the future
+   * are executed by the thread which completes the job, hence long-running actions should use the {@code *Async} variants.
+   * <p>If the job is submitted again after it has completed, this method returns a new future.
+   * @return a {@link CompletableFuture} whose value is the list of resulting tasks.
+   * @since 6.3
+   */
+  public CompletableFuture<List<Task<?>>> toCompletableFuture() {
+    CompletableFuture<List<Task<?>>> future;
+    synchronized(results) {
+      if ((future = resultsFuture) == null) {
+        resultsFuture = future = new CompletableFuture<>();
+        future.whenComplete((result, throwable) -> {
+          if (throwable instanceof CancellationException) cancel(true);
+        });
+      }
+    }
+    completeResultsFuture();
+    return future;
+  }
+
+  /**
+   * Complete the future returned by {@link #toCompletableFuture()}, if any, when this job is done.
+   */
+  private void completeResultsFuture() {
+    final CompletableFuture<List<Task<?>>> future = resultsFuture;
+    if ((future == null) || future.isDone() || !getStatus().isDone()) return;
+    if (cancelled.get() || (unexecutedTaskCount() <= 0)) future.complete(results.getResultsList());
+  }
+
+  /**
+   * Discard the future returned by {@link #toCompletableFuture()} if it is already completed, before this job is submitted again.
+   */
+  void resetResultsFuture() {
+    synchronized(results) {
+      final CompletableFuture<List<Task<?>>> future = resultsFuture;
+      if ((future != null) && future.isDone()) resultsFuture = null;
+    }
+  }
+
+  @Override
+  public void setStatus(final JobStatus newStatus) {
+    super.setStatus(newStatus);
+    completeResultsFuture();
+  }
+
   /**
    * Called to notify that the results of a number of tasks have been received from the server.
    * @param tasks the list of tasks whose results have been received from the server.
@@ -413,7 +487,20 @@ public class JPPFJob extends AbstractJPPFJob<JPPFJob> implements Iterable<Task<?
       }
       client.unregisterClassLoaders(uuid);
     }
+    if ((tasks != null) && !taskResultListeners.isEmpty()) {
+      for (final Task<?> task: tasks) {
+        final TaskResultEvent event = new TaskResultEvent(this, task);
+        for (final TaskResultListener listener: taskResultListeners) {
+          try {
+            listener.resultReceived(event);
+          } catch (final RuntimeException e) {
+            log.error("error notifying {} of the result of {} : {}", listener, task, ExceptionUtils.getStackTrace(e));
+          }
+        }
+      }
+    }
     results.wakeUp();
+    completeResultsFuture();
   }
 
   /**
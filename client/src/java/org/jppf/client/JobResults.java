@@ -18,7 +18,7 @@
 
 package org.jppf.client;
 
-import java.io.Serializable;
+import java.io.*;
 import java.util.*;
 
 import org.jppf.node.protocol.Task;
@@ -43,10 +43,25 @@ public class JobResults extends ThreadSynchronization implements Serializable {
    */
   private static boolean debugEnabled = log.isDebugEnabled();
   /**
-   * A map containing the tasks that have been successfully executed,
-   * ordered by ascending position in the submitted list of tasks.
+   * Initial capacity of the results array.
    */
-  private final SortedMap<Integer, Task<?>> resultMap = new TreeMap<>();
+  private static final int INITIAL_CAPACITY = 16;
+  /**
+   * The serialized fields of this class. The results are serialized as a map of positions to tasks,
+   * as in previous versions, so that job results can be exchanged with them.
+   */
+  private static final ObjectStreamField[] serialPersistentFields = {
+    new ObjectStreamField("resultMap", SortedMap.class), new ObjectStreamField("jobName", String.class)
+  };
+  /**
+   * The tasks that have been successfully executed, indexed by their position in the submitted list of tasks.
+   * Positions for which no result was received yet hold {@code null}.
+   */
+  private transient Task<?>[] results = new Task<?>[INITIAL_CAPACITY];
+  /**
+   * The number of non-null elements in the results array.
+   */
+  private transient int size;
   /**
    * The name of the job.
    */
@@ -57,7 +72,7 @@ public class JobResults extends ThreadSynchronization implements Serializable {
    * @return the number of results as an int.
    */
   public synchronized int size() {
-    return resultMap.size();
+    return size;
   }
 
   /**
@@ -66,7 +81,7 @@ public class JobResults extends ThreadSynchronization implements Serializable {
    * @return <code>true</code> if a result was received, <code>false</code> otherwise.
    */
   public synchronized boolean hasResult(final int position) {
-    return resultMap.containsKey(position);
+    return (position >= 0) && (position < results.length) && (results[position] != null);
   }
 
   /**
@@ -75,7 +90,7 @@ public class JobResults extends ThreadSynchronization implements Serializable {
    * @return a <code>Task</code> instance, or null if no result was received for a task at this position.
    */
   public synchronized Task<?> getResultTask(final int position) {
-    return resultMap.get(position);
+    return ((position >= 0) && (position < results.length)) ? results[position] : null;
   }
 
   /**
@@ -90,8 +105,9 @@ public class JobResults extends ThreadSynchronization implements Serializable {
       if (hasResult(pos)) {
         if (jobName == null) log.warn("position {} (out of {}) already has a result", pos, tasks.size());
         else log.warn("position {} (out of {}) already has a result (job '{}')", pos, tasks.size(), jobName);
-      }
-      resultMap.put(pos, task);
+      } else size++;
+      if (pos >= results.length) results = Arrays.copyOf(results, Math.max(pos + 1, 2 * results.length));
+      results[pos] = task;
     }
   }
 
@@ -100,7 +116,7 @@ public class JobResults extends ThreadSynchronization implements Serializable {
    * @return a collection of {@link Task} instances.
    */
   public synchronized Collection<Task<?>> getAllResults() {
-    return Collections.unmodifiableCollection(resultMap.values());
+    return Collections.unmodifiableCollection(getResultsList());
   }
 
   /**
@@ -108,7 +124,11 @@ public class JobResults extends ThreadSynchronization implements Serializable {
    * @return a collection of {@link Task} instances.
    */
   public synchronized List<Task<?>> getResultsList() {
-    return new ArrayList<>(resultMap.values());
+    final List<Task<?>> list = new ArrayList<>(size);
+    for (int i=0; (i<results.length) && (list.size() < size); i++) {
+      if (results[i] != null) list.add(results[i]);
+    }
+    return list;
   }
 
   @Override
@@ -117,7 +137,11 @@ public class JobResults extends ThreadSynchronization implements Serializable {
     sb.append(getClass().getSimpleName()).append('[');
     sb.append("size=").append(size());
     synchronized (this) {
-      sb.append(", positions=").append(resultMap.keySet());
+      final List<Integer> positions = new ArrayList<>(size);
+      for (int i=0; i<results.length; i++) {
+        if (results[i] != null) positions.add(i);
+      }
+      sb.append(", positions=").append(positions);
     }
     sb.append(']');
     return sb.toString();
@@ -148,7 +172,46 @@ public class JobResults extends ThreadSynchronization implements Serializable {
    * Clear all results in case the job is manually resubmitted.
    */
   public synchronized void clear() {
-    resultMap.clear();
+    results = new Task<?>[INITIAL_CAPACITY];
+    size = 0;
+  }
+
+  /**
+   * Save the state of this object to a stream.
+   * @param out the stream to write to.
+   * @throws IOException if any I/O error occurs.
+   */
+  private synchronized void writeObject(final ObjectOutputStream out) throws IOException {
+    final SortedMap<Integer, Task<?>> resultMap = new TreeMap<>();
+    for (int i=0; (i<results.length) && (resultMap.size() < size); i++) {
+      if (results[i] != null) resultMap.put(i, results[i]);
+    }
+    final ObjectOutputStream.PutField fields = out.putFields();
+    fields.put("resultMap", resultMap);
+    fields.put("jobName", jobName);
+    out.writeFields();
+  }
+
+  /**
+   * Restore the state of this object from a stream.
+   * @param in the stream to read from.
+   * @throws IOException if any I/O error occurs.
+   * @throws ClassNotFoundException if a class could not be found.
+   */
+  @SuppressWarnings("unchecked")
+  private void readObject(final ObjectInputStream in) throws IOException, ClassNotFoundException {
+    final ObjectInputStream.GetField fields = in.readFields();
+    final SortedMap<Integer, Task<?>> resultMap = (SortedMap<Integer, Task<?>>) fields.get("resultMap", null);
+    jobName = (String) fields.get("jobName", null);
+    final int capacity = ((resultMap == null) || resultMap.isEmpty()) ? 0 : resultMap.lastKey() + 1;
+    results = new Task<?>[Math.max(INITIAL_CAPACITY, capacity)];
+    size = 0;
+    if (resultMap != null) {
+      for (final Map.Entry<Integer, Task<?>> entry: resultMap.entrySet()) {
+        results[entry.getKey()] = entry.getValue();
+        size++;
+      }
+    }
   }
 
   /**
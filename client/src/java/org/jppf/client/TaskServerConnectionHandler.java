@@ -20,7 +20,8 @@ package org.jppf.client;
 
 import org.jppf.JPPFException;
 import org.jppf.comm.interceptor.InterceptorHandler;
-import org.jppf.comm.socket.SocketClient;
+import org.jppf.client.nio.ClientJobContext;
+import org.jppf.comm.socket.*;
 import org.jppf.utils.*;
 import org.slf4j.*;
 
@@ -38,6 +39,14 @@ public class TaskServerConnectionHandler extends AbstractClientConnectionHandler
    * Determines whether the debug level is enabled in the logging configuration, without the cost of a method call.
    */
   private static boolean debugEnabled = log.isDebugEnabled();
+  /**
+   * Whether the connection is non-blocking and handled by the client's NIO server.
+   */
+  private final boolean nio;
+  /**
+   * The context of the non-blocking connection, or {@code null} if the connection is blocking or not established.
+   */
+  private volatile ClientJobContext jobContext;
 
   /**
    * Initialize this connection with the specified owner.
@@ -49,6 +58,7 @@ public class TaskServerConnectionHandler extends AbstractClientConnectionHandler
     super(owner, owner.getName() + " - TasksServer");
     this.host = host;
     this.port = port;
+    this.nio = ((JPPFClientConnectionImpl) owner).isNio();
   }
 
   /**
@@ -59,6 +69,7 @@ public class TaskServerConnectionHandler extends AbstractClientConnectionHandler
   public void init() throws Exception {
     boolean done = false;
     while (!done && !isClosed()) {
+      closeJobContext();
       if (socketClient == null) initSocketClient();
       final boolean sysoutEnabled = owner.getConnectionPool().getClient().isSysoutEnabled();
       String msg = String.format("[client: %s] Attempting connection to the task server at %s:%d", name, host, port);
@@ -70,7 +81,8 @@ public class TaskServerConnectionHandler extends AbstractClientConnectionHandler
       try {
         if (debugEnabled) log.debug("sending JPPF identifier {}", JPPFIdentifiers.asString(JPPFIdentifiers.CLIENT_JOB_DATA_CHANNEL));
         socketClient.writeInt(JPPFIdentifiers.CLIENT_JOB_DATA_CHANNEL);
-        if (owner.isSSLEnabled()) createSSLConnection();
+        if (nio) initJobContext();
+        else if (owner.isSSLEnabled()) createSSLConnection();
         ((JPPFClientConnectionImpl) owner).sendHandshakeJob();
         owner.getConnectionPool().setJmxPort(owner.getConnectionPool().getDriverPort());
         msg = "[client: " + name + "] Reconnected to the JPPF task server";
@@ -89,9 +101,46 @@ public class TaskServerConnectionHandler extends AbstractClientConnectionHandler
    * Initialize the underlying socket connection of this connection handler.
    * @throws Exception if an error is raised during initialization.
    */
+  /**
+   * Register the connected channel with the client's NIO server. The SSL handshake, if any, is performed by the NIO server.
+   * @throws Exception if any error occurs.
+   */
+  private void initJobContext() throws Exception {
+    final SocketChannelClient channelClient = (SocketChannelClient) socketClient;
+    final ClientJobContext context = owner.getConnectionPool().getClient().getJobNioServer().register(channelClient.getChannel(), owner.isSSLEnabled());
+    context.setConnectionUuid(owner.getConnectionUuid());
+    context.setResultsHandler(((JPPFClientConnectionImpl) owner).getResultsHandler());
+    jobContext = context;
+  }
+
+  /**
+   * Close the context of the non-blocking connection, if any.
+   */
+  private void closeJobContext() {
+    final ClientJobContext context = jobContext;
+    if (context != null) {
+      jobContext = null;
+      context.close();
+    }
+  }
+
+  /**
+   * Get the context of the non-blocking connection.
+   * @return a {@link ClientJobContext}, or {@code null} if the connection is blocking or not established.
+   */
+  ClientJobContext getJobContext() {
+    return jobContext;
+  }
+
+  @Override
+  public void close() {
+    closeJobContext();
+    super.close();
+  }
+
   @Override
   public void initSocketClient() throws Exception {
-    socketClient = new SocketClient();
+    socketClient = nio ? new SocketChannelClient(true) : new SocketClient();
     socketClient.setHost(host);
     socketClient.setPort(port);
   }
@@ -180,6 +180,7 @@ public abstract class ChannelWrapper implements ExecutorChannel<ClientTaskBundle
   public void setSystemInformation(final JPPFSystemInformation systemInfo) {
     if (systemInfo != null) {
       systemInfo.getJppf().setBoolean("jppf.channel.local", isLocal());
+      systemInfo.incrementModificationCount();
       this.systemInfo = systemInfo;
       if (traceEnabled) log.trace("setting system info for " + this + ", jppf.channel.local=" + this.systemInfo.getJppf().getProperty("jppf.channel.local") + ", isLocal()="+isLocal());
     } else if (traceEnabled) {
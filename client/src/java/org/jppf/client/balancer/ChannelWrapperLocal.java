@@ -198,7 +198,7 @@ public class ChannelWrapperLocal extends ChannelWrapper implements JPPFClientCon
         executionManager.execute(bundle, tasks);
         bundle.resultsReceived(tasks);
         final double elapsed = System.nanoTime() - start;
-        BundlerHelper.updateBundler(bundler, tasks.size(), elapsed);
+        BundlerHelper.updateBundler(bundler, bundle.getJob(), tasks.size(), elapsed);
         getLoadBalancerPersistenceManager().storeBundler(channelID, bundler, bundlerAlgorithm);
       } catch (final Throwable t) {
         log.error(t.getMessage(), t);
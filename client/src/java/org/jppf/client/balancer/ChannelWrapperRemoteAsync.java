@@ -25,6 +25,7 @@ import java.util.concurrent.*;
 import org.jppf.JPPFException;
 import org.jppf.client.*;
 import org.jppf.client.event.ClientConnectionStatusListener;
+import org.jppf.client.nio.*;
 import org.jppf.load.balancer.BundlerHelper;
 import org.jppf.node.protocol.*;
 import org.jppf.serialization.ObjectSerializer;
@@ -77,6 +78,11 @@ public class ChannelWrapperRemoteAsync extends AbstractChannelWrapperRemote {
    * Used to synchronize on the jobs resubmission.
    */
   private final Object resubmitLock = new Object();
+  /**
+   * Whether the connection is non-blocking, in which case the jobs are sent from the client executor and the results
+   * are received from the selector threads shared by all connections, rather than from dedicated sender and receiver threads.
+   */
+  private final boolean nio;
 
   /**
    * Default initializer for remote channel wrapper.
@@ -85,12 +91,14 @@ public class ChannelWrapperRemoteAsync extends AbstractChannelWrapperRemote {
   public ChannelWrapperRemoteAsync(final JPPFClientConnection channel) {
     super(channel);
     channel.addClientConnectionStatusListener(listener);
+    nio = ((JPPFClientConnectionImpl) channel).isNio();
+    if (nio) ((JPPFClientConnectionImpl) channel).setResultsHandler(new RemoteResultsHandler());
   }
 
   @Override
   public void initChannelID() {
     super.initChannelID();
-    if (!initDone) {
+    if (!initDone && !nio) {
       initDone = true;
       final ExecutorService executor = this.channel.getConnectionPool().getClient().getExecutor();
       futures.add(executor.submit(new RemoteSender()));
@@ -105,6 +113,7 @@ public class ChannelWrapperRemoteAsync extends AbstractChannelWrapperRemote {
       jobCount.incrementAndGet();
       if (getCurrentNbJobs() >= getMaxJobs()) setStatus(JPPFClientConnectionStatus.EXECUTING);
       bundleQueue.offer(bundle);
+      if (nio) channel.getConnectionPool().getClient().getExecutor().execute(new NioSender());
       if (debugEnabled) log.debug("submitted {} to {}", bundle, this);
     } else {
       if (debugEnabled) log.debug("resubmitting {}", bundle);
@@ -123,52 +132,15 @@ public class ChannelWrapperRemoteAsync extends AbstractChannelWrapperRemote {
    * Also handles exceptions and failover and recovery scenarios when the driver connection breaks.
    */
   private class RemoteSender implements Runnable {
-    /**
-     * Logger for this class.
-     */
-    private Logger thisLog = LoggerFactory.getLogger(RemoteSender.class);
-    /**
-     * Determines whether the debug level is enabled in the log configuration, without the cost of a method call.
-     */
-    private boolean thisDebugEnabled = thisLog.isDebugEnabled();
-
     @Override
     public void run() {
       if (debugEnabled) log.debug("entering sender loop for {}", ChannelWrapperRemoteAsync.this);
-      final JPPFClientConnectionImpl connection = (JPPFClientConnectionImpl) channel;
       while (!channel.isClosed()) {
         ClientTaskBundle clientBundle = null;
         try {
           awaitStatus();
           clientBundle = bundleQueue.take();
-          final long bundleId = clientBundle.getBundleId();
-          final List<Task<?>> tasks = clientBundle.getTasksL();
-          if (thisDebugEnabled) {
-            final int size = tasks.size();
-            final int[] positions = new int[size];
-            for (int i=0; i<size; i++) positions[i] = tasks.get(i).getPosition();
-            thisLog.debug("{} executing {} tasks of job {} with bundleId = {}, positions={}", ChannelWrapperRemoteAsync.this, size, clientBundle, bundleId, Arrays.toString(positions));
-          }
-          final Collection<ClassLoader> loaders = registerClassLoaders(clientBundle.getUuid(), tasks);
-          final TaskBundle bundle = createBundle(clientBundle, bundleId);
-          bundle.setUuid(uuid);
-          bundle.setInitialTaskCount(clientBundle.getClientJob().initialTaskCount);
-          final ClassLoader cl = loaders.isEmpty() ? null : loaders.iterator().next();
-          final ObjectSerializer ser = connection.makeHelper(cl).getSerializer();
-          final long start = System.nanoTime();
-          final RemoteResponse response = new RemoteResponse(clientBundle, 0, cl, ser, start);
-          synchronized(response) {
-            if (response.currentCount < response.taskCount) responseMap.put(bundleId, response);
-            if (thisDebugEnabled) thisLog.debug("{} sending {}", ChannelWrapperRemoteAsync.this, clientBundle);
-            final List<Task<?>> notSerializableTasks = connection.sendTasks(ser, cl, bundle, clientBundle);
-            clientBundle.jobDispatched(ChannelWrapperRemoteAsync.this);
-            if (!notSerializableTasks.isEmpty()) {
-              if (thisDebugEnabled) thisLog.debug("got {} non-serializable tasks for {}", notSerializableTasks.size(), clientBundle);
-              response.currentCount = notSerializableTasks.size();
-              clientBundle.resultsReceived(notSerializableTasks);
-            }
-            if (response.currentCount >= response.taskCount) handleBundleComplete(clientBundle, null);
-          }
+          send(clientBundle);
         } catch (final Throwable t) {
           handleThrowable(clientBundle, t, true);
         }
@@ -177,6 +149,62 @@ public class ChannelWrapperRemoteAsync extends AbstractChannelWrapperRemote {
     }
   }
 
+  /**
+   * Sends one queued bundle to the driver, from the client executor. One instance is executed for each bundle submitted to a non-blocking connection.
+   * The bundle remains in the queue while waiting for the connection to be working, so that it is resubmitted if the connection fails in the meantime,
+   * in which case there is nothing left to send.
+   */
+  private class NioSender implements Runnable {
+    @Override
+    public void run() {
+      ClientTaskBundle clientBundle = null;
+      try {
+        awaitStatus();
+        clientBundle = bundleQueue.poll();
+        if (clientBundle != null) send(clientBundle);
+      } catch (final Throwable t) {
+        handleThrowable(clientBundle, t, true);
+      }
+    }
+  }
+
+  /**
+   * Send the specified bundle to the driver.
+   * @param clientBundle the bundle to send.
+   * @throws Exception if any error occurs.
+   */
+  private void send(final ClientTaskBundle clientBundle) throws Exception {
+    final JPPFClientConnectionImpl connection = (JPPFClientConnectionImpl) channel;
+    final long bundleId = clientBundle.getBundleId();
+    final List<Task<?>> tasks = clientBundle.getTasksL();
+    if (debugEnabled) {
+      final int size = tasks.size();
+      final int[] positions = new int[size];
+      for (int i=0; i<size; i++) positions[i] = tasks.get(i).getPosition();
+      log.debug("{} executing {} tasks of job {} with bundleId = {}, positions={}", this, size, clientBundle, bundleId, Arrays.toString(positions));
+    }
+    final Collection<ClassLoader> loaders = registerClassLoaders(clientBundle.getUuid(), tasks);
+    final TaskBundle bundle = createBundle(clientBundle, bundleId);
+    bundle.setUuid(uuid);
+    bundle.setInitialTaskCount(clientBundle.getClientJob().initialTaskCount);
+    final ClassLoader cl = loaders.isEmpty() ? null : loaders.iterator().next();
+    final ObjectSerializer ser = connection.makeHelper(cl).getSerializer();
+    final long start = System.nanoTime();
+    final RemoteResponse response = new RemoteResponse(clientBundle, 0, cl, ser, start);
+    synchronized(response) {
+      if (response.currentCount < response.taskCount) responseMap.put(bundleId, response);
+      if (debugEnabled) log.debug("{} sending {}", this, clientBundle);
+      final List<Task<?>> notSerializableTasks = connection.sendTasks(ser, cl, bundle, clientBundle);
+      clientBundle.jobDispatched(this);
+      if (!notSerializableTasks.isEmpty()) {
+        if (debugEnabled) log.debug("got {} non-serializable tasks for {}", notSerializableTasks.size(), clientBundle);
+        response.currentCount = notSerializableTasks.size();
+        clientBundle.resultsReceived(notSerializableTasks);
+      }
+      if (response.currentCount >= response.taskCount) handleBundleComplete(clientBundle, null);
+    }
+  }
+
   /**
    * Thread which receives the task results from the driver.
    */
@@ -217,7 +245,7 @@ public class ChannelWrapperRemoteAsync extends AbstractChannelWrapperRemote {
               responseMap.put(bundleId, response);
             } else {
               complete = true;
-              BundlerHelper.updateBundler(bundler, tasks.size(), response.elapsed);
+              BundlerHelper.updateBundler(bundler, clientBundle.getJob(), tasks.size(), response.elapsed);
               getLoadBalancerPersistenceManager().storeBundler(channelID, bundler, bundlerAlgorithm);
             }
           }
@@ -231,6 +259,52 @@ public class ChannelWrapperRemoteAsync extends AbstractChannelWrapperRemote {
     }
   }
 
+  /**
+   * Receives the task results and connection failures from the non-blocking connection.
+   * The results of distinct bundles may be processed concurrently, hence a response is only removed once it is complete.
+   */
+  private class RemoteResultsHandler implements ClientJobResultsHandler {
+    @Override
+    public void resultsReceived(final ClientJobMessage message) throws Exception {
+      final JPPFClientConnectionImpl connection = (JPPFClientConnectionImpl) channel;
+      final TaskBundle bundle = message.getBundle();
+      if (debugEnabled) log.debug("received bundle {}", bundle);
+      final long bundleId = bundle.getParameter(BundleParameter.CLIENT_BUNDLE_ID);
+      final RemoteResponse response = responseMap.get(bundleId);
+      if (response == null) {
+        log.debug("response object no longer in queue for bundleId = {}", bundleId);
+        return;
+      }
+      ClientTaskBundle clientBundle = null;
+      Exception exception = null;
+      boolean complete = false;
+      try {
+        synchronized(response) {
+          clientBundle = response.clientBundle;
+          final List<Task<?>> tasks = connection.receiveTasks(message, response.ser, response.cl);
+          if (debugEnabled) log.debug("received {} tasks for {}", tasks.size(), clientBundle);
+          response.handleResults(tasks);
+          if (response.currentCount >= response.taskCount) {
+            complete = true;
+            responseMap.remove(bundleId);
+            BundlerHelper.updateBundler(bundler, clientBundle.getJob(), tasks.size(), response.elapsed);
+            getLoadBalancerPersistenceManager().storeBundler(channelID, bundler, bundlerAlgorithm);
+          }
+        }
+      } catch (final Throwable t) {
+        if (!complete) responseMap.remove(bundleId);
+        exception = handleThrowable(clientBundle, t, false);
+      } finally {
+        if (complete) handleBundleComplete(clientBundle, exception);
+      }
+    }
+
+    @Override
+    public void connectionFailed(final Exception e) {
+      handleThrowable(null, e, false);
+    }
+  }
+
   /**
    * Sends the tasks to the driver and gets the results back.
    * Also handles exceptions and failover and recovery scenarios when the driver connection breaks.
@@ -30,6 +30,7 @@ import org.jppf.management.JPPFManagementInfo;
 import org.jppf.node.protocol.JobSLA;
 import org.jppf.queue.*;
 import org.jppf.utils.*;
+import org.jppf.utils.collections.*;
 import org.slf4j.*;
 
 /**
@@ -58,6 +59,10 @@ public class JPPFPriorityQueue extends AbstractJPPFQueue<ClientJob, ClientJob, C
    * A priority queue holding broadcast jobs that could not be sent due to no available connection.
    */
   private final ConcurrentHashMap<String, ClientJob> pendingBroadcasts = new ConcurrentHashMap<>();
+  /**
+   * A map of task bundles, ordered by descending priority.
+   */
+  private final LinkedListSortedMap<Integer, ClientJob> priorityMap = new LinkedListSortedMap<>(new DescendingIntegerComparator());
 
   /**
    * Initialize this queue.
@@ -159,6 +164,27 @@ public class JPPFPriorityQueue extends AbstractJPPFQueue<ClientJob, ClientJob, C
     }
   }
 
+  @Override
+  public Iterator<ClientJob> iterator() {
+    return priorityMap.iterator(lock);
+  }
+
+  /**
+   * Get the size of this job queue.
+   * <p>This method should be used with caution, as its cost is in O(n),
+   * with n being the number of jobs in the queue.
+   * @return the number of jobs currently in the queue.
+   * @since 4.1
+   */
+  public int getQueueSize() {
+    lock.lock();
+    try {
+      return priorityMap.size();
+    } finally {
+      lock.unlock();
+    }
+  }
+
   /**
    * Get the bundle size to use for bundle size tuning.
    * @param job the bundle to get the size from.
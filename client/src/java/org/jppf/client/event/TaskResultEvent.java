@@ -0,0 +1,68 @@
+/*
+ * JPPF.
+ * Copyright (C) 2005-2019 JPPF Team.
+ * http://www.jppf.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.jppf.client.event;
+
+import java.util.EventObject;
+
+import org.jppf.client.JPPFJob;
+import org.jppf.node.protocol.Task;
+
+/**
+ * Event emitted by a job when the result of one of its tasks is received.
+ * @author Laurent Cohen
+ * @since 6.3
+ */
+public class TaskResultEvent extends EventObject {
+  /**
+   * Explicit serialVersionUID.
+   */
+  private static final long serialVersionUID = 1L;
+  /**
+   * The task whose result was received.
+   */
+  private final Task<?> task;
+
+  /**
+   * Initialize this event with the specified job as its source.
+   * @param source the job the task belongs to.
+   * @param task the task whose result was received.
+   * @exclude
+   */
+  public TaskResultEvent(final JPPFJob source, final Task<?> task) {
+    super(source);
+    this.task = task;
+  }
+
+  /**
+   * Get the source of this event.
+   * @return the source as a {@link JPPFJob} object.
+   */
+  public JPPFJob getJob() {
+    return (JPPFJob) getSource();
+  }
+
+  /**
+   * Get the task whose result was received.
+   * @return a {@link Task} instance.
+   */
+  public Task<?> getTask() {
+    return task;
+  }
+}
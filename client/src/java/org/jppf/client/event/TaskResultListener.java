@@ -15,31 +15,22 @@
  * See the License for the specific language governing permissions and
  * limitations under the License.
  */
-package org.jppf.server.nio.classloader;
 
-/**
- * This class encapsulates the content oif a class cache entry.
- * @author Domingos Creado
- */
-class CacheClassContent {
-  /**
-   * The actual content of this element.
-   */
-  private final byte[] content;
 
-  /**
-   * Initialize this content with the specified data.
-   * @param content the data as an array of bytes.
-   */
-  public CacheClassContent(final byte[] content) {
-    this.content = content;
-  }
+package org.jppf.client.event;
+
+import java.util.EventListener;
 
+/**
+ * Listener interface for receiving the results of the tasks of a job one by one, as soon as they are received from the server.
+ * <p>Notifications are emitted from the thread which receives the results, and should return quickly.
+ * @author Laurent Cohen
+ * @since 6.3
+ */
+public interface TaskResultListener extends EventListener {
   /**
-   * Get the actual content of this element.
-   * @return the data as an array of bytes.
+   * Called when the result of a task has been received.
+   * @param event the event which encapsulates the job and the task.
    */
-  public byte[] getContent() {
-    return content;
-  }
+  void resultReceived(TaskResultEvent event);
 }
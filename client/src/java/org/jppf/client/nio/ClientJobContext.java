@@ -0,0 +1,211 @@
+/*
+ * JPPF.
+ * Copyright (C) 2005-2019 JPPF Team.
+ * http://www.jppf.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jppf.client.nio;
+
+import java.io.*;
+import java.nio.channels.*;
+import java.util.concurrent.*;
+
+import org.jppf.nio.AbstractNioContext;
+import org.jppf.node.protocol.TaskBundle;
+import org.jppf.utils.ExceptionUtils;
+import org.slf4j.*;
+
+/**
+ * Context associated with a non-blocking connection from a client to a driver.
+ * <p>Any number of threads may send jobs concurrently through the same connection: each job is queued as a complete {@link ClientJobMessage},
+ * and the messages are written one after the other by a selector thread. The results sent back by the driver are read in the same way,
+ * then handed off to the {@link ClientJobResultsHandler} of the connection.
+ * @author Laurent Cohen
+ * @exclude
+ */
+public class ClientJobContext extends AbstractNioContext {
+  /**
+   * Logger for this class.
+   */
+  private static final Logger log = LoggerFactory.getLogger(ClientJobContext.class);
+  /**
+   * Determines whether the debug level is enabled in the log configuration, without the cost of a method call.
+   */
+  private static final boolean debugEnabled = log.isDebugEnabled();
+  /**
+   * The server which handles this context.
+   */
+  private final ClientJobNioServer server;
+  /**
+   * The messages waiting to be sent.
+   */
+  private final BlockingQueue<ClientJobMessage> sendQueue = new LinkedBlockingQueue<>();
+  /**
+   * Receives the job results and the connection failure.
+   */
+  private volatile ClientJobResultsHandler resultsHandler;
+  /**
+   * Used to wait for the response to the handshake.
+   */
+  private final Object handshakeLock = new Object();
+  /**
+   * The header of the driver's response to the handshake.
+   */
+  private TaskBundle handshakeResponse;
+  /**
+   * An exception which prevented the handshake from completing.
+   */
+  private Exception handshakeException;
+
+  /**
+   * Initialize this context.
+   * @param server the server which handles this context.
+   * @param socketChannel the associated socket channel.
+   */
+  ClientJobContext(final ClientJobNioServer server, final SocketChannel socketChannel) {
+    this.server = server;
+    this.socketChannel = socketChannel;
+  }
+
+  /**
+   * Create a new message to send to the driver.
+   * @param header the header of the job to send.
+   * @return a new {@link ClientJobMessage} to which the serialized objects of the job can be added.
+   */
+  public ClientJobMessage newMessage(final TaskBundle header) {
+    return new ClientJobMessage(this, header);
+  }
+
+  /**
+   * Queue the specified message for sending to the driver.
+   * @param message the message to send.
+   * @throws Exception if this connection is closed or any other error occurs.
+   */
+  public void offerMessageToSend(final ClientJobMessage message) throws Exception {
+    sendQueue.offer(message);
+    // checked after queuing, so that a message queued concurrently with a failure is either sent or reported
+    if (isClosed()) throw new ClosedChannelException();
+    server.updateInterestOps(getSelectionKey(), SelectionKey.OP_WRITE, true);
+  }
+
+  @Override
+  protected ClientJobMessage nextMessageToSend() {
+    return sendQueue.poll();
+  }
+
+  @Override
+  public boolean readMessage() throws Exception {
+    if (readMessage == null) readMessage = new ClientJobMessage(this);
+    readByteCount = readMessage.getChannelReadCount();
+    final boolean b = readMessage.read();
+    readByteCount = readMessage.getChannelReadCount() - readByteCount;
+    return b;
+  }
+
+  @Override
+  public boolean writeMessage() throws Exception {
+    writeByteCount = writeMessage.getChannelWriteCount();
+    final boolean b = writeMessage.write();
+    writeByteCount = writeMessage.getChannelWriteCount() - writeByteCount;
+    return b;
+  }
+
+  /**
+   * Called when a message was fully read from the driver.
+   * @param message the message to handle.
+   * @throws Exception if any error occurs.
+   */
+  void messageReceived(final ClientJobMessage message) throws Exception {
+    final TaskBundle header = message.getBundle();
+    if (header.isHandshake()) {
+      synchronized(handshakeLock) {
+        handshakeResponse = header;
+        handshakeLock.notifyAll();
+      }
+    } else {
+      final ClientJobResultsHandler handler = resultsHandler;
+      if (handler != null) handler.resultsReceived(message);
+      else log.warn("no results handler to process {} from {}", header, this);
+    }
+  }
+
+  /**
+   * Wait for the driver's response to the handshake.
+   * @return the header of the response.
+   * @throws Exception if the connection failed before the response was received.
+   */
+  public TaskBundle awaitHandshakeResponse() throws Exception {
+    synchronized(handshakeLock) {
+      while ((handshakeResponse == null) && (handshakeException == null)) handshakeLock.wait();
+      if (handshakeResponse == null) throw handshakeException;
+      return handshakeResponse;
+    }
+  }
+
+  @Override
+  public void handleException(final Exception e) {
+    if (closed.compareAndSet(false, true)) {
+      if (debugEnabled) log.debug("handling exception on {}:{}", this, (e == null) ? " null" : "\n" + ExceptionUtils.getStackTrace(e));
+      server.closeConnection(this);
+      final Exception exception = (e == null) ? new EOFException("connection to the driver was closed") : e;
+      abortHandshake(exception);
+      final ClientJobResultsHandler handler = resultsHandler;
+      if (handler != null) handler.connectionFailed(exception);
+      onClose();
+    }
+  }
+
+  /**
+   * Close this connection without notifying the results handler.
+   */
+  public void close() {
+    if (closed.compareAndSet(false, true)) {
+      if (debugEnabled) log.debug("closing {}", this);
+      server.closeConnection(this);
+      abortHandshake(new ClosedChannelException());
+    }
+  }
+
+  /**
+   * Release the threads waiting for the handshake response, if any.
+   * @param e the exception to raise in the waiting threads.
+   */
+  private void abortHandshake(final Exception e) {
+    synchronized(handshakeLock) {
+      if (handshakeException == null) handshakeException = e;
+      handshakeLock.notifyAll();
+    }
+  }
+
+  /**
+   * Set the object which receives the job results and the connection failure.
+   * @param resultsHandler a {@link ClientJobResultsHandler} instance.
+   */
+  public void setResultsHandler(final ClientJobResultsHandler resultsHandler) {
+    this.resultsHandler = resultsHandler;
+  }
+
+  @Override
+  public String toString() {
+    return new StringBuilder(getClass().getSimpleName()).append('[')
+      .append("connectionUuid=").append(connectionUuid)
+      .append(", ssl=").append(ssl)
+      .append(", closed=").append(closed.get())
+      .append(", sendQueue size=").append(sendQueue.size())
+      .append(", interestOps=").append(getInterestOps())
+      .append(", socketChannel=").append(socketChannel)
+      .append(']').toString();
+  }
+}
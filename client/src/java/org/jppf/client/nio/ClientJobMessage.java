@@ -0,0 +1,105 @@
+/*
+ * JPPF.
+ * Copyright (C) 2005-2019 JPPF Team.
+ * http://www.jppf.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jppf.client.nio;
+
+import java.util.List;
+
+import org.jppf.io.*;
+import org.jppf.nio.*;
+import org.jppf.node.protocol.TaskBundle;
+
+/**
+ * A message exchanged between a client and a driver over a non-blocking connection. It holds a complete job or set of results,
+ * that is, the serialized job header followed by the serialized data provider, tasks and dependencies sent to the driver, or by the results read from the driver.
+ * Each message is written and read as a whole, which allows many jobs to share the same connection.
+ * @author Laurent Cohen
+ * @exclude
+ */
+public class ClientJobMessage extends AbstractNioMessage {
+  /**
+   * The job header.
+   */
+  private TaskBundle bundle;
+
+  /**
+   * Initialize this message for reading.
+   * @param context the context associated with the channel.
+   */
+  public ClientJobMessage(final NioContext context) {
+    this(context, null);
+  }
+
+  /**
+   * Initialize this message for writing.
+   * @param context the context associated with the channel.
+   * @param bundle the header of the job to send.
+   */
+  public ClientJobMessage(final NioContext context, final TaskBundle bundle) {
+    super(context);
+    this.bundle = bundle;
+  }
+
+  /**
+   * Add a serialized object to this message. A {@code null} location represents a {@code null} object, as in the blocking protocol.
+   * @param location the location of the serialized object, may be {@code null}.
+   */
+  @Override
+  public void addLocation(final DataLocation location) {
+    super.addLocation((location == null) ? new MultipleBuffersLocation(0) : location);
+  }
+
+  @Override
+  protected void afterFirstRead() throws Exception {
+    bundle = (TaskBundle) IOHelper.unwrappedData(locations.get(0));
+    nbObjects = bundle.getTaskCount() + 1;
+  }
+
+  @Override
+  protected void beforeFirstWrite() throws Exception {
+    nbObjects = locations.size();
+  }
+
+  /**
+   * Get the job header.
+   * @return a {@link TaskBundle} instance.
+   */
+  public TaskBundle getBundle() {
+    return bundle;
+  }
+
+  /**
+   * Get the serialized results read from the driver, that is, all the objects following the job header.
+   * A {@code null} element represents a {@code null} result.
+   * @return a list of {@link DataLocation} instances.
+   */
+  public List<DataLocation> getResultLocations() {
+    return locations.subList(1, locations.size());
+  }
+
+  @Override
+  public String toString() {
+    return new StringBuilder(getClass().getSimpleName()).append('[')
+      .append("nb locations=").append(locations.size())
+      .append(", position=").append(position)
+      .append(", nbObjects=").append(nbObjects)
+      .append(", count=").append(count)
+      .append(", bundle=").append(bundle)
+      .append(']').toString();
+  }
+}
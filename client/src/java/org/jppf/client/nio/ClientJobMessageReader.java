@@ -0,0 +1,63 @@
+/*
+ * JPPF.
+ * Copyright (C) 2005-2019 JPPF Team.
+ * http://www.jppf.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jppf.client.nio;
+
+import org.jppf.nio.*;
+import org.slf4j.*;
+
+/**
+ * Reads from the channel until no more data is available. Each fully read message is handed off
+ * to a global thread pool for processing, so the selector threads never deserialize the tasks.
+ * @author Laurent Cohen
+ * @exclude
+ */
+public class ClientJobMessageReader extends NioMessageReader<ClientJobContext> {
+  /**
+   * Logger for this class.
+   */
+  private static final Logger log = LoggerFactory.getLogger(ClientJobMessageReader.class);
+  /**
+   * Determines whether the debug level is enabled in the log configuration, without the cost of a method call.
+   */
+  private static final boolean debugEnabled = log.isDebugEnabled();
+
+  /**
+   * Initialize this message reader.
+   * @param server the nio server.
+   */
+  public ClientJobMessageReader(final ClientJobNioServer server) {
+    super(server);
+  }
+
+  @Override
+  protected MessageHandler<ClientJobContext> createMessageHandler() {
+    return ClientJobMessageReader::handleMessage;
+  }
+
+  /**
+   * Route the specified message to its context.
+   * @param context the context associated with the channel.
+   * @param message the message to handle.
+   * @throws Exception if any error occurs.
+   */
+  private static void handleMessage(final ClientJobContext context, final NioMessage message) throws Exception {
+    if (debugEnabled) log.debug("read message = {} from context = {}", message, context);
+    context.messageReceived((ClientJobMessage) message);
+  }
+}
@@ -0,0 +1,51 @@
+/*
+ * JPPF.
+ * Copyright (C) 2005-2019 JPPF Team.
+ * http://www.jppf.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jppf.client.nio;
+
+import org.jppf.nio.*;
+import org.slf4j.*;
+
+/**
+ * Writes the queued messages of a channel, one after the other, until they are all sent or no more data can be written.
+ * @author Laurent Cohen
+ * @exclude
+ */
+public class ClientJobMessageWriter extends NioMessageWriter<ClientJobContext> {
+  /**
+   * Logger for this class.
+   */
+  private static final Logger log = LoggerFactory.getLogger(ClientJobMessageWriter.class);
+  /**
+   * Determines whether the debug level is enabled in the log configuration, without the cost of a method call.
+   */
+  private static final boolean debugEnabled = log.isDebugEnabled();
+
+  /**
+   * Initialize this message writer.
+   * @param server the nio server.
+   */
+  public ClientJobMessageWriter(final ClientJobNioServer server) {
+    super(server);
+  }
+
+  @Override
+  protected void postWrite(final ClientJobContext context, final NioMessage data) throws Exception {
+    if (debugEnabled) log.debug("fully sent message {} from context {}", data, context);
+  }
+}
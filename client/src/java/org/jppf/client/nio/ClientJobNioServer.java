@@ -0,0 +1,143 @@
+/*
+ * JPPF.
+ * Copyright (C) 2005-2019 JPPF Team.
+ * http://www.jppf.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jppf.client.nio;
+
+import java.net.InetSocketAddress;
+import java.nio.channels.*;
+
+import javax.net.ssl.*;
+
+import org.jppf.nio.*;
+import org.jppf.ssl.SSLHelper;
+import org.jppf.utils.*;
+import org.jppf.utils.configuration.JPPFProperties;
+import org.slf4j.*;
+
+/**
+ * The NIO server which handles the non-blocking connections of a client to the drivers. It does not accept connections:
+ * the channels are connected by the client, then {@link #register(SocketChannel, boolean) registered} with this server.
+ * <p>A single instance is shared by all the connection pools of a client, and the number of its selector threads
+ * is given by the "jppf.client.nio.selector.threads" property.
+ * @author Laurent Cohen
+ * @exclude
+ */
+public final class ClientJobNioServer extends StatelessNioServer<ClientJobContext> {
+  /**
+   * Logger for this class.
+   */
+  private static final Logger log = LoggerFactory.getLogger(ClientJobNioServer.class);
+  /**
+   * Determines whether the debug level is enabled in the log configuration, without the cost of a method call.
+   */
+  private static final boolean debugEnabled = log.isDebugEnabled();
+
+  /**
+   * Initialize this server.
+   * @param configuration the configuration of the client.
+   * @throws Exception if any error occurs.
+   */
+  public ClientJobNioServer(final TypedProperties configuration) throws Exception {
+    super("JPPF Client NIO", JPPFIdentifiers.CLIENT_JOB_DATA_CHANNEL, false, configuration);
+    selectTimeout = 1000L;
+  }
+
+  @Override
+  protected void initReaderAndWriter() {
+    messageReader = new ClientJobMessageReader(this);
+    messageWriter = new ClientJobMessageWriter(this);
+  }
+
+  @Override
+  protected void initNioHandlers() {
+    super.initNioHandlers();
+    acceptHandler = null;
+  }
+
+  @Override
+  protected int getNbSelectorThreads() {
+    return configuration.get(JPPFProperties.CLIENT_NIO_SELECTOR_THREADS);
+  }
+
+  /**
+   * Register the specified connected channel with this server.
+   * @param channel the channel to register. It is switched to non-blocking mode if needed.
+   * @param ssl whether the connection is secure.
+   * @return the context associated with the channel.
+   * @throws Exception if any error occurs.
+   */
+  public ClientJobContext register(final SocketChannel channel, final boolean ssl) throws Exception {
+    if (channel.isBlocking()) channel.configureBlocking(false);
+    final ClientJobContext context = createNioContext(channel);
+    if (ssl) {
+      context.setSsl(true);
+      configureSSL(context);
+    }
+    registerChannel(context, channel);
+    if (debugEnabled) log.debug("registered {}", context);
+    return context;
+  }
+
+  /**
+   * Configure the client side of an SSL connection for the specified channel.
+   * @param context the channel to configure.
+   * @throws Exception if any error occurs.
+   */
+  private static void configureSSL(final ClientJobContext context) throws Exception {
+    final SocketChannel channel = context.getSocketChannel();
+    final SSLContext sslContext = SSLHelper.getSSLContext(JPPFIdentifiers.CLIENT_JOB_DATA_CHANNEL);
+    final InetSocketAddress addr = (InetSocketAddress) channel.getRemoteAddress();
+    final SSLEngine engine = sslContext.createSSLEngine(addr.getHostString(), addr.getPort());
+    engine.setUseClientMode(true);
+    engine.setSSLParameters(SSLHelper.getSSLParameters());
+    context.setSSLHandler(new SSLHandlerImpl(channel, engine));
+  }
+
+  @Override
+  protected void handleSelectionException(final SelectionKey key, final Exception e) {
+    final ClientJobContext context = (ClientJobContext) key.attachment();
+    // the failure is reported by the results handler of the context, or by the thread awaiting the handshake
+    if (debugEnabled) log.debug("error on {} :\n{}", context, ExceptionUtils.getStackTrace(e));
+    if (context != null) context.handleException(e);
+  }
+
+  @Override
+  public void accept(final ServerSocketChannel serverSocketChannel, final SocketChannel channel, final SSLHandler sslHandler, final boolean ssl, final boolean peer, final Object... params) {
+    throw new UnsupportedOperationException("the client NIO server does not accept connections");
+  }
+
+  @Override
+  public ClientJobContext createNioContext(final Object...params) {
+    return new ClientJobContext(this, (SocketChannel) params[0]);
+  }
+
+  /**
+   * Close the channel of the specified context.
+   * @param context the context to close.
+   */
+  void closeConnection(final ClientJobContext context) {
+    if (debugEnabled) log.debug("closing {}", context);
+    try {
+      final SelectionKey key = context.getSelectionKey();
+      if (key != null) key.cancel();
+      context.getSocketChannel().close();
+    } catch (final Exception e) {
+      log.error("error closing channel {}", context, e);
+    }
+  }
+}
@@ -0,0 +1,40 @@
+/*
+ * JPPF.
+ * Copyright (C) 2005-2019 JPPF Team.
+ * http://www.jppf.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jppf.client.nio;
+
+/**
+ * Receives the job results and the connection failures of a non-blocking connection to a driver.
+ * <p>The job results are handled in a thread pool, so implementations must expect concurrent invocations of {@link #resultsReceived(ClientJobMessage)}.
+ * @author Laurent Cohen
+ * @exclude
+ */
+public interface ClientJobResultsHandler {
+  /**
+   * Called when a set of results was fully read from the driver.
+   * @param message the message holding the job header and the serialized results.
+   * @throws Exception if any error occurs.
+   */
+  void resultsReceived(ClientJobMessage message) throws Exception;
+
+  /**
+   * Called when the connection to the driver fails. It is not called when the connection is closed normally.
+   * @param e the exception which caused the failure.
+   */
+  void connectionFailed(Exception e);
+}
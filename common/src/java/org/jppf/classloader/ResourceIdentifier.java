@@ -81,4 +81,12 @@ public enum ResourceIdentifier
    * Whether lookups of resource in the file system are allowed.
    */
   FILE_LOOKUP_ALLOWED,
+  /**
+   * The SHA-256 digest of a resource definition already held by the node.
+   */
+  DEFINITION_DIGEST,
+  /**
+   * Flag indicating that the resource definition matches the digest sent by the node, in which case the definition is not sent.
+   */
+  DEFINITION_UNCHANGED,
 }
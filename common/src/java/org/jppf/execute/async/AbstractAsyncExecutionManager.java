@@ -18,6 +18,7 @@
 
 package org.jppf.execute.async;
 
+import java.text.ParseException;
 import java.util.*;
 import java.util.concurrent.*;
 import java.util.concurrent.atomic.*;
@@ -25,7 +26,7 @@ import java.util.concurrent.atomic.*;
 import org.jppf.JPPFReconnectionNotification;
 import org.jppf.execute.*;
 import org.jppf.node.protocol.*;
-import org.jppf.scheduling.JPPFScheduleHandler;
+import org.jppf.scheduling.*;
 import org.jppf.utils.*;
 import org.jppf.utils.collections.*;
 import org.jppf.utils.configuration.*;
@@ -91,6 +92,18 @@ public abstract class AbstractAsyncExecutionManager implements AsyncExecutionMan
    * Mapping of job uuids to the ids of the pending bundles for each job.
    */
   protected final CollectionMap<String, Long> pendingBundleIds = new ArrayListHashMap<>();
+  /**
+   * Maximum number of completed tasks whose results are sent together while the other tasks of the same bundle are still executing.
+   */
+  protected final int partialResultsBatchSize;
+  /**
+   * Maximum time in millis the result of a completed task waits before it is sent while the other tasks of the same bundle are still executing.
+   */
+  protected final long partialResultsWindow;
+  /**
+   * Timer which sends the pending partial results when their time window has elapsed, or {@code null} if partial results are not sent by time.
+   */
+  private final JPPFScheduleHandler partialResultsTimer;
 
   /**
    * Initialize this execution manager with the specified node.
@@ -100,6 +113,9 @@ public abstract class AbstractAsyncExecutionManager implements AsyncExecutionMan
   public AbstractAsyncExecutionManager(final TypedProperties config, final JPPFProperty<Integer> nbThreadsProperty) {
     taskNotificationDispatcher = new TaskExecutionDispatcher(getClass().getClassLoader());
     threadManager = ThreadManager.newInstance(config, nbThreadsProperty);
+    partialResultsBatchSize = config.get(JPPFProperties.NODE_PARTIAL_RESULTS_BATCH_SIZE);
+    partialResultsWindow = config.get(JPPFProperties.NODE_PARTIAL_RESULTS_WINDOW);
+    partialResultsTimer = (partialResultsWindow > 0L) ? new JPPFScheduleHandler("Partial Results Timer") : null;
   }
 
   @Override
@@ -107,19 +123,13 @@ public abstract class AbstractAsyncExecutionManager implements AsyncExecutionMan
     final List<Task<?>> taskList = bundleWithTasks.getTasks();
     final TaskBundle bundle = bundleWithTasks.getBundle();
     if ((taskList == null) || taskList.isEmpty()) return;
+    if (bundleWithTasks.isStreamed()) {
+      if (debugEnabled) log.debug("tasks of bundle {} were submitted while it was received", bundle);
+      return;
+    }
     if (debugEnabled) log.debug("executing {} tasks of bundle {}", taskList.size(), bundle);
     final JobProcessingEntry jobEntry = setup(bundleWithTasks);
-    jobEntry.executionManager = this;
-    final String bundleKey = bundle.getUuid() + bundle.getBundleId();
-    synchronized(jobEntries) {
-      final JobPendingEntry pendingEntry = pendingEntries.remove(bundleKey);
-      if (pendingEntry != null) {
-        pendingBundleIds.removeValue(bundle.getUuid(), bundle.getBundleId());
-        jobEntry.jobCancelled.set(pendingEntry.jobCancelled.get());
-      }
-      jobEntries.put(bundleKey, jobEntry);
-      jobBundleIds.putValue(bundle.getUuid(), bundle.getBundleId());
-    }
+    registerJobEntry(jobEntry);
     synchronized(jobEntry) {
       if (!jobEntry.jobCancelled.get()) {
         if (debugEnabled) log.debug("wrapping up to {} executable tasks of bundle {}", taskList.size(), bundle);
@@ -146,6 +156,81 @@ public abstract class AbstractAsyncExecutionManager implements AsyncExecutionMan
     }
   }
 
+  @Override
+  public JobProcessingEntry startStreaming(final BundleWithTasks bundleWithTasks) {
+    if (debugEnabled) log.debug("starting execution of {} tasks of bundle {} while it is received", bundleWithTasks.getTasks().size(), bundleWithTasks.getBundle());
+    final JobProcessingEntry jobEntry = setup(bundleWithTasks);
+    jobEntry.streaming = true;
+    registerJobEntry(jobEntry);
+    for (final Task<?> task: bundleWithTasks.getTasks()) submitStreamedTask(jobEntry, task);
+    return jobEntry;
+  }
+
+  @Override
+  public void submitStreamedTask(final JobProcessingEntry jobEntry, final Task<?> task) {
+    synchronized(jobEntry) {
+      if (jobEntry.jobCancelled.get() || (task instanceof JPPFExceptionResult)) return;
+      if (task instanceof AbstractTask) ((AbstractTask<?>) task).setExecutionDispatcher(taskNotificationDispatcher);
+      final NodeTaskWrapper taskWrapper = new NodeTaskWrapper(jobEntry, task, jobEntry.getClassLoader(), timeoutHandler);
+      jobEntry.taskWrapperList.add(taskWrapper);
+      jobEntry.submittedCount++;
+      getExecutor().submit(taskWrapper, taskWrapper);
+    }
+  }
+
+  @Override
+  public void endStreaming(final JobProcessingEntry jobEntry, final List<Task<?>> taskList, final Throwable t) {
+    final boolean endJob;
+    synchronized(jobEntry) {
+      if (debugEnabled) log.debug("end of streaming for {} with {} submitted tasks, throwable = {}", jobEntry.bundle, jobEntry.submittedCount, t);
+      jobEntry.taskList = taskList;
+      if (t != null) {
+        jobEntry.discardResults = true;
+        jobEntry.jobCancelled.set(true);
+        // the job cannot end while the tasks are cancelled, since the streaming flag is still set
+        for (final NodeTaskWrapper taskWrapper: jobEntry.taskWrapperList) cancelTask(taskWrapper, false);
+      }
+      jobEntry.streaming = false;
+      endJob = !jobEntry.ended && (jobEntry.resultCount.get() >= jobEntry.submittedCount);
+      if (endJob) jobEntry.ended = true;
+    }
+    if (endJob) jobEnded(jobEntry);
+  }
+
+  /**
+   * Register the specified job entry as being processed.
+   * @param jobEntry the entry to register.
+   */
+  private void registerJobEntry(final JobProcessingEntry jobEntry) {
+    final TaskBundle bundle = jobEntry.bundle;
+    jobEntry.executionManager = this;
+    final String bundleKey = bundle.getUuid() + bundle.getBundleId();
+    synchronized(jobEntries) {
+      final JobPendingEntry pendingEntry = pendingEntries.remove(bundleKey);
+      if (pendingEntry != null) {
+        pendingBundleIds.removeValue(bundle.getUuid(), bundle.getBundleId());
+        jobEntry.jobCancelled.set(pendingEntry.jobCancelled.get());
+      }
+      jobEntries.put(bundleKey, jobEntry);
+      jobBundleIds.putValue(bundle.getUuid(), bundle.getBundleId());
+    }
+    if (isPartialResultsEnabled(bundle)) {
+      jobEntry.pendingResults = new ArrayList<>();
+      jobEntry.sentResults = Collections.newSetFromMap(new IdentityHashMap<>());
+    }
+  }
+
+  /**
+   * Determine whether the results of the tasks of the specified bundle can be sent while other tasks of the bundle are still executing.
+   * @param bundle the bundle to check.
+   * @return {@code true} if partial results can be sent, {@code false} otherwise.
+   */
+  protected boolean isPartialResultsEnabled(final TaskBundle bundle) {
+    if ((partialResultsBatchSize <= 0) && (partialResultsWindow <= 0L)) return false;
+    final JobSLA sla = bundle.getSLA();
+    return (sla == null) || !sla.isBroadcastJob();
+  }
+
   @Override
   public void cancelAllTasks(final boolean callOnCancel, final boolean requeue) {
     if (debugEnabled) log.debug("cancelling all tasks with: callOnCancel={}, requeue={}", callOnCancel, requeue);
@@ -216,6 +301,7 @@ public abstract class AbstractAsyncExecutionManager implements AsyncExecutionMan
     if (debugEnabled) log.debug("closing {}", this);
     getExecutor().shutdownNow();
     timeoutHandler.clear(true);
+    if (partialResultsTimer != null) partialResultsTimer.clear(true);
     taskNotificationDispatcher.close();
   }
 
@@ -252,7 +338,10 @@ public abstract class AbstractAsyncExecutionManager implements AsyncExecutionMan
         if (traceEnabled) log.trace("sending task ended notification for {}, bundle={}", taskWrapper, bundle);
         taskNotificationDispatcher.fireTaskEnded(task, bundle.getUuid(), bundle.getName(), cpuTime, elapsedTime / 1_000_000L, task.getThrowable() != null);
         if (traceEnabled) log.trace("resultCount={} for {}", n, taskWrapper);
-        if (n >= submittedCount) endJob = true;
+        if ((n >= submittedCount) && !jobEntry.streaming && !jobEntry.ended) {
+          jobEntry.ended = true;
+          endJob = true;
+        } else if (jobEntry.pendingResults != null) addPartialResult(jobEntry, task);
       }
       if (endJob) jobEnded(jobEntry);
     } catch (final RuntimeException e) {
@@ -260,6 +349,53 @@ public abstract class AbstractAsyncExecutionManager implements AsyncExecutionMan
     }
   }
 
+  /**
+   * Add a completed task to the results to send while the other tasks of its bundle are still executing,
+   * and send them if the maximum batch size or the time window is reached. This method must be called while holding the lock on the job entry.
+   * @param jobEntry the job the task belongs to.
+   * @param task the completed task.
+   */
+  private void addPartialResult(final JobProcessingEntry jobEntry, final Task<?> task) {
+    if (jobEntry.ended || jobEntry.jobCancelled.get()) return;
+    // tasks to resubmit are handled by the server with the final results
+    if ((task instanceof AbstractTask) && ((AbstractTask<?>) task).isResubmit()) return;
+    final List<Task<?>> pending = jobEntry.pendingResults;
+    pending.add(task);
+    if (pending.size() == 1) {
+      jobEntry.pendingResultsStart = System.nanoTime();
+      if (partialResultsTimer != null) {
+        try {
+          partialResultsTimer.scheduleAction(jobEntry, new JPPFSchedule(partialResultsWindow), () -> {
+            synchronized(jobEntry) {
+              if (!jobEntry.ended && !jobEntry.jobCancelled.get()) sendPartialResults(jobEntry);
+            }
+          });
+        } catch (final ParseException e) {
+          log.error("could not schedule the partial results of {}", jobEntry.bundle, e);
+        }
+      }
+    }
+    if (((partialResultsBatchSize > 0) && (pending.size() >= partialResultsBatchSize))
+      || ((partialResultsWindow > 0L) && (System.nanoTime() - jobEntry.pendingResultsStart >= partialResultsWindow * 1_000_000L))) sendPartialResults(jobEntry);
+  }
+
+  /**
+   * Notify the listeners that the pending results of a job can be sent. This method must be called while holding the lock on the job entry.
+   * @param jobEntry the job whose results to send.
+   */
+  private void sendPartialResults(final JobProcessingEntry jobEntry) {
+    if (partialResultsTimer != null) partialResultsTimer.cancelAction(jobEntry, false);
+    if (jobEntry.pendingResults.isEmpty()) return;
+    final List<Task<?>> tasks = new ArrayList<>(jobEntry.pendingResults);
+    jobEntry.pendingResults.clear();
+    jobEntry.sentResults.addAll(tasks);
+    jobEntry.partialResultsCount++;
+    if (traceEnabled) log.trace("sending {} partial results of {}", tasks.size(), jobEntry.bundle);
+    for (final ExecutionManagerListener listener: listeners) {
+      if (listener != null) listener.tasksExecuted(jobEntry.bundle, tasks);
+    }
+  }
+
   /**
    * 
    * @param jobEntry the job to process.
@@ -268,10 +404,29 @@ public abstract class AbstractAsyncExecutionManager implements AsyncExecutionMan
     TaskBundle bundle = null;
     List<Task<?>> taskList = null;
     Throwable t = null;
+    final boolean discardResults;
     synchronized(jobEntry) {
       bundle = jobEntry.bundle;
       taskList = jobEntry.taskList;
       t = jobEntry.t;
+      discardResults = jobEntry.discardResults;
+      if (jobEntry.pendingResults != null) {
+        if (partialResultsTimer != null) partialResultsTimer.cancelAction(jobEntry, false);
+        if (!jobEntry.sentResults.isEmpty() && !discardResults) {
+          // the final results only include the tasks that were not sent as partial results, along with their positions,
+          // since the server may have dropped some of the partial results, for instance if the dispatch expired
+          final List<Task<?>> remaining = new ArrayList<>(taskList.size() - jobEntry.sentResults.size());
+          for (final Task<?> task: taskList) {
+            if (!jobEntry.sentResults.contains(task)) remaining.add(task);
+          }
+          final int[] positions = new int[remaining.size()];
+          for (int i=0; i<positions.length; i++) positions[i] = remaining.get(i).getPosition();
+          taskList = remaining;
+          bundle.setTaskCount(remaining.size());
+          bundle.setParameter(BundleParameter.PARTIAL_RESULTS_COUNT, jobEntry.partialResultsCount);
+          bundle.setParameter(BundleParameter.FINAL_RESULTS_POSITIONS, positions);
+        }
+      }
       cleanup(jobEntry);
     }
     if (debugEnabled) log.debug("processing completion of {} tasks of job {}", taskList.size(), bundle);
@@ -279,7 +434,9 @@ public abstract class AbstractAsyncExecutionManager implements AsyncExecutionMan
       jobEntries.remove(bundle.getUuid() + bundle.getBundleId());
       jobBundleIds.removeValue(bundle.getUuid(), bundle.getBundleId());
     }
-    fireJobFinished(bundle, taskList, t);
+    if (discardResults) {
+      if (debugEnabled) log.debug("discarding results of {}", bundle);
+    } else fireJobFinished(bundle, taskList, t);
   }
 
   @Override
@@ -18,6 +18,7 @@
 
 package org.jppf.execute.async;
 
+import java.util.List;
 import java.util.concurrent.ExecutorService;
 
 import org.jppf.execute.*;
@@ -36,6 +37,29 @@ public interface AsyncExecutionManager {
    */
   void execute(BundleWithTasks bundleWithTakss) throws Exception;
 
+  /**
+   * Start executing the tasks of a bundle which is still being received.
+   * @param bundleWithTasks the bundle with its tasks received so far.
+   * @return the entry to which the tasks received later are submitted.
+   */
+  JobProcessingEntry startStreaming(BundleWithTasks bundleWithTasks);
+
+  /**
+   * Submit a task of a bundle which is still being received.
+   * @param jobEntry the entry returned by {@link #startStreaming(BundleWithTasks)}.
+   * @param task the task to execute.
+   */
+  void submitStreamedTask(JobProcessingEntry jobEntry, Task<?> task);
+
+  /**
+   * Notify that all the tasks of a bundle were received and submitted. The results are sent once all the submitted tasks have completed.
+   * @param jobEntry the entry returned by {@link #startStreaming(BundleWithTasks)}.
+   * @param taskList all the tasks of the bundle, in the order they were received.
+   * @param t an error which prevented the bundle from being fully received, in which case the submitted tasks are cancelled
+   * and their results are not sent back.
+   */
+  void endStreaming(JobProcessingEntry jobEntry, List<Task<?>> taskList, Throwable t);
+
   /**
    * Cancel all executing or pending tasks.
    * @param callOnCancel determines whether the onCancel() callback method of each task should be invoked.
@@ -34,4 +34,14 @@ public interface ExecutionManagerListener {
    * @param t a {@link Throwable} that prevented or interrupted the job processing.
    */
   void bundleExecuted(final TaskBundle bundle, final List<Task<?>> tasks, final Throwable t);
+
+  /**
+   * Called when some tasks of a bundle have completed and their results can be sent while the other tasks are still executing.
+   * These tasks are not part of the list passed to {@link #bundleExecuted(TaskBundle, List, Throwable) bundleExecuted()}.
+   * <p>This method is called while holding a lock on the job, to guarantee that the partial results are processed before the final results.
+   * @param bundle the TaskBundle which holds information on the job.
+   * @param tasks the tasks that were executed.
+   */
+  default void tasksExecuted(final TaskBundle bundle, final List<Task<?>> tasks) {
+  }
 }
@@ -18,7 +18,7 @@
 
 package org.jppf.execute.async;
 
-import java.util.List;
+import java.util.*;
 import java.util.concurrent.atomic.*;
 
 import org.jppf.execute.NodeTaskWrapper;
@@ -71,6 +71,34 @@ public class JobProcessingEntry extends JobPendingEntry {
    * A {@link Throwable} that prevented or interrupted the job processing.
    */
   public Throwable t;
+  /**
+   * Whether more tasks may still be submitted while the bundle is being received.
+   */
+  public boolean streaming;
+  /**
+   * Whether the completion of the job was already processed.
+   */
+  public boolean ended;
+  /**
+   * Whether the results should not be sent back, because the bundle could not be fully received.
+   */
+  public boolean discardResults;
+  /**
+   * The completed tasks whose results have not yet been sent, or {@code null} if partial results are disabled for this job.
+   */
+  public List<Task<?>> pendingResults;
+  /**
+   * The time in nanos at which the oldest of the pending results was added.
+   */
+  public long pendingResultsStart;
+  /**
+   * The tasks whose results were already sent as partial results.
+   */
+  public Set<Task<?>> sentResults;
+  /**
+   * The number of partial results sent for this job.
+   */
+  public int partialResultsCount;
 
   /**
    * @return the class loader fot htis task bundle.
@@ -20,7 +20,7 @@ package org.jppf.io;
 
 import java.io.*;
 import java.nio.ByteBuffer;
-import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.*;
 
 import org.jppf.serialization.SerializationUtils;
 import org.jppf.utils.pooling.DirectBufferPool;
@@ -62,13 +62,19 @@ public class ChannelInputSource implements InputSource {
    * We read the data by small chunks of max {@link IO#TEMP_BUFFER_SIZE} bytes wrapped in a direct ByteBuffer, to work around the fact that Sun NIO implementation of SocketChannelImpl.read() attempts
    * to allocate a direct buffer of the requested data size (i.e. <code>data</code>.remaining() in our case), <i>if the destination ByteBuffer is not direct</i>.<br/>
    * This implementation can result in a &quot;OutOfMemoryError: Direct buffer space&quot; when the size of the data to read is too large.<br/>
-   * See <a href="http://bugs.sun.com/bugdatabase/view_bug.do?bug_id=4879883">Sun Bug ID: 4879883</a> for details.
+   * See <a href="http://bugs.sun.com/bugdatabase/view_bug.do?bug_id=4879883">Sun Bug ID: 4879883</a> for details.<br/>
+   * When <code>data</code> is itself a direct buffer, the data is read from the channel straight into it.
    * @param data the buffer into which to write.
    * @return the number of bytes actually read, or -1 if end of stream was reached.
    * @throws Exception if an IO error occurs.
    */
   @Override
   public int read(final ByteBuffer data) throws Exception {
+    if (data.isDirect()) {
+      final int n = channel.read(data);
+      if (n < 0) throw new EOFException();
+      return n;
+    }
     final ByteBuffer tmpBuffer = DirectBufferPool.provideBuffer();
     try {
       final int remaining = data.remaining();
@@ -90,6 +96,23 @@ public class ChannelInputSource implements InputSource {
     }
   }
 
+  /**
+   * Read data from this input source into a sequence of byte buffers.
+   * If the buffers are direct and the channel is a {@link ScatteringByteChannel}, then a single scattering read is performed.
+   * @param data the buffers into which to write.
+   * @param offset the index of the first buffer to read into.
+   * @param length the maximum number of buffers to read into.
+   * @return the number of bytes actually read.
+   * @throws Exception if an IO error occurs.
+   */
+  @Override
+  public long read(final ByteBuffer[] data, final int offset, final int length) throws Exception {
+    if ((length <= 0) || !data[offset].isDirect() || !(channel instanceof ScatteringByteChannel)) return InputSource.super.read(data, offset, length);
+    final long n = ((ScatteringByteChannel) channel).read(data, offset, length);
+    if (n < 0L) throw new EOFException();
+    return n;
+  }
+
   /**
    * Read an int value from this input source.
    * @return the value read, or -1 if an end of file condition was reached.
@@ -20,7 +20,7 @@ package org.jppf.io;
 
 import java.io.IOException;
 import java.nio.ByteBuffer;
-import java.nio.channels.WritableByteChannel;
+import java.nio.channels.*;
 
 import org.jppf.serialization.SerializationUtils;
 import org.jppf.utils.pooling.DirectBufferPool;
@@ -84,6 +84,21 @@ public class ChannelOutputDestination implements OutputDestination {
     return channel.write(data);
   }
 
+  /**
+   * Write data to this output destination from a sequence of byte buffers.
+   * If the channel is a {@link GatheringByteChannel}, then a single gathering write is performed.
+   * @param data the buffers containing the data to write.
+   * @param offset the index of the first buffer to write.
+   * @param length the maximum number of buffers to write.
+   * @return the number of bytes actually written.
+   * @throws Exception if an IO error occurs.
+   */
+  @Override
+  public long write(final ByteBuffer[] data, final int offset, final int length) throws Exception {
+    if (!(channel instanceof GatheringByteChannel)) return OutputDestination.super.write(data, offset, length);
+    return ((GatheringByteChannel) channel).write(data, offset, length);
+  }
+
   /**
    * Write an int value to this output destination.
    * @param value the value to write.
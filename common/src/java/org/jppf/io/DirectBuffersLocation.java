@@ -0,0 +1,299 @@
+/*
+ * JPPF.
+ * Copyright (C) 2005-2019 JPPF Team.
+ * http://www.jppf.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jppf.io;
+
+import java.io.*;
+import java.lang.ref.*;
+import java.nio.ByteBuffer;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.jppf.utils.pooling.DirectBufferPoolQueue;
+import org.jppf.utils.streams.*;
+import org.slf4j.*;
+
+/**
+ * Data location backed by a sequence of pooled direct {@link ByteBuffer} slabs of {@link IO#TEMP_BUFFER_SIZE} bytes each.
+ * <p>Data read from a socket channel is stored directly into the slabs, without transiting through the heap, and written back to other channels
+ * with gathering writes. Copies of this location, obtained with {@link #copy()}, share the same slabs, which are given back to the pool
+ * once this location and all its copies are no longer reachable.
+ * <p>The total size of the slabs held by all the locations at any given time is bounded by {@link IO#NIO_DIRECT_LOCATIONS_MAX_SIZE}.
+ * @author Laurent Cohen
+ * @exclude
+ */
+public class DirectBuffersLocation extends AbstractDataLocation {
+  /**
+   * Logger for this class.
+   */
+  private static final Logger log = LoggerFactory.getLogger(DirectBuffersLocation.class);
+  /**
+   * Determines whether the debug level is enabled in the logging configuration, without the cost of a method call.
+   */
+  private static final boolean debugEnabled = log.isDebugEnabled();
+  /**
+   * The pool of direct buffers.
+   */
+  private static final DirectBufferPoolQueue POOL = new DirectBufferPoolQueue();
+  /**
+   * The total size of the slabs currently held by all instances of this class.
+   */
+  private static final AtomicLong allocated = new AtomicLong(0L);
+  /**
+   * Queue of slabs which are no longer referenced by any location.
+   */
+  private static final ReferenceQueue<Slabs> releaseQueue = new ReferenceQueue<>();
+  /**
+   * Keeps the release references reachable until they are processed.
+   */
+  private static final Set<SlabsReference> references = Collections.newSetFromMap(new ConcurrentHashMap<SlabsReference, Boolean>());
+  /**
+   * The slabs shared by this location and its copies.
+   */
+  private final Slabs slabs;
+  /**
+   * The views on the slabs used by the current transfer.
+   */
+  private ByteBuffer[] views;
+  /**
+   * Index of the first view which is not fully transferred.
+   */
+  private int viewIndex;
+  /**
+   * The current count of bytes transferred.
+   */
+  private int count;
+
+  /**
+   * Initialize this location with the specified slabs.
+   * @param slabs the slabs that hold the data.
+   */
+  private DirectBuffersLocation(final Slabs slabs) {
+    this.slabs = slabs;
+    this.size = slabs.size;
+  }
+
+  /**
+   * Create a new location of the specified size, provided the limit on the total size of the slabs is not exceeded.
+   * @param size the size of the data.
+   * @return a new {@link DirectBuffersLocation}, or {@code null} if the slabs would exceed the maximum allowed total size.
+   */
+  public static DirectBuffersLocation create(final int size) {
+    releaseUnreferencedSlabs();
+    final int slabSize = IO.TEMP_BUFFER_SIZE;
+    final int nbSlabs = Math.max(1, (size + slabSize - 1) / slabSize);
+    final long needed = (long) nbSlabs * slabSize;
+    long current;
+    do {
+      current = allocated.get();
+      if (current + needed > IO.NIO_DIRECT_LOCATIONS_MAX_SIZE) {
+        if (debugEnabled) log.debug("cannot allocate {} bytes of direct buffers, {} already in use", needed, current);
+        return null;
+      }
+    } while (!allocated.compareAndSet(current, current + needed));
+    final ByteBuffer[] buffers = new ByteBuffer[nbSlabs];
+    try {
+      for (int i=0; i<nbSlabs; i++) buffers[i] = POOL.get();
+    } catch (final OutOfMemoryError e) {
+      for (final ByteBuffer buf: buffers) {
+        if (buf != null) POOL.put(buf);
+      }
+      allocated.addAndGet(-needed);
+      if (debugEnabled) log.debug("OOM when allocating {} bytes of direct buffers", needed, e);
+      return null;
+    }
+    final Slabs slabs = new Slabs(buffers, size);
+    references.add(new SlabsReference(slabs, buffers, needed));
+    return new DirectBuffersLocation(slabs);
+  }
+
+  /**
+   * Give back to the pool the slabs no longer referenced by any location.
+   */
+  private static void releaseUnreferencedSlabs() {
+    Reference<? extends Slabs> ref;
+    while ((ref = releaseQueue.poll()) != null) {
+      final SlabsReference slabsRef = (SlabsReference) ref;
+      if (references.remove(slabsRef)) {
+        for (final ByteBuffer buf: slabsRef.buffers) POOL.put(buf);
+        allocated.addAndGet(-slabsRef.allocatedSize);
+      }
+    }
+  }
+
+  @Override
+  public int transferFrom(final InputSource source, final boolean blocking) throws Exception {
+    if (!transferring) {
+      transferring = true;
+      views = slabs.views();
+      viewIndex = 0;
+      count = 0;
+    }
+    try {
+      int n;
+      do {
+        n = (int) source.read(views, viewIndex, views.length - viewIndex);
+        if (n < 0) {
+          if (blocking) throw new EOFException();
+          break;
+        }
+        count += n;
+        advance();
+      } while (blocking && (count < size));
+      if ((n < 0) || (count >= size)) transferring = false;
+      return blocking ? count : n;
+    } catch (final Exception e) {
+      transferring = false;
+      throw e;
+    }
+  }
+
+  @Override
+  public int transferTo(final OutputDestination dest, final boolean blocking) throws Exception {
+    if (!transferring) {
+      transferring = true;
+      views = slabs.views();
+      viewIndex = 0;
+      count = 0;
+    }
+    try {
+      int n;
+      do {
+        n = (int) dest.write(views, viewIndex, views.length - viewIndex);
+        if (n < 0) break;
+        count += n;
+        advance();
+      } while (blocking && (count < size));
+      if ((n < 0) || (count >= size)) transferring = false;
+      return blocking ? count : n;
+    } catch (final Exception e) {
+      transferring = false;
+      throw e;
+    }
+  }
+
+  /**
+   * Move the current view index past the views which are fully transferred.
+   */
+  private void advance() {
+    while ((viewIndex < views.length) && !views[viewIndex].hasRemaining()) viewIndex++;
+  }
+
+  @Override
+  public InputStream getInputStream() throws Exception {
+    return new ByteBuffersInputStream(slabs, slabs.views());
+  }
+
+  @Override
+  public OutputStream getOutputStream() throws Exception {
+    return new ByteBuffersOutputStream(slabs, slabs.views());
+  }
+
+  @Override
+  public DataLocation copy() {
+    return new DirectBuffersLocation(slabs);
+  }
+
+  /**
+   * Get the total size of the direct buffers currently held by all the instances of this class.
+   * @return the size in bytes.
+   */
+  public static long getAllocatedSize() {
+    releaseUnreferencedSlabs();
+    return allocated.get();
+  }
+
+  @Override
+  public String toString() {
+    final StringBuilder sb = new StringBuilder();
+    sb.append(getClass().getSimpleName()).append('[');
+    sb.append("size=").append(size);
+    sb.append(", count=").append(count);
+    sb.append(", nbSlabs=").append(slabs.buffers.length);
+    sb.append(", viewIndex=").append(viewIndex);
+    sb.append(", transferring=").append(transferring);
+    sb.append(']');
+    return sb.toString();
+  }
+
+  /**
+   * The slabs shared by a location and all its copies.
+   */
+  private static final class Slabs {
+    /**
+     * The pooled direct buffers.
+     */
+    private final ByteBuffer[] buffers;
+    /**
+     * The size of the data.
+     */
+    private final int size;
+
+    /**
+     * @param buffers the pooled direct buffers.
+     * @param size the size of the data.
+     */
+    private Slabs(final ByteBuffer[] buffers, final int size) {
+      this.buffers = buffers;
+      this.size = size;
+    }
+
+    /**
+     * Create views on the slabs, with independent positions and limits set to cover exactly the data size.
+     * @return an array of {@link ByteBuffer}s sharing their content with the slabs.
+     */
+    private ByteBuffer[] views() {
+      final ByteBuffer[] result = new ByteBuffer[buffers.length];
+      int remaining = size;
+      for (int i=0; i<buffers.length; i++) {
+        final ByteBuffer view = buffers[i].duplicate();
+        view.clear();
+        view.limit(Math.min(view.capacity(), remaining));
+        remaining -= view.limit();
+        result[i] = view;
+      }
+      return result;
+    }
+  }
+
+  /**
+   * A phantom reference used to give back the slabs to the pool once no location references them any more.
+   */
+  private static final class SlabsReference extends PhantomReference<Slabs> {
+    /**
+     * The buffers to give back to the pool.
+     */
+    private final ByteBuffer[] buffers;
+    /**
+     * The total capacity of the buffers.
+     */
+    private final long allocatedSize;
+
+    /**
+     * @param slabs the referent.
+     * @param buffers the buffers to give back to the pool.
+     * @param allocatedSize the total capacity of the buffers.
+     */
+    private SlabsReference(final Slabs slabs, final ByteBuffer[] buffers, final long allocatedSize) {
+      super(slabs, releaseQueue);
+      this.buffers = buffers;
+      this.allocatedSize = allocatedSize;
+    }
+  }
+}
@@ -82,4 +82,16 @@ public interface IO extends Closeable {
    * Whether to check for low memory and trigger disk offloading.
    */
   boolean CHECK_LOW_MEMORY = JPPFConfiguration.get(JPPFProperties.CHECK_LOW_MEMORY);
+  /**
+   * Whether data received by NIO channels is stored in pooled direct buffers rather than in the heap.
+   */
+  boolean NIO_DIRECT_LOCATIONS = JPPFConfiguration.get(JPPFProperties.NIO_DIRECT_LOCATIONS);
+  /**
+   * Maximum total size of the pooled direct buffers holding data received by NIO channels. Default value is 256 MB.
+   */
+  long NIO_DIRECT_LOCATIONS_MAX_SIZE = JPPFConfiguration.get(JPPFProperties.NIO_DIRECT_LOCATIONS_MAX_SIZE) * 1024L * 1024L;
+  /**
+   * Whether disk overflow uses the memory-mapped segments of the {@link SpillStore} rather than one temporary file per overflowed object.
+   */
+  boolean SPILL_STORE_ENABLED = JPPFConfiguration.get(JPPFProperties.SPILL_STORE_ENABLED);
 }
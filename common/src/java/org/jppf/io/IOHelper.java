@@ -73,7 +73,8 @@ public final class IOHelper {
 
   /**
    * Create a data location object based on a comparison of the available heap memory
-   * and the data location object size.
+   * and the data location object size. When the data does not fit in memory, it is stored in the
+   * {@link SpillStore} if it is enabled and has room left, or in a temporary file otherwise.
    * @param size the requested size of the data location to create.
    * @return a <code>DataLocation</code> object whose content may be stored in memory
    * or on another medium, depending on the available memory.
@@ -90,10 +91,30 @@ public final class IOHelper {
         footprint.addAndGet(-size);
       }
     }
+    if (IO.SPILL_STORE_ENABLED) {
+      final DataLocation dl = SpillStore.getInstance().allocate(size);
+      if (dl != null) return dl;
+    }
     final File file = createTempFile(size);
     return new FileDataLocation(file, size);
   }
 
+  /**
+   * Create a data location for data received from an NIO channel.
+   * If {@link IO#NIO_DIRECT_LOCATIONS} is enabled and the limit on the total size of direct buffers allows it, then the data is stored in pooled direct buffers,
+   * otherwise this method behaves like {@link #createDataLocationMemorySensitive(int)}.
+   * @param size the requested size of the data location to create.
+   * @return a <code>DataLocation</code> object whose content may be stored in direct memory, in the heap, or on another medium.
+   * @throws Exception if an IO error occurs.
+   */
+  public static DataLocation createNioDataLocation(final int size) throws Exception {
+    if (IO.NIO_DIRECT_LOCATIONS) {
+      final DataLocation dl = DirectBuffersLocation.create(size);
+      if (dl != null) return dl;
+    }
+    return createDataLocationMemorySensitive(size);
+  }
+
   /**
    * Read a provider or task data from an input source.
    * The data may be stored in memory or on another medium depending on its size and the available memory.
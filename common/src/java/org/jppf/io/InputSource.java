@@ -44,6 +44,29 @@ public interface InputSource extends IO
    */
   int read(ByteBuffer data) throws Exception;
 
+  /**
+   * Read data from this input source into a sequence of byte buffers.
+   * This default implementation reads into each buffer in turn, until a buffer cannot be filled completely.
+   * @param data the buffers into which to write.
+   * @param offset the index of the first buffer to read into.
+   * @param length the maximum number of buffers to read into.
+   * @return the number of bytes actually read, or -1 if end of stream was reached.
+   * @throws Exception if an IO error occurs.
+   */
+  default long read(final ByteBuffer[] data, final int offset, final int length) throws Exception {
+    long count = 0L;
+    for (int i=offset; i<offset + length; i++) {
+      final ByteBuffer buf = data[i];
+      final int remaining = buf.remaining();
+      if (remaining <= 0) continue;
+      final int n = read(buf);
+      if (n < 0) return (count == 0L) ? -1L : count;
+      count += n;
+      if (n < remaining) break;
+    }
+    return count;
+  }
+
   /**
    * Read an int value from this input source.
    * @return the value read, or -1 if an end of file condition was reached.
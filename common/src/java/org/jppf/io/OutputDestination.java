@@ -44,6 +44,29 @@ public interface OutputDestination extends IO
    */
   int write(ByteBuffer data) throws Exception;
 
+  /**
+   * Write data to this output destination from a sequence of byte buffers.
+   * This default implementation writes each buffer in turn, until a buffer cannot be written completely.
+   * @param data the buffers containing the data to write.
+   * @param offset the index of the first buffer to write.
+   * @param length the maximum number of buffers to write.
+   * @return the number of bytes actually written, or -1 if end of stream was reached.
+   * @throws Exception if an IO error occurs.
+   */
+  default long write(final ByteBuffer[] data, final int offset, final int length) throws Exception {
+    long count = 0L;
+    for (int i=offset; i<offset + length; i++) {
+      final ByteBuffer buf = data[i];
+      final int remaining = buf.remaining();
+      if (remaining <= 0) continue;
+      final int n = write(buf);
+      if (n < 0) return (count == 0L) ? -1L : count;
+      count += n;
+      if (n < remaining) break;
+    }
+    return count;
+  }
+
   /**
    * Write an int value to this output destination.
    * @param value the value to write.
@@ -0,0 +1,122 @@
+/*
+ * JPPF.
+ * Copyright (C) 2005-2019 JPPF Team.
+ * http://www.jppf.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jppf.io;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+
+import org.jppf.utils.streams.*;
+
+/**
+ * Data location backed by a region of a memory-mapped segment file in a {@link SpillStore}.
+ * Copies of this location, obtained with {@link #copy()}, share the same region.
+ * @author Laurent Cohen
+ * @exclude
+ */
+public class SpillDataLocation extends AbstractDataLocation {
+  /**
+   * The region which holds the data.
+   */
+  private final SpillStore.Region region;
+  /**
+   * The view on the region used by the current transfer.
+   */
+  private ByteBuffer view;
+
+  /**
+   * Initialize this location with the specified region.
+   * @param region the region which holds the data.
+   */
+  SpillDataLocation(final SpillStore.Region region) {
+    this.region = region;
+    this.size = region.size;
+  }
+
+  @Override
+  public int transferFrom(final InputSource source, final boolean blocking) throws Exception {
+    if (!transferring) {
+      transferring = true;
+      view = region.view();
+    }
+    try {
+      int count = 0, n;
+      do {
+        n = source.read(view);
+        if (n < 0) {
+          if (blocking) throw new EOFException();
+          break;
+        }
+        count += n;
+      } while (blocking && view.hasRemaining());
+      if ((n < 0) || !view.hasRemaining()) transferring = false;
+      return blocking ? count : n;
+    } catch (final Exception e) {
+      transferring = false;
+      throw e;
+    }
+  }
+
+  @Override
+  public int transferTo(final OutputDestination dest, final boolean blocking) throws Exception {
+    if (!transferring) {
+      transferring = true;
+      view = region.view();
+    }
+    try {
+      int count = 0, n;
+      do {
+        n = dest.write(view);
+        if (n < 0) break;
+        count += n;
+      } while (blocking && view.hasRemaining());
+      if ((n < 0) || !view.hasRemaining()) transferring = false;
+      return blocking ? count : n;
+    } catch (final Exception e) {
+      transferring = false;
+      throw e;
+    }
+  }
+
+  @Override
+  public InputStream getInputStream() throws Exception {
+    return new ByteBuffersInputStream(region, region.view());
+  }
+
+  @Override
+  public OutputStream getOutputStream() throws Exception {
+    return new ByteBuffersOutputStream(region, region.view());
+  }
+
+  @Override
+  public DataLocation copy() {
+    return new SpillDataLocation(region);
+  }
+
+  @Override
+  public String toString() {
+    final StringBuilder sb = new StringBuilder();
+    sb.append(getClass().getSimpleName()).append('[');
+    sb.append("size=").append(size);
+    sb.append(", segment=").append(region.segment);
+    sb.append(", offset=").append(region.offset);
+    sb.append(", transferring=").append(transferring);
+    sb.append(']');
+    return sb.toString();
+  }
+}
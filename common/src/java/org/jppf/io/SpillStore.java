@@ -0,0 +1,361 @@
+/*
+ * JPPF.
+ * Copyright (C) 2005-2019 JPPF Team.
+ * http://www.jppf.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jppf.io;
+
+import java.io.*;
+import java.lang.ref.*;
+import java.nio.*;
+import java.nio.channels.FileChannel;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.jppf.utils.*;
+import org.jppf.utils.configuration.JPPFProperties;
+import org.slf4j.*;
+
+/**
+ * A store for disk-overflowed data, made of a small number of large, memory-mapped segment files.
+ * Each segment is carved into regions by a first-fit free-list allocator, and each region backs a {@link SpillDataLocation}.
+ * Regions are given back to their segment once the location that uses them, along with all its copies, is no longer reachable.
+ * <p>Segments are created lazily, up to the configured maximum number, and their files are deleted when the JVM exits.
+ * @author Laurent Cohen
+ * @exclude
+ */
+public final class SpillStore {
+  /**
+   * Logger for this class.
+   */
+  private static final Logger log = LoggerFactory.getLogger(SpillStore.class);
+  /**
+   * Determines whether the debug level is enabled in the logging configuration, without the cost of a method call.
+   */
+  private static final boolean debugEnabled = log.isDebugEnabled();
+  /**
+   * Allocation granularity in the segments.
+   */
+  static final int BLOCK_SIZE = 4 * 1024;
+  /**
+   * The singleton instance of this class.
+   */
+  private static SpillStore instance;
+  /**
+   * The size in bytes of each segment.
+   */
+  private final int segmentSize;
+  /**
+   * The maximum number of segments.
+   */
+  private final int maxSegments;
+  /**
+   * The folder in which the segment files are created.
+   */
+  private final File folder;
+  /**
+   * The segments created so far.
+   */
+  private final List<Segment> segments = new ArrayList<>();
+  /**
+   * Queue of regions which are no longer referenced by any location.
+   */
+  private final ReferenceQueue<Region> releaseQueue = new ReferenceQueue<>();
+  /**
+   * Keeps the release references reachable until they are processed.
+   */
+  private final Set<RegionReference> references = Collections.newSetFromMap(new ConcurrentHashMap<RegionReference, Boolean>());
+
+  /**
+   * Initialize this store.
+   * @param folder the folder in which the segment files are created.
+   * @param segmentSize the size in bytes of each segment.
+   * @param maxSegments the maximum number of segments.
+   */
+  public SpillStore(final File folder, final int segmentSize, final int maxSegments) {
+    this.folder = folder;
+    this.segmentSize = (segmentSize / BLOCK_SIZE) * BLOCK_SIZE;
+    this.maxSegments = maxSegments;
+  }
+
+  /**
+   * Get the singleton instance of this class, configured from the JPPF configuration.
+   * @return a {@link SpillStore} instance.
+   */
+  public static synchronized SpillStore getInstance() {
+    if (instance == null) {
+      final TypedProperties config = JPPFConfiguration.getProperties();
+      final long size = config.get(JPPFProperties.SPILL_SEGMENT_SIZE) * 1024L * 1024L;
+      instance = new SpillStore(FileUtils.getJPPFTempDir(), (int) Math.min(size, Integer.MAX_VALUE), config.get(JPPFProperties.SPILL_MAX_SEGMENTS));
+    }
+    return instance;
+  }
+
+  /**
+   * Allocate a new location of the specified size in this store.
+   * @param size the size of the data.
+   * @return a new {@link SpillDataLocation}, or {@code null} if there is no room left in the store.
+   */
+  public SpillDataLocation allocate(final int size) {
+    releaseUnreferencedRegions();
+    if (size > segmentSize) return null;
+    final int length = Math.max(BLOCK_SIZE, ((size + BLOCK_SIZE - 1) / BLOCK_SIZE) * BLOCK_SIZE);
+    final Region region = allocateRegion(length, size);
+    if (region == null) {
+      if (debugEnabled) log.debug("no room left for {} bytes in {}", size, this);
+      return null;
+    }
+    references.add(new RegionReference(region));
+    return new SpillDataLocation(region);
+  }
+
+  /**
+   * Allocate a region in the first segment which has enough room, creating a new segment if needed and permitted.
+   * @param length the length of the region, a multiple of {@link #BLOCK_SIZE}.
+   * @param size the size of the data.
+   * @return a new region, or {@code null} if there is no room left.
+   */
+  private Region allocateRegion(final int length, final int size) {
+    final Segment[] current;
+    synchronized(segments) {
+      current = segments.toArray(new Segment[segments.size()]);
+    }
+    for (final Segment segment: current) {
+      final int offset = segment.allocate(length);
+      if (offset >= 0) return new Region(segment, offset, length, size);
+    }
+    synchronized(segments) {
+      if (segments.size() > current.length) return allocateRegion(length, size);
+      if (segments.size() >= maxSegments) return null;
+      try {
+        final Segment segment = new Segment(folder, segmentSize);
+        segments.add(segment);
+        if (debugEnabled) log.debug("created spill segment {}", segment);
+        final int offset = segment.allocate(length);
+        return (offset < 0) ? null : new Region(segment, offset, length, size);
+      } catch (final IOException e) {
+        log.error("could not create spill segment in {}", folder, e);
+        return null;
+      }
+    }
+  }
+
+  /**
+   * Give back to their segment the regions no longer referenced by any location.
+   */
+  private void releaseUnreferencedRegions() {
+    Reference<? extends Region> ref;
+    while ((ref = releaseQueue.poll()) != null) {
+      final RegionReference regionRef = (RegionReference) ref;
+      if (references.remove(regionRef)) regionRef.segment.free(regionRef.offset, regionRef.length);
+    }
+  }
+
+  /**
+   * Get the total number of bytes currently allocated in this store.
+   * @return the allocated size in bytes.
+   */
+  public long getAllocatedSize() {
+    releaseUnreferencedRegions();
+    long result = 0L;
+    synchronized(segments) {
+      for (final Segment segment: segments) result += segment.getAllocatedSize();
+    }
+    return result;
+  }
+
+  @Override
+  public String toString() {
+    synchronized(segments) {
+      return new StringBuilder(getClass().getSimpleName()).append('[')
+        .append("folder=").append(folder)
+        .append(", segmentSize=").append(segmentSize)
+        .append(", maxSegments=").append(maxSegments)
+        .append(", nbSegments=").append(segments.size())
+        .append(']').toString();
+    }
+  }
+
+  /**
+   * A preallocated, memory-mapped file with a free-list allocator.
+   */
+  static final class Segment {
+    /**
+     * The segment file.
+     */
+    private final File file;
+    /**
+     * The mapping of the whole file, never modified after creation.
+     */
+    private final MappedByteBuffer mapped;
+    /**
+     * Free regions mapped from their offset to their length, ordered by offset.
+     */
+    private final TreeMap<Integer, Integer> free = new TreeMap<>();
+    /**
+     * Number of allocated bytes.
+     */
+    private int allocatedSize;
+
+    /**
+     * Create and map a new segment file.
+     * @param folder the folder in which to create the file.
+     * @param size the size of the segment.
+     * @throws IOException if the file cannot be created or mapped.
+     */
+    Segment(final File folder, final int size) throws IOException {
+      file = File.createTempFile("jppf-spill-", ".dat", folder);
+      file.deleteOnExit();
+      try (final RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+        raf.setLength(size);
+        mapped = raf.getChannel().map(FileChannel.MapMode.READ_WRITE, 0L, size);
+      }
+      free.put(0, size);
+    }
+
+    /**
+     * Allocate a region of the specified length, using a first-fit strategy.
+     * @param length the length of the region.
+     * @return the offset of the region in the segment, or -1 if there is no free region large enough.
+     */
+    synchronized int allocate(final int length) {
+      for (final Map.Entry<Integer, Integer> entry: free.entrySet()) {
+        final int freeLength = entry.getValue();
+        if (freeLength >= length) {
+          final int offset = entry.getKey();
+          free.remove(offset);
+          if (freeLength > length) free.put(offset + length, freeLength - length);
+          allocatedSize += length;
+          return offset;
+        }
+      }
+      return -1;
+    }
+
+    /**
+     * Free the specified region and coalesce it with its adjacent free regions.
+     * @param offset the offset of the region.
+     * @param length the length of the region.
+     */
+    synchronized void free(final int offset, final int length) {
+      int start = offset, len = length;
+      final Map.Entry<Integer, Integer> before = free.floorEntry(offset);
+      if ((before != null) && (before.getKey() + before.getValue() == offset)) {
+        start = before.getKey();
+        len += before.getValue();
+        free.remove(start);
+      }
+      final Integer afterLength = free.remove(offset + length);
+      if (afterLength != null) len += afterLength;
+      free.put(start, len);
+      allocatedSize -= length;
+    }
+
+    /**
+     * @return the number of allocated bytes.
+     */
+    synchronized int getAllocatedSize() {
+      return allocatedSize;
+    }
+
+    /**
+     * Create an independent view on the specified region of this segment.
+     * @param offset the start of the region.
+     * @param size the size of the view.
+     * @return a {@link ByteBuffer} sharing its content with this segment.
+     */
+    ByteBuffer view(final int offset, final int size) {
+      final ByteBuffer dup = mapped.duplicate();
+      dup.limit(offset + size).position(offset);
+      return dup.slice();
+    }
+
+    @Override
+    public String toString() {
+      return new StringBuilder(getClass().getSimpleName()).append("[file=").append(file).append(", allocatedSize=").append(getAllocatedSize()).append(']').toString();
+    }
+  }
+
+  /**
+   * A region allocated in a segment, shared by a location and all its copies.
+   */
+  static final class Region {
+    /**
+     * The segment in which the region is allocated.
+     */
+    final Segment segment;
+    /**
+     * The offset of the region in the segment.
+     */
+    final int offset;
+    /**
+     * The length of the region.
+     */
+    final int length;
+    /**
+     * The size of the data held in the region.
+     */
+    final int size;
+
+    /**
+     * @param segment the segment in which the region is allocated.
+     * @param offset the offset of the region in the segment.
+     * @param length the length of the region.
+     * @param size the size of the data held in the region.
+     */
+    Region(final Segment segment, final int offset, final int length, final int size) {
+      this.segment = segment;
+      this.offset = offset;
+      this.length = length;
+      this.size = size;
+    }
+
+    /**
+     * @return an independent view on the data held in this region.
+     */
+    ByteBuffer view() {
+      return segment.view(offset, size);
+    }
+  }
+
+  /**
+   * A phantom reference used to give back a region to its segment once no location references it any more.
+   */
+  private final class RegionReference extends PhantomReference<Region> {
+    /**
+     * The segment in which the region is allocated.
+     */
+    private final Segment segment;
+    /**
+     * The offset of the region in the segment.
+     */
+    private final int offset;
+    /**
+     * The length of the region.
+     */
+    private final int length;
+
+    /**
+     * @param region the referent.
+     */
+    private RegionReference(final Region region) {
+      super(region, releaseQueue);
+      this.segment = region.segment;
+      this.offset = region.offset;
+      this.length = region.length;
+    }
+  }
+}
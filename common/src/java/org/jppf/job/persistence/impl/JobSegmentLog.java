@@ -0,0 +1,690 @@
+/*
+ * JPPF.
+ * Copyright (C) 2005-2019 JPPF Team.
+ * http://www.jppf.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jppf.job.persistence.impl;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.*;
+import java.util.zip.CRC32;
+
+import org.jppf.job.persistence.*;
+import org.jppf.utils.DeleteFileVisitor;
+import org.slf4j.*;
+
+/**
+ * The append-only log of a single persisted job, made of one or more segment files in the job's directory.
+ * <p>Each record in a segment is made of a fixed-size header followed by the serialized job element. The header holds a marker, the size of the data,
+ * the type of job element, the task position if applicable, and a CRC32 checksum of the type, position and data.
+ * <p>The location of the latest record for each job element is kept in memory, and rebuilt by replaying the segments when the log is first opened.
+ * A record that fails validation, for instance because the driver died while writing it, ends the replay of its segment, which is truncated at that point.
+ * <p>All the methods of this class must be called while holding its {@link #lock}.
+ * @author Laurent Cohen
+ * @exclude
+ */
+final class JobSegmentLog {
+  /**
+   * Logger for this class.
+   */
+  private static final Logger log = LoggerFactory.getLogger(JobSegmentLog.class);
+  /**
+   * Determines whether the debug level is enabled in the log configuration, without the cost of a method call.
+   */
+  private static final boolean debugEnabled = log.isDebugEnabled();
+  /**
+   * Prefix for the segment file names.
+   */
+  static final String SEGMENT_PREFIX = "segment-";
+  /**
+   * Extension of the segment file names.
+   */
+  static final String SEGMENT_EXTENSION = ".log";
+  /**
+   * Marker at the start of each record header.
+   */
+  private static final int RECORD_MARKER = 0x4A505046;
+  /**
+   * Size of a record header: marker, data size, type, position and checksum.
+   */
+  static final int HEADER_SIZE = 4 + 4 + 1 + 4 + 4;
+  /**
+   * Record type of a task whose result was persisted, and whose data was discarded by a compaction.
+   */
+  private static final byte SUPERSEDED_TASK = 127;
+  /**
+   * Location of a task whose data was discarded by a compaction.
+   */
+  private static final long SUPERSEDED = -2L;
+  /**
+   * Number of bits of a location used for the offset of a record in its segment.
+   */
+  private static final int OFFSET_BITS = 40;
+  /**
+   * Used to synchronize the operations on this log.
+   */
+  final Lock lock = new ReentrantLock();
+  /**
+   * Whether a compaction of this log is already scheduled.
+   */
+  final AtomicBoolean compactionScheduled = new AtomicBoolean(false);
+  /**
+   * The directory holding the segments of this log.
+   */
+  private final Path dir;
+  /**
+   * Maximum size of a segment, beyond which a new segment is started.
+   */
+  private final long maxSegmentSize;
+  /**
+   * The segments of this log, mapped to their id.
+   */
+  private final NavigableMap<Integer, Segment> segments = new TreeMap<>();
+  /**
+   * Location and size of the latest job header record.
+   */
+  private long headerLocation = -1L;
+  /**
+   * Size of the latest job header record.
+   */
+  private int headerSize;
+  /**
+   * Location of the latest data provider record.
+   */
+  private long dataProviderLocation = -1L;
+  /**
+   * Size of the latest data provider record.
+   */
+  private int dataProviderSize;
+  /**
+   * Index of the task records.
+   */
+  private PositionIndex tasks = new PositionIndex();
+  /**
+   * Index of the task result records.
+   */
+  private PositionIndex results = new PositionIndex();
+  /**
+   * Total size of all the records in the segments.
+   */
+  private long totalSize;
+  /**
+   * Total size of the records which are still needed.
+   */
+  private long liveSize;
+  /**
+   * Whether the segments were opened and replayed.
+   */
+  private boolean opened;
+  /**
+   * Whether this log was deleted.
+   */
+  boolean deleted;
+
+  /**
+   * Initialize this log.
+   * @param dir the directory holding the segments of this log.
+   * @param maxSegmentSize maximum size of a segment.
+   */
+  JobSegmentLog(final Path dir, final long maxSegmentSize) {
+    this.dir = dir;
+    this.maxSegmentSize = maxSegmentSize;
+  }
+
+  /**
+   * Open the existing segments of this log and rebuild the index from their records, if this was not already done.
+   * @param create whether to create the job directory if it doesn't exist.
+   * @throws IOException if any I/O error occurs.
+   */
+  void open(final boolean create) throws IOException {
+    if (opened) return;
+    if (!Files.exists(dir)) {
+      if (!create) return;
+      Files.createDirectories(dir);
+    }
+    final List<Integer> ids = new ArrayList<>();
+    try (final DirectoryStream<Path> ds = Files.newDirectoryStream(dir, SEGMENT_PREFIX + "*" + SEGMENT_EXTENSION)) {
+      for (final Path path: ds) {
+        final String name = path.getFileName().toString();
+        try {
+          ids.add(Integer.valueOf(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_EXTENSION.length())));
+        } catch (@SuppressWarnings("unused") final NumberFormatException e) {
+          log.warn("ignoring unexpected file {}", path);
+        }
+      }
+    }
+    Collections.sort(ids);
+    for (final int id: ids) {
+      final Segment segment = new Segment(id, dir);
+      segments.put(id, segment);
+      replay(segment);
+    }
+    opened = true;
+    if (debugEnabled) log.debug("opened {}", this);
+  }
+
+  /**
+   * Append the specified job element to this log.
+   * @param info the job element to append.
+   * @return the segment to which the element was appended.
+   * @throws Exception if any error occurs.
+   */
+  Segment append(final PersistenceInfo info) throws Exception {
+    Segment segment = segments.isEmpty() ? null : segments.lastEntry().getValue();
+    if ((segment == null) || (segment.size >= maxSegmentSize)) segment = newSegment();
+    final long offset = segment.size;
+    final CRC32 crc = new CRC32();
+    final byte type = (byte) info.getType().ordinal();
+    final int position = info.getPosition();
+    updateChecksum(crc, type, position);
+    int size = 0;
+    try (final InputStream in = info.getInputStream()) {
+      final byte[] bytes = new byte[32 * 1024];
+      int n;
+      while ((n = in.read(bytes)) != -1) {
+        crc.update(bytes, 0, n);
+        writeFully(segment.channel, ByteBuffer.wrap(bytes, 0, n), offset + HEADER_SIZE + size);
+        size += n;
+      }
+    }
+    // the header is written last, so that a partially written record is detected when replaying the segment
+    writeFully(segment.channel, header(size, type, position, (int) crc.getValue()), offset);
+    segment.size = offset + HEADER_SIZE + size;
+    index(type, position, location(segment.id, offset), HEADER_SIZE + size);
+    return segment;
+  }
+
+  /**
+   * Read the data of the specified job element.
+   * <p>The data of a task whose result was persisted may have been discarded by a compaction. In this case the data of the result is returned instead,
+   * since it is the same task, in its executed state.
+   * @param type the type of job element.
+   * @param position the position of the task or task result, if applicable.
+   * @return the data as an array of bytes.
+   * @throws JobPersistenceException if the element is not in the log.
+   * @throws IOException if any I/O error occurs.
+   */
+  byte[] read(final PersistenceObjectType type, final int position) throws JobPersistenceException, IOException {
+    final long location;
+    final int size;
+    switch(type) {
+      case JOB_HEADER:
+        location = headerLocation;
+        size = headerSize;
+        break;
+      case DATA_PROVIDER:
+        location = dataProviderLocation;
+        size = dataProviderSize;
+        break;
+      case TASK:
+        if (tasks.getLocation(position) == SUPERSEDED) {
+          location = results.getLocation(position);
+          size = results.getSize(position);
+        } else {
+          location = tasks.getLocation(position);
+          size = tasks.getSize(position);
+        }
+        break;
+      default:
+        location = results.getLocation(position);
+        size = results.getSize(position);
+        break;
+    }
+    if (location < 0L) throw new JobPersistenceException(String.format("no %s%s persisted in %s", type, (position >= 0) ? " at position " + position : "", dir));
+    final byte[] data = new byte[size - HEADER_SIZE];
+    readFully(segments.get(segmentId(location)).channel, ByteBuffer.wrap(data), offset(location) + HEADER_SIZE);
+    return data;
+  }
+
+  /**
+   * @return the positions of the persisted tasks.
+   */
+  int[] getTaskPositions() {
+    return tasks.getPositions();
+  }
+
+  /**
+   * @return the positions of the persisted task results.
+   */
+  int[] getTaskResultPositions() {
+    return results.getPositions();
+  }
+
+  /**
+   * @return whether the job header is persisted.
+   */
+  boolean hasHeader() {
+    return headerLocation >= 0L;
+  }
+
+  /**
+   * Determine whether enough space is taken by records which are no longer needed to warrant a compaction.
+   * @return {@code true} if this log should be compacted, {@code false} otherwise.
+   */
+  boolean needsCompaction() {
+    final long dead = totalSize - liveSize;
+    return (segments.size() > 1) && (dead > maxSegmentSize / 2L) && (dead > liveSize);
+  }
+
+  /**
+   * Rewrite the records still needed into new segments, then delete the existing segments.
+   * Tasks for which a result was persisted are rewritten as markers without data, to preserve their position. Loading such a task returns its result.
+   * If the compaction fails, this log is closed and will be replayed, old segments first, the next time it is opened.
+   * @throws IOException if any I/O error occurs.
+   */
+  void compact() throws IOException {
+    final long before = totalSize;
+    final Map<Integer, Segment> oldSegments = new TreeMap<>(segments);
+    final long oldHeader = headerLocation, oldDataProvider = dataProviderLocation;
+    final int oldHeaderSize = headerSize, oldDataProviderSize = dataProviderSize;
+    final PositionIndex oldTasks = tasks, oldResults = results;
+    headerLocation = dataProviderLocation = -1L;
+    tasks = new PositionIndex();
+    results = new PositionIndex();
+    totalSize = liveSize = 0L;
+    final Set<Segment> written = new LinkedHashSet<>();
+    Segment segment = newSegment();
+    written.add(segment);
+    try {
+      if (oldHeader >= 0L) segment = copy(oldSegments, segment, written, (byte) PersistenceObjectType.JOB_HEADER.ordinal(), -1, oldHeader, oldHeaderSize);
+      if (oldDataProvider >= 0L) segment = copy(oldSegments, segment, written, (byte) PersistenceObjectType.DATA_PROVIDER.ordinal(), -1, oldDataProvider, oldDataProviderSize);
+      final byte taskType = (byte) PersistenceObjectType.TASK.ordinal(), resultType = (byte) PersistenceObjectType.TASK_RESULT.ordinal();
+      for (final int position: oldTasks.getPositions()) {
+        if (oldResults.getLocation(position) >= 0L) segment = copy(oldSegments, segment, written, SUPERSEDED_TASK, position, -1L, HEADER_SIZE);
+        else segment = copy(oldSegments, segment, written, taskType, position, oldTasks.getLocation(position), oldTasks.getSize(position));
+      }
+      for (final int position: oldResults.getPositions()) segment = copy(oldSegments, segment, written, resultType, position, oldResults.getLocation(position), oldResults.getSize(position));
+      // the new segments must be durable before the old ones are deleted
+      for (final Segment seg: written) seg.channel.force(false);
+    } catch (final IOException e) {
+      // replaying all the segments, old then new, restores the same state as before the compaction
+      closeAll();
+      segments.clear();
+      opened = false;
+      headerLocation = dataProviderLocation = -1L;
+      tasks = new PositionIndex();
+      results = new PositionIndex();
+      totalSize = liveSize = 0L;
+      throw e;
+    }
+    for (final Segment old: oldSegments.values()) {
+      segments.remove(old.id);
+      old.close();
+      Files.deleteIfExists(old.path);
+    }
+    if (debugEnabled) log.debug("compacted {} from {} to {} bytes", dir, before, totalSize);
+  }
+
+  /**
+   * Copy a record into the specified segment, or write a superseded task marker if {@code location} is negative.
+   * @param oldSegments the segments from which to copy.
+   * @param current the segment to write to.
+   * @param written the segments written so far.
+   * @param type the type of record.
+   * @param position the position of the task or result, if applicable.
+   * @param location the location of the record to copy.
+   * @param size the size of the record.
+   * @return the segment the record was written to.
+   * @throws IOException if any I/O error occurs.
+   */
+  private Segment copy(final Map<Integer, Segment> oldSegments, final Segment current, final Set<Segment> written, final byte type, final int position,
+    final long location, final int size) throws IOException {
+    Segment segment = current;
+    if (segment.size >= maxSegmentSize) {
+      segment = newSegment();
+      written.add(segment);
+    }
+    final long offset = segment.size;
+    if (location < 0L) {
+      final CRC32 crc = new CRC32();
+      updateChecksum(crc, type, position);
+      writeFully(segment.channel, header(0, type, position, (int) crc.getValue()), offset);
+    } else {
+      final FileChannel source = oldSegments.get(segmentId(location)).channel;
+      long count = 0L;
+      while (count < size) count += source.transferTo(offset(location) + count, size - count, segment.channel.position(offset + count));
+    }
+    segment.size = offset + size;
+    index(type, position, location(segment.id, offset), size);
+    return segment;
+  }
+
+  /**
+   * Close all the segments of this log.
+   */
+  void closeAll() {
+    for (final Segment segment: segments.values()) segment.close();
+  }
+
+  /**
+   * Close the segments and delete the directory of this log.
+   * @throws IOException if any I/O error occurs.
+   */
+  void delete() throws IOException {
+    closeAll();
+    segments.clear();
+    deleted = true;
+    if (Files.exists(dir)) Files.walkFileTree(dir, new DeleteFileVisitor());
+  }
+
+  /**
+   * Create a new segment after the last existing one.
+   * @return the new segment.
+   * @throws IOException if any I/O error occurs.
+   */
+  private Segment newSegment() throws IOException {
+    final int id = segments.isEmpty() ? 0 : segments.lastKey() + 1;
+    final Segment segment = new Segment(id, dir);
+    segments.put(id, segment);
+    return segment;
+  }
+
+  /**
+   * Rebuild the index from the records of the specified segment.
+   * @param segment the segment to replay.
+   * @throws IOException if any I/O error occurs.
+   */
+  private void replay(final Segment segment) throws IOException {
+    final FileChannel channel = segment.channel;
+    final long fileSize = channel.size();
+    final ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+    final ByteBuffer buffer = ByteBuffer.allocate(32 * 1024);
+    long offset = 0L;
+    while (offset + HEADER_SIZE <= fileSize) {
+      header.clear();
+      readFully(channel, header, offset);
+      header.flip();
+      final int marker = header.getInt(), size = header.getInt();
+      final byte type = header.get();
+      final int position = header.getInt(), checksum = header.getInt();
+      if ((marker != RECORD_MARKER) || (size < 0) || (offset + HEADER_SIZE + size > fileSize) || !isValidType(type)) break;
+      final CRC32 crc = new CRC32();
+      updateChecksum(crc, type, position);
+      long pos = offset + HEADER_SIZE;
+      final long end = pos + size;
+      while (pos < end) {
+        buffer.clear();
+        buffer.limit((int) Math.min(buffer.capacity(), end - pos));
+        readFully(channel, buffer, pos);
+        crc.update(buffer.array(), 0, buffer.limit());
+        pos += buffer.limit();
+      }
+      if ((int) crc.getValue() != checksum) break;
+      index(type, position, (type == SUPERSEDED_TASK) ? SUPERSEDED : location(segment.id, offset), HEADER_SIZE + size);
+      offset = end;
+    }
+    if (offset < fileSize) {
+      log.warn("segment {} has an incomplete or corrupted record at offset {}, truncating it from {} bytes", segment.path, offset, fileSize);
+      channel.truncate(offset);
+    }
+    segment.size = offset;
+  }
+
+  /**
+   * Update the index with the specified record.
+   * @param type the type of record.
+   * @param position the position of the task or result, if applicable.
+   * @param location the location of the record.
+   * @param size the size of the record.
+   */
+  private void index(final byte type, final int position, final long location, final int size) {
+    totalSize += size;
+    if (type == SUPERSEDED_TASK) {
+      tasks.put(position, SUPERSEDED, size);
+      return;
+    }
+    switch(PersistenceObjectType.values()[type]) {
+      case JOB_HEADER:
+        liveSize += size - ((headerLocation >= 0L) ? headerSize : 0);
+        headerLocation = location;
+        headerSize = size;
+        break;
+      case DATA_PROVIDER:
+        liveSize += size - ((dataProviderLocation >= 0L) ? dataProviderSize : 0);
+        dataProviderLocation = location;
+        dataProviderSize = size;
+        break;
+      case TASK:
+        final int previousTask = tasks.put(position, location, size);
+        // a task whose result is persisted is no longer needed
+        if (results.getLocation(position) < 0L) liveSize += size - Math.max(previousTask, 0);
+        break;
+      case TASK_RESULT:
+        final int previousResult = results.put(position, location, size);
+        liveSize += size - Math.max(previousResult, 0);
+        if ((previousResult < 0) && (tasks.getLocation(position) >= 0L)) liveSize -= tasks.getSize(position);
+        break;
+    }
+  }
+
+  @Override
+  public String toString() {
+    return new StringBuilder(getClass().getSimpleName()).append('[')
+      .append("dir=").append(dir)
+      .append(", nbSegments=").append(segments.size())
+      .append(", totalSize=").append(totalSize)
+      .append(", liveSize=").append(liveSize)
+      .append(']').toString();
+  }
+
+  /**
+   * @param type a record type.
+   * @return whether the type is valid.
+   */
+  private static boolean isValidType(final byte type) {
+    return (type == SUPERSEDED_TASK) || ((type >= 0) && (type < PersistenceObjectType.values().length));
+  }
+
+  /**
+   * Create a record header.
+   * @param size the size of the data.
+   * @param type the type of record.
+   * @param position the position of the task or result, if applicable.
+   * @param checksum the checksum of the record.
+   * @return a buffer ready to be written.
+   */
+  private static ByteBuffer header(final int size, final byte type, final int position, final int checksum) {
+    final ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+    header.putInt(RECORD_MARKER).putInt(size).put(type).putInt(position).putInt(checksum).flip();
+    return header;
+  }
+
+  /**
+   * Include the type and position of a record in its checksum.
+   * @param crc the checksum to update.
+   * @param type the type of record.
+   * @param position the position of the task or result, if applicable.
+   */
+  private static void updateChecksum(final CRC32 crc, final byte type, final int position) {
+    crc.update(type);
+    crc.update(position >>> 24);
+    crc.update(position >>> 16);
+    crc.update(position >>> 8);
+    crc.update(position);
+  }
+
+  /**
+   * Write the whole content of a buffer at the specified position in a channel.
+   * @param channel the channel to write to.
+   * @param buffer the data to write.
+   * @param position the position at which to write.
+   * @throws IOException if any I/O error occurs.
+   */
+  private static void writeFully(final FileChannel channel, final ByteBuffer buffer, final long position) throws IOException {
+    long pos = position;
+    while (buffer.hasRemaining()) pos += channel.write(buffer, pos);
+  }
+
+  /**
+   * Fill a buffer with data read at the specified position in a channel.
+   * @param channel the channel to read from.
+   * @param buffer the buffer to fill.
+   * @param position the position at which to read.
+   * @throws IOException if any I/O error occurs.
+   */
+  private static void readFully(final FileChannel channel, final ByteBuffer buffer, final long position) throws IOException {
+    long pos = position;
+    while (buffer.hasRemaining()) {
+      final int n = channel.read(buffer, pos);
+      if (n < 0) throw new EOFException("unexpected end of segment at position " + pos);
+      pos += n;
+    }
+  }
+
+  /**
+   * @param segmentId the id of a segment.
+   * @param offset the offset of a record in the segment.
+   * @return the location of the record.
+   */
+  private static long location(final int segmentId, final long offset) {
+    return ((long) segmentId << OFFSET_BITS) | offset;
+  }
+
+  /**
+   * @param location the location of a record.
+   * @return the id of the segment holding the record.
+   */
+  private static int segmentId(final long location) {
+    return (int) (location >>> OFFSET_BITS);
+  }
+
+  /**
+   * @param location the location of a record.
+   * @return the offset of the record in its segment.
+   */
+  private static long offset(final long location) {
+    return location & ((1L << OFFSET_BITS) - 1L);
+  }
+
+  /**
+   * A segment file of a job log.
+   */
+  static final class Segment {
+    /**
+     * The id of this segment, which also determines its order in the log.
+     */
+    private final int id;
+    /**
+     * The path of the segment file.
+     */
+    private final Path path;
+    /**
+     * The channel used to read and write the file.
+     */
+    final FileChannel channel;
+    /**
+     * The current size of this segment.
+     */
+    private long size;
+
+    /**
+     * Open or create the segment with the specified id.
+     * @param id the id of this segment.
+     * @param dir the directory of the job log.
+     * @throws IOException if any I/O error occurs.
+     */
+    private Segment(final int id, final Path dir) throws IOException {
+      this.id = id;
+      this.path = dir.resolve(SEGMENT_PREFIX + id + SEGMENT_EXTENSION);
+      this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+      this.size = channel.size();
+    }
+
+    /**
+     * Close this segment.
+     */
+    private void close() {
+      try {
+        channel.close();
+      } catch (final IOException e) {
+        log.warn("error closing {}: {}", path, e.toString());
+      }
+    }
+  }
+
+  /**
+   * Location and size of the records for task or task result positions, stored in arrays indexed by position.
+   */
+  private static final class PositionIndex {
+    /**
+     * The location of the record for each position, or -1 if there is none.
+     */
+    private long[] locations = new long[0];
+    /**
+     * The size of the record for each position.
+     */
+    private int[] sizes = new int[0];
+    /**
+     * The number of positions which have a record.
+     */
+    private int count;
+
+    /**
+     * Set the record for the specified position.
+     * @param position the position.
+     * @param location the location of the record.
+     * @param size the size of the record.
+     * @return the size of the previous record at this position, or -1 if there was none.
+     */
+    private int put(final int position, final long location, final int size) {
+      if (position >= locations.length) {
+        final int oldLength = locations.length;
+        final int newLength = Math.max(position + 1, Math.max(16, 2 * oldLength));
+        locations = Arrays.copyOf(locations, newLength);
+        Arrays.fill(locations, oldLength, newLength, -1L);
+        sizes = Arrays.copyOf(sizes, newLength);
+      }
+      final int previous = (locations[position] == -1L) ? -1 : sizes[position];
+      if (previous < 0) count++;
+      locations[position] = location;
+      sizes[position] = size;
+      return previous;
+    }
+
+    /**
+     * @param position the position.
+     * @return the location of the record, or -1 if there is none.
+     */
+    private long getLocation(final int position) {
+      return ((position >= 0) && (position < locations.length)) ? locations[position] : -1L;
+    }
+
+    /**
+     * @param position the position.
+     * @return the size of the record.
+     */
+    private int getSize(final int position) {
+      return ((position >= 0) && (position < sizes.length)) ? sizes[position] : 0;
+    }
+
+    /**
+     * @return the positions which have a record, in ascending order.
+     */
+    private int[] getPositions() {
+      final int[] result = new int[count];
+      int n = 0;
+      for (int i=0; i<locations.length; i++) {
+        if (locations[i] != -1L) result[n++] = i;
+      }
+      return result;
+    }
+  }
+}
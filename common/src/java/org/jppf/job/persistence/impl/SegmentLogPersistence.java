@@ -0,0 +1,356 @@
+/*
+ * JPPF.
+ * Copyright (C) 2005-2019 JPPF Team.
+ * http://www.jppf.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jppf.job.persistence.impl;
+
+import java.io.*;
+import java.nio.channels.*;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+import org.jppf.job.persistence.*;
+import org.jppf.persistence.AbstractFilePersistence;
+import org.jppf.utils.StringUtils;
+import org.jppf.utils.concurrent.JPPFThreadFactory;
+import org.slf4j.*;
+
+/**
+ * A file-based persistent store for jobs, where each job is persisted as an append-only log of segment files.
+ * The store's structure is made of a root directory, under which there is one directory per job, named after the job's uuid.
+ * Each job directory contains one or more files named <code>segment-<i>n</i>.log</code>, to which the job elements are appended as they are stored.
+ * <p>Compared to {@link DefaultFilePersistence}, this avoids creating, moving and listing one file per task and per task result.
+ * The location of each job element in the segments is kept in memory, and rebuilt from the segments when a job is first accessed after a restart.
+ * The segments written by concurrent {@code store()} operations are synced to disk together, before these operations return.
+ * When the records superseded by newer ones, including tasks whose result was persisted, take more space than the records still needed,
+ * the job's log is compacted in a background thread. After a compaction, loading a task which has a persisted result returns the data of its result.
+ * <p>This persistence is configured as follows:
+ * <pre class="jppf_pre">
+ * pkg = org.jppf.job.persistence.impl
+ * <span style="color: green"># segment log persistence with optional root directory and maximum segment size in megabytes</span>
+ * jppf.job.persistence = ${pkg}.SegmentLogPersistence [&lt;root_dir&gt; [&lt;max_segment_size&gt;]]</pre>
+ * The default root directory is {@code persistence} and the default maximum segment size is 64 MB.
+ * @author Laurent Cohen
+ */
+public class SegmentLogPersistence extends AbstractFilePersistence<PersistenceInfo, JobPersistenceException> implements JobPersistence {
+  /**
+   * Logger for this class.
+   */
+  private static Logger log = LoggerFactory.getLogger(SegmentLogPersistence.class);
+  /**
+   * Determines whether the debug level is enabled in the log configuration, without the cost of a method call.
+   */
+  private static boolean debugEnabled = log.isDebugEnabled();
+  /**
+   * The default root path if none is specified.
+   */
+  private static final String DEFAULT_ROOT = "persistence";
+  /**
+   * The default maximum size of a segment in megabytes.
+   */
+  private static final long DEFAULT_MAX_SEGMENT_SIZE = 64L;
+  /**
+   * The logs of the jobs accessed so far, mapped to their job uuid.
+   */
+  private final Map<String, JobSegmentLog> jobs = new HashMap<>();
+  /**
+   * Maximum size in bytes of a segment.
+   */
+  private final long maxSegmentSize;
+  /**
+   * Syncs the segments written by concurrent store operations.
+   */
+  private final GroupCommit groupCommit = new GroupCommit();
+  /**
+   * Performs the compactions of the job logs.
+   */
+  private final ExecutorService compactionExecutor = Executors.newSingleThreadExecutor(new JPPFThreadFactory("SegmentLogCompaction"));
+
+  /**
+   * Initialize this persistence with the root path {@link #DEFAULT_ROOT} under the current user directory.
+   */
+  public SegmentLogPersistence() {
+    this(DEFAULT_ROOT);
+  }
+
+  /**
+   * Initialize this persistence with the specified parameters.
+   * @param params the root directory for this persistence, optionally followed by the maximum size of a segment in megabytes.
+   */
+  public SegmentLogPersistence(final String... params) {
+    super(params.length > 0 ? params : new String[] { DEFAULT_ROOT });
+    long size = DEFAULT_MAX_SEGMENT_SIZE;
+    if (params.length > 1) {
+      try {
+        size = Long.valueOf(params[1]);
+      } catch (@SuppressWarnings("unused") final NumberFormatException e) {
+        log.warn("invalid maximum segment size '{}', using the default of {} MB", params[1], DEFAULT_MAX_SEGMENT_SIZE);
+      }
+      if (size < 1L) size = DEFAULT_MAX_SEGMENT_SIZE;
+    }
+    maxSegmentSize = size * 1024L * 1024L;
+  }
+
+  @Override
+  public void store(final Collection<PersistenceInfo> infos) throws JobPersistenceException {
+    final String uuid = infos.iterator().next().getJobUuid();
+    final Set<FileChannel> channels = new HashSet<>();
+    final boolean compact;
+    final JobSegmentLog job = lockJob(uuid, true);
+    try {
+      if (debugEnabled) log.debug("storing {}", infos);
+      job.open(true);
+      for (final PersistenceInfo info: infos) channels.add(job.append(info).channel);
+      compact = job.needsCompaction();
+    } catch (final Exception e) {
+      throw new JobPersistenceException(e);
+    } finally {
+      job.lock.unlock();
+    }
+    try {
+      groupCommit.sync(channels);
+    } catch (final IOException e) {
+      throw new JobPersistenceException(e);
+    }
+    if (compact && job.compactionScheduled.compareAndSet(false, true)) compactionExecutor.execute(() -> compact(job));
+  }
+
+  @Override
+  public List<InputStream> load(final Collection<PersistenceInfo> infos) throws JobPersistenceException {
+    if ((infos == null) || infos.isEmpty()) return null;
+    final String uuid = infos.iterator().next().getJobUuid();
+    final List<InputStream> result = new ArrayList<>(infos.size());
+    final JobSegmentLog job = lockJob(uuid, false);
+    if (job == null) return result;
+    try {
+      if (debugEnabled) log.debug("loading {}", infos);
+      job.open(false);
+      for (final PersistenceInfo info: infos) result.add(new ByteArrayInputStream(job.read(info.getType(), info.getPosition())));
+      return result;
+    } catch (final JobPersistenceException e) {
+      throw e;
+    } catch (final Exception e) {
+      throw new JobPersistenceException(e);
+    } finally {
+      job.lock.unlock();
+    }
+  }
+
+  @Override
+  public List<String> getPersistedJobUuids() throws JobPersistenceException {
+    try {
+      final List<String> result = new ArrayList<>();
+      if (Files.exists(rootPath)) {
+        try (DirectoryStream<Path> ds = Files.newDirectoryStream(rootPath, new DirectoryFilter())) {
+          for (Path path : ds) {
+            if (path != null) result.add(path.getFileName().toString());
+          }
+        }
+      }
+      if (debugEnabled) log.debug("uuids of persisted jobs: {}", result);
+      return result;
+    } catch (final Exception e) {
+      throw new JobPersistenceException(e);
+    }
+  }
+
+  @Override
+  public int[] getTaskPositions(final String jobUuid) throws JobPersistenceException {
+    final int[] result = getPositions(jobUuid, PersistenceObjectType.TASK);
+    if (debugEnabled) log.debug("positions of tasks for job uuid={} : {}", jobUuid, StringUtils.buildString(", ", "{", "}", result));
+    return result;
+  }
+
+  @Override
+  public int[] getTaskResultPositions(final String jobUuid) throws JobPersistenceException {
+    final int[] result = getPositions(jobUuid, PersistenceObjectType.TASK_RESULT);
+    if (debugEnabled) log.debug("positions of results for job uuid={} : {}", jobUuid, StringUtils.buildString(", ", "{", "}", result));
+    return result;
+  }
+
+  @Override
+  public void deleteJob(final String jobUuid) throws JobPersistenceException {
+    final JobSegmentLog job = lockJob(jobUuid, true);
+    try {
+      if (debugEnabled) log.debug("deleting job with uuid = {}", jobUuid);
+      job.delete();
+    } catch (final Exception e) {
+      throw new JobPersistenceException(e);
+    } finally {
+      synchronized(jobs) {
+        jobs.remove(jobUuid);
+      }
+      job.lock.unlock();
+    }
+  }
+
+  @Override
+  public boolean isJobPersisted(final String jobUuid) throws JobPersistenceException {
+    final JobSegmentLog job = lockJob(jobUuid, false);
+    if (job == null) return false;
+    try {
+      job.open(false);
+      return job.hasHeader();
+    } catch (final IOException e) {
+      throw new JobPersistenceException(e);
+    } finally {
+      job.lock.unlock();
+    }
+  }
+
+  /**
+   * Get the positions of the specified types of job elements.
+   * @param jobUuid the job uuid for which to get the positions.
+   * @param type the type of job elements, either {@link PersistenceObjectType#TASK} or {@link PersistenceObjectType#TASK_RESULT}.
+   * @return the positions of the job elements.
+   * @throws JobPersistenceException if any error occurs.
+   */
+  private int[] getPositions(final String jobUuid, final PersistenceObjectType type) throws JobPersistenceException {
+    final JobSegmentLog job = lockJob(jobUuid, false);
+    if (job == null) return new int[0];
+    try {
+      job.open(false);
+      return (type == PersistenceObjectType.TASK) ? job.getTaskPositions() : job.getTaskResultPositions();
+    } catch (final IOException e) {
+      throw new JobPersistenceException(e);
+    } finally {
+      job.lock.unlock();
+    }
+  }
+
+  /**
+   * Compact the specified job log.
+   * @param job the log to compact.
+   */
+  private void compact(final JobSegmentLog job) {
+    job.lock.lock();
+    try {
+      job.compactionScheduled.set(false);
+      if (!job.deleted && job.needsCompaction()) job.compact();
+    } catch (final Exception e) {
+      log.error("error compacting {}", job, e);
+    } finally {
+      job.lock.unlock();
+    }
+  }
+
+  /**
+   * Get and lock the log for the specified job.
+   * @param uuid uuid of the job.
+   * @param create whether to create the log if the job is not persisted.
+   * @return the locked log, or {@code null} if {@code create} is {@code false} and the job is not persisted.
+   */
+  private JobSegmentLog lockJob(final String uuid, final boolean create) {
+    while (true) {
+      final JobSegmentLog job;
+      synchronized(jobs) {
+        JobSegmentLog tmp = jobs.get(uuid);
+        if (tmp == null) {
+          final Path dir = getSubDir(uuid);
+          if (!create && !Files.exists(dir)) return null;
+          jobs.put(uuid, tmp = new JobSegmentLog(dir, maxSegmentSize));
+        }
+        job = tmp;
+      }
+      job.lock.lock();
+      // the job may have been deleted while waiting for the lock
+      if (!job.deleted) return job;
+      job.lock.unlock();
+    }
+  }
+
+  /** @exclude */
+  @Override
+  protected JobPersistenceException convertException(final Exception e) {
+    return (e instanceof JobPersistenceException) ? (JobPersistenceException) e : new JobPersistenceException(e);
+  }
+
+  /**
+   * Syncs the segments written by concurrent store operations in batches. The first thread to request a sync while no other sync is in progress syncs
+   * the segments requested by all the threads that are waiting, including itself, then wakes them up.
+   */
+  private static final class GroupCommit {
+    /**
+     * The batch that the next requests are added to.
+     */
+    private Batch current = new Batch();
+    /**
+     * Whether a batch is being synced.
+     */
+    private boolean syncing;
+
+    /**
+     * Sync the specified channels to disk, along with those of concurrent requests.
+     * @param channels the channels to sync.
+     * @throws IOException if the sync failed.
+     */
+    private void sync(final Collection<FileChannel> channels) throws IOException {
+      final Batch batch;
+      synchronized(this) {
+        batch = current;
+        batch.channels.addAll(channels);
+        try {
+          while (syncing && !batch.done) wait();
+        } catch (final InterruptedException e) {
+          throw new InterruptedIOException(e.getMessage());
+        }
+        if (batch.done) {
+          if (batch.error != null) throw new IOException(batch.error);
+          return;
+        }
+        syncing = true;
+        current = new Batch();
+      }
+      IOException error = null;
+      for (final FileChannel channel: batch.channels) {
+        try {
+          channel.force(false);
+        } catch (@SuppressWarnings("unused") final ClosedChannelException e) {
+          // the job was deleted or its log compacted in the meantime
+        } catch (final IOException e) {
+          if (error == null) error = e;
+        }
+      }
+      synchronized(this) {
+        batch.error = error;
+        batch.done = true;
+        syncing = false;
+        notifyAll();
+      }
+      if (error != null) throw error;
+    }
+  }
+
+  /**
+   * A set of channels synced together.
+   */
+  private static final class Batch {
+    /**
+     * The channels to sync.
+     */
+    private final Set<FileChannel> channels = new HashSet<>();
+    /**
+     * Whether the sync is complete.
+     */
+    private boolean done;
+    /**
+     * The error raised by the sync, if any.
+     */
+    private IOException error;
+  }
+}
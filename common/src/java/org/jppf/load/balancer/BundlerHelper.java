@@ -18,6 +18,8 @@
 
 package org.jppf.load.balancer;
 
+import org.jppf.node.protocol.JPPFDistributedJob;
+
 /**
  * Collection of static utility methods to help with bundler operations.
  * @author Laurent Cohen
@@ -35,6 +37,20 @@ public class BundlerHelper {
     bundler.feedback(nbTasks, totalTime);
   }
 
+  /**
+   * Provide feedback to a bundler from a channel after execution of a set of tasks of the specified job.
+   * If the bundler is a {@link JobAwarenessEx}, the job is passed along with the feedback data, otherwise this method
+   * is equivalent to {@link #updateBundler(Bundler, int, double) updateBundler(bundler, nbTasks, totalTime)}.
+   * @param bundler the load banlancer to update.
+   * @param job the job whose tasks were executed.
+   * @param nbTasks number of tasks that were executed.
+   * @param totalTime the total execution and transport time in nanoseconds.
+   */
+  public static void updateBundler(final Bundler<?> bundler, final JPPFDistributedJob job, final int nbTasks, final double totalTime) {
+    if (bundler instanceof JobAwarenessEx) ((JobAwarenessEx) bundler).feedback(job, nbTasks, totalTime);
+    else bundler.feedback(nbTasks, totalTime);
+  }
+
   /**
    * Provide feedback to a bundler with the result of using the bundle with the specified size.
    * The feedback data consists in providing a number of tasks that were executed, and their total execution time in milliseconds.
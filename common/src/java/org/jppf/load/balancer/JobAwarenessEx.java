@@ -0,0 +1,38 @@
+/*
+ * JPPF.
+ * Copyright (C) 2005-2019 JPPF Team.
+ * http://www.jppf.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.jppf.load.balancer;
+
+import org.jppf.node.protocol.JPPFDistributedJob;
+
+/**
+ * A bundler which is provided with the job whose tasks were executed, along with the feedback data.
+ * This allows the bundler to learn a distinct performance model for each job, or kind of job.
+ * @author Laurent Cohen
+ * @since 6.3
+ */
+public interface JobAwarenessEx extends JobAwareness {
+  /**
+   * Feedback the bundler with the result of executing the specified number of tasks of the specified job.
+   * @param job the job whose tasks were executed.
+   * @param nbTasks number of tasks that were executed.
+   * @param totalTime the total execution and transport time in nanoseconds.
+   */
+  void feedback(JPPFDistributedJob job, int nbTasks, double totalTime);
+}
@@ -0,0 +1,271 @@
+/*
+ * JPPF.
+ * Copyright (C) 2005-2019 JPPF Team.
+ * http://www.jppf.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.jppf.load.balancer.impl;
+
+import java.io.Serializable;
+import java.util.*;
+import java.util.concurrent.locks.*;
+
+import org.jppf.load.balancer.*;
+import org.jppf.load.balancer.persistence.PersistentState;
+import org.jppf.node.protocol.*;
+import org.slf4j.*;
+
+/**
+ * This bundler keeps a separate estimate of the time per task for each kind of job executed on its node, and computes the
+ * bundle size of a job such that its expected round-trip time matches a configured target.
+ * <p>A kind of job is identified by the value of a configurable job metadata, or by the job name when the metadata is not set.
+ * The time per task is a moving average of the round-trip time of the bundles divided by their number of tasks, and the
+ * estimates of the least recently used kinds of jobs are evicted when their number reaches the configured cache size.
+ * This allows a node which alternates between jobs with very different task durations to use a suitable bundle size
+ * for each of them, instead of relearning a single performance profile each time the job changes.
+ * @author Laurent Cohen
+ * @since 6.3
+ */
+public class CostModelBundler extends AbstractAdaptiveBundler<CostModelProfile> implements JobAwarenessEx, PersistentState {
+  /**
+   * Logger for this class.
+   */
+  private static Logger log = LoggerFactory.getLogger(CostModelBundler.class);
+  /**
+   * Determines whether debugging level is set for logging.
+   */
+  private static boolean debugEnabled = log.isDebugEnabled();
+  /**
+   * Determines whether trace level is set for logging.
+   */
+  private static boolean traceEnabled = log.isTraceEnabled();
+  /**
+   * The state of this bundler, encapsulated in a separate class for persistence.
+   */
+  private final CostModelState state;
+  /**
+   * Lock used to synchronize access to the load-balancer state.
+   */
+  private final Lock lock = new ReentrantLock();
+
+  /**
+   * Creates a new instance with the specified parameters.
+   * @param profile the parameters of the algorithm, grouped as a performance analysis profile.
+   */
+  public CostModelBundler(final CostModelProfile profile) {
+    super(profile);
+    state = new CostModelState(profile.getEstimateCacheSize());
+    if (debugEnabled) log.debug("Bundler#{}: cost model algorithm, profile={}", bundlerNumber, profile);
+  }
+
+  /**
+   * Compute the bundle size of the current job from the estimated time per task for this kind of job.
+   * @return the bundle size as an int value.
+   */
+  @Override
+  public int getBundleSize() {
+    final JPPFDistributedJob currentJob = job;
+    double timePerTask = 0d;
+    if (currentJob != null) {
+      lock.lock();
+      try {
+        final Estimate estimate = state.estimates.get(keyOf(currentJob));
+        if (estimate != null) timePerTask = estimate.timePerTask;
+      } finally {
+        lock.unlock();
+      }
+    }
+    final double size = (timePerTask > 0d) ? profile.getTargetTime() / timePerTask : profile.getInitialSize();
+    final int max = Math.max(1, (int) (profile.getMaxRelativeSize() * maxSize()));
+    return (int) Math.max(1L, Math.min(max, Math.round(size)));
+  }
+
+  /**
+   * Feedback this bundler for the current job.
+   * @param size the number of tasks executed.
+   * @param totalTime the time in nanoseconds it took to execute the tasks.
+   */
+  @Override
+  public void feedback(final int size, final double totalTime) {
+    feedback(job, size, totalTime);
+  }
+
+  @Override
+  public void feedback(final JPPFDistributedJob job, final int nbTasks, final double totalTime) {
+    if ((job == null) || (nbTasks <= 0) || (totalTime <= 0d)) return;
+    final double sample = totalTime / nbTasks;
+    final String key = keyOf(job);
+    lock.lock();
+    try {
+      final Estimate estimate = state.estimates.get(key);
+      if (estimate == null) state.estimates.put(key, new Estimate(sample));
+      else estimate.update(sample, profile.getSampleWeight());
+      if (traceEnabled) log.trace("Bundler#{}: new sample for '{}' [size={}, time={}], estimate={}", bundlerNumber, key, nbTasks, (long) totalTime, state.estimates.get(key));
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Get the key which identifies the kind of the specified job.
+   * @param job the job for which to get a key.
+   * @return the value of the configured metadata if the job has it, otherwise the job name or, if it is not set, the job uuid.
+   */
+  private String keyOf(final JPPFDistributedJob job) {
+    final String metadataKey = profile.getMetadataKey();
+    final JobMetadata metadata = (metadataKey == null) ? null : job.getMetadata();
+    if (metadata != null) {
+      final Object value = metadata.getParameter(metadataKey);
+      if (value != null) return metadataKey + '=' + value;
+    }
+    final String name = job.getName();
+    return (name != null) ? name : job.getUuid();
+  }
+
+  @Override
+  public void setup() {
+  }
+
+  @Override
+  public void dispose() {
+    super.dispose();
+    lock.lock();
+    try {
+      state.estimates.clear();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public Object getState() {
+    lock.lock();
+    try {
+      return state;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public void setState(final Object persistedState) {
+    final CostModelState other = (CostModelState) persistedState;
+    lock.lock();
+    try {
+      state.estimates.clear();
+      state.estimates.putAll(other.estimates);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public Lock getStateLock() {
+    return lock;
+  }
+
+  /**
+   * The estimated time per task for a kind of job.
+   */
+  private static class Estimate implements Serializable {
+    /**
+     * Explicit serialVersionUID.
+     */
+    private static final long serialVersionUID = 1L;
+    /**
+     * Moving average of the time per task in nanoseconds.
+     */
+    private double timePerTask;
+    /**
+     * Number of samples taken into account.
+     */
+    private long nbSamples;
+
+    /**
+     * Initialize this estimate with a first sample.
+     * @param sample the time per task in nanoseconds.
+     */
+    private Estimate(final double sample) {
+      this.timePerTask = sample;
+      this.nbSamples = 1L;
+    }
+
+    /**
+     * Add a sample to this estimate.
+     * @param sample the time per task in nanoseconds.
+     * @param weight the weight of the new sample in the moving average.
+     */
+    private void update(final double sample, final double weight) {
+      timePerTask += weight * (sample - timePerTask);
+      nbSamples++;
+    }
+
+    @Override
+    public String toString() {
+      return String.format("[timePerTask=%,.0f, nbSamples=%,d]", timePerTask, nbSamples);
+    }
+  }
+
+  /**
+   * A map of the estimates ordered by access, which evicts the least recently used estimates beyond a maximum size.
+   */
+  private static class EstimateCache extends LinkedHashMap<String, Estimate> {
+    /**
+     * Explicit serialVersionUID.
+     */
+    private static final long serialVersionUID = 1L;
+    /**
+     * The maximum number of estimates.
+     */
+    private final int maxSize;
+
+    /**
+     * Initialize this cache with the specified maximum size.
+     * @param maxSize the maximum number of estimates.
+     */
+    private EstimateCache(final int maxSize) {
+      super(16, 0.75f, true);
+      this.maxSize = maxSize;
+    }
+
+    @Override
+    protected boolean removeEldestEntry(final Map.Entry<String, Estimate> eldest) {
+      return size() > maxSize;
+    }
+  }
+
+  /**
+   * Holds the state of this bundler for persistence.
+   */
+  private static class CostModelState implements Serializable {
+    /**
+     * Explicit serialVersionUID.
+     */
+    private static final long serialVersionUID = 1L;
+    /**
+     * The estimates of the time per task, by kind of job.
+     */
+    private final EstimateCache estimates;
+
+    /**
+     * Initialize this state with the specified maximum number of estimates.
+     * @param maxSize the maximum number of estimates.
+     */
+    private CostModelState(final int maxSize) {
+      estimates = new EstimateCache(maxSize);
+    }
+  }
+}
@@ -0,0 +1,131 @@
+/*
+ * JPPF.
+ * Copyright (C) 2005-2019 JPPF Team.
+ * http://www.jppf.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.jppf.load.balancer.impl;
+
+import org.jppf.load.balancer.AbstractLoadBalancingProfile;
+import org.jppf.utils.TypedProperties;
+
+/**
+ * Parameters profile for the "costmodel" algorithm.
+ * @author Laurent Cohen
+ * @since 6.3
+ */
+public class CostModelProfile extends AbstractLoadBalancingProfile {
+  /**
+   * Explicit serialVersionUID.
+   */
+  private static final long serialVersionUID = 1L;
+  /**
+   * The target round-trip time of a bundle in nanoseconds.
+   */
+  private final double targetTime;
+  /**
+   * The bundle size used for a job that has no estimate yet.
+   */
+  private final int initialSize;
+  /**
+   * The maximum number of job estimates kept by each bundler.
+   */
+  private final int estimateCacheSize;
+  /**
+   * The name of the job metadata whose value identifies a kind of job. When not set, or when a job has no such metadata, the job name is used.
+   */
+  private final String metadataKey;
+  /**
+   * The weight, in the range ]0.0, 1.0], of a new sample in the moving average of the time per task.
+   */
+  private final double sampleWeight;
+  /**
+   * The maximum bundle size, expressed as a fraction in the range ]0.0, 1.0], of the current job size.
+   */
+  private final double maxRelativeSize;
+
+  /**
+   * Initialize this profile with values read from the specified configuration.
+   * @param config contains a mapping of the profile parameters to their value.
+   */
+  public CostModelProfile(final TypedProperties config) {
+    double doubleValue = config.getDouble("targetTime", 1000d);
+    targetTime = ((doubleValue <= 0d) ? 1000d : doubleValue) * 1_000_000d;
+    int intValue = config.getInt("initialSize", 5);
+    initialSize = (intValue <= 0) ? 5 : intValue;
+    intValue = config.getInt("estimateCacheSize", 100);
+    estimateCacheSize = (intValue <= 0) ? 100 : intValue;
+    metadataKey = config.getString("metadataKey", null);
+    doubleValue = config.getDouble("sampleWeight", 0.3d);
+    sampleWeight = ((doubleValue <= 0d) || (doubleValue > 1d)) ? 0.3d : doubleValue;
+    doubleValue = config.getDouble("maxRelativeSize", 0.5d);
+    maxRelativeSize =  ((doubleValue <= 0d) || (doubleValue > 1d)) ? 0.5d : doubleValue;
+  }
+
+  /**
+   * Get the target round-trip time of a bundle.
+   * @return the target time in nanoseconds.
+   */
+  public double getTargetTime() {
+    return targetTime;
+  }
+
+  /**
+   * Get the bundle size used for a job that has no estimate yet.
+   * @return the initial size as an {@code int}.
+   */
+  public int getInitialSize() {
+    return initialSize;
+  }
+
+  /**
+   * Get the maximum number of job estimates kept by each bundler.
+   * @return the cache size as an {@code int}.
+   */
+  public int getEstimateCacheSize() {
+    return estimateCacheSize;
+  }
+
+  /**
+   * Get the name of the job metadata whose value identifies a kind of job.
+   * @return the metadata key, or {@code null} if the job name is used.
+   */
+  public String getMetadataKey() {
+    return metadataKey;
+  }
+
+  /**
+   * Get the weight of a new sample in the moving average of the time per task.
+   * @return the weight as a {@code double} value between 0 and 1.
+   */
+  public double getSampleWeight() {
+    return sampleWeight;
+  }
+
+  /**
+   * Get the maximum bundle size, expressed as a fraction in the range ]0.0, 1.0], of the current job size.
+   * @return the max relative size as a {@code double} value between 0 and 1.
+   */
+  public double getMaxRelativeSize() {
+    return maxRelativeSize;
+  }
+
+  @Override
+  public String toString() {
+    return String.format("%s[targetTime=%f, initialSize=%d, estimateCacheSize=%d, metadataKey=%s, sampleWeight=%f, maxRelativeSize=%f]",
+      getClass().getSimpleName(), targetTime, initialSize, estimateCacheSize, metadataKey, sampleWeight, maxRelativeSize);
+  }
+}
@@ -32,9 +32,9 @@ import org.slf4j.*;
  * The scope of this bundler is all nodes, which means that it computes the size for all nodes.<br>
  * The mean execution time is computed as a moving average over a number of tasks, specified in the bundling
  * algorithm profile configuration as &quot;minSamplesToAnalyse&quot;<br>
- * This algorithm is well suited for relatively small networks (a few dozen nodes at most). It generates an overhead
- * every time the performance data for a node is updated. In the case of a small network, this overhead is not
- * large enough to impact the overall performance significantly.
+ * Each bundler holds a weight equal to the inverse of its mean execution time to the power of n, and the sum of the weights
+ * of all bundlers is maintained incrementally upon each performance update. The bundle size of each node is then derived on demand
+ * from its share of the sum of the weights, so that the cost of a performance update does not depend on the number of nodes.
  * @author Laurent Cohen
  */
 public class ProportionalBundler extends AbstractAdaptiveBundler<ProportionalProfile> implements PersistentState {
@@ -51,9 +51,21 @@ public class ProportionalBundler extends AbstractAdaptiveBundler<ProportionalPro
    */
   private static boolean traceEnabled = log.isTraceEnabled();
   /**
-   * Mapping of individual bundler to corresponding performance data - global.
+   * All the registered bundlers, used to synchronize the updates of the sum of the weights and to periodically recompute it.
    */
   private static final Set<ProportionalBundler> bundlers = new HashSet<>();
+  /**
+   * The sum of the weights of all the registered bundlers, only updated while holding the lock on {@code bundlers}.
+   */
+  private static volatile double weightSum;
+  /**
+   * Number of incremental updates of the sum of the weights since it was last recomputed from scratch.
+   */
+  private static int nbUpdates;
+  /**
+   * Whether any bundler has received a feedback. Until then, the bundle sizes are those defined in the profiles.
+   */
+  private static volatile boolean feedbackReceived;
   /**
    * The state of this bundler.
    */
@@ -62,6 +74,14 @@ public class ProportionalBundler extends AbstractAdaptiveBundler<ProportionalPro
    * Lock used to synchronize access to the load-balancer state.
    */
   private final Lock lock = new ReentrantLock();
+  /**
+   * The weight of this bundler, only updated while holding the lock on {@code bundlers}.
+   */
+  private volatile double weight;
+  /**
+   * Whether this bundler is registered, only accessed while holding the lock on {@code bundlers}.
+   */
+  private boolean registered;
 
   /**
    * Creates a new instance with the initial size of bundle as the start size.
@@ -73,21 +93,33 @@ public class ProportionalBundler extends AbstractAdaptiveBundler<ProportionalPro
     state.performanceCache = new PerformanceCache(profile.getPerformanceCacheSize(), profile.getInitialMeanTime());
     state.bundleSize = profile.getInitialSize();
     if (state.bundleSize < 1) state.bundleSize = 1;
+    weight = normalize(state.performanceCache.getMean());
     if (debugEnabled) log.debug("Bundler#" + bundlerNumber + ": Using proportional bundle size - the initial size is " + state.bundleSize + ", profile: " + profile);
   }
 
+  /**
+   * Compute the bundle size as the share of the weight of this bundler in the sum of all weights, applied to the maximum bundle size.
+   * This does not require any lock.
+   * @return the bundle size as an int value.
+   */
   @Override
   public int getBundleSize() {
-    lock.lock();
-    try {
-      return state.bundleSize;
-    } finally {
-      lock.unlock();
+    final double sum = weightSum;
+    if (!feedbackReceived || !(sum > 0d)) {
+      lock.lock();
+      try {
+        return state.bundleSize;
+      } finally {
+        lock.unlock();
+      }
     }
+    final int max = maxSize();
+    final long size = Math.round(weight / sum * max);
+    return (int) Math.max(1L, Math.min(max, size));
   }
 
   /**
-   * Set the current size of bundle.
+   * Set the size of bundle used until a feedback is received.
    * @param size the bundle size as an int value.
    */
   public void setBundleSize(final int size) {
@@ -109,15 +141,15 @@ public class ProportionalBundler extends AbstractAdaptiveBundler<ProportionalPro
     if (traceEnabled) log.trace("Bundler#" + bundlerNumber + ": new performance sample [size=" + size + ", time=" + (long) time + ']');
     if (size <= 0) return;
     final PerformanceSample sample = new PerformanceSample(time / size, size);
-    synchronized (bundlers) {
-      lock.lock();
-      try {
-        state.performanceCache.addSample(sample);
-      } finally {
-        lock.unlock();
-      }
-      computeBundleSizes();
+    lock.lock();
+    try {
+      state.performanceCache.addSample(sample);
+      updateWeight(normalize(state.performanceCache.getMean()));
+    } finally {
+      lock.unlock();
     }
+    feedbackReceived = true;
+    if (traceEnabled) log.trace("Bundler#" + bundlerNumber + ": weight=" + weight + ", weightSum=" + weightSum + ", bundleSize=" + getBundleSize());
   }
 
   /**
@@ -126,7 +158,11 @@ public class ProportionalBundler extends AbstractAdaptiveBundler<ProportionalPro
   @Override
   public void setup() {
     synchronized (bundlers) {
-      bundlers.add(this);
+      if (!registered) {
+        registered = true;
+        bundlers.add(this);
+        weightSum += weight;
+      }
     }
   }
 
@@ -137,7 +173,11 @@ public class ProportionalBundler extends AbstractAdaptiveBundler<ProportionalPro
   public void dispose() {
     super.dispose();
     synchronized (bundlers) {
-      bundlers.remove(this);
+      if (registered) {
+        registered = false;
+        bundlers.remove(this);
+        weightSum = bundlers.isEmpty() ? 0d : weightSum - weight;
+      }
     }
     lock.lock();
     try {
@@ -148,75 +188,29 @@ public class ProportionalBundler extends AbstractAdaptiveBundler<ProportionalPro
   }
 
   /**
-   * Update the bundler sizes.
+   * Set the weight of this bundler and update the sum of the weights accordingly.
+   * The sum is recomputed from scratch once every number of updates equal to the number of bundlers,
+   * which bounds the rounding errors accumulated by the incremental updates at an amortized constant cost.
+   * @param newWeight the new weight of this bundler.
    */
-  private void computeBundleSizes() {
+  private void updateWeight(final double newWeight) {
     synchronized (bundlers) {
-      double maxMean = Double.NEGATIVE_INFINITY;
-      double minMean = Double.POSITIVE_INFINITY;
-      ProportionalBundler minBundler = null;
-      double meanSum = 0d;
-      double m;
-      for (ProportionalBundler b : bundlers) {
-        b.getStateLock().lock();
-        try {
-          m = b.state.performanceCache.getMean();
-        } finally {
-          b.getStateLock().unlock();
-        }
-        if (m > maxMean) maxMean = m;
-        if (m < minMean) {
-          minMean = m;
-          minBundler = b;
-        }
-        meanSum += normalize(m);
-      }
-      final int max = maxSize();
-      int sum = 0;
-      double p;
-      for (final ProportionalBundler b : bundlers) {
-        b.getStateLock().lock();
-        try {
-          p = normalize(b.state.performanceCache.getMean()) / meanSum;
-        } finally {
-          b.getStateLock().unlock();
-        }
-        int size = Math.max(1, (int) (p * max));
-        if (size >= max) size = max - 1;
-        b.setBundleSize(size);
-        sum += size;
-      }
-      if ((sum < max) && (minBundler != null)) {
-        final int size = minBundler.getBundleSize();
-        minBundler.setBundleSize(size + (max - sum));
-      }
-      if (traceEnabled) {
-        final StringBuilder sb = new StringBuilder();
-        sb.append("bundler info:\n");
-        getStateLock().lock();
-        try {
-        sb.append("  minMean=").append(minMean).append(", maxMean=").append(maxMean).append(", maxSize=").append(max).append('\n');
-        } finally {
-          getStateLock().unlock();
-        }
-        for (ProportionalBundler b : bundlers) {
-          b.getStateLock().lock();
-          try {
-            sb.append("  bundler #").append(b.getBundlerNumber()).append(" : bundleSize=").append(b.getBundleSize()).append(", ");
-            sb.append(b.state.performanceCache).append('\n');
-          } finally {
-            b.getStateLock().unlock();
-          }
-        }
-        log.trace(sb.toString());
-      }
+      final double oldWeight = weight;
+      weight = newWeight;
+      if (!registered) return;
+      if (++nbUpdates >= bundlers.size()) {
+        nbUpdates = 0;
+        double sum = 0d;
+        for (final ProportionalBundler b: bundlers) sum += b.weight;
+        weightSum = sum;
+      } else weightSum += newWeight - oldWeight;
     }
   }
 
   /**
-   *
-   * @param x .
-   * @return .
+   * Compute the weight associated with a mean execution time.
+   * @param x the mean execution time.
+   * @return the inverse of the mean to the power of the proportionality factor.
    */
   private double normalize(final double x) {
     double r = 1.0d;
@@ -228,6 +222,7 @@ public class ProportionalBundler extends AbstractAdaptiveBundler<ProportionalPro
   public Object getState() {
     lock.lock();
     try {
+      state.bundleSize = getBundleSize();
       return state;
     } finally {
       lock.unlock();
@@ -241,7 +236,7 @@ public class ProportionalBundler extends AbstractAdaptiveBundler<ProportionalPro
     try {
       state.bundleSize = other.bundleSize;
       state.performanceCache = other.performanceCache;
-      computeBundleSizes();
+      updateWeight(normalize(state.performanceCache.getMean()));
     } finally {
       lock.unlock();
     }
@@ -0,0 +1,145 @@
+/*
+ * JPPF.
+ * Copyright (C) 2005-2019 JPPF Team.
+ * http://www.jppf.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jppf.management;
+
+import java.io.Serializable;
+
+/**
+ * A snapshot of the usage statistics of the cache of class definitions in the driver.
+ * @author Laurent Cohen
+ */
+public class ClassCacheStatistics implements Serializable {
+  /**
+   * Explicit serialVersionUID.
+   */
+  private static final long serialVersionUID = 1L;
+  /**
+   * Number of lookups which found the requested class definition.
+   */
+  private final long hits;
+  /**
+   * Number of lookups which did not find the requested class definition.
+   */
+  private final long misses;
+  /**
+   * Number of class definitions evicted from the cache.
+   */
+  private final long evictions;
+  /**
+   * Number of class definitions in the cache.
+   */
+  private final int entries;
+  /**
+   * Total size in bytes of the class definitions in the cache.
+   */
+  private final long size;
+  /**
+   * Maximum total size in bytes of the class definitions in the cache.
+   */
+  private final long maxSize;
+
+  /**
+   * Initialize this snapshot with the specified values.
+   * @param hits number of lookups which found the requested class definition.
+   * @param misses number of lookups which did not find the requested class definition.
+   * @param evictions number of class definitions evicted from the cache.
+   * @param entries number of class definitions in the cache.
+   * @param size total size in bytes of the class definitions in the cache.
+   * @param maxSize maximum total size in bytes of the class definitions in the cache.
+   */
+  public ClassCacheStatistics(final long hits, final long misses, final long evictions, final int entries, final long size, final long maxSize) {
+    this.hits = hits;
+    this.misses = misses;
+    this.evictions = evictions;
+    this.entries = entries;
+    this.size = size;
+    this.maxSize = maxSize;
+  }
+
+  /**
+   * Get the number of lookups which found the requested class definition.
+   * @return the number of cache hits.
+   */
+  public long getHits() {
+    return hits;
+  }
+
+  /**
+   * Get the number of lookups which did not find the requested class definition.
+   * @return the number of cache misses.
+   */
+  public long getMisses() {
+    return misses;
+  }
+
+  /**
+   * Get the ratio of lookups which found the requested class definition.
+   * @return the hit rate, between 0 and 1, or 0 if there was no lookup.
+   */
+  public double getHitRate() {
+    final long lookups = hits + misses;
+    return (lookups == 0L) ? 0d : (double) hits / (double) lookups;
+  }
+
+  /**
+   * Get the number of class definitions evicted from the cache to keep its size within the maximum.
+   * @return the number of evictions.
+   */
+  public long getEvictions() {
+    return evictions;
+  }
+
+  /**
+   * Get the number of class definitions in the cache.
+   * @return the number of cache entries.
+   */
+  public int getEntries() {
+    return entries;
+  }
+
+  /**
+   * Get the total size in bytes of the class definitions in the cache.
+   * @return the size of the cache in bytes.
+   */
+  public long getSize() {
+    return size;
+  }
+
+  /**
+   * Get the maximum total size in bytes of the class definitions in the cache.
+   * @return the maximum size of the cache in bytes.
+   */
+  public long getMaxSize() {
+    return maxSize;
+  }
+
+  @Override
+  public String toString() {
+    final StringBuilder sb = new StringBuilder();
+    sb.append(getClass().getSimpleName());
+    sb.append("[hits=").append(hits);
+    sb.append(", misses=").append(misses);
+    sb.append(", evictions=").append(evictions);
+    sb.append(", entries=").append(entries);
+    sb.append(", size=").append(size);
+    sb.append(", maxSize=").append(maxSize);
+    sb.append(']');
+    return sb.toString();
+  }
+}
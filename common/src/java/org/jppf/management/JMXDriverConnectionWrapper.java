@@ -116,6 +116,12 @@ public class JMXDriverConnectionWrapper extends JMXConnectionWrapper implements
     return (JPPFStatistics) invoke(MBEAN_NAME, "statistics");
   }
 
+  @Override
+  @SuppressWarnings("unchecked")
+  public Map<String, Double> latencyPercentiles() throws Exception {
+    return (Map<String, Double>) invoke(MBEAN_NAME, "latencyPercentiles");
+  }
+
   @Override
   public String restartShutdown(final Long shutdownDelay, final Long restartDelay) throws Exception {
     return (String) invoke(MBEAN_NAME, "restartShutdown", new Object[] {shutdownDelay, restartDelay}, new String[] {Long.class.getName(), Long.class.getName()});
@@ -263,6 +269,11 @@ public class JMXDriverConnectionWrapper extends JMXConnectionWrapper implements
     return (boolean) getAttribute(MBEAN_NAME, "Broadcasting");
   }
 
+  @Override
+  public ClassCacheStatistics classCacheStatistics() throws Exception {
+    return (ClassCacheStatistics) invoke(MBEAN_NAME, "classCacheStatistics");
+  }
+
   /**
    * Register a notification listener which will receive notifications from the specified MBean on the selected nodes.
    * @param selector determines which nodes will be selected.
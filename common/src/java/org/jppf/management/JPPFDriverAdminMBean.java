@@ -43,6 +43,16 @@ public interface JPPFDriverAdminMBean extends JPPFAdminMBean {
   @MBeanDescription("get the server statistics")
   JPPFStatistics statistics() throws Exception;
 
+  /**
+   * Get the 50th, 90th, 99th and 99.9th percentiles of the latency statistics recorded as histograms in the driver.
+   * The names are in the form "&lt;label&gt;.p50", "&lt;label&gt;.p90", "&lt;label&gt;.p99" and "&lt;label&gt;.p999", for instance "task.queue.time.p99".
+   * @return a mapping of percentile names to their value in milliseconds, empty if the histograms are disabled.
+   * @throws Exception if any error occurs.
+   */
+  @MBeanDescription("get the percentiles of the latency statistics")
+  @MBeanElementType(type = Map.class, parameters = { "java.lang.String", "java.lang.Double" })
+  Map<String, Double> latencyPercentiles() throws Exception;
+
   /**
    * Get the number of nodes attached to the driver.
    * Note that this method is equivalent to calling {@link #nbNodes(NodeSelector) nbNodes(null)}.
@@ -223,4 +233,12 @@ public interface JPPFDriverAdminMBean extends JPPFAdminMBean {
    */
   @MBeanDescription("whether the driver's connection information is broadcast via UDP multicast")
   boolean getBroadcasting() throws Exception;
+
+  /**
+   * Get the usage statistics of the cache of class definitions in the driver.
+   * @return a {@link ClassCacheStatistics} instance.
+   * @throws Exception if any error occurs.
+   */
+  @MBeanDescription("get the hit, miss and eviction counts of the driver's class cache")
+  ClassCacheStatistics classCacheStatistics() throws Exception;
 }
@@ -67,6 +67,10 @@ public class JPPFSystemInformation implements PropertiesCollection<String> {
    * The JPPF configuration.
    */
   private transient TypedProperties jppfConfig;
+  /**
+   * Number of modifications of the properties in this object, used to invalidate the results computed from them.
+   */
+  private transient volatile long modificationCount;
 
   /**
    * Initialize this system information object with the specified uuid.
@@ -259,6 +263,26 @@ public class JPPFSystemInformation implements PropertiesCollection<String> {
     synchronized(map) {
       map.put(key, properties);
       propertiesArray = map.values().toArray(new TypedProperties[map.size()]);
+      modificationCount++;
+    }
+  }
+
+  /**
+   * Get the number of modifications of the properties in this object. This value is local to the JVM and is not serialized.
+   * @return the modification count.
+   * @exclude
+   */
+  public long getModificationCount() {
+    return modificationCount;
+  }
+
+  /**
+   * Notify this object that some of its properties were modified directly, for instance via {@link #getJppf()}.
+   * @exclude
+   */
+  public void incrementModificationCount() {
+    synchronized(map) {
+      modificationCount++;
     }
   }
 
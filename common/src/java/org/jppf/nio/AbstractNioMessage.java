@@ -107,7 +107,7 @@ public abstract class AbstractNioMessage extends AbstractNioMessageBase {
     }
     if (currentLength > 0) {
       if (currentObject == null) {
-        final DataLocation location = IOHelper.createDataLocationMemorySensitive(currentLength);
+        final DataLocation location = IOHelper.createNioDataLocation(currentLength);
         currentObject = ssl ? new SSLNioObject(location, sslHandler) : new PlainNioObject(channel.getSocketChannel(), location);
       }
       try {
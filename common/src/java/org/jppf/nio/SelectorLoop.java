@@ -0,0 +1,122 @@
+/*
+ * JPPF.
+ * Copyright (C) 2005-2019 JPPF Team.
+ * http://www.jppf.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jppf.nio;
+
+import java.nio.channels.*;
+
+import org.jppf.utils.ExceptionUtils;
+import org.slf4j.*;
+
+/**
+ * A selection loop of a {@link StatelessNioServer}, associating a {@link Selector} with its {@link SelectorSynchronizer}.
+ * A server always has at least one loop, which is run by the server thread itself. Additional loops, if any, are each run by their own thread.
+ * Each channel registered with the server is pinned to a single loop for its whole lifetime.
+ * @author Laurent Cohen
+ */
+class SelectorLoop implements Runnable {
+  /**
+   * Logger for this class.
+   */
+  private static final Logger log = LoggerFactory.getLogger(SelectorLoop.class);
+  /**
+   * Determines whether the debug level is enabled in the log configuration, without the cost of a method call.
+   */
+  private static final boolean debugEnabled = log.isDebugEnabled();
+  /**
+   * The server which owns this loop.
+   */
+  final StatelessNioServer<?> server;
+  /**
+   * The selector handled by this loop.
+   */
+  final Selector selector;
+  /**
+   * Used to synchronize on the selector for blocking operations.
+   */
+  final SelectorSynchronizer sync;
+
+  /**
+   * Initialize this loop with the specified server, selector and synchronizer.
+   * @param server the server which owns this loop.
+   * @param selector the selector handled by this loop.
+   * @param sync used to synchronize on the selector for blocking operations.
+   */
+  SelectorLoop(final StatelessNioServer<?> server, final Selector selector, final SelectorSynchronizer sync) {
+    this.server = server;
+    this.selector = selector;
+    this.sync = sync;
+  }
+
+  /**
+   * Initialize this loop with the specified server and a new selector.
+   * @param server the server which owns this loop.
+   * @throws Exception if the selector could not be opened.
+   */
+  SelectorLoop(final StatelessNioServer<?> server) throws Exception {
+    this.server = server;
+    this.selector = Selector.open();
+    this.sync = new SelectorSynchronizerLock(selector);
+  }
+
+  @Override
+  public void run() {
+    try {
+      select();
+    } catch (final ClosedSelectorException e) {
+      if (debugEnabled) log.debug("selector closed for {}", this);
+    } catch (final Throwable t) {
+      log.error("error in selector loop for {} : {}", server.getClass().getSimpleName(), ExceptionUtils.getStackTrace(t));
+    } finally {
+      server.end();
+    }
+  }
+
+  /**
+   * Run the selection loop until the server is stopped.
+   * @throws Exception if any error occurs.
+   */
+  void select() throws Exception {
+    final long selectTimeout = server.selectTimeout;
+    final boolean hasTimeout = selectTimeout > 0L;
+    int n = 0;
+    while (!server.isStopped() && !server.externalStopCondition()) {
+      sync.waitForZeroAndSetToMinusOne();
+      try {
+        n = hasTimeout ? selector.select(selectTimeout) : selector.select();
+      } finally {
+        sync.setToZeroIfNegative();
+      }
+      if (n > 0) server.go(selector.selectedKeys());
+    }
+  }
+
+  /**
+   * Close the selector of this loop.
+   */
+  void close() {
+    sync.wakeUpAndSetOrIncrement();
+    try {
+      selector.close();
+    } catch (final Exception e) {
+      log.error(e.getMessage(), e);
+    } finally {
+      sync.decrement();
+    }
+  }
+}
@@ -21,8 +21,11 @@ package org.jppf.nio;
 import java.nio.channels.*;
 import java.util.*;
 import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.jppf.utils.*;
+import org.jppf.utils.concurrent.ThreadUtils;
+import org.jppf.utils.configuration.JPPFProperties;
 import org.slf4j.*;
 
 /**
@@ -35,6 +38,10 @@ public abstract class StatelessNioServer<C extends AbstractNioContext> extends N
    * Logger for this class.
    */
   private static final Logger log = LoggerFactory.getLogger(StatelessNioServer.class);
+  /**
+   * Determines whether debug logging level is enabled.
+   */
+  private static final boolean debugEnabled = log.isDebugEnabled();
   /**
    * Determines whether trace logging level is enabled.
    */
@@ -51,6 +58,14 @@ public abstract class StatelessNioServer<C extends AbstractNioContext> extends N
    * 
    */
   protected KeysetHandler<C> acceptHandler, readHandler, writeHandler;
+  /**
+   * The selection loops of this server. The first one is always run by this server's thread and uses its {@link #selector}.
+   */
+  private SelectorLoop[] loops;
+  /**
+   * Round-robin counter used to pin each new channel to one of the selection loops.
+   */
+  private final AtomicInteger loopCounter = new AtomicInteger(0);
 
   /**
    * @param identifier the channel identifier for channels handled by this server.
@@ -60,6 +75,7 @@ public abstract class StatelessNioServer<C extends AbstractNioContext> extends N
    */
   public StatelessNioServer(final int identifier, final boolean useSSL, final TypedProperties configuration) throws Exception {
     super(identifier, useSSL, null, configuration);
+    initSelectorLoops();
   }
 
   /**
@@ -72,6 +88,7 @@ public abstract class StatelessNioServer<C extends AbstractNioContext> extends N
    */
   protected StatelessNioServer(final String name, final int identifier, final boolean useSSL, final TypedProperties configuration) throws Exception {
     super(name, identifier, useSSL, null, configuration);
+    initSelectorLoops();
   }
 
   /**
@@ -84,6 +101,7 @@ public abstract class StatelessNioServer<C extends AbstractNioContext> extends N
    */
   public StatelessNioServer(final int[] ports, final int[] sslPorts, final int identifier, final TypedProperties configuration) throws Exception {
     super(ports, sslPorts, identifier, configuration);
+    initSelectorLoops();
   }
 
   @Override
@@ -113,20 +131,32 @@ public abstract class StatelessNioServer<C extends AbstractNioContext> extends N
    */
   protected abstract void initReaderAndWriter();
 
+  /**
+   * Create the selection loops of this server.
+   * @throws Exception if any error occurs.
+   */
+  private void initSelectorLoops() throws Exception {
+    final int n = getNbSelectorThreads();
+    loops = new SelectorLoop[n];
+    loops[0] = new SelectorLoop(this, selector, sync);
+    for (int i=1; i<n; i++) loops[i] = new SelectorLoop(this);
+    if (debugEnabled) log.debug("{} uses {} selector threads", getName(), n);
+  }
+
+  /**
+   * Get the number of selector threads for this server. Each selector thread handles its own subset of the channels registered with this server.
+   * This default implementation reads the number from the configuration. Subclasses may override this behavior.
+   * @return the number of selector threads, always at least 1.
+   */
+  protected int getNbSelectorThreads() {
+    return (configuration == null) ? 1 : Math.max(1, configuration.get(JPPFProperties.NIO_SELECTOR_THREADS));
+  }
+
   @Override
   public void run() {
     try {
-      final boolean hasTimeout = selectTimeout > 0L;
-      int n = 0;
-      while (!isStopped() && !externalStopCondition()) {
-        sync.waitForZeroAndSetToMinusOne();
-        try {
-          n = hasTimeout ? selector.select(selectTimeout) : selector.select();
-        } finally {
-          sync.setToZeroIfNegative();
-        }
-        if (n > 0) go(selector.selectedKeys());
-      }
+      for (int i=1; i<loops.length; i++) ThreadUtils.startDaemonThread(loops[i], getName() + "-selector-" + i);
+      loops[0].select();
     } catch (final Throwable t) {
       log.error("error in selector loop for {} : {}", getClass().getSimpleName(), ExceptionUtils.getStackTrace(t));
     } finally {
@@ -258,17 +288,18 @@ public abstract class StatelessNioServer<C extends AbstractNioContext> extends N
     if (newOps != ops) {
       if (traceEnabled) log.trace(String.format("updating interestOps from %d to %d for %s", ops, newOps, key.attachment()));
       context.setInterestOps(newOps);
-      sync.wakeUpAndSetOrIncrement();
+      final SelectorSynchronizer keySync = loopFor(key).sync;
+      keySync.wakeUpAndSetOrIncrement();
       try {
         key.interestOps(newOps);
       } finally {
-        sync.decrement();
+        keySync.decrement();
       }
     }
   }
 
   /**
-   * Register the specified channel with this server's selectior.
+   * Register the specified channel with one of this server's selectors, chosen in a round-robin fashion.
    * @param channelHandler the context associated with the channel.
    * @param channel the channel to register.
    * @throws Exception if any error occurs.
@@ -276,14 +307,50 @@ public abstract class StatelessNioServer<C extends AbstractNioContext> extends N
   public void registerChannel(final NioChannelHandler channelHandler, final SocketChannel channel) throws Exception {
     final int ops = SelectionKey.OP_READ;
     channelHandler.setInterestOps(ops);
-    sync.wakeUpAndSetOrIncrement();
+    final SelectorLoop loop = (loops.length == 1) ? loops[0] : loops[(loopCounter.getAndIncrement() & Integer.MAX_VALUE) % loops.length];
+    loop.sync.wakeUpAndSetOrIncrement();
     try {
-      channelHandler.setSelectionKey(channel.register(selector, ops, channelHandler));
+      channelHandler.setSelectionKey(channel.register(loop.selector, ops, channelHandler));
     } finally {
-      sync.decrement();
+      loop.sync.decrement();
     }
   }
 
+  /**
+   * Get the selection loop to which the specified key belongs.
+   * @param key the key to lookup.
+   * @return a {@link SelectorLoop} instance, defaulting to the loop run by this server's thread.
+   */
+  private SelectorLoop loopFor(final SelectionKey key) {
+    if (loops.length > 1) {
+      final Selector keySelector = key.selector();
+      for (final SelectorLoop loop: loops) {
+        if (loop.selector == keySelector) return loop;
+      }
+    }
+    return loops[0];
+  }
+
+  /**
+   * Get the key which represents the registration of the specified channel with any of this server's selectors.
+   * @param channel the channel to lookup.
+   * @return the channel's {@link SelectionKey}, or {@code null} if the channel is not registered with this server.
+   */
+  public SelectionKey keyFor(final SelectableChannel channel) {
+    for (final SelectorLoop loop: loops) {
+      final SelectionKey key = channel.keyFor(loop.selector);
+      if (key != null) return key;
+    }
+    return null;
+  }
+
+  @Override
+  public void removeAllConnections() {
+    if (!isStopped()) return;
+    super.removeAllConnections();
+    for (int i=1; i<loops.length; i++) loops[i].close();
+  }
+
   /**
    * Set the interest ops of a specified selection key.
    * This method is proposed as a convenience, to encapsulate the inner locking mechanism.
@@ -326,16 +393,18 @@ public abstract class StatelessNioServer<C extends AbstractNioContext> extends N
    * @return a list of {@link C} instances that passed the filter, possibly empty but never {@code null}.
    */
   public Map<String, C> performContextAction(final ContextFilter<C> filter, final ContextAction<C> action) {
-    Set<SelectionKey> keys = null;
-    sync.wakeUpAndSetOrIncrement();
-    try {
-      keys  = new HashSet<>(selector.keys());
-    } catch (final Exception e) {
-      log.error(e.getMessage(), e);
-    } finally {
-      sync.decrement();
+    final Set<SelectionKey> keys = new HashSet<>();
+    for (final SelectorLoop loop: loops) {
+      loop.sync.wakeUpAndSetOrIncrement();
+      try {
+        keys.addAll(loop.selector.keys());
+      } catch (final Exception e) {
+        log.error(e.getMessage(), e);
+      } finally {
+        loop.sync.decrement();
+      }
     }
-    if (keys == null) return Collections.emptyMap();
+    if (keys.isEmpty()) return Collections.emptyMap();
     final Map<String, C> channels = new HashMap<>(keys.size());
     for (final SelectionKey key: keys) {
       @SuppressWarnings("unchecked")
@@ -79,6 +79,15 @@ public class AcceptorNioServer extends StatelessNioServer<AcceptorContext> {
     if (debugEnabled) log.debug("{} initialized", getClass().getSimpleName());
   }
 
+  /**
+   * The acceptor only performs the initial handshake before handing each connection over to another server, so it always uses a single selector.
+   * @return {@code 1}.
+   */
+  @Override
+  protected int getNbSelectorThreads() {
+    return 1;
+  }
+
   @Override
   protected void handleRead(final SelectionKey key) throws Exception {
     AcceptorMessageReader.read((AcceptorContext) key.attachment());
@@ -0,0 +1,414 @@
+/*
+ * JPPF.
+ * Copyright (C) 2005-2019 JPPF Team.
+ * http://www.jppf.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jppf.node.policy;
+
+import java.util.*;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+
+import org.jppf.node.policy.ExecutionPolicy.*;
+import org.jppf.utils.PropertiesCollection;
+
+/**
+ * An index of the attributes of a set of nodes, used to compute the nodes matching an execution policy with set operations
+ * instead of evaluating the policy against each node.
+ * <p>For each property referenced by a policy, the index holds the nodes grouped by their string value, along with the values pre-parsed as numbers.
+ * These per-property indexes are built lazily, upon the first policy that references the property, then maintained as nodes are added or removed.
+ * <p>The rules that can be computed from the index are {@link Equal}, {@link MoreThan}, {@link AtLeast}, {@link AtMost}, {@link LessThan},
+ * {@link OneOf}, {@link RegExp} and {@link Contains}, provided their left operand is a property name and their value is a literal,
+ * along with the logical rules that combine them. Any other rule is evaluated against each of the candidate nodes, when it is a child of an
+ * {@code AND} rule, otherwise the whole policy is deemed not indexable.
+ * <p>Instances of this class are not thread-safe and must be protected by external synchronization.
+ * @param <N> the type of the nodes.
+ * @author Laurent Cohen
+ * @exclude
+ */
+public class AttributeIndex<N> {
+  /**
+   * The indexed nodes, mapped to their attributes.
+   */
+  private final Map<N, PropertiesCollection<String>> nodes = new LinkedHashMap<>();
+  /**
+   * Mapping of property names to their index.
+   */
+  private final Map<String, PropertyIndex> properties = new HashMap<>();
+
+  /**
+   * Add a node to this index, or update its attributes if it is already indexed.
+   * @param node the node to add.
+   * @param info the attributes of the node.
+   */
+  public void add(final N node, final PropertiesCollection<String> info) {
+    if ((node == null) || (info == null)) return;
+    nodes.put(node, info);
+    for (final PropertyIndex index: properties.values()) {
+      index.remove(node);
+      index.add(node, info.getProperty(index.name));
+    }
+  }
+
+  /**
+   * Remove a node from this index.
+   * @param node the node to remove.
+   */
+  public void remove(final N node) {
+    if (nodes.remove(node) == null) return;
+    for (final PropertyIndex index: properties.values()) index.remove(node);
+  }
+
+  /**
+   * Remove all the nodes from this index.
+   */
+  public void clear() {
+    nodes.clear();
+    properties.clear();
+  }
+
+  /**
+   * Discard the per-property indexes, so they will be rebuilt from the current attributes of the nodes when they are next needed.
+   * This should be called whenever the attributes of the nodes may have changed.
+   */
+  public void refresh() {
+    properties.clear();
+  }
+
+  /**
+   * Determine whether the specified node is in this index.
+   * @param node the node to check.
+   * @return {@code true} if the node is indexed, {@code false} otherwise.
+   */
+  public boolean contains(final N node) {
+    return nodes.containsKey(node);
+  }
+
+  /**
+   * @return the number of indexed nodes.
+   */
+  public int size() {
+    return nodes.size();
+  }
+
+  /**
+   * Compute the set of indexed nodes that match the specified policy.
+   * The policy context must have been set beforehand, in case the policy has rules which are not indexable.
+   * @param policy the policy to match.
+   * @return the set of matching nodes, or {@code null} if the policy cannot be computed from the index.
+   */
+  public Set<N> matchingNodes(final ExecutionPolicy policy) {
+    if (policy == null) return new HashSet<>(nodes.keySet());
+    return match(policy);
+  }
+
+  /**
+   * Compute the set of nodes that match the specified policy.
+   * @param policy the policy to match.
+   * @return the set of matching nodes, or {@code null} if the policy cannot be computed from the index.
+   */
+  private Set<N> match(final ExecutionPolicy policy) {
+    final Class<?> c = policy.getClass();
+    if (c == AndRule.class) return matchAnd(policy.getChildren());
+    if (c == OrRule.class) {
+      final Set<N> result = new HashSet<>();
+      for (final ExecutionPolicy child: policy.getChildren()) {
+        final Set<N> set = match(child);
+        if (set == null) return null;
+        result.addAll(set);
+      }
+      return result;
+    }
+    if (c == XorRule.class) {
+      final ExecutionPolicy[] children = policy.getChildren();
+      final Set<N> result = match(children[0]);
+      if (result == null) return null;
+      for (int i=1; i<children.length; i++) {
+        final Set<N> set = match(children[i]);
+        if (set == null) return null;
+        for (final N node: set) {
+          if (!result.remove(node)) result.add(node);
+        }
+      }
+      return result;
+    }
+    if (c == NotRule.class) {
+      final Set<N> set = match(policy.getChildren()[0]);
+      if (set == null) return null;
+      final Set<N> result = new HashSet<>(nodes.keySet());
+      result.removeAll(set);
+      return result;
+    }
+    if (c == AcceptAll.class) return new HashSet<>(nodes.keySet());
+    if (c == RejectAll.class) return new HashSet<>();
+    if (!(policy instanceof LeftOperandRule)) return null;
+    final Expression<?> left = ((LeftOperandRule) policy).leftOperand;
+    if (left.getValueType() != ValueType.PROPERTY_NAME) return null;
+    final String name = left.getExpression();
+    if (c == Equal.class) return matchEqual((Equal) policy, name);
+    if ((c == MoreThan.class) || (c == AtLeast.class) || (c == AtMost.class) || (c == LessThan.class)) return matchRange((BinaryNumericRule) policy, name);
+    if (c == OneOf.class) return matchOneOf((OneOf) policy, name);
+    if (c == RegExp.class) {
+      final Pattern pattern = ((RegExp) policy).getPattern();
+      if (pattern == null) return new HashSet<>();
+      return getIndex(name).matchValues(value -> pattern.matcher(value).matches());
+    }
+    if (c == Contains.class) {
+      final Contains contains = (Contains) policy;
+      if (!contains.value.isLiteral()) return null;
+      final String value = contains.value.evaluate(null);
+      if (value == null) return new HashSet<>();
+      if (contains.ignoreCase) {
+        final String lower = value.toLowerCase();
+        return getIndex(name).matchValues(s -> s.toLowerCase().contains(lower));
+      }
+      return getIndex(name).matchValues(s -> s.contains(value));
+    }
+    return null;
+  }
+
+  /**
+   * Compute the intersection of the nodes matching the specified rules. The rules which are not indexable are evaluated against each node in
+   * the intersection of the indexable ones.
+   * @param rules the rules to match.
+   * @return the set of matching nodes, or {@code null} if none of the rules is indexable.
+   */
+  private Set<N> matchAnd(final ExecutionPolicy[] rules) {
+    Set<N> result = null;
+    final List<ExecutionPolicy> notIndexable = new ArrayList<>();
+    for (final ExecutionPolicy rule: rules) {
+      final Set<N> set = match(rule);
+      if (set == null) notIndexable.add(rule);
+      else if (result == null) result = set;
+      else result.retainAll(set);
+    }
+    if (result == null) return null;
+    if (!notIndexable.isEmpty()) {
+      for (final Iterator<N> it = result.iterator(); it.hasNext();) {
+        final PropertiesCollection<String> info = nodes.get(it.next());
+        for (final ExecutionPolicy rule: notIndexable) {
+          if (!rule.evaluate(info)) {
+            it.remove();
+            break;
+          }
+        }
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Compute the set of nodes that match an {@link Equal} rule.
+   * @param rule the rule to match.
+   * @param name the name of the property to match.
+   * @return the set of matching nodes, or {@code null} if the rule is not indexable.
+   */
+  private Set<N> matchEqual(final Equal rule, final String name) {
+    final PropertyIndex index;
+    if (rule.numberValue != null) {
+      if (!rule.numberValue.isLiteral()) return null;
+      final Double value = rule.numberValue.evaluate(null);
+      if (value == null) return new HashSet<>();
+      final Set<N> set = getIndex(name).byNumber.get(value);
+      return (set == null) ? new HashSet<>() : new HashSet<>(set);
+    } else if (rule.stringValue != null) {
+      if (!rule.stringValue.isLiteral()) return null;
+      final String value = rule.stringValue.evaluate(null);
+      if (value == null) return new HashSet<>();
+      index = getIndex(name);
+      if (rule.ignoreCase) return index.matchValues(value::equalsIgnoreCase);
+      final Set<N> set = index.byValue.get(value);
+      return (set == null) ? new HashSet<>() : new HashSet<>(set);
+    } else if (rule.booleanValue != null) {
+      if (!rule.booleanValue.isLiteral()) return null;
+      final Set<N> trueSet = getIndex(name).matchValues("true"::equalsIgnoreCase);
+      if (rule.booleanValue.evaluate(null)) return trueSet;
+      final Set<N> result = new HashSet<>(nodes.keySet());
+      result.removeAll(trueSet);
+      return result;
+    }
+    final Set<N> result = new HashSet<>(nodes.keySet());
+    result.removeAll(getIndex(name).values.keySet());
+    return result;
+  }
+
+  /**
+   * Compute the set of nodes that match a numeric comparison rule.
+   * @param rule the rule to match.
+   * @param name the name of the property to match.
+   * @return the set of matching nodes, or {@code null} if the rule is not indexable.
+   */
+  private Set<N> matchRange(final BinaryNumericRule rule, final String name) {
+    if (!rule.expression.isLiteral()) return null;
+    final Double value = rule.expression.evaluate(null);
+    if ((value == null) || value.isNaN()) return new HashSet<>();
+    final NavigableMap<Double, Set<N>> byNumber = getIndex(name).byNumber;
+    // -0.0 and 0.0 are distinct keys in the map, but are equal for the numeric comparison operators
+    final boolean zero = value == 0d;
+    final NavigableMap<Double, Set<N>> range;
+    final Class<?> c = rule.getClass();
+    if (c == MoreThan.class) range = byNumber.subMap(zero ? 0d : value, false, Double.POSITIVE_INFINITY, true);
+    else if (c == AtLeast.class) range = byNumber.subMap(zero ? -0d : value, true, Double.POSITIVE_INFINITY, true);
+    else if (c == AtMost.class) range = byNumber.headMap(zero ? 0d : value, true);
+    else range = byNumber.headMap(zero ? -0d : value, false);
+    final Set<N> result = new HashSet<>();
+    for (final Set<N> set: range.values()) result.addAll(set);
+    return result;
+  }
+
+  /**
+   * Compute the set of nodes that match a {@link OneOf} rule.
+   * @param rule the rule to match.
+   * @param name the name of the property to match.
+   * @return the set of matching nodes, or {@code null} if the rule is not indexable.
+   */
+  private Set<N> matchOneOf(final OneOf rule, final String name) {
+    final PropertyIndex index = getIndex(name);
+    final Set<N> result = new HashSet<>();
+    if (rule.numbers != null) {
+      for (final Expression<Double> expr: rule.numbers) {
+        if (!expr.isLiteral()) return null;
+        final Double value = expr.evaluate(null);
+        final Set<N> set = (value == null) ? null : index.byNumber.get(value);
+        if (set != null) result.addAll(set);
+      }
+    } else if (rule.strings != null) {
+      for (final Expression<String> expr: rule.strings) {
+        if (!expr.isLiteral()) return null;
+        final String value = expr.evaluate(null);
+        if (value == null) {
+          for (final N node: nodes.keySet()) {
+            if (!index.values.containsKey(node)) result.add(node);
+          }
+        } else if (rule.ignoreCase) result.addAll(index.matchValues(value::equalsIgnoreCase));
+        else {
+          final Set<N> set = index.byValue.get(value);
+          if (set != null) result.addAll(set);
+        }
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Get the index for the specified property, building it if needed.
+   * @param name the name of the property.
+   * @return a {@link PropertyIndex} instance.
+   */
+  private PropertyIndex getIndex(final String name) {
+    PropertyIndex index = properties.get(name);
+    if (index == null) {
+      index = new PropertyIndex(name);
+      for (final Map.Entry<N, PropertiesCollection<String>> entry: nodes.entrySet()) index.add(entry.getKey(), entry.getValue().getProperty(name));
+      properties.put(name, index);
+    }
+    return index;
+  }
+
+  /**
+   * The inverted index of a single property.
+   */
+  private final class PropertyIndex {
+    /**
+     * The name of the property.
+     */
+    private final String name;
+    /**
+     * Mapping of the string values of the property to the nodes which have them.
+     */
+    private final Map<String, Set<N>> byValue = new HashMap<>();
+    /**
+     * Mapping of the values of the property which are valid numbers to the nodes which have them.
+     */
+    private final NavigableMap<Double, Set<N>> byNumber = new TreeMap<>();
+    /**
+     * Mapping of the nodes which have a value for the property to this value, as it was when the node was indexed.
+     */
+    private final Map<N, String> values = new HashMap<>();
+
+    /**
+     * @param name the name of the property.
+     */
+    private PropertyIndex(final String name) {
+      this.name = name;
+    }
+
+    /**
+     * Add a node with the specified value.
+     * @param node the node to add.
+     * @param value the value of the property for the node, possibly {@code null}.
+     */
+    private void add(final N node, final String value) {
+      if (value == null) return;
+      values.put(node, value);
+      byValue.computeIfAbsent(value, k -> new HashSet<>()).add(node);
+      final Double number = parseNumber(value);
+      if (number != null) byNumber.computeIfAbsent(number, k -> new HashSet<>()).add(node);
+    }
+
+    /**
+     * Remove a node from this index.
+     * @param node the node to remove.
+     */
+    private void remove(final N node) {
+      final String value = values.remove(node);
+      if (value == null) return;
+      removeFrom(byValue, value, node);
+      final Double number = parseNumber(value);
+      if (number != null) removeFrom(byNumber, number, node);
+    }
+
+    /**
+     * Get the nodes whose value of the property satisfies the specified condition.
+     * The condition is evaluated once for each distinct value.
+     * @param condition the condition to evaluate.
+     * @return a set of nodes, possibly empty.
+     */
+    private Set<N> matchValues(final Predicate<String> condition) {
+      final Set<N> result = new HashSet<>();
+      for (final Map.Entry<String, Set<N>> entry: byValue.entrySet()) {
+        if (condition.test(entry.getKey())) result.addAll(entry.getValue());
+      }
+      return result;
+    }
+  }
+
+  /**
+   * Remove a node from the set mapped to the specified key, and remove the mapping if the set becomes empty.
+   * @param <K> the type of keys.
+   * @param <E> the type of nodes.
+   * @param map the map to update.
+   * @param key the key of the set.
+   * @param node the node to remove.
+   */
+  private static <K, E> void removeFrom(final Map<K, Set<E>> map, final K key, final E node) {
+    final Set<E> set = map.get(key);
+    if ((set != null) && set.remove(node) && set.isEmpty()) map.remove(key);
+  }
+
+  /**
+   * Parse the specified value as a number, in the same way as the numeric rules do.
+   * @param value the value to parse.
+   * @return the parsed value, or {@code null} if it is not a valid number.
+   */
+  private static Double parseNumber(final String value) {
+    try {
+      return Double.valueOf(value);
+    } catch (@SuppressWarnings("unused") final NumberFormatException e) {
+      return null;
+    }
+  }
+}
@@ -0,0 +1,360 @@
+/*
+ * JPPF.
+ * Copyright (C) 2005-2019 JPPF Team.
+ * http://www.jppf.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jppf.node.policy;
+
+import java.util.*;
+import java.util.regex.Pattern;
+
+import org.jppf.management.JPPFSystemInformation;
+import org.jppf.utils.PropertiesCollection;
+
+/**
+ * A compiled form of an execution policy, whose result only depends on the attributes of the nodes it is evaluated against.
+ * <p>Only policies made of logical rules and of rules comparing the value of a node property with literal values can be compiled.
+ * Their literal operands are resolved and parsed once, at compilation time, so that evaluating the compiled form does not need a
+ * policy context and avoids the boxing of the values. Since the result is a pure function of the node's attributes, it is also cached for each node,
+ * until the node's {@link JPPFSystemInformation} is modified.
+ * <p>Policies with the same XML representation share the same compiled form, and thus the same cached results.
+ * @author Laurent Cohen
+ * @exclude
+ */
+public final class CompiledPolicy {
+  /**
+   * Maximum number of distinct compiled policies kept in memory.
+   */
+  private static final int MAX_POLICIES = 1024;
+  /**
+   * The compiled policies, mapped to the XML representation of the policies they were compiled from, in least recently used order.
+   */
+  private static final Map<String, CompiledPolicy> policies = new PolicyCache();
+  /**
+   * The evaluator for the whole policy tree.
+   */
+  private final Evaluator evaluator;
+  /**
+   * The cached results for each node. The keys are compared by identity and do not prevent the nodes' information from being garbage-collected.
+   */
+  private final Map<JPPFSystemInformation, Result> results = new WeakHashMap<>();
+
+  /**
+   * Initialize this compiled policy with the specified evaluator.
+   * @param evaluator the evaluator for the whole policy tree.
+   */
+  private CompiledPolicy(final Evaluator evaluator) {
+    this.evaluator = evaluator;
+  }
+
+  /**
+   * Get the compiled form of the specified policy. The compilation is only attempted once for a given policy instance.
+   * @param policy the policy to compile.
+   * @return the compiled policy, or {@code null} if the policy cannot be compiled.
+   */
+  public static CompiledPolicy compile(final ExecutionPolicy policy) {
+    if (policy == null) return null;
+    if (!policy.compilationDone) {
+      policy.compiled = doCompile(policy);
+      policy.compilationDone = true;
+    }
+    return policy.compiled;
+  }
+
+  /**
+   * Compile the specified policy, or get an existing compiled form of an identical policy.
+   * @param policy the policy to compile.
+   * @return the compiled policy, or {@code null} if the policy cannot be compiled.
+   */
+  private static CompiledPolicy doCompile(final ExecutionPolicy policy) {
+    final Evaluator evaluator = compileRule(policy);
+    if (evaluator == null) return null;
+    final String key = policy.toString();
+    synchronized(policies) {
+      CompiledPolicy compiled = policies.get(key);
+      if (compiled == null) policies.put(key, compiled = new CompiledPolicy(evaluator));
+      return compiled;
+    }
+  }
+
+  /**
+   * Evaluate this compiled policy against the specified node attributes, without caching the result.
+   * @param info the attributes of the node.
+   * @return {@code true} if the node is accepted, {@code false} otherwise.
+   */
+  public boolean evaluate(final PropertiesCollection<String> info) {
+    return evaluator.test(info);
+  }
+
+  /**
+   * Evaluate this compiled policy against the specified node information, using the cached result if the information was not modified since it was computed.
+   * @param info the information of the node.
+   * @return {@code true} if the node is accepted, {@code false} otherwise.
+   */
+  public boolean evaluate(final JPPFSystemInformation info) {
+    final long modificationCount = info.getModificationCount();
+    synchronized(results) {
+      final Result result = results.get(info);
+      if ((result != null) && (result.modificationCount == modificationCount)) return result.value;
+    }
+    final boolean value = evaluator.test(info);
+    synchronized(results) {
+      results.put(info, new Result(modificationCount, value));
+    }
+    return value;
+  }
+
+  /**
+   * Compile the specified rule.
+   * @param policy the rule to compile.
+   * @return an evaluator for the rule, or {@code null} if the rule cannot be compiled.
+   */
+  private static Evaluator compileRule(final ExecutionPolicy policy) {
+    final Class<?> c = policy.getClass();
+    if ((c == ExecutionPolicy.AndRule.class) || (c == ExecutionPolicy.OrRule.class) || (c == ExecutionPolicy.XorRule.class)) {
+      final ExecutionPolicy[] children = policy.getChildren();
+      final Evaluator[] evaluators = new Evaluator[children.length];
+      for (int i=0; i<children.length; i++) {
+        if ((evaluators[i] = compileRule(children[i])) == null) return null;
+      }
+      if (c == ExecutionPolicy.AndRule.class) return info -> {
+        for (final Evaluator evaluator: evaluators) {
+          if (!evaluator.test(info)) return false;
+        }
+        return true;
+      };
+      if (c == ExecutionPolicy.OrRule.class) return info -> {
+        for (final Evaluator evaluator: evaluators) {
+          if (evaluator.test(info)) return true;
+        }
+        return false;
+      };
+      return info -> {
+        boolean b = evaluators[0].test(info);
+        for (int i=1; i<evaluators.length; i++) b ^= evaluators[i].test(info);
+        return b;
+      };
+    }
+    if (c == ExecutionPolicy.NotRule.class) {
+      final Evaluator evaluator = compileRule(policy.getChildren()[0]);
+      return (evaluator == null) ? null : info -> !evaluator.test(info);
+    }
+    if (c == AcceptAll.class) return info -> true;
+    if (c == RejectAll.class) return info -> false;
+    if (!(policy instanceof LeftOperandRule)) return null;
+    final Expression<?> left = ((LeftOperandRule) policy).leftOperand;
+    if (left.getValueType() != ValueType.PROPERTY_NAME) return null;
+    final String name = left.getExpression();
+    final ValueType type = ((PropertyNameExpression) left).getTargetValueType();
+    if (c == Equal.class) return compileEqual((Equal) policy, name, type);
+    if ((c == MoreThan.class) || (c == AtLeast.class) || (c == AtMost.class) || (c == LessThan.class)) {
+      final BinaryNumericRule rule = (BinaryNumericRule) policy;
+      if ((type != ValueType.NUMERIC) || !rule.expression.isLiteral()) return null;
+      final Double value = rule.expression.evaluate(null);
+      if (value == null) return info -> false;
+      final double b = value;
+      return info -> {
+        final String s = info.getProperty(name);
+        return (s != null) && rule.accepts(parseNumber(s), b);
+      };
+    }
+    if (c == OneOf.class) return compileOneOf((OneOf) policy, name, type);
+    if (c == RegExp.class) {
+      if (type != ValueType.STRING) return null;
+      final Pattern pattern = ((RegExp) policy).getPattern();
+      if (pattern == null) return info -> false;
+      return info -> {
+        final String s = info.getProperty(name);
+        return (s != null) && pattern.matcher(s).matches();
+      };
+    }
+    if (c == Contains.class) {
+      final Contains rule = (Contains) policy;
+      if ((type != ValueType.STRING) || !rule.value.isLiteral()) return null;
+      final String value = rule.value.evaluate(null);
+      if (value == null) return info -> false;
+      if (rule.ignoreCase) {
+        final String lower = value.toLowerCase();
+        return info -> {
+          final String s = info.getProperty(name);
+          return (s != null) && s.toLowerCase().contains(lower);
+        };
+      }
+      return info -> {
+        final String s = info.getProperty(name);
+        return (s != null) && s.contains(value);
+      };
+    }
+    return null;
+  }
+
+  /**
+   * Compile an {@link Equal} rule.
+   * @param rule the rule to compile.
+   * @param name the name of the property to compare.
+   * @param type the type to which the property value is converted.
+   * @return an evaluator for the rule, or {@code null} if the rule cannot be compiled.
+   */
+  private static Evaluator compileEqual(final Equal rule, final String name, final ValueType type) {
+    if (rule.numberValue != null) {
+      if ((type != ValueType.NUMERIC) || !rule.numberValue.isLiteral()) return null;
+      final Double value = rule.numberValue.evaluate(null);
+      if (value == null) return info -> false;
+      // an unparseable value is converted to NaN, which must then not be accepted
+      if (value.isNaN()) return null;
+      final double b = value;
+      return info -> {
+        final String s = info.getProperty(name);
+        // same semantics as Double.equals()
+        return (s != null) && (Double.compare(parseNumber(s), b) == 0);
+      };
+    } else if (rule.stringValue != null) {
+      if ((type != ValueType.STRING) || !rule.stringValue.isLiteral()) return null;
+      final String value = rule.stringValue.evaluate(null);
+      if (value == null) return info -> false;
+      if (rule.ignoreCase) return info -> value.equalsIgnoreCase(info.getProperty(name));
+      return info -> value.equals(info.getProperty(name));
+    } else if (rule.booleanValue != null) {
+      if ((type != ValueType.BOOLEAN) || !rule.booleanValue.isLiteral()) return null;
+      final Boolean value = rule.booleanValue.evaluate(null);
+      if (value == null) return info -> false;
+      final boolean b = value;
+      return info -> "true".equalsIgnoreCase(info.getProperty(name)) == b;
+    }
+    return null;
+  }
+
+  /**
+   * Compile a {@link OneOf} rule.
+   * @param rule the rule to compile.
+   * @param name the name of the property to compare.
+   * @param type the type to which the property value is converted.
+   * @return an evaluator for the rule, or {@code null} if the rule cannot be compiled.
+   */
+  private static Evaluator compileOneOf(final OneOf rule, final String name, final ValueType type) {
+    if (rule.numbers != null) {
+      if (type != ValueType.NUMERIC) return null;
+      final double[] values = new double[rule.numbers.size()];
+      int count = 0;
+      for (final Expression<Double> expr: rule.numbers) {
+        if (!expr.isLiteral()) return null;
+        final Double value = expr.evaluate(null);
+        if ((value != null) && value.isNaN()) return null;
+        if (value != null) values[count++] = value;
+      }
+      final double[] numbers = Arrays.copyOf(values, count);
+      return info -> {
+        final String s = info.getProperty(name);
+        if (s == null) return false;
+        final double a = parseNumber(s);
+        for (final double b: numbers) {
+          if (Double.compare(a, b) == 0) return true;
+        }
+        return false;
+      };
+    } else if (rule.strings != null) {
+      if (type != ValueType.STRING) return null;
+      final String[] strings = new String[rule.strings.size()];
+      boolean acceptsNull = false;
+      for (int i=0; i<strings.length; i++) {
+        final Expression<String> expr = rule.strings.get(i);
+        if (!expr.isLiteral()) return null;
+        if ((strings[i] = expr.evaluate(null)) == null) acceptsNull = true;
+      }
+      final boolean ignoreCase = rule.ignoreCase, nullAccepted = acceptsNull;
+      return info -> {
+        final String s = info.getProperty(name);
+        if (s == null) return nullAccepted;
+        for (final String value: strings) {
+          if ((value != null) && (ignoreCase ? s.equalsIgnoreCase(value) : s.equals(value))) return true;
+        }
+        return false;
+      };
+    }
+    return info -> false;
+  }
+
+  /**
+   * Parse the specified value as a {@code double}, in the same way as the numeric rules do.
+   * @param value the value to parse.
+   * @return the parsed value, or {@link Double#NaN} if it is not a valid number.
+   */
+  private static double parseNumber(final String value) {
+    try {
+      return Double.parseDouble(value);
+    } catch (@SuppressWarnings("unused") final NumberFormatException e) {
+      return Double.NaN;
+    }
+  }
+
+  /**
+   * Evaluates a compiled rule against the attributes of a node.
+   */
+  @FunctionalInterface
+  private interface Evaluator {
+    /**
+     * Evaluate the rule against the specified node attributes.
+     * @param info the attributes of the node.
+     * @return {@code true} if the node is accepted, {@code false} otherwise.
+     */
+    boolean test(PropertiesCollection<String> info);
+  }
+
+  /**
+   * A cached result of this policy for a node.
+   */
+  private static final class Result {
+    /**
+     * The modification count of the node information at the time the result was computed.
+     */
+    private final long modificationCount;
+    /**
+     * The result of the evaluation.
+     */
+    private final boolean value;
+
+    /**
+     * @param modificationCount the modification count of the node information at the time the result was computed.
+     * @param value the result of the evaluation.
+     */
+    private Result(final long modificationCount, final boolean value) {
+      this.modificationCount = modificationCount;
+      this.value = value;
+    }
+  }
+
+  /**
+   * A map of the compiled policies ordered by access, which evicts the least recently used policies beyond {@link #MAX_POLICIES}.
+   */
+  private static class PolicyCache extends LinkedHashMap<String, CompiledPolicy> {
+    /**
+     * Explicit serialVersionUID.
+     */
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Initialize this cache in access order.
+     */
+    private PolicyCache() {
+      super(16, 0.75f, true);
+    }
+
+    @Override
+    protected boolean removeEldestEntry(final Map.Entry<String, CompiledPolicy> eldest) {
+      return size() > MAX_POLICIES;
+    }
+  }
+}
@@ -63,6 +63,14 @@ public abstract class ExecutionPolicy implements Serializable {
    * Whether an exception was already raised when evaluating this policy.
    */
   transient boolean hadException;
+  /**
+   * The compiled form of this policy, if any.
+   */
+  transient CompiledPolicy compiled;
+  /**
+   * Whether the compilation of this policy was already attempted.
+   */
+  transient boolean compilationDone;
 
   /**
    * Initialize this policy with the specified children.
@@ -69,6 +69,14 @@ public class RegExp extends LeftOperandRule {
     return pattern.matcher((String) o).matches();
   }
 
+  /**
+   * Get the compiled regular expression.
+   * @return a {@link Pattern}, or {@code null} if there is no regular expression.
+   */
+  Pattern getPattern() {
+    return (regExp == null) ? null : pattern;
+  }
+
   @Override
   public String toString(final int n) {
     return new StringBuilder(indent(n)).append("<RegExp>\n")
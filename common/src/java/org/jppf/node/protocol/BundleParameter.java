@@ -171,5 +171,17 @@ public enum BundleParameter {
   /**
    * Whether a job graph is already being handled by a driver.
    */
-  JOB_GRAPH_ALREADY_HANDLED
+  JOB_GRAPH_ALREADY_HANDLED,
+  /**
+   * Positions of the tasks whose results are sent by a node while the other tasks of the bundle are still executing.
+   */
+  PARTIAL_RESULTS_POSITIONS,
+  /**
+   * Number of partial results sent by a node for a bundle before its final results.
+   */
+  PARTIAL_RESULTS_COUNT,
+  /**
+   * Positions of the tasks in the final results sent by a node for a bundle, when some of its results were sent as partial results.
+   */
+  FINAL_RESULTS_POSITIONS
 }
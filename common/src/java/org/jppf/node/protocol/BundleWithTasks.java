@@ -28,6 +28,11 @@ import org.jppf.utils.Pair;
  * @exclude
  */
 public class BundleWithTasks extends Pair<TaskBundle, List<Task<?>>> {
+  /**
+   * Whether the tasks were handed to the execution manager while the bundle was being received.
+   */
+  private boolean streamed;
+
   /**
    * Construct.
    * @param bundle the task bundle.
@@ -50,4 +55,20 @@ public class BundleWithTasks extends Pair<TaskBundle, List<Task<?>>> {
   public List<Task<?>> getTasks() {
     return second();
   }
+
+  /**
+   * Determine whether the tasks were handed to the execution manager while the bundle was being received.
+   * @return {@code true} if the tasks are already being executed, {@code false} otherwise.
+   */
+  public boolean isStreamed() {
+    return streamed;
+  }
+
+  /**
+   * Specify whether the tasks were handed to the execution manager while the bundle was being received.
+   * @param streamed {@code true} if the tasks are already being executed, {@code false} otherwise.
+   */
+  public void setStreamed(final boolean streamed) {
+    this.streamed = streamed;
+  }
 }
@@ -185,4 +185,11 @@ public interface TaskBundle extends JPPFDistributedJob, Metadata {
   default boolean isNotification() {
     return false;
   }
+
+  /**
+   * @return whether this bundle holds results sent by a node while other tasks of the same bundle are still executing.
+   */
+  default boolean isPartialResults() {
+    return getParameter(BundleParameter.PARTIAL_RESULTS_POSITIONS, null) != null;
+  }
 }
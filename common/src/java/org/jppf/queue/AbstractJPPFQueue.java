@@ -19,11 +19,10 @@
 package org.jppf.queue;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.locks.*;
 
-import org.jppf.utils.collections.*;
-
 /**
  * Abstract superclass for all JPPFQueue implementations.
  * @param <T> the type of jobs that are queued.
@@ -50,17 +49,9 @@ public abstract class AbstractJPPFQueue<T, U, V> implements JPPFQueue<T, U, V> {
    */
   protected final List<QueueListener<T, U, V>> queueListeners = new ArrayList<>();
   /**
-   * Comparator for job priority.
-   */
-  private static final Comparator<Integer> PRIORITY_COMPARATOR = new DescendingIntegerComparator();
-  /**
-   * A map of task bundles, ordered by descending priority.
-   */
-  protected final LinkedListSortedMap<Integer, T> priorityMap = new LinkedListSortedMap<>(PRIORITY_COMPARATOR);
-  /**
-   * Contains the ids of all queued jobs.
+   * Contains the ids of all queued jobs. Modifications are performed while holding the queue lock, whereas lookups may be done without it.
    */
-  protected final Map<String, T> jobMap = new HashMap<>();
+  protected final Map<String, T> jobMap = new ConcurrentHashMap<>();
 
   /**
    * Add a listener to the list of listeners.
@@ -130,37 +121,6 @@ public abstract class AbstractJPPFQueue<T, U, V> implements JPPFQueue<T, U, V> {
     if (!sizeMap.isEmpty()) latestMaxSize.set(sizeMap.lastKey());
   }
 
-  @Override
-  public Iterator<T> iterator() {
-    return priorityMap.iterator(lock);
-  }
-
-  @Override
-  public boolean isEmpty() {
-    lock.lock();
-    try {
-      return priorityMap.isEmpty();
-    } finally {
-      lock.unlock();
-    }
-  }
-
-  /**
-   * Get the size of this job queue.
-   * <p>This method should be used with caution, as its cost is in O(n),
-   * with n being the number of jobs in the queue.
-   * @return the number of jobs currently in the queue.
-   * @since 4.1
-   */
-  public int getQueueSize() {
-    lock.lock();
-    try {
-      return priorityMap.size();
-    } finally {
-      lock.unlock();
-    }
-  }
-
   /**
    * Increment the count of jobs that have the specified size.
    * @param size the size for which to increment the count.
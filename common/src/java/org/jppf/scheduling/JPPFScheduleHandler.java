@@ -18,16 +18,21 @@
 
 package org.jppf.scheduling;
 
-import java.text.*;
-import java.util.*;
+import java.text.ParseException;
+import java.time.*;
+import java.time.format.DateTimeFormatter;
+import java.util.Map;
 import java.util.concurrent.*;
 import java.util.concurrent.atomic.AtomicInteger;
 
-import org.jppf.utils.concurrent.JPPFThreadFactory;
+import org.jppf.utils.JPPFConfiguration;
+import org.jppf.utils.configuration.JPPFProperties;
 import org.slf4j.*;
 
 /**
  * This class handles a timer.
+ * <p>The actions are triggered by a {@link TimerWheel}, which provides O(1) scheduling and cancellation and expires the due actions in batches.
+ * The actions are run sequentially by the timer's thread.
  * @author Laurent Cohen
  * @exclude
  */
@@ -41,25 +46,25 @@ public class JPPFScheduleHandler {
    */
   private static final boolean debugEnabled = log.isDebugEnabled();
   /**
-   * The scheduled executor used for scheduling actions.
+   * Used to debug date information.
+   */
+  private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.SSS").withZone(ZoneId.systemDefault());
+  /**
+   * The timer wheel used for scheduling actions.
    */
-  private ScheduledExecutorService executor;
+  private final TimerWheel wheel;
   /**
    * Count of the instances of this class, added as a suffix to the timer's name.
    */
   private static AtomicInteger instanceCount = new AtomicInteger(0);
   /**
-   * Mapping of timer tasks to a key.
+   * Mapping of scheduled actions to a key.
    */
-  private Map<Object, ScheduledFuture<?>> futureMap = new Hashtable<>();
+  private final Map<Object, ScheduledAction> actionMap = new ConcurrentHashMap<>();
   /**
    * The name given to this schedule handler's internal timer.
    */
   private final String name;
-  /**
-   * Used to debug date information.
-   */
-  private final SimpleDateFormat sdf = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss.SSS");
 
   /**
    * Initialize this schedule handler with a default name.
@@ -74,7 +79,8 @@ public class JPPFScheduleHandler {
    */
   public JPPFScheduleHandler(final String name) {
     this.name = (name != null) ? name : "JPPFScheduleHandler timer - " + instanceCount.incrementAndGet();
-    createExecutor();
+    wheel = new TimerWheel(this.name, JPPFConfiguration.get(JPPFProperties.SCHEDULING_WHEEL_TICK), JPPFConfiguration.get(JPPFProperties.SCHEDULING_WHEEL_SIZE));
+    if (debugEnabled) log.debug("created timer wheel with name=" + this.name);
   }
 
   /**
@@ -97,19 +103,13 @@ public class JPPFScheduleHandler {
    * @throws ParseException if the schedule date could not be parsed
    */
   public void scheduleAction(final Object key, final JPPFSchedule schedule, final Runnable action, final long start) throws ParseException {
-    if (debugEnabled) {
-      synchronized(sdf) {
-        log.debug(name + " : scheduling action[key=" + key + ", " + schedule + ", action=" + action + ", start=" + sdf.format(new Date(start)));
-      }
-    }
     final long epoch = schedule.toLong(start);
-    final ScheduledFuture<?> future = executor.schedule(new ScheduledAction(key, action), epoch - start, TimeUnit.MILLISECONDS);
-    futureMap.put(key, future);
-    if (debugEnabled) {
-      synchronized(sdf) {
-        log.debug(name + " : date=" + sdf.format(new Date(schedule.toLong(start))) + ", key=" + key + ", future=" + future);
-      }
-    }
+    if (debugEnabled) log.debug("{} : scheduling action[key={}, {}, action={}, start={}, date={}]", name, key, schedule, action, format(start), format(epoch));
+    final ScheduledAction scheduledAction = new ScheduledAction(key, action);
+    // the action is mapped before it is scheduled, so that it can be unmapped even if it expires immediately
+    actionMap.put(key, scheduledAction);
+    scheduledAction.timeout = wheel.schedule(scheduledAction, TimeUnit.MILLISECONDS.toNanos(epoch - start));
+    if (scheduledAction.cancelled) scheduledAction.timeout.cancel();
   }
 
   /**
@@ -118,7 +118,7 @@ public class JPPFScheduleHandler {
    * @return {@code true} if an action is already scheduled for the job, {@code false} otherwise.
    */
   public boolean hasAction(final String uuid) {
-    return futureMap.get(uuid) != null;
+    return actionMap.get(uuid) != null;
   }
 
   /**
@@ -132,13 +132,13 @@ public class JPPFScheduleHandler {
   /**
    * Cancel the scheduled action identified by the specified key.
    * @param key the key associated with the action.
-   * @param mayInterruptIfRunning whether the thread that runs the task should be interrupted if the task is being executed.
+   * @param mayInterruptIfRunning not used: an action that is already running is always allowed to complete, since it runs in the timer's thread.
    */
   public void cancelAction(final Object key, final boolean mayInterruptIfRunning) {
     if (key == null) return;
-    final ScheduledFuture<?> future = futureMap.remove(key);
-    if (debugEnabled) log.debug(name + " : cancelling action for key=" + key + ", future=" + future);
-    if (future != null) future.cancel(mayInterruptIfRunning);
+    final ScheduledAction scheduledAction = actionMap.remove(key);
+    if (debugEnabled) log.debug("{} : cancelling action for key={}, action={}", name, key, scheduledAction);
+    if (scheduledAction != null) scheduledAction.cancel();
   }
 
   /**
@@ -153,23 +153,22 @@ public class JPPFScheduleHandler {
    * @param shutdown flag indicating whether this schedule handler should be shutdown.
    */
   public void clear(final boolean shutdown) {
-    futureMap.forEach((key, future) -> {
-      if (future != null) future.cancel(true);
-    });
-    futureMap.clear();
-    if (shutdown) executor.shutdownNow();
+    actionMap.forEach((key, scheduledAction) -> scheduledAction.cancel());
+    actionMap.clear();
+    if (shutdown) wheel.stop();
   }
 
   /**
-   * Create the executor used for task scheduling.
+   * Format the specified date for debugging purposes.
+   * @param millis the date in milliseconds since the epoch.
+   * @return the formatted date.
    */
-  private void createExecutor() {
-    executor = Executors.newScheduledThreadPool(1, new JPPFThreadFactory(this.name));
-    if (debugEnabled) log.debug("created executor with name=" + name);
+  private static String format(final long millis) {
+    return DATE_FORMAT.format(Instant.ofEpochMilli(millis));
   }
 
   /**
-   * 
+   * An action scheduled with a key.
    */
   private final class ScheduledAction implements Runnable {
     /**
@@ -180,6 +179,14 @@ public class JPPFScheduleHandler {
      * The action to run upon expiration.
      */
     private final Runnable action;
+    /**
+     * The timeout which triggers this action.
+     */
+    private volatile TimerWheel.Timeout timeout;
+    /**
+     * Whether this action was cancelled.
+     */
+    private volatile boolean cancelled;
 
     /**
      * Initialize this scheduled action.
@@ -193,8 +200,22 @@ public class JPPFScheduleHandler {
 
     @Override
     public void run() {
-      futureMap.remove(key);
-      action.run();
+      actionMap.remove(key, this);
+      if (!cancelled) action.run();
+    }
+
+    /**
+     * Cancel this action.
+     */
+    private void cancel() {
+      cancelled = true;
+      final TimerWheel.Timeout t = timeout;
+      if (t != null) t.cancel();
+    }
+
+    @Override
+    public String toString() {
+      return "ScheduledAction[key=" + key + ", action=" + action + ", cancelled=" + cancelled + ']';
     }
   }
 }
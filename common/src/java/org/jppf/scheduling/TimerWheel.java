@@ -0,0 +1,302 @@
+/*
+ * JPPF.
+ * Copyright (C) 2005-2019 JPPF Team.
+ * http://www.jppf.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jppf.scheduling;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.*;
+import java.util.concurrent.locks.LockSupport;
+
+import org.jppf.utils.ExceptionUtils;
+import org.jppf.utils.concurrent.JPPFThreadFactory;
+import org.slf4j.*;
+
+/**
+ * A hashed timing wheel, which triggers actions after a delay with the precision of a tick.
+ * <p>Scheduling and cancelling an action are O(1) and lock-free: new and cancelled timeouts are queued, then moved into
+ * or removed from the buckets of the wheel by a single worker thread. At each tick, the worker expires all the due timeouts
+ * in the current bucket at once, then runs their actions. The worker thread parks without timeout while no action is scheduled.
+ * <p>Actions are never triggered before their due time, and at most one tick after it, unless the worker is delayed by long running actions.
+ * @author Laurent Cohen
+ * @exclude
+ */
+final class TimerWheel {
+  /**
+   * Logger for this class.
+   */
+  private static final Logger log = LoggerFactory.getLogger(TimerWheel.class);
+  /**
+   * State of a timeout which is scheduled.
+   */
+  private static final int SCHEDULED = 0;
+  /**
+   * State of a timeout which was cancelled.
+   */
+  private static final int CANCELLED = 1;
+  /**
+   * State of a timeout which expired.
+   */
+  private static final int EXPIRED = 2;
+  /**
+   * Duration of a tick in nanoseconds.
+   */
+  private final long tickNanos;
+  /**
+   * The buckets of the wheel. Each bucket is the head of a doubly linked list of timeouts, only accessed by the worker thread.
+   */
+  private final Timeout[] buckets;
+  /**
+   * Mask applied to a tick number to obtain the index of its bucket.
+   */
+  private final int mask;
+  /**
+   * Timeouts which are scheduled, but not yet added to a bucket.
+   */
+  private final Queue<Timeout> pending = new ConcurrentLinkedQueue<>();
+  /**
+   * Timeouts which are cancelled, but not yet removed from their bucket.
+   */
+  private final Queue<Timeout> cancelled = new ConcurrentLinkedQueue<>();
+  /**
+   * Number of scheduled timeouts that have neither expired nor been cancelled.
+   */
+  private final AtomicInteger count = new AtomicInteger(0);
+  /**
+   * Time origin of the deadlines and ticks.
+   */
+  private final long startNanos = System.nanoTime();
+  /**
+   * The thread which processes the ticks and runs the actions.
+   */
+  private final Thread worker;
+  /**
+   * The next tick to process. Only accessed by the worker thread.
+   */
+  private long tick;
+  /**
+   * Whether the worker thread was started.
+   */
+  private final AtomicBoolean started = new AtomicBoolean(false);
+  /**
+   * Whether this timer wheel is stopped.
+   */
+  private volatile boolean stopped;
+
+  /**
+   * Initialize this timer wheel. The worker thread is started when the first action is scheduled.
+   * @param name the name of the worker thread.
+   * @param tickMillis the duration of a tick in milliseconds.
+   * @param wheelSize the number of buckets in the wheel, rounded up to a power of 2.
+   */
+  TimerWheel(final String name, final long tickMillis, final int wheelSize) {
+    this.tickNanos = tickMillis * 1_000_000L;
+    final int size = (wheelSize <= 1) ? 1 : Integer.highestOneBit(wheelSize - 1) << 1;
+    this.buckets = new Timeout[size];
+    this.mask = size - 1;
+    worker = new JPPFThreadFactory(name).newThread(this::work);
+  }
+
+  /**
+   * Schedule an action to run after the specified delay.
+   * @param action the action to run.
+   * @param delayNanos the delay in nanoseconds. A negative or zero value means the action is run at the next tick.
+   * @return a {@link Timeout} which can be used to cancel the action.
+   */
+  Timeout schedule(final Runnable action, final long delayNanos) {
+    final Timeout timeout = new Timeout(action, System.nanoTime() - startNanos + Math.max(0L, delayNanos));
+    if (!started.get() && started.compareAndSet(false, true)) worker.start();
+    pending.offer(timeout);
+    if (count.getAndIncrement() == 0) LockSupport.unpark(worker);
+    return timeout;
+  }
+
+  /**
+   * Stop the worker thread. The actions which are still scheduled are never run.
+   */
+  void stop() {
+    stopped = true;
+    LockSupport.unpark(worker);
+  }
+
+  /**
+   * The loop of the worker thread.
+   */
+  private void work() {
+    final List<Timeout> expired = new ArrayList<>();
+    tick = (System.nanoTime() - startNanos) / tickNanos;
+    while (!stopped) {
+      final long now = waitForNextTick();
+      if (stopped) break;
+      processCancelled();
+      transferPending();
+      expireBucket(now, expired);
+      tick++;
+      for (final Timeout timeout: expired) {
+        try {
+          timeout.action.run();
+        } catch (final Throwable t) {
+          log.error("error running action {} : {}", timeout.action, ExceptionUtils.getStackTrace(t));
+        }
+      }
+      expired.clear();
+    }
+  }
+
+  /**
+   * Wait until the end of the current tick. If there is no scheduled timeout, wait until one is scheduled, then move the
+   * current tick to the time at which it was scheduled, so as not to iterate over all the ticks elapsed in between.
+   * @return the current time relative to the start of this timer wheel, in nanoseconds.
+   */
+  private long waitForNextTick() {
+    while (!stopped) {
+      if (count.get() <= 0) {
+        processCancelled();
+        if (pending.isEmpty()) {
+          LockSupport.park(this);
+          tick = Math.max(tick, (System.nanoTime() - startNanos) / tickNanos);
+          continue;
+        }
+      }
+      final long now = System.nanoTime() - startNanos;
+      final long sleepNanos = (tick + 1L) * tickNanos - now;
+      if (sleepNanos <= 0L) return now;
+      LockSupport.parkNanos(this, sleepNanos);
+    }
+    return -1L;
+  }
+
+  /**
+   * Move the scheduled timeouts into the bucket of the tick at which they are due.
+   */
+  private void transferPending() {
+    Timeout timeout;
+    while ((timeout = pending.poll()) != null) {
+      if (timeout.state.get() != SCHEDULED) continue;
+      final long dueTick = timeout.deadline / tickNanos;
+      timeout.rounds = (dueTick - tick) / buckets.length;
+      add(timeout, (int) (Math.max(dueTick, tick) & mask));
+    }
+  }
+
+  /**
+   * Remove the cancelled timeouts from their bucket.
+   */
+  private void processCancelled() {
+    Timeout timeout;
+    while ((timeout = cancelled.poll()) != null) {
+      if (timeout.bucket >= 0) remove(timeout);
+    }
+  }
+
+  /**
+   * Expire the due timeouts of the bucket for the current tick.
+   * @param now the current time relative to the start of this timer wheel, in nanoseconds.
+   * @param expired the list to which the expired timeouts are added.
+   */
+  private void expireBucket(final long now, final List<Timeout> expired) {
+    Timeout timeout = buckets[(int) (tick & mask)];
+    while (timeout != null) {
+      final Timeout next = timeout.next;
+      if ((timeout.rounds <= 0L) && (timeout.deadline <= now)) {
+        remove(timeout);
+        if (timeout.state.compareAndSet(SCHEDULED, EXPIRED)) {
+          count.decrementAndGet();
+          expired.add(timeout);
+        }
+      } else if (timeout.rounds > 0L) timeout.rounds--;
+      timeout = next;
+    }
+  }
+
+  /**
+   * Add a timeout at the head of a bucket.
+   * @param timeout the timeout to add.
+   * @param index the index of the bucket.
+   */
+  private void add(final Timeout timeout, final int index) {
+    final Timeout head = buckets[index];
+    timeout.bucket = index;
+    timeout.next = head;
+    if (head != null) head.prev = timeout;
+    buckets[index] = timeout;
+  }
+
+  /**
+   * Remove a timeout from its bucket.
+   * @param timeout the timeout to remove.
+   */
+  private void remove(final Timeout timeout) {
+    if (timeout.prev != null) timeout.prev.next = timeout.next;
+    else buckets[timeout.bucket] = timeout.next;
+    if (timeout.next != null) timeout.next.prev = timeout.prev;
+    timeout.prev = timeout.next = null;
+    timeout.bucket = -1;
+  }
+
+  /**
+   * An action scheduled in a timer wheel.
+   */
+  final class Timeout {
+    /**
+     * The action to run upon expiration.
+     */
+    private final Runnable action;
+    /**
+     * The due time, relative to the start of the timer wheel, in nanoseconds.
+     */
+    private final long deadline;
+    /**
+     * The state of this timeout.
+     */
+    private final AtomicInteger state = new AtomicInteger(SCHEDULED);
+    /**
+     * Number of remaining turns of the wheel before this timeout is due. Only accessed by the worker thread.
+     */
+    private long rounds;
+    /**
+     * Index of the bucket which holds this timeout, or -1 if it is not in a bucket. Only accessed by the worker thread.
+     */
+    private int bucket = -1;
+    /**
+     * The previous and next timeouts in the same bucket. Only accessed by the worker thread.
+     */
+    private Timeout prev, next;
+
+    /**
+     * Initialize this timeout.
+     * @param action the action to run upon expiration.
+     * @param deadline the due time, relative to the start of the timer wheel, in nanoseconds.
+     */
+    private Timeout(final Runnable action, final long deadline) {
+      this.action = action;
+      this.deadline = deadline;
+    }
+
+    /**
+     * Cancel this timeout. This has no effect if it has already expired or was already cancelled.
+     * @return {@code true} if this timeout was cancelled, {@code false} otherwise.
+     */
+    boolean cancel() {
+      if (!state.compareAndSet(SCHEDULED, CANCELLED)) return false;
+      count.decrementAndGet();
+      cancelled.offer(this);
+      return true;
+    }
+  }
+}
@@ -84,6 +84,10 @@ class ClassDescriptor {
    * 
    */
   boolean populated;
+  /**
+   * Fingerprint of the fields of the described class and of its super classes, computed only when needed by a {@link SchemaCachedSerialization}.
+   */
+  long fingerprint;
 
   /**
    * Initialize an empty class descriptor.
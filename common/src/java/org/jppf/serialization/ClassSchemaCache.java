@@ -0,0 +1,147 @@
+/*
+ * JPPF.
+ * Copyright (C) 2005-2019 JPPF Team.
+ * http://www.jppf.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jppf.serialization;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+
+import org.jppf.JPPFRuntimeException;
+
+/**
+ * JVM-wide cache of the class descriptors used by {@link SchemaCachedSerialization}.
+ * <p>The descriptors are attached to their class via a {@link ClassValue}, so they are computed once per class rather than once per stream,
+ * and they do not prevent the classes, nor their class loader, from being garbage-collected. The fields of the descriptors have
+ * {@link FieldAccessor}s instead of field type descriptors, which allows classes with recursive field types to be described without recursion.
+ * Each descriptor also has a fingerprint of its fields, which is written along with the class so that a different class layout on the reading side is detected.
+ * @author Laurent Cohen
+ * @exclude
+ */
+final class ClassSchemaCache {
+  /**
+   * The descriptors used when serializing.
+   */
+  private static final ClassValue<ClassDescriptor> WRITE_DESCRIPTORS = new SchemaClassValue(true);
+  /**
+   * The descriptors used when deserializing.
+   */
+  private static final ClassValue<ClassDescriptor> READ_DESCRIPTORS = new SchemaClassValue(false);
+
+  /**
+   * Instantiation is not permitted.
+   */
+  private ClassSchemaCache() {
+  }
+
+  /**
+   * Get the descriptor of the specified class.
+   * @param clazz the class to lookup.
+   * @param serializing whether the descriptor is used to serialize or deserialize objects.
+   * @return a {@link ClassDescriptor} instance.
+   * @throws Exception if the descriptor could not be created.
+   */
+  static ClassDescriptor getDescriptor(final Class<?> clazz, final boolean serializing) throws Exception {
+    try {
+      return (serializing ? WRITE_DESCRIPTORS : READ_DESCRIPTORS).get(clazz);
+    } catch (final JPPFRuntimeException e) {
+      throw (e.getCause() instanceof Exception) ? (Exception) e.getCause() : e;
+    }
+  }
+
+  /**
+   * Create the descriptor of a class.
+   * @param clazz the class to describe.
+   * @param serializing whether the descriptor is used to serialize or deserialize objects.
+   * @return a {@link ClassDescriptor} instance.
+   * @throws Exception if any error occurs.
+   */
+  private static ClassDescriptor createDescriptor(final Class<?> clazz, final boolean serializing) throws Exception {
+    final ClassDescriptor cd = new ClassDescriptor();
+    cd.fillIn(clazz, serializing);
+    for (final FieldDescriptor fd: cd.fields) {
+      if (fd.accessor == null) fd.accessor = new FieldAccessor(fd.field);
+    }
+    final Class<?> superClass = clazz.getSuperclass();
+    if ((superClass != null) && (superClass != Object.class)) cd.superClass = getDescriptor(superClass, serializing);
+    if (cd.array) cd.componentType = getDescriptor(clazz.getComponentType(), serializing);
+    cd.fingerprint = computeFingerprint(cd);
+    return cd;
+  }
+
+  /**
+   * Compute a fingerprint of the names and types of the fields of the specified class and of its super classes, in the order in which they are serialized.
+   * Like the default {@code serialVersionUID}, it is made of the first 8 bytes of the SHA-1 digest of the class schema.
+   * @param cd the descriptor of the class.
+   * @return the fingerprint as a long value.
+   * @throws Exception if any error occurs.
+   */
+  private static long computeFingerprint(final ClassDescriptor cd) throws Exception {
+    final StringBuilder sb = new StringBuilder(cd.signature);
+    if (cd.externalizable) sb.append("+ext");
+    sb.append('{');
+    for (final FieldDescriptor fd: cd.fields) sb.append(fd.name).append(':').append(SerializationReflectionHelper.getSignatureFromType(fd.field.getType())).append(';');
+    sb.append('}');
+    if (cd.superClass != null) sb.append(cd.superClass.fingerprint);
+    final byte[] digest = MessageDigest.getInstance("SHA-1").digest(sb.toString().getBytes(StandardCharsets.UTF_8));
+    long fingerprint = 0L;
+    for (int i=0; i<8; i++) fingerprint = (fingerprint << 8) | (digest[i] & 0xFF);
+    return fingerprint;
+  }
+
+  /**
+   * Get a description of the fields of the specified class and of its super classes, for use in error messages.
+   * @param cd the descriptor of the class.
+   * @return a string listing the names and types of the fields.
+   */
+  static String describeFields(final ClassDescriptor cd) {
+    final StringBuilder sb = new StringBuilder("[");
+    for (ClassDescriptor desc = cd; desc != null; desc = desc.superClass) {
+      for (final FieldDescriptor fd: desc.fields) {
+        if (sb.length() > 1) sb.append(", ");
+        sb.append(desc.clazz.getSimpleName()).append('.').append(fd.name).append(':').append(fd.field.getType().getName());
+      }
+    }
+    return sb.append(']').toString();
+  }
+
+  /**
+   * Computes the descriptors of the classes.
+   */
+  private static final class SchemaClassValue extends ClassValue<ClassDescriptor> {
+    /**
+     * Whether the descriptors are used to serialize or deserialize objects.
+     */
+    private final boolean serializing;
+
+    /**
+     * @param serializing whether the descriptors are used to serialize or deserialize objects.
+     */
+    private SchemaClassValue(final boolean serializing) {
+      this.serializing = serializing;
+    }
+
+    @Override
+    protected ClassDescriptor computeValue(final Class<?> type) {
+      try {
+        return createDescriptor(type, serializing);
+      } catch (final Exception e) {
+        throw new JPPFRuntimeException(e);
+      }
+    }
+  }
+}
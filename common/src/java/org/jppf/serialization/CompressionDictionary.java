@@ -0,0 +1,287 @@
+/*
+ * JPPF.
+ * Copyright (C) 2005-2019 JPPF Team.
+ * http://www.jppf.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jppf.serialization;
+
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.Adler32;
+
+import org.jppf.utils.*;
+import org.jppf.utils.configuration.JPPFProperties;
+import org.jppf.utils.streams.StreamUtils;
+import org.slf4j.*;
+
+/**
+ * A preset dictionary used by {@link DictionaryZLIBSerialization} to compress small payloads.
+ * <p>A dictionary is identified by the Adler-32 checksum of its content, which zlib writes in the header of each compressed stream.
+ * This allows the decompressing side to pick the matching dictionary among those it knows about, and to fail fast when it has none.
+ * As a consequence, the clients, servers and nodes must all use the same dictionary, specified with the
+ * {@link JPPFProperties#SERIALIZATION_DICTIONARY jppf.serialization.dictionary} property.
+ * <p>A dictionary can be trained from sample payloads with {@link #train(Collection, int)}, or from the command line with:
+ * <pre>java org.jppf.serialization.CompressionDictionary &lt;dictionary_file&gt; &lt;sample_file_1&gt; ... &lt;sample_file_n&gt;</pre>
+ * @author Laurent Cohen
+ */
+public final class CompressionDictionary {
+  /**
+   * Logger for this class.
+   */
+  private static Logger log = LoggerFactory.getLogger(CompressionDictionary.class);
+  /**
+   * Determines whether the debug level is enabled in the log configuration, without the cost of a method call.
+   */
+  private static boolean debugEnabled = log.isDebugEnabled();
+  /**
+   * The maximum useful size of a dictionary, that is, the size of the zlib sliding window.
+   */
+  public static final int MAX_SIZE = 32 * 1024;
+  /**
+   * Path to the built-in dictionary, used when none is configured.
+   */
+  private static final String DEFAULT_PATH = "org/jppf/serialization/jppf-default.dict";
+  /**
+   * Length of the byte sequences counted during training.
+   */
+  private static final int GRAM_LENGTH = 8;
+  /**
+   * The known dictionaries, mapped to their id.
+   */
+  private static final Map<Integer, CompressionDictionary> registry = new ConcurrentHashMap<>();
+  /**
+   * The dictionary used for compression.
+   */
+  private static volatile CompressionDictionary defaultDictionary;
+  /**
+   * The content of this dictionary.
+   */
+  private final byte[] data;
+  /**
+   * The id of this dictionary, that is, the Adler-32 checksum of its content.
+   */
+  private final int id;
+
+  /**
+   * Create a dictionary with the specified content.
+   * @param data the content of the dictionary. Only the last {@link #MAX_SIZE} bytes are used.
+   */
+  public CompressionDictionary(final byte[] data) {
+    this.data = (data.length <= MAX_SIZE) ? data : Arrays.copyOfRange(data, data.length - MAX_SIZE, data.length);
+    final Adler32 adler = new Adler32();
+    adler.update(this.data, 0, this.data.length);
+    this.id = (int) adler.getValue();
+  }
+
+  /**
+   * Get the content of this dictionary.
+   * @return the dictionary content as a byte array.
+   */
+  public byte[] getData() {
+    return data;
+  }
+
+  /**
+   * Get the id of this dictionary.
+   * @return the Adler-32 checksum of the dictionary content.
+   */
+  public int getId() {
+    return id;
+  }
+
+  @Override
+  public String toString() {
+    return new StringBuilder(getClass().getSimpleName()).append('[').append("id=").append(Integer.toHexString(id)).append(", size=").append(data.length).append(']').toString();
+  }
+
+  /**
+   * Register the specified dictionary, so that streams compressed with it can be decompressed.
+   * @param dictionary the dictionary to register.
+   * @return the registered dictionary.
+   */
+  public static CompressionDictionary register(final CompressionDictionary dictionary) {
+    registry.put(dictionary.id, dictionary);
+    return dictionary;
+  }
+
+  /**
+   * Get the registered dictionary with the specified id.
+   * @param id the id of the dictionary to find.
+   * @return a {@link CompressionDictionary}, or {@code null} if there is no dictionary with this id.
+   */
+  public static CompressionDictionary get(final int id) {
+    if (defaultDictionary == null) getDefault();
+    return registry.get(id);
+  }
+
+  /**
+   * Get the dictionary used for compression. It is loaded from the path specified with the {@code jppf.serialization.dictionary}
+   * configuration property, or from the built-in JPPF dictionary if the property is not set.
+   * @return a {@link CompressionDictionary} instance.
+   */
+  public static CompressionDictionary getDefault() {
+    if (defaultDictionary == null) {
+      synchronized(CompressionDictionary.class) {
+        if (defaultDictionary == null) {
+          final String configured = JPPFConfiguration.get(JPPFProperties.SERIALIZATION_DICTIONARY);
+          final String path = (configured != null) ? configured : DEFAULT_PATH;
+          try {
+            final InputStream is = FileUtils.getFileInputStream(path);
+            if (is == null) throw new FileNotFoundException("could not find " + path + " in the file system or the classpath");
+            defaultDictionary = register(new CompressionDictionary(StreamUtils.getInputStreamAsByte(is)));
+          } catch (final IOException e) {
+            throw new IllegalStateException("could not load the compression dictionary '" + path + "'", e);
+          }
+          if (debugEnabled) log.debug("using compression dictionary {} loaded from {}", defaultDictionary, path);
+        }
+      }
+    }
+    return defaultDictionary;
+  }
+
+  /**
+   * Set the dictionary used for compression. The dictionary is also registered.
+   * @param dictionary the dictionary to use, or {@code null} to reload it from the configuration the next time it is needed.
+   */
+  public static synchronized void setDefault(final CompressionDictionary dictionary) {
+    defaultDictionary = (dictionary == null) ? null : register(dictionary);
+  }
+
+  /**
+   * Train a dictionary from the specified samples. The dictionary is made of the longest byte sequences which occur in several samples,
+   * with the most valuable sequences at the end of the dictionary, where they are the cheapest to reference.
+   * @param samples the sample payloads, typically serialized tasks.
+   * @param maxSize the maximum size of the dictionary, capped at {@link #MAX_SIZE}.
+   * @return a new, unregistered {@link CompressionDictionary}.
+   */
+  public static CompressionDictionary train(final Collection<byte[]> samples, final int maxSize) {
+    final int size = Math.min(maxSize, MAX_SIZE);
+    final Map<Long, Integer> frequencies = new HashMap<>();
+    for (final byte[] sample: samples) {
+      final Set<Long> grams = new HashSet<>();
+      for (int i=0; i<=sample.length-GRAM_LENGTH; i++) grams.add(gram(sample, i));
+      for (final Long gram: grams) frequencies.merge(gram, 1, Integer::sum);
+    }
+    final int threshold = (samples.size() < 2) ? 1 : Math.max(2, samples.size() / 10);
+    final Map<String, Long> scores = new HashMap<>();
+    for (final byte[] sample: samples) {
+      int start = -1;
+      int minFreq = Integer.MAX_VALUE;
+      for (int i=0; i<=sample.length-GRAM_LENGTH; i++) {
+        final int freq = frequencies.get(gram(sample, i));
+        if (freq >= threshold) {
+          if (start < 0) start = i;
+          minFreq = Math.min(minFreq, freq);
+        } else if (start >= 0) {
+          addSegment(scores, sample, start, i - 1 + GRAM_LENGTH, minFreq);
+          start = -1;
+          minFreq = Integer.MAX_VALUE;
+        }
+      }
+      if (start >= 0) addSegment(scores, sample, start, sample.length, minFreq);
+    }
+    final List<Map.Entry<String, Long>> segments = new ArrayList<>(scores.entrySet());
+    segments.sort((e1, e2) -> {
+      final int n = Long.compare(e2.getValue(), e1.getValue());
+      return (n != 0) ? n : e1.getKey().compareTo(e2.getKey());
+    });
+    final LinkedList<byte[]> selected = new LinkedList<>();
+    int total = 0;
+    for (final Map.Entry<String, Long> entry: segments) {
+      final byte[] bytes = toBytes(entry.getKey());
+      if (total + bytes.length > size) continue;
+      selected.addFirst(bytes);
+      total += bytes.length;
+    }
+    final byte[] data = new byte[total];
+    int pos = 0;
+    for (final byte[] bytes: selected) {
+      System.arraycopy(bytes, 0, data, pos, bytes.length);
+      pos += bytes.length;
+    }
+    return new CompressionDictionary(data);
+  }
+
+  /**
+   * Add the score of a segment of a sample.
+   * @param scores the scores of the segments.
+   * @param sample the sample.
+   * @param start the start of the segment, inclusive.
+   * @param end the end of the segment, exclusive.
+   * @param frequency the number of samples the segment occurs in.
+   */
+  private static void addSegment(final Map<String, Long> scores, final byte[] sample, final int start, final int end, final int frequency) {
+    final String key = toKey(sample, start, end);
+    scores.merge(key, (long) (end - start) * frequency, Math::max);
+  }
+
+  /**
+   * Compute the 64-bits value of the byte sequence at the specified position.
+   * @param sample the sample to read from.
+   * @param pos the position of the sequence.
+   * @return the sequence as a long.
+   */
+  private static long gram(final byte[] sample, final int pos) {
+    long result = 0L;
+    for (int i=0; i<GRAM_LENGTH; i++) result = (result << 8) | (sample[pos + i] & 0xFF);
+    return result;
+  }
+
+  /**
+   * Convert a byte sequence into a string which can be used as a map key, one char per byte.
+   * @param bytes the byte array to read from.
+   * @param start the start of the sequence, inclusive.
+   * @param end the end of the sequence, exclusive.
+   * @return the sequence as a string.
+   */
+  private static String toKey(final byte[] bytes, final int start, final int end) {
+    final char[] chars = new char[end - start];
+    for (int i=start; i<end; i++) chars[i - start] = (char) (bytes[i] & 0xFF);
+    return new String(chars);
+  }
+
+  /**
+   * Convert a string created with {@link #toKey(byte[], int, int)} back into a byte sequence.
+   * @param key the key to convert.
+   * @return the byte sequence.
+   */
+  private static byte[] toBytes(final String key) {
+    final byte[] bytes = new byte[key.length()];
+    for (int i=0; i<bytes.length; i++) bytes[i] = (byte) key.charAt(i);
+    return bytes;
+  }
+
+  /**
+   * Train a dictionary from sample files and save it.
+   * @param args the path of the dictionary file to create, followed by the paths of the sample files.
+   */
+  public static void main(final String[] args) {
+    try {
+      if (args.length < 2) {
+        System.out.println("usage: java " + CompressionDictionary.class.getName() + " <dictionary_file> <sample_file_1> ... <sample_file_n>");
+        return;
+      }
+      final List<byte[]> samples = new ArrayList<>();
+      for (int i=1; i<args.length; i++) samples.add(FileUtils.getPathAsByte(args[i]));
+      final CompressionDictionary dictionary = train(samples, MAX_SIZE);
+      FileUtils.writeBytesToFile(dictionary.data, new File(args[0]));
+      System.out.println("created " + dictionary + " from " + samples.size() + " samples");
+    } catch (final Exception e) {
+      e.printStackTrace();
+    }
+  }
+}
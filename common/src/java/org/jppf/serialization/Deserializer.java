@@ -123,8 +123,7 @@ class Deserializer {
   @SuppressWarnings("unchecked")
   private void readObject(final int handle) throws Exception {
     if (traceEnabled) log.trace("reading object with handle = {}", handle);
-    final String sig = readString();
-    final ClassDescriptor cd = caches.getDescriptor(sig, classloader);
+    final ClassDescriptor cd = readClassDescriptor();
     if (cd.array) readArray(handle, cd);
     else if (cd.enumType) {
       final String name = readString();
@@ -150,8 +149,25 @@ class Deserializer {
    * @throws Exception if any error occurs.
    */
   private Object readClassObject(final byte header) throws Exception {
-    final String handle = readString();
-    return caches.getClassFromHandle(handle, classloader);
+    return readClass();
+  }
+
+  /**
+   * Read a reference to a class and get its descriptor.
+   * @return a {@link ClassDescriptor} instance.
+   * @throws Exception if any error occurs.
+   */
+  ClassDescriptor readClassDescriptor() throws Exception {
+    return caches.getDescriptor(readString(), classloader);
+  }
+
+  /**
+   * Read a reference to a class and load it.
+   * @return the class object.
+   * @throws Exception if any error occurs.
+   */
+  Class<?> readClass() throws Exception {
+    return caches.getClassFromHandle(readString(), classloader);
   }
 
   /**
@@ -0,0 +1,239 @@
+/*
+ * JPPF.
+ * Copyright (C) 2005-2019 JPPF Team.
+ * http://www.jppf.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jppf.serialization;
+
+import java.io.*;
+import java.util.zip.*;
+
+import org.jppf.utils.pooling.*;
+
+/**
+ * A composite serialization which compresses the serialized objects with ZLIB and a preset {@link CompressionDictionary dictionary}.
+ * <p>Small objects, such as most tasks, compress poorly with {@link ZLIBSerialization}, because each of them carries its own class names
+ * and repetitive headers. With a dictionary trained on typical payloads, these are encoded as references into the dictionary instead.
+ * Additionally, the compressors, decompressors and their buffers are pooled and reused across calls.
+ * <p>It is specified with the name "ZLIB_DICT", for instance:
+ * <pre>jppf.object.serialization.class = ZLIB_DICT org.jppf.serialization.DefaultJPPFSerialization</pre>
+ * @author Laurent Cohen
+ */
+public class DictionaryZLIBSerialization extends JPPFCompositeSerialization {
+  /**
+   * Size of the buffers used by the compressors and decompressors.
+   */
+  private static final int BUFFER_SIZE = 8 * 1024;
+  /**
+   * Pool of compressing streams.
+   */
+  private static final ObjectPool<DeflatingStream> deflaterPool = new AbstractObjectPoolQueue<DeflatingStream>() {
+    @Override
+    protected DeflatingStream create() {
+      return new DeflatingStream();
+    }
+  };
+  /**
+   * Pool of decompressing streams.
+   */
+  private static final ObjectPool<InflatingStream> inflaterPool = new AbstractObjectPoolQueue<InflatingStream>() {
+    @Override
+    protected InflatingStream create() {
+      return new InflatingStream();
+    }
+  };
+
+  @Override
+  public void serialize(final Object o, final OutputStream os) throws Exception {
+    final DeflatingStream dos = deflaterPool.get();
+    try {
+      dos.init(os, CompressionDictionary.getDefault());
+      getDelegate().serialize(o, dos);
+      dos.finish();
+    } finally {
+      dos.release();
+      deflaterPool.put(dos);
+    }
+  }
+
+  @Override
+  public Object deserialize(final InputStream is) throws Exception {
+    final InflatingStream iis = inflaterPool.get();
+    try {
+      iis.init(is);
+      return getDelegate().deserialize(iis);
+    } finally {
+      iis.release();
+      inflaterPool.put(iis);
+    }
+  }
+
+  @Override
+  public String getName() {
+    return "ZLIB_DICT";
+  }
+
+  /**
+   * A reusable output stream which compresses the data written to it.
+   * @exclude
+   */
+  static final class DeflatingStream extends OutputStream {
+    /**
+     * The compressor.
+     */
+    private final Deflater deflater = new Deflater();
+    /**
+     * Buffer for the compressed data.
+     */
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+    /**
+     * Temporary buffer used to write single bytes.
+     */
+    private final byte[] single = new byte[1];
+    /**
+     * The stream to write the compressed data to.
+     */
+    private OutputStream out;
+
+    /**
+     * Prepare this stream for the compression of a new object.
+     * @param out the stream to write the compressed data to.
+     * @param dictionary the dictionary to compress with.
+     */
+    void init(final OutputStream out, final CompressionDictionary dictionary) {
+      this.out = out;
+      final byte[] data = dictionary.getData();
+      if (data.length > 0) deflater.setDictionary(data);
+    }
+
+    @Override
+    public void write(final int b) throws IOException {
+      single[0] = (byte) b;
+      write(single, 0, 1);
+    }
+
+    @Override
+    public void write(final byte[] b, final int off, final int len) throws IOException {
+      if (len <= 0) return;
+      deflater.setInput(b, off, len);
+      while (!deflater.needsInput()) deflate();
+    }
+
+    /**
+     * Complete the compression and write the remaining compressed data.
+     * @throws IOException if any I/O error occurs.
+     */
+    void finish() throws IOException {
+      deflater.finish();
+      while (!deflater.finished()) deflate();
+      out.flush();
+    }
+
+    /**
+     * Compress the pending input into the buffer and write it to the underlying stream.
+     * @throws IOException if any I/O error occurs.
+     */
+    private void deflate() throws IOException {
+      final int n = deflater.deflate(buffer, 0, buffer.length);
+      if (n > 0) out.write(buffer, 0, n);
+    }
+
+    /**
+     * Reset this stream so it can be reused. Unlike {@link #close()}, the native resources of the compressor are kept.
+     */
+    void release() {
+      out = null;
+      deflater.reset();
+    }
+
+    @Override
+    public void close() throws IOException {
+      // the underlying stream is owned by the caller of serialize()
+    }
+  }
+
+  /**
+   * A reusable input stream which decompresses the data read from it.
+   * @exclude
+   */
+  static final class InflatingStream extends InputStream {
+    /**
+     * The decompressor.
+     */
+    private final Inflater inflater = new Inflater();
+    /**
+     * Buffer for the compressed data.
+     */
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+    /**
+     * Temporary buffer used to read single bytes.
+     */
+    private final byte[] single = new byte[1];
+    /**
+     * The stream to read the compressed data from.
+     */
+    private InputStream in;
+
+    /**
+     * Prepare this stream for the decompression of a new object.
+     * @param in the stream to read the compressed data from.
+     */
+    void init(final InputStream in) {
+      this.in = in;
+    }
+
+    @Override
+    public int read() throws IOException {
+      return (read(single, 0, 1) < 0) ? -1 : single[0] & 0xFF;
+    }
+
+    @Override
+    public int read(final byte[] b, final int off, final int len) throws IOException {
+      if (len <= 0) return 0;
+      try {
+        while (true) {
+          final int n = inflater.inflate(b, off, len);
+          if (n > 0) return n;
+          if (inflater.finished()) return -1;
+          if (inflater.needsDictionary()) {
+            final CompressionDictionary dictionary = CompressionDictionary.get(inflater.getAdler());
+            if (dictionary == null) throw new ZipException("unknown compression dictionary id " + Integer.toHexString(inflater.getAdler()));
+            inflater.setDictionary(dictionary.getData());
+          } else if (inflater.needsInput()) {
+            final int count = in.read(buffer, 0, buffer.length);
+            if (count < 0) throw new EOFException("unexpected end of compressed stream");
+            inflater.setInput(buffer, 0, count);
+          }
+        }
+      } catch (final DataFormatException e) {
+        throw new ZipException(e.getMessage());
+      }
+    }
+
+    /**
+     * Reset this stream so it can be reused. Unlike {@link #close()}, the native resources of the decompressor are kept.
+     */
+    void release() {
+      in = null;
+      inflater.reset();
+    }
+
+    @Override
+    public void close() throws IOException {
+      // the underlying stream is owned by the caller of deserialize()
+    }
+  }
+}
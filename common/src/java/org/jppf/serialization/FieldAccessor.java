@@ -0,0 +1,76 @@
+/*
+ * JPPF.
+ * Copyright (C) 2005-2019 JPPF Team.
+ * http://www.jppf.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jppf.serialization;
+
+import static java.lang.invoke.MethodType.methodType;
+
+import java.lang.invoke.*;
+import java.lang.reflect.Field;
+
+/**
+ * Reads and writes the value of a field through method handles, whose types are adapted so that primitive values are never boxed.
+ * <p>The getter of a field of type {@code T} has the exact type {@code (Object)T}, and its setter has the exact type {@code (Object,T)void},
+ * where {@code T} is {@code Object} for all non-primitive fields.
+ * @author Laurent Cohen
+ * @exclude
+ */
+final class FieldAccessor {
+  /**
+   * The lookup used to create the method handles.
+   */
+  private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+  /**
+   * The kind of field: the signature of a primitive type, 'E' for an enum or 'L' for any other type.
+   */
+  final char kind;
+  /**
+   * The declared type of the field.
+   */
+  final Class<?> type;
+  /**
+   * Gets the value of the field.
+   */
+  final MethodHandle getter;
+  /**
+   * Sets the value of the field.
+   */
+  final MethodHandle setter;
+
+  /**
+   * Create the accessor for the specified field, which must already be accessible.
+   * @param field the field to access.
+   * @throws Exception if any error occurs.
+   */
+  FieldAccessor(final Field field) throws Exception {
+    type = field.getType();
+    kind = type.isPrimitive() ? SerializationReflectionHelper.getSignatureFromType(type).charAt(0) : (type.isEnum() ? 'E' : 'L');
+    final Class<?> valueType = type.isPrimitive() ? type : Object.class;
+    MethodHandle get, set;
+    try {
+      get = LOOKUP.unreflectGetter(field);
+      set = LOOKUP.unreflectSetter(field);
+    } catch (@SuppressWarnings("unused") final IllegalAccessException e) {
+      // some final fields, such as those of records, can only be set via reflection
+      get = LOOKUP.findVirtual(Field.class, "get", methodType(Object.class, Object.class)).bindTo(field);
+      set = LOOKUP.findVirtual(Field.class, "set", methodType(void.class, Object.class, Object.class)).bindTo(field);
+    }
+    getter = get.asType(methodType(valueType, Object.class));
+    setter = set.asType(methodType(void.class, Object.class, valueType));
+  }
+}
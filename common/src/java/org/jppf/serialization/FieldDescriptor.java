@@ -38,6 +38,10 @@ class FieldDescriptor {
    * Descriptor for the type of this field.
    */
   ClassDescriptor type;
+  /**
+   * Reads and writes this field without reflection, created only when needed by a {@link SchemaCachedSerialization}.
+   */
+  FieldAccessor accessor;
 
   /**
    * Initialize an empty field descriptor.
@@ -30,7 +30,7 @@ import net.jpountz.lz4.*;
 public class LZ4Serialization extends JPPFCompositeSerialization {
   @Override
   public void serialize(final Object o, final OutputStream os) throws Exception {
-    final LZ4BlockOutputStream lz4os = new LZ4BlockOutputStream(os, 32*1024, LZ4Factory.fastestInstance().fastCompressor());
+    final LZ4BlockOutputStream lz4os = new LZ4BlockOutputStream(os, 32*1024, Codecs.COMPRESSOR);
     try {
       getDelegate().serialize(o, lz4os);
     } finally {
@@ -40,7 +40,7 @@ public class LZ4Serialization extends JPPFCompositeSerialization {
 
   @Override
   public Object deserialize(final InputStream is) throws Exception {
-    final LZ4BlockInputStream lz4is = new LZ4BlockInputStream(is, LZ4Factory.fastestInstance().fastDecompressor());
+    final LZ4BlockInputStream lz4is = new LZ4BlockInputStream(is, Codecs.DECOMPRESSOR);
     return getDelegate().deserialize(lz4is);
   }
 
@@ -48,4 +48,19 @@ public class LZ4Serialization extends JPPFCompositeSerialization {
   public String getName() {
     return "LZ4";
   }
+
+  /**
+   * Holds the LZ4 compressor and decompressor, which are thread-safe and shared by all instances.
+   * They are only initialized upon first use, since this serialization is instantiated when looking up the available composites.
+   */
+  private static final class Codecs {
+    /**
+     * The shared LZ4 compressor.
+     */
+    private static final LZ4Compressor COMPRESSOR = LZ4Factory.fastestInstance().fastCompressor();
+    /**
+     * The shared LZ4 decompressor.
+     */
+    private static final LZ4FastDecompressor DECOMPRESSOR = LZ4Factory.fastestInstance().fastDecompressor();
+  }
 }
@@ -0,0 +1,83 @@
+/*
+ * JPPF.
+ * Copyright (C) 2005-2019 JPPF Team.
+ * http://www.jppf.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jppf.serialization;
+
+import java.io.*;
+
+import org.jppf.utils.pooling.*;
+
+/**
+ * A variant of the {@link DefaultJPPFSerialization JPPF serialization scheme} which avoids most of the per-stream and per-field reflection costs.
+ * <ul>
+ * <li>the class descriptors, along with the accessors of their fields, are computed once per class and cached for the lifetime of the class</li>
+ * <li>the fields are read and written through method handles instead of {@code Field.get()} and {@code Field.set()}, which also avoids boxing primitive values</li>
+ * <li>each class is written once per stream, then referred to by its index in the stream's class dictionary</li>
+ * </ul>
+ * <p>The serialized streams remain self-contained, since the objects serialized by a client are forwarded as is by the server to the nodes,
+ * and are serialized and deserialized in parallel. Like with the default JPPF serialization, the classes do not need to implement {@link Serializable}.
+ * <p>This serialization scheme is not compatible with {@link DefaultJPPFSerialization}: all the JPPF clients, servers and nodes must be configured with the same scheme:
+ * <pre>jppf.object.serialization.class = org.jppf.serialization.SchemaCachedSerialization</pre>
+ * @author Laurent Cohen
+ */
+public class SchemaCachedSerialization implements JPPFSerialization {
+  /**
+   * Pool of serializers.
+   */
+  private final ObjectPool<SchemaSerializer> serializerPool = new AbstractObjectPoolQueue<SchemaSerializer>() {
+    @Override
+    protected SchemaSerializer create() {
+      return new SchemaSerializer();
+    }
+  };
+  /**
+   * Pool of deserializers.
+   */
+  private final ObjectPool<SchemaDeserializer> deserializerPool = new AbstractObjectPoolQueue<SchemaDeserializer>() {
+    @Override
+    protected SchemaDeserializer create() {
+      return new SchemaDeserializer();
+    }
+  };
+
+  @SuppressWarnings("resource")
+  @Override
+  public void serialize(final Object o, final OutputStream os) throws Exception {
+    final SchemaSerializer serializer = serializerPool.get();
+    try {
+      new JPPFObjectOutputStream(os, serializer).writeObject(o);
+    } finally {
+      serializer.reset();
+      serializerPool.put(serializer);
+    }
+  }
+
+  @SuppressWarnings("resource")
+  @Override
+  public Object deserialize(final InputStream is) throws Exception {
+    final SchemaDeserializer deserializer = deserializerPool.get();
+    try {
+      final ClassLoader cl = Thread.currentThread().getContextClassLoader();
+      deserializer.setClassLoader((cl != null) ? cl : getClass().getClassLoader());
+      return new JPPFObjectInputStream(is, deserializer).readObject();
+    } finally {
+      deserializer.reset();
+      deserializerPool.put(deserializer);
+    }
+  }
+}
@@ -0,0 +1,127 @@
+/*
+ * JPPF.
+ * Copyright (C) 2005-2019 JPPF Team.
+ * http://www.jppf.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jppf.serialization;
+
+import java.io.*;
+import java.util.*;
+
+import org.jppf.JPPFException;
+
+/**
+ * Deserializer used by {@link SchemaCachedSerialization}.
+ * <p>The classes are read from the stream's class dictionary built by a {@link SchemaSerializer}, and the fields are set through {@link FieldAccessor}s.
+ * An {@link InvalidClassException} is raised when the fingerprint of a class in the stream differs from that of the local class.
+ * @author Laurent Cohen
+ * @exclude
+ */
+class SchemaDeserializer extends Deserializer {
+  /**
+   * The classes read from the stream, in the order of their index in the dictionary.
+   */
+  private final List<ClassDescriptor> classDictionary = new ArrayList<>();
+  /**
+   * Mapping of signatures to the classes loaded with the current class loader.
+   */
+  private final Map<String, Class<?>> loadedClasses = new HashMap<>();
+
+  /**
+   * Initialize this deserializer.
+   */
+  SchemaDeserializer() {
+    super(null);
+  }
+
+  /**
+   * Set the class loader to use for the next stream. The classes loaded with the previous class loader are forgotten if it is different.
+   * @param cl the class loader to use.
+   */
+  void setClassLoader(final ClassLoader cl) {
+    if (cl != classloader) {
+      loadedClasses.clear();
+      classloader = cl;
+    }
+  }
+
+  @Override
+  ClassDescriptor readClassDescriptor() throws Exception {
+    final int index = readInt();
+    if (index > 0) {
+      if (index > classDictionary.size()) throw new StreamCorruptedException("invalid class index " + index + ", dictionary size = " + classDictionary.size());
+      return classDictionary.get(index - 1);
+    }
+    final String signature = readString();
+    final long fingerprint = readLong();
+    Class<?> clazz = loadedClasses.get(signature);
+    if (clazz == null) {
+      clazz = SerializationReflectionHelper.getTypeFromSignature(signature, classloader);
+      loadedClasses.put(signature, clazz);
+    }
+    final ClassDescriptor cd = ClassSchemaCache.getDescriptor(clazz, false);
+    // the fields are read in the local order, which is only valid if the class has the same fields as on the writing side
+    if (cd.fingerprint != fingerprint) throw new InvalidClassException(clazz.getName(), String.format(
+      "the fields of the class in the stream do not match those of the local class (fingerprint %016x in the stream, %016x locally), local fields: %s",
+      fingerprint, cd.fingerprint, ClassSchemaCache.describeFields(cd)));
+    classDictionary.add(cd);
+    return cd;
+  }
+
+  @Override
+  Class<?> readClass() throws Exception {
+    return readClassDescriptor().clazz;
+  }
+
+  @Override
+  @SuppressWarnings({ "unchecked", "rawtypes" })
+  void readDeclaredFields(final ClassDescriptor cd, final Object obj) throws Exception {
+    try {
+      for (final FieldDescriptor fd: cd.fields) {
+        final FieldAccessor accessor = fd.accessor;
+        switch(accessor.kind) {
+          case 'B': accessor.setter.invokeExact(obj, (byte) in.read()); break;
+          case 'S': accessor.setter.invokeExact(obj, in.readShort()); break;
+          case 'I': accessor.setter.invokeExact(obj, readInt()); break;
+          case 'J': accessor.setter.invokeExact(obj, readLong()); break;
+          case 'F': accessor.setter.invokeExact(obj, readFloat()); break;
+          case 'D': accessor.setter.invokeExact(obj, readDouble()); break;
+          case 'C': accessor.setter.invokeExact(obj, in.readChar()); break;
+          case 'Z': accessor.setter.invokeExact(obj, in.readBoolean()); break;
+          case 'E':
+            final String name = (String) readObject();
+            accessor.setter.invokeExact(obj, (Object) ((name == null) ? null : Enum.valueOf((Class<? extends Enum>) accessor.type, name)));
+            break;
+          default: accessor.setter.invokeExact(obj, readObject());
+        }
+      }
+    } catch (final Exception|Error e) {
+      throw e;
+    } catch (final Throwable t) {
+      throw new JPPFException(t);
+    }
+  }
+
+  /**
+   * Reset this deserializer so it can be reused for another stream.
+   */
+  void reset() {
+    caches.handleToObjectMap.clear();
+    classDictionary.clear();
+    currentObject = null;
+    currentClassDescriptor = null;
+  }
+}
@@ -0,0 +1,99 @@
+/*
+ * JPPF.
+ * Copyright (C) 2005-2019 JPPF Team.
+ * http://www.jppf.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jppf.serialization;
+
+import java.util.*;
+
+import org.jppf.JPPFException;
+
+/**
+ * Serializer used by {@link SchemaCachedSerialization}.
+ * <p>Each class is written once per stream as its signature and the fingerprint of its fields, and is then referred to by its index in the stream's class dictionary.
+ * The class descriptors come from the JVM-wide {@link ClassSchemaCache}, and the fields are read through {@link FieldAccessor}s.
+ * @author Laurent Cohen
+ * @exclude
+ */
+class SchemaSerializer extends Serializer {
+  /**
+   * Mapping of the classes already written to the stream to their index in the dictionary, starting at 1.
+   */
+  private final Map<Class<?>, Integer> classDictionary = new IdentityHashMap<>();
+
+  /**
+   * Initialize this serializer.
+   */
+  SchemaSerializer() {
+    super(null);
+  }
+
+  @Override
+  ClassDescriptor getClassDescriptor(final Class<?> clazz) throws Exception {
+    return ClassSchemaCache.getDescriptor(clazz, true);
+  }
+
+  @Override
+  void writeClassDescriptor(final ClassDescriptor cd) throws Exception {
+    final Integer index = classDictionary.get(cd.clazz);
+    if (index != null) writeInt(index);
+    else {
+      classDictionary.put(cd.clazz, classDictionary.size() + 1);
+      writeInt(0);
+      writeString(cd.signature);
+      writeLong(cd.fingerprint);
+    }
+  }
+
+  @Override
+  void writeDeclaredFields(final Object obj, final ClassDescriptor cd) throws Exception {
+    try {
+      for (final FieldDescriptor fd: cd.fields) {
+        final FieldAccessor accessor = fd.accessor;
+        switch(accessor.kind) {
+          case 'B': out.write((byte) accessor.getter.invokeExact(obj)); break;
+          case 'S': out.writeShort((short) accessor.getter.invokeExact(obj)); break;
+          case 'I': writeInt((int) accessor.getter.invokeExact(obj)); break;
+          case 'J': writeLong((long) accessor.getter.invokeExact(obj)); break;
+          case 'F': writeFloat((float) accessor.getter.invokeExact(obj)); break;
+          case 'D': writeDouble((double) accessor.getter.invokeExact(obj)); break;
+          case 'C': out.writeChar((char) accessor.getter.invokeExact(obj)); break;
+          case 'Z': out.writeBoolean((boolean) accessor.getter.invokeExact(obj)); break;
+          case 'E':
+            final Object val = (Object) accessor.getter.invokeExact(obj);
+            writeObject(val == null ? null : ((Enum<?>) val).name());
+            break;
+          default: writeObject((Object) accessor.getter.invokeExact(obj));
+        }
+      }
+    } catch (final Exception|Error e) {
+      throw e;
+    } catch (final Throwable t) {
+      throw new JPPFException(t);
+    }
+  }
+
+  /**
+   * Reset this serializer so it can be reused for another stream.
+   */
+  void reset() {
+    caches.objectHandleMap.clear();
+    classDictionary.clear();
+    currentObject = null;
+    currentClassDescriptor = null;
+  }
+}
@@ -133,12 +133,11 @@ class Serializer {
    * @throws Exception if any error occurs.
    */
   private void writeObject(final Object obj, final int handle) throws Exception {
-    final Map<Class<?>, ClassDescriptor> cdMap = SerializationCaches.createClassKeyMap();
-    final ClassDescriptor cd = caches.getClassDescriptor(obj.getClass(), cdMap);
+    final ClassDescriptor cd = getClassDescriptor(obj.getClass());
     currentObject = obj;
     currentClassDescriptor = cd;
     writeHeaderAndHandle(OBJECT_HEADER, handle);
-    writeString(cd.signature);
+    writeClassDescriptor(cd);
     //if (traceEnabled) try { log.trace("writing object " + obj + ", handle=" + handle + ", class=" + obj.getClass() + ", cd=" + cd); } catch(Exception e) {}
     if (cd.array) writeArray(obj, cd);
     else if (cd.enumType) writeString(((Enum<?>) obj).name());
@@ -155,12 +154,30 @@ class Serializer {
    * @throws Exception if any error occurs.
    */
   private void writeClassObject(final Class<?> obj) throws Exception {
-    final Map<Class<?>, ClassDescriptor> cdMap = new IdentityHashMap<>();
-    final ClassDescriptor cd = caches.getClassDescriptor(obj, cdMap);
+    final ClassDescriptor cd = getClassDescriptor(obj);
     caches.objectHandleMap.get(obj);
     currentObject = obj;
     currentClassDescriptor = cd;
     out.writeByte(CLASS_OBJECT_HEADER);
+    writeClassDescriptor(cd);
+  }
+
+  /**
+   * Get the descriptor for the specified class, and create it if needed.
+   * @param clazz the class for which to get a descriptor.
+   * @return a {@link ClassDescriptor} object.
+   * @throws Exception if any error occurs.
+   */
+  ClassDescriptor getClassDescriptor(final Class<?> clazz) throws Exception {
+    return caches.getClassDescriptor(clazz, SerializationCaches.createClassKeyMap());
+  }
+
+  /**
+   * Write a reference to the class described by the specified descriptor.
+   * @param cd the class descriptor to write.
+   * @throws Exception if any error occurs.
+   */
+  void writeClassDescriptor(final ClassDescriptor cd) throws Exception {
     writeString(cd.signature);
   }
 
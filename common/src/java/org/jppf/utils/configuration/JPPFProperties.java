@@ -264,6 +264,10 @@ public class JPPFProperties {
   public static final JPPFProperty<String> RESOURCE_CACHE_DIR = new StringProperty("jppf.resource.cache.dir", System.getProperty("java.io.tmpdir"));
   /** Whether the class loader resource cache is enabled. */
   public static final JPPFProperty<Boolean> RESOURCE_CACHE_ENABLED = new BooleanProperty("jppf.resource.cache.enabled", true);
+  /** Whether class definitions downloaded by the node are kept in a persistent cache shared by the nodes on the same host. */
+  public static final JPPFProperty<Boolean> RESOURCE_CACHE_PERSISTENT_ENABLED = new BooleanProperty("jppf.resource.cache.persistent.enabled", false);
+  /** Maximum size in MB of the persistent cache of class definitions. */
+  public static final JPPFProperty<Long> RESOURCE_CACHE_PERSISTENT_SIZE = new LongProperty("jppf.resource.cache.persistent.size", 256L, 1L, Long.MAX_VALUE / (1024L * 1024L));
   /** Type of cache storage: either 'file' or 'memory'. */
   public static final JPPFProperty<String> RESOURCE_CACHE_STORAGE = new StringProperty("jppf.resource.cache.storage", "file").setPossibleValues("file", "memory");
   /** Enable/disable the screen saver. */
@@ -370,6 +374,8 @@ public class JPPFProperties {
   public static final JPPFProperty<Integer> NIO_THREAD_QUEUE_SIZE = new IntProperty("jppf.nio.thread.queue.size", 50, 1, Integer.MAX_VALUE);
   /** TTL in milliseconds for threads beyond the core number performing network I/O. */
   public static final JPPFProperty<Long> NIO_THREAD_TTL = new LongProperty("jppf.nio.thread.ttl", 15_000L, 1L, Long.MAX_VALUE);
+  /** Number of selector threads for each NIO server, each handling its own subset of the connections. */
+  public static final JPPFProperty<Integer> NIO_SELECTOR_THREADS = new IntProperty("jppf.nio.selector.threads", 1, 1, 1024);
   /** Whether to display the animated splash screen at console startup, defaults to false. */
   public static final JPPFProperty<Boolean> UI_SPLASH = new BooleanProperty("jppf.ui.splash", true);
   /** Interval between images in milliseconds. */
@@ -390,6 +396,16 @@ public class JPPFProperties {
   public static final JPPFProperty<Long> LOW_MEMORY_THRESHOLD = new LongProperty("jppf.low.memory.threshold", 32L);
   /** Whether to check for low memory and trigger disk offloading. */
   public static final JPPFProperty<Boolean> CHECK_LOW_MEMORY = new BooleanProperty("jppf.check.low.memory", true);
+  /** Whether data received by NIO channels is stored in pooled direct buffers rather than in the heap. */
+  public static final JPPFProperty<Boolean> NIO_DIRECT_LOCATIONS = new BooleanProperty("jppf.nio.direct.locations.enabled", false);
+  /** Maximum total size in MB of the pooled direct buffers holding data received by NIO channels. */
+  public static final JPPFProperty<Long> NIO_DIRECT_LOCATIONS_MAX_SIZE = new LongProperty("jppf.nio.direct.locations.max.size", 256L, 1L, Long.MAX_VALUE);
+  /** Whether disk overflow uses a store of memory-mapped segment files rather than one temporary file per overflowed object. */
+  public static final JPPFProperty<Boolean> SPILL_STORE_ENABLED = new BooleanProperty("jppf.spill.store.enabled", false);
+  /** Size in MB of each memory-mapped segment file of the disk overflow store. */
+  public static final JPPFProperty<Long> SPILL_SEGMENT_SIZE = new LongProperty("jppf.spill.segment.size", 256L, 1L, 2047L);
+  /** Maximum number of memory-mapped segment files of the disk overflow store. */
+  public static final JPPFProperty<Integer> SPILL_MAX_SEGMENTS = new IntProperty("jppf.spill.max.segments", 4, 1, 1024);
   /** Used heap in bytes above which notifications from task are offloaded to file. Defaults to 0.8 * maxHeapSize.. */
   public static final JPPFProperty<String> NOTIFICATION_OFFLOAD_MEMORY_THRESHOLD = new StringProperty("jppf.notification.offload.memory.threshold", "" + (long) (0.8d * Runtime.getRuntime().maxMemory()) + "b" );
   /** Determines the frequency at which the JVM's cpu load is recomputed, in ms. */
@@ -400,12 +416,28 @@ public class JPPFProperties {
   public static final JPPFProperty<String> NODE_CLASS = new StringProperty("jppf.node.class", "org.jppf.server.node.remote.JPPFRemoteNode");
   /** Maximum number of jobs that can be handled concurrently by a node. */
   public static final JPPFProperty<Integer> NODE_MAX_JOBS = new IntProperty("jppf.node.max.jobs", Integer.MAX_VALUE, 1, Integer.MAX_VALUE);
+  /** Maximum number of task results a node sends to the server before the rest of the job has completed, 0 to disable partial results by count. */
+  public static final JPPFProperty<Integer> NODE_PARTIAL_RESULTS_BATCH_SIZE = new IntProperty("jppf.node.partial.results.batch.size", 0, 0, Integer.MAX_VALUE);
+  /** Maximum time in ms a task result waits in the node before it is sent to the server with other completed tasks, 0 to disable partial results by time. */
+  public static final JPPFProperty<Long> NODE_PARTIAL_RESULTS_WINDOW = new LongProperty("jppf.node.partial.results.window", 0L, 0L, Long.MAX_VALUE);
+  /** Whether the node uses a non-blocking channel for the jobs it receives from a non-secure driver connection. */
+  public static final JPPFProperty<Boolean> NODE_NIO_ENABLED = new BooleanProperty("jppf.node.nio.enabled", false);
+  /** Whether the node starts executing the tasks of a job while the rest of the job is still being received. */
+  public static final JPPFProperty<Boolean> NODE_STREAMING_EXECUTION = new BooleanProperty("jppf.node.streaming.execution", false);
   /** How often the node throttling mechanism will check, expressed as an interval in milliseconds. */
   public static final JPPFProperty<Long> NODE_THROTTLING_CHECK_PERIOD = new LongProperty("jppf.node.throttling.check.period", 2000L, 1L, Long.MAX_VALUE);
   /** Default script language for scripted property values. */
   public static final JPPFProperty<String> SCRIPT_DEFAULT_LANGUAGE = new StringProperty("jppf.script.default.language", "javascript");
   /** Fully qualified name of a class implementing {@link org.jppf.node.connection.DriverConnectionStrategy DriverConnectionStrategy}. */
   public static final JPPFProperty<String> SERVER_CONNECTION_STRATEGY = new StringProperty("jppf.server.connection.strategy", null);
+  /** Whether the server records its latency statistics as histograms which provide percentiles. Disabled by default, since consoles of previous versions cannot deserialize the histograms. */
+  public static final JPPFProperty<Boolean> STATISTICS_HISTOGRAMS_ENABLED = new BooleanProperty("jppf.statistics.histograms.enabled", false);
+  /** Path to the preset dictionary used by the "ZLIB_DICT" composite serialization, in the file system or classpath. */
+  public static final JPPFProperty<String> SERIALIZATION_DICTIONARY = new StringProperty("jppf.serialization.dictionary", null);
+  /** Duration in milliseconds of a tick of the timer wheels which trigger the task timeouts, job schedules and expirations. */
+  public static final JPPFProperty<Long> SCHEDULING_WHEEL_TICK = new LongProperty("jppf.scheduling.wheel.tick", 5L, 1L, 1000L);
+  /** Number of buckets in the timer wheels which trigger the task timeouts, job schedules and expirations, rounded up to a power of 2. */
+  public static final JPPFProperty<Integer> SCHEDULING_WHEEL_SIZE = new IntProperty("jppf.scheduling.wheel.size", 512, 1, 1 << 20);
   /** @exclude . */
   public static final JPPFProperty<String> SERIALIZATION_EXCEPTION_HOOK = new StringProperty("jppf.serialization.exception.hook", null);
   /** Full path to the Java executable. */
@@ -430,6 +462,12 @@ public class JPPFProperties {
   public static final JPPFProperty<Boolean> SEQUENTIAL_SERIALiZATION = new BooleanProperty("jppf.sequential.serialization", false, "jppf.sequential.deserialization");
   /** Whether bias towards local node for scheduling is enabled in the driver. */
   public static final JPPFProperty<Boolean> LOCAL_NODE_BIAS = new BooleanProperty("jppf.local.node.bias", true);
+  /** Maximum interval in milliseconds between two full evaluations of the queued jobs against the idle nodes in the driver. */
+  public static final JPPFProperty<Long> JOB_SCHEDULER_RESCAN_INTERVAL = new LongProperty("jppf.job.scheduler.rescan.interval", 1000L, 1L, Long.MAX_VALUE);
+  /** Whether execution policies are compiled, with their results cached for each node, in the driver. */
+  public static final JPPFProperty<Boolean> POLICY_COMPILATION_ENABLED = new BooleanProperty("jppf.policy.compilation.enabled", false);
+  /** Maximum total size in MB of the class definitions cached by the driver. */
+  public static final JPPFProperty<Long> DRIVER_CLASS_CACHE_SIZE = new LongProperty("jppf.driver.class.cache.size", 64L, 0L, Long.MAX_VALUE / (1024L * 1024L));
   /** Location of the file that contains the DDL statements to create the database table for the databse job persistence. */
   public static final JPPFProperty<String> JOB_PERSISTENCE_DDL_LOCATION = new StringProperty("jppf.job.persistence.ddl.location", "org/jppf/job/persistence/impl/job_persistence.sql");
   /** Percentage of used heap above which async job persistence switches to sequential mode, until the used heap decreases below the threshold. */
@@ -458,6 +496,14 @@ public class JPPFProperties {
   public static final JPPFProperty<Integer> JMX_NOTIF_QUEUE_SIZE = new IntProperty("jppf.jmx.notifications.queue.size", JMXHelper.DEFAULT_MAX_NOTIFICATIONS_QUEUE_SIZE);
   /** Whether the client should print connection events to stdout. */
   public static final JPPFProperty<Boolean> CLIENT_SYSOUT_ENABLED = new BooleanProperty("jppf.client.sysout.enabled", true);
+  /** Number of threads which serialize the tasks of the jobs sent by a client to the servers, 1 to serialize them in the sending thread. */
+  public static final JPPFProperty<Integer> CLIENT_SERIALIZATION_THREADS = new IntProperty("jppf.client.serialization.threads", Runtime.getRuntime().availableProcessors(), 1, 1024);
+  /** Maximum number of tasks serialized ahead of those being sent to a server, for each connection. */
+  public static final JPPFProperty<Integer> CLIENT_SERIALIZATION_WINDOW = new IntProperty("jppf.client.serialization.window", 64, 1, Integer.MAX_VALUE);
+  /** Whether the client connections to the servers are non-blocking and share a small set of selector threads, instead of using two threads each. */
+  public static final JPPFProperty<Boolean> CLIENT_NIO_ENABLED = new BooleanProperty("jppf.client.nio.enabled", false);
+  /** Number of selector threads shared by all the non-blocking connections of a client. */
+  public static final JPPFProperty<Integer> CLIENT_NIO_SELECTOR_THREADS = new IntProperty("jppf.client.nio.selector.threads", 1, 1, 1024);
   /** The list of all predefined properties. */
   private static List<JPPFProperty<?>> properties;
 
@@ -17,9 +17,13 @@
  */
 package org.jppf.utils.stats;
 
+import java.io.*;
+import java.util.concurrent.atomic.DoubleAdder;
+
 /**
  * Convenience class for collecting time or size statistics.
- * Instances of this class are thread-safe.
+ * Instances of this class are thread-safe and lock-free: the values are held in striped cells, such that concurrent updates
+ * do not contend on a monitor, and the getters read each value independently without blocking the updates.
  */
 public abstract class AbstractBaseJPPFSnapshot implements JPPFSnapshot {
   /**
@@ -27,13 +31,19 @@ public abstract class AbstractBaseJPPFSnapshot implements JPPFSnapshot {
    */
   private static final long serialVersionUID = 1L;
   /**
-   * Label for this snapshot, used in the {@link #toString()} method.
+   * The serialized fields, with the same names and types as in previous versions, where the total was held in a plain {@code double}.
+   */
+  private static final ObjectStreamField[] serialPersistentFields = {
+    new ObjectStreamField("label", String.class), new ObjectStreamField("total", double.class), new ObjectStreamField("updateNanos", long.class)
+  };
+  /**
+   * Label for this snapshot, used in the {@link #toString()} method. Not final, since it is restored in {@link #readObject(ObjectInputStream)}.
    */
-  final String label;
+  String label;
   /**
    * The total cumulated values.
    */
-  double total;
+  transient DoubleAdder total = new DoubleAdder();
   /**
    * The creation time of this snapshot, as the result of calling {@code System.nanoTime()}.
    */
@@ -41,7 +51,7 @@ public abstract class AbstractBaseJPPFSnapshot implements JPPFSnapshot {
   /**
    * The last update time of this snapshot, as the result of calling {@code System.nanoTime() - creationTimeNanos}.
    */
-  long updateNanos;
+  volatile long updateNanos;
 
   /**
    * Initialize this time snapshot with a specified title.
@@ -53,17 +63,17 @@ public abstract class AbstractBaseJPPFSnapshot implements JPPFSnapshot {
   }
 
   @Override
-  public synchronized double getTotal() {
-    return total;
+  public double getTotal() {
+    return total.sum();
   }
 
   @Override
-  public synchronized String getLabel() {
+  public String getLabel() {
     return label;
   }
 
   @Override
-  public synchronized long getLastUpdateNanos() {
+  public long getLastUpdateNanos() {
     return updateNanos;
   }
 
@@ -73,4 +83,31 @@ public abstract class AbstractBaseJPPFSnapshot implements JPPFSnapshot {
   void computeUpdateNanos() {
     updateNanos = System.nanoTime() - creationNanos;
   }
+
+  /**
+   * Save the state of this snapshot to a stream.
+   * @param out the stream to write to.
+   * @throws IOException if any I/O error occurs.
+   */
+  private void writeObject(final ObjectOutputStream out) throws IOException {
+    final ObjectOutputStream.PutField fields = out.putFields();
+    fields.put("label", label);
+    fields.put("total", total.sum());
+    fields.put("updateNanos", updateNanos);
+    out.writeFields();
+  }
+
+  /**
+   * Restore the state of this snapshot from a stream.
+   * @param in the stream to read from.
+   * @throws IOException if any I/O error occurs.
+   * @throws ClassNotFoundException if a class could not be found.
+   */
+  private void readObject(final ObjectInputStream in) throws IOException, ClassNotFoundException {
+    final ObjectInputStream.GetField fields = in.readFields();
+    label = (String) fields.get("label", null);
+    total = new DoubleAdder();
+    total.add(fields.get("total", 0d));
+    updateNanos = fields.get("updateNanos", 0L);
+  }
 }
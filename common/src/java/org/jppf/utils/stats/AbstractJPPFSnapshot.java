@@ -17,9 +17,13 @@
  */
 package org.jppf.utils.stats;
 
+import java.io.*;
+import java.util.concurrent.atomic.*;
+
 /**
  * Convenience class for collecting time or size statistics.
- * Instances of this class are thread-safe.
+ * Instances of this class are thread-safe and lock-free. The values are read independently of each other, thus a reader may
+ * observe, for instance, a total which already includes a concurrent update while the value count does not yet.
  */
 public abstract class AbstractJPPFSnapshot extends AbstractBaseJPPFSnapshot {
   /**
@@ -27,25 +31,29 @@ public abstract class AbstractJPPFSnapshot extends AbstractBaseJPPFSnapshot {
    */
   private static final long serialVersionUID = 1L;
   /**
-   * The most recent value.
+   * The serialized fields, with the same names and types as in previous versions, where the values were held in plain fields.
+   * The average is still written, so that previous versions can read it, but it is computed on read.
    */
-  double latest;
+  private static final ObjectStreamField[] serialPersistentFields = {
+    new ObjectStreamField("latest", double.class), new ObjectStreamField("min", double.class), new ObjectStreamField("max", double.class),
+    new ObjectStreamField("avg", double.class), new ObjectStreamField("valueCount", long.class)
+  };
   /**
-   * The minimum value.
+   * The raw bits of the most recent value.
    */
-  double min = Double.POSITIVE_INFINITY;
+  transient AtomicLong latest = new AtomicLong(Double.doubleToRawLongBits(0d));
   /**
-   * The maximum value.
+   * The minimum value.
    */
-  double max;
+  transient DoubleAccumulator min = newMin();
   /**
-   * The average value.
+   * The maximum value.
    */
-  double avg;
+  transient DoubleAccumulator max = newMax();
   /**
    * Count of values added to this snapshot.
    */
-  long valueCount;
+  transient LongAdder valueCount = new LongAdder();
 
   /**
    * Initialize this time snapshot with a specified title.
@@ -60,13 +68,12 @@ public abstract class AbstractJPPFSnapshot extends AbstractBaseJPPFSnapshot {
    * @param ts a new snapshot into which values will be copied
    * @return a <code>TimeSnapshot</code> instance.
    */
-  synchronized AbstractJPPFSnapshot copy(final AbstractJPPFSnapshot ts) {
-    ts.total = total;
-    ts.latest = latest;
-    ts.min = min;
-    ts.max = max;
-    ts.avg = avg;
-    ts.valueCount = valueCount;
+  AbstractJPPFSnapshot copy(final AbstractJPPFSnapshot ts) {
+    ts.total.add(total.sum());
+    ts.setLatest(latestValue());
+    ts.min.accumulate(min.get());
+    ts.max.accumulate(max.get());
+    ts.valueCount.add(valueCount.sum());
     return ts;
   }
 
@@ -75,14 +82,13 @@ public abstract class AbstractJPPFSnapshot extends AbstractBaseJPPFSnapshot {
    * @exclude
    */
   @Override
-  public synchronized void reset() {
+  public void reset() {
     computeUpdateNanos();
-    total = 0d;
-    latest = 0d;
-    min = Double.POSITIVE_INFINITY;
-    max = 0d;
-    avg = 0d;
-    valueCount = 0L;
+    total.reset();
+    setLatest(0d);
+    min.reset();
+    max.reset();
+    valueCount.reset();
   }
 
   /**
@@ -92,41 +98,140 @@ public abstract class AbstractJPPFSnapshot extends AbstractBaseJPPFSnapshot {
   public abstract void assignLatestToMax();
 
   @Override
-  public synchronized String toString() {
+  public String toString() {
     final StringBuilder sb = new StringBuilder();
     sb.append(JPPFStatisticsHelper.getLocalizedLabel(this)).append(": type=").append(getClass().getSimpleName());
-    sb.append(": total=").append(total);
-    sb.append(", latest=").append(latest);
-    sb.append(", min=").append(min);
-    sb.append(", max=").append(max);
-    sb.append(", avg=").append(avg);
-    sb.append(", valueCount=").append(valueCount);
+    sb.append(": total=").append(getTotal());
+    sb.append(", latest=").append(latestValue());
+    sb.append(", min=").append(min.get());
+    sb.append(", max=").append(getMax());
+    sb.append(", avg=").append(getAvg());
+    sb.append(", valueCount=").append(getValueCount());
     return sb.toString();
   }
 
   @Override
-  public synchronized double getLatest() {
-    return latest;
+  public double getLatest() {
+    return latestValue();
   }
 
   @Override
-  public synchronized double getMin() {
-    if (Double.compare(min, Double.POSITIVE_INFINITY) == 0) return latest;
-    else return min;
+  public double getMin() {
+    final double value = min.get();
+    if (Double.compare(value, Double.POSITIVE_INFINITY) == 0) return latestValue();
+    else return value;
   }
 
   @Override
-  public synchronized double getMax() {
-    return max;
+  public double getMax() {
+    return max.get();
   }
 
+  /**
+   * {@inheritDoc}
+   * <p>The average is computed upon each call, as the ratio of the total over the value count.
+   */
   @Override
-  public synchronized double getAvg() {
-    return avg;
+  public double getAvg() {
+    final long count = valueCount.sum();
+    return (count == 0L) ? 0d : total.sum() / count;
   }
 
   @Override
-  public synchronized long getValueCount() {
-    return valueCount;
+  public long getValueCount() {
+    return valueCount.sum();
+  }
+
+  /**
+   * Get the most recent value.
+   * @return the latest value as a double.
+   */
+  double latestValue() {
+    return Double.longBitsToDouble(latest.get());
+  }
+
+  /**
+   * Set the most recent value.
+   * @param value the value to set.
+   */
+  void setLatest(final double value) {
+    latest.set(Double.doubleToRawLongBits(value));
+  }
+
+  /**
+   * Atomically add the specified value to the most recent value.
+   * @param value the value to add.
+   * @return the updated most recent value.
+   */
+  double addToLatest(final double value) {
+    while (true) {
+      final long bits = latest.get();
+      final double newValue = Double.longBitsToDouble(bits) + value;
+      if (latest.compareAndSet(bits, Double.doubleToRawLongBits(newValue))) return newValue;
+    }
+  }
+
+  /**
+   * Set the minimum value.
+   * @param value the value to set, {@link Double#POSITIVE_INFINITY} meaning that there is no minimum.
+   */
+  void setMin(final double value) {
+    min.reset();
+    min.accumulate(value);
+  }
+
+  /**
+   * Set the maximum value.
+   * @param value the value to set.
+   */
+  void setMax(final double value) {
+    max.reset();
+    max.accumulate(value);
+  }
+
+  /**
+   * @return a new accumulator for the minimum value.
+   */
+  private static DoubleAccumulator newMin() {
+    return new DoubleAccumulator(Math::min, Double.POSITIVE_INFINITY);
+  }
+
+  /**
+   * @return a new accumulator for the maximum value.
+   */
+  private static DoubleAccumulator newMax() {
+    return new DoubleAccumulator(Math::max, 0d);
+  }
+
+  /**
+   * Save the state of this snapshot to a stream.
+   * @param out the stream to write to.
+   * @throws IOException if any I/O error occurs.
+   */
+  private void writeObject(final ObjectOutputStream out) throws IOException {
+    final ObjectOutputStream.PutField fields = out.putFields();
+    fields.put("latest", latestValue());
+    fields.put("min", min.get());
+    fields.put("max", max.get());
+    fields.put("avg", getAvg());
+    fields.put("valueCount", valueCount.sum());
+    out.writeFields();
+  }
+
+  /**
+   * Restore the state of this snapshot from a stream.
+   * @param in the stream to read from.
+   * @throws IOException if any I/O error occurs.
+   * @throws ClassNotFoundException if a class could not be found.
+   */
+  private void readObject(final ObjectInputStream in) throws IOException, ClassNotFoundException {
+    final ObjectInputStream.GetField fields = in.readFields();
+    latest = new AtomicLong(Double.doubleToRawLongBits(fields.get("latest", 0d)));
+    min = newMin();
+    min.accumulate(fields.get("min", Double.POSITIVE_INFINITY));
+    max = newMax();
+    max.accumulate(fields.get("max", 0d));
+    valueCount = new LongAdder();
+    valueCount.add(fields.get("valueCount", 0L));
   }
 }
@@ -54,20 +54,19 @@ public class CumulativeSnapshot extends AbstractJPPFSnapshot {
    * @exclude
    */
   @Override
-  public synchronized void addValues(final double accumulatedValues, final long count) {
+  public void addValues(final double accumulatedValues, final long count) {
     computeUpdateNanos();
-    total += accumulatedValues;
+    total.add(accumulatedValues);
     if (count > 0L) {
-      valueCount += count;
+      valueCount.add(count);
+      final double newLatest = addToLatest(accumulatedValues);
       if (debugEnabled && (label == JPPFStatisticsHelper.TASK_QUEUE_COUNT)) {
-        log.debug(String.format("latest=%5d; adding %4d; new value=%5d", (long) latest, (long) accumulatedValues, (long) (latest + accumulatedValues)));
+        log.debug(String.format("latest=%5d; adding %4d; new value=%5d", (long) (newLatest - accumulatedValues), (long) accumulatedValues, (long) newLatest));
         final String name = Thread.currentThread().getName();
         if ((accumulatedValues <= 0d) && (name != null) && name.startsWith("JPPF NIO-")) log.debug("call stack:\n{}", ExceptionUtils.getCallStack());
       }
-      latest += accumulatedValues;
-      if (latest > max) max = latest;
-      if (latest < min) min = latest;
-      if (valueCount != 0d) avg = total / valueCount;
+      max.accumulate(newLatest);
+      min.accumulate(newLatest);
     }
   }
 
@@ -76,13 +75,15 @@ public class CumulativeSnapshot extends AbstractJPPFSnapshot {
    * @exclude
    */
   @Override
-  public synchronized void assignLatestToMax() {
+  public void assignLatestToMax() {
     computeUpdateNanos();
-    max = latest;
-    total = latest;
-    valueCount = 1L;
-    avg = latest;
-    min = 0d;
+    final double value = latestValue();
+    setMax(value);
+    total.reset();
+    total.add(value);
+    valueCount.reset();
+    valueCount.increment();
+    setMin(0d);
   }
 
   /**
@@ -0,0 +1,215 @@
+/*
+ * JPPF.
+ * Copyright (C) 2005-2019 JPPF Team.
+ * http://www.jppf.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jppf.utils.stats;
+
+import java.io.*;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A non-cumulative snapshot which, in addition to the min, max and average values, records the distribution of the values,
+ * so as to provide percentiles such as the median or the 99th percentile of a latency.
+ * <p>The values are counted in log-linear buckets, in the manner of an HDR histogram: each power of two between 2<sup>-16</sup>
+ * and 2<sup>48</sup> is split into 64 linear sub-buckets, which bounds the relative error of a percentile to about 1.6%.
+ * Smaller values, including zero and negative values, are counted in the lowest bucket, while larger values are counted in the highest one.
+ * <p>When several values are added at once via {@link #addValues(double, long)}, only their average is known,
+ * and it is counted as many times as there are values.
+ * @author Laurent Cohen
+ */
+public class HistogramSnapshot extends NonCumulativeSnapshot {
+  /**
+   * Explicit serialVersionUID.
+   */
+  private static final long serialVersionUID = 1L;
+  /**
+   * Number of bits of the mantissa used to index the sub-buckets.
+   */
+  private static final int SUB_BUCKET_BITS = 6;
+  /**
+   * The number of sub-buckets in each power of two.
+   */
+  private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+  /**
+   * The smallest power of two with its own buckets.
+   */
+  private static final int MIN_EXPONENT = -16;
+  /**
+   * The number of powers of two with their own buckets.
+   */
+  private static final int EXPONENT_COUNT = 64;
+  /**
+   * The total number of buckets, including the bucket for the values below 2<sup>{@link #MIN_EXPONENT}</sup>.
+   */
+  static final int BUCKET_COUNT = 1 + EXPONENT_COUNT * SUB_BUCKET_COUNT;
+  /**
+   * The count of values in each bucket.
+   */
+  transient AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+
+  /**
+   * Initialize this snapshot with a specified title.
+   * @param label the title for this snapshot.
+   * @exclude
+   */
+  public HistogramSnapshot(final String label) {
+    super(label);
+  }
+
+  /**
+   * {@inheritDoc}
+   * @exclude
+   */
+  @Override
+  public void addValues(final double accumulatedValues, final long count) {
+    super.addValues(accumulatedValues, count);
+    if (count > 0L) counts.addAndGet(bucketIndex((count == 1L) ? accumulatedValues : accumulatedValues / count), count);
+  }
+
+  /**
+   * Get the value below which the specified percentage of the values fall.
+   * @param percentile the percentage of values, in the range [0, 100].
+   * @return the highest value of the bucket where the percentile falls, bounded by the min and max values, or 0 if no value was added.
+   */
+  public double getValueAtPercentile(final double percentile) {
+    return getValuesAtPercentiles(percentile)[0];
+  }
+
+  /**
+   * Get the values below which the specified percentages of the values fall, in a single pass over the buckets.
+   * Only the buckets between those of the min and max values are visited.
+   * @param percentiles the percentages of values, in the range [0, 100] and in ascending order.
+   * @return the value at each of the specified percentiles, bounded by the min and max values, or 0 if no value was added.
+   */
+  public double[] getValuesAtPercentiles(final double...percentiles) {
+    final double[] result = new double[percentiles.length];
+    final double minValue = getMin(), maxValue = getMax();
+    final int first = bucketIndex(minValue), last = bucketIndex(maxValue);
+    long total = 0L;
+    for (int i=first; i<=last; i++) total += counts.get(i);
+    if (total == 0L) return result;
+    long cumulated = 0L;
+    int index = first;
+    for (int n=0; n<percentiles.length; n++) {
+      final double p = Math.max(0d, Math.min(100d, percentiles[n]));
+      final long rank = Math.max(1L, (long) Math.ceil(p / 100d * total));
+      while ((cumulated < rank) && (index <= last)) cumulated += counts.get(index++);
+      result[n] = Math.max(minValue, Math.min(maxValue, bucketUpperBound(Math.max(first, index - 1))));
+    }
+    return result;
+  }
+
+  /**
+   * Get the median of the values.
+   * @return the 50th percentile of the values.
+   */
+  public double getMedian() {
+    return getValueAtPercentile(50d);
+  }
+
+  /**
+   * {@inheritDoc}
+   * @exclude
+   */
+  @Override
+  public void reset() {
+    super.reset();
+    for (int i=0; i<BUCKET_COUNT; i++) counts.set(i, 0L);
+  }
+
+  /**
+   * {@inheritDoc}
+   * @exclude
+   */
+  @Override
+  public JPPFSnapshot copy() {
+    final HistogramSnapshot copy = (HistogramSnapshot) copy(new HistogramSnapshot(getLabel()));
+    for (int i=0; i<BUCKET_COUNT; i++) {
+      final long n = counts.get(i);
+      if (n != 0L) copy.counts.set(i, n);
+    }
+    return copy;
+  }
+
+  @Override
+  public String toString() {
+    final double[] values = getValuesAtPercentiles(50d, 90d, 99d);
+    return new StringBuilder(super.toString()).append(", median=").append(values[0]).append(", p90=").append(values[1]).append(", p99=").append(values[2]).toString();
+  }
+
+  /**
+   * Compute the index of the bucket for the specified value.
+   * @param value the value to count.
+   * @return the index of the bucket.
+   */
+  static int bucketIndex(final double value) {
+    if (!(value >= Math.scalb(1d, MIN_EXPONENT))) return 0;
+    final int exponent = Math.getExponent(value);
+    if (exponent >= MIN_EXPONENT + EXPONENT_COUNT) return BUCKET_COUNT - 1;
+    final int subBucket = (int) ((Double.doubleToRawLongBits(value) >>> (52 - SUB_BUCKET_BITS)) & (SUB_BUCKET_COUNT - 1));
+    return 1 + (exponent - MIN_EXPONENT) * SUB_BUCKET_COUNT + subBucket;
+  }
+
+  /**
+   * Compute the highest value counted in the specified bucket.
+   * @param index the index of the bucket.
+   * @return the upper bound of the bucket.
+   */
+  static double bucketUpperBound(final int index) {
+    if (index == 0) return Math.scalb(1d, MIN_EXPONENT);
+    final int exponent = MIN_EXPONENT + (index - 1) / SUB_BUCKET_COUNT;
+    final int subBucket = (index - 1) % SUB_BUCKET_COUNT;
+    return Math.scalb(1d + (subBucket + 1d) / SUB_BUCKET_COUNT, exponent);
+  }
+
+  /**
+   * Save the state of this snapshot to a stream. Only the non-empty buckets are written.
+   * @param out the stream to write to.
+   * @throws IOException if any I/O error occurs.
+   */
+  private void writeObject(final ObjectOutputStream out) throws IOException {
+    out.defaultWriteObject();
+    final long[] snapshot = new long[BUCKET_COUNT];
+    int n = 0;
+    for (int i=0; i<BUCKET_COUNT; i++) {
+      if ((snapshot[i] = counts.get(i)) != 0L) n++;
+    }
+    out.writeInt(n);
+    for (int i=0; i<BUCKET_COUNT; i++) {
+      if (snapshot[i] != 0L) {
+        out.writeInt(i);
+        out.writeLong(snapshot[i]);
+      }
+    }
+  }
+
+  /**
+   * Restore the state of this snapshot from a stream.
+   * @param in the stream to read from.
+   * @throws IOException if any I/O error occurs.
+   * @throws ClassNotFoundException if a class could not be found.
+   */
+  private void readObject(final ObjectInputStream in) throws IOException, ClassNotFoundException {
+    in.defaultReadObject();
+    counts = new AtomicLongArray(BUCKET_COUNT);
+    final int n = in.readInt();
+    for (int i=0; i<n; i++) {
+      final int index = in.readInt();
+      if ((index < 0) || (index >= BUCKET_COUNT)) throw new InvalidObjectException("invalid bucket index " + index);
+      counts.set(index, in.readLong());
+    }
+  }
+}
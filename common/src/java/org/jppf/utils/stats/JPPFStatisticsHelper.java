@@ -21,6 +21,7 @@ package org.jppf.utils.stats;
 import java.util.*;
 
 import org.jppf.utils.*;
+import org.jppf.utils.configuration.JPPFProperties;
 
 
 /**
@@ -157,6 +158,18 @@ public final class JPPFStatisticsHelper {
    * Bytes sent to unidentified remote peers.
    */
   public static final String UNKNOWN_OUT_TRAFFIC = "unknwon.traffic.out";
+  /**
+   * The labels of the latency snapshots recorded as histograms by the server: execution, node execution, transport, queue, job and dispatch times.
+   */
+  private static final String[] HISTOGRAM_LABELS = { EXECUTION, NODE_EXECUTION, TRANSPORT_TIME, TASK_QUEUE_TIME, JOB_TIME, JOB_DISPATCH_TIME };
+  /**
+   * The percentiles exported for the histogram snapshots.
+   */
+  private static final double[] PERCENTILES = { 50d, 90d, 99d, 99.9d };
+  /**
+   * The suffixes of the names of the exported percentiles.
+   */
+  private static final String[] PERCENTILE_SUFFIXES = { "p50", "p90", "p99", "p999" };
 
   /**
    * Determine wether the specified snapshot is a single value snapshot.
@@ -185,6 +198,15 @@ public final class JPPFStatisticsHelper {
     return snapshot instanceof NonCumulativeSnapshot;
   }
 
+  /**
+   * Determine wether the specified snapshot is a histogram snapshot, which is also a non-cumulative snapshot.
+   * @param snapshot the snapshot to evaluate.
+   * @return {@code true} if the snapshot is a histogram snapshot, {@code false} otherwise.
+   */
+  public static boolean isHistogram(final JPPFSnapshot snapshot) {
+    return snapshot instanceof HistogramSnapshot;
+  }
+
   /**
    * Get the localized translation of the label of the specified snapshot in the current locale.
    * @param snapshot the snapshot whose label to translate.
@@ -219,18 +241,49 @@ public final class JPPFStatisticsHelper {
       statsProperties.setDouble(label + "max", snapshot.getMax());
       statsProperties.setDouble(label + "avg", snapshot.getAvg());
       statsProperties.setDouble(label + "count", snapshot.getValueCount());
+      if (snapshot instanceof HistogramSnapshot) {
+        final double[] values = ((HistogramSnapshot) snapshot).getValuesAtPercentiles(PERCENTILES);
+        for (int i=0; i<values.length; i++) statsProperties.setDouble(label + PERCENTILE_SUFFIXES[i], values[i]);
+      }
     }
   }
 
+  /**
+   * Get the 50th, 90th, 99th and 99.9th percentiles of all the histogram snapshots in the specified statistics.
+   * @param stats the statistics to get the percentiles from.
+   * @return a mapping of names in the form "&lt;label&gt;.p50", "&lt;label&gt;.p90", "&lt;label&gt;.p99" and "&lt;label&gt;.p999" to the corresponding values.
+   */
+  public static Map<String, Double> getPercentiles(final JPPFStatistics stats) {
+    final Map<String, Double> map = new TreeMap<>();
+    for (final JPPFSnapshot snapshot: stats) {
+      if (snapshot instanceof HistogramSnapshot) {
+        final double[] values = ((HistogramSnapshot) snapshot).getValuesAtPercentiles(PERCENTILES);
+        for (int i=0; i<values.length; i++) map.put(snapshot.getLabel() + '.' + PERCENTILE_SUFFIXES[i], values[i]);
+      }
+    }
+    return map;
+  }
+
   /**
    * Create a statistics object initialized with all the required server snapshots.
    * @return a {@link JPPFStatistics} instance.
    * @exclude
    */
   public static JPPFStatistics createServerStatistics() {
+    return createServerStatistics(JPPFConfiguration.getProperties());
+  }
+
+  /**
+   * Create a statistics object initialized with all the required server snapshots.
+   * @param config the configuration of the server.
+   * @return a {@link JPPFStatistics} instance.
+   * @exclude
+   */
+  public static JPPFStatistics createServerStatistics(final TypedProperties config) {
     final JPPFStatistics statistics = new JPPFStatistics();
     new ServiceFinder().findProviders(JPPFFilteredStatisticsListener.class)
       .forEach(listener -> statistics.addListener(listener, listener.getFilter()));
+    if (config.get(JPPFProperties.STATISTICS_HISTOGRAMS_ENABLED)) statistics.createHistogramSnapshots(HISTOGRAM_LABELS);
     statistics.createSnapshots(false, EXECUTION, NODE_EXECUTION, TRANSPORT_TIME, TASK_QUEUE_TIME, JOB_TIME, JOB_TASKS, JOB_DISPATCH_TIME, JOB_DISPATCH_TASKS, DISPATCH_PER_JOB_COUNT, TASK_DISPATCH,
         NODE_CLASS_REQUESTS_TIME, CLIENT_CLASS_REQUESTS_TIME);
     statistics.createSnapshots(true, TASK_QUEUE_COUNT, JOB_COUNT, JOB_DISPATCH_COUNT, NODES, IDLE_NODES, CLIENTS);
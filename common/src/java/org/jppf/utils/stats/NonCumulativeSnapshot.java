@@ -42,15 +42,15 @@ public class NonCumulativeSnapshot extends AbstractJPPFSnapshot {
    * @exclude
    */
   @Override
-  public synchronized void addValues(final double accumulatedValues, final long count) {
+  public void addValues(final double accumulatedValues, final long count) {
     computeUpdateNanos();
-    total += accumulatedValues;
+    total.add(accumulatedValues);
     if (count > 0L) {
-      valueCount += count;
-      latest = (count == 1L) ? accumulatedValues : accumulatedValues / count;
-      if (latest > max) max = latest;
-      if (latest < min) min = latest;
-      if (valueCount != 0d) avg = total / valueCount;
+      valueCount.add(count);
+      final double value = (count == 1L) ? accumulatedValues : accumulatedValues / count;
+      setLatest(value);
+      max.accumulate(value);
+      min.accumulate(value);
     }
   }
 
@@ -59,13 +59,14 @@ public class NonCumulativeSnapshot extends AbstractJPPFSnapshot {
    * @exclude
    */
   @Override
-  public synchronized void assignLatestToMax() {
+  public void assignLatestToMax() {
     computeUpdateNanos();
-    max = latest;
-    total = latest;
-    valueCount = 0L;
-    avg = 0d;
-    min = (latest < min) ? latest : Double.POSITIVE_INFINITY;
+    final double value = latestValue();
+    setMax(value);
+    total.reset();
+    total.add(value);
+    valueCount.reset();
+    setMin((value < min.get()) ? value : Double.POSITIVE_INFINITY);
   }
 
   /**
@@ -45,9 +45,9 @@ public class SingleValueSnapshot extends AbstractBaseJPPFSnapshot {
    * @exclude
    */
   @Override
-  public synchronized void addValues(final double accumulatedValues, final long count) {
+  public void addValues(final double accumulatedValues, final long count) {
     computeUpdateNanos();
-    total += accumulatedValues;
+    total.add(accumulatedValues);
   }
 
   /**
@@ -55,9 +55,9 @@ public class SingleValueSnapshot extends AbstractBaseJPPFSnapshot {
    * @exclude
    */
   @Override
-  public synchronized JPPFSnapshot copy() {
+  public JPPFSnapshot copy() {
     final SingleValueSnapshot svs = new SingleValueSnapshot(label);
-    svs.total = total;
+    svs.total.add(total.sum());
     return svs;
   }
 
@@ -66,9 +66,9 @@ public class SingleValueSnapshot extends AbstractBaseJPPFSnapshot {
    * @exclude
    */
   @Override
-  public synchronized void reset() {
+  public void reset() {
     computeUpdateNanos();
-    total = 0d;
+    total.reset();
   }
 
   @Override
@@ -97,7 +97,7 @@ public class SingleValueSnapshot extends AbstractBaseJPPFSnapshot {
   }
 
   @Override
-  public synchronized String toString() {
-    return new StringBuilder(JPPFStatisticsHelper.getLocalizedLabel(this)).append(": type=").append(getClass().getSimpleName()).append(", total=").append(total).toString();
+  public String toString() {
+    return new StringBuilder(JPPFStatisticsHelper.getLocalizedLabel(this)).append(": type=").append(getClass().getSimpleName()).append(", total=").append(total.sum()).toString();
   }
 }
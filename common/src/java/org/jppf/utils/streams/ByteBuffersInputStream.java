@@ -0,0 +1,114 @@
+/*
+ * JPPF.
+ * Copyright (C) 2005-2019 JPPF Team.
+ * http://www.jppf.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jppf.utils.streams;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+
+/**
+ * An input stream which reads from a sequence of {@link ByteBuffer}s, from their position up to their limit.
+ * The position of each buffer is updated as data is read from this stream.
+ * @author Laurent Cohen
+ * @exclude
+ */
+public class ByteBuffersInputStream extends InputStream {
+  /**
+   * The buffers to read from.
+   */
+  private final ByteBuffer[] buffers;
+  /**
+   * Index of the buffer currently read from.
+   */
+  private int index;
+  /**
+   * An arbitrary object which must remain reachable as long as this stream is.
+   */
+  private final Object owner;
+
+  /**
+   * Initialize this input stream with the specified buffers.
+   * @param owner an arbitrary object which must remain reachable as long as this stream is, may be {@code null}.
+   * @param buffers the buffers to read from.
+   */
+  public ByteBuffersInputStream(final Object owner, final ByteBuffer...buffers) {
+    this.owner = owner;
+    this.buffers = buffers;
+  }
+
+  @Override
+  public int read() throws IOException {
+    final ByteBuffer buf = current();
+    return (buf == null) ? -1 : buf.get() & 0xFF;
+  }
+
+  @Override
+  public int read(final byte[] b, final int off, final int len) throws IOException {
+    if (len == 0) return 0;
+    int count = 0;
+    while (count < len) {
+      final ByteBuffer buf = current();
+      if (buf == null) break;
+      final int n = Math.min(buf.remaining(), len - count);
+      buf.get(b, off + count, n);
+      count += n;
+    }
+    return (count == 0) ? -1 : count;
+  }
+
+  @Override
+  public long skip(final long n) throws IOException {
+    long count = 0L;
+    while (count < n) {
+      final ByteBuffer buf = current();
+      if (buf == null) break;
+      final int k = (int) Math.min(buf.remaining(), n - count);
+      buf.position(buf.position() + k);
+      count += k;
+    }
+    return count;
+  }
+
+  @Override
+  public int available() throws IOException {
+    long count = 0L;
+    for (int i=index; i<buffers.length; i++) count += buffers[i].remaining();
+    return (int) Math.min(count, Integer.MAX_VALUE);
+  }
+
+  /**
+   * Get the first buffer which still has data to read.
+   * @return a {@link ByteBuffer}, or {@code null} if there is nothing left to read.
+   */
+  private ByteBuffer current() {
+    while (index < buffers.length) {
+      if (buffers[index].hasRemaining()) return buffers[index];
+      index++;
+    }
+    return null;
+  }
+
+  @Override
+  public String toString() {
+    return new StringBuilder(getClass().getSimpleName()).append('[')
+      .append("nbBuffers=").append(buffers.length)
+      .append(", index=").append(index)
+      .append(", owner=").append(owner)
+      .append(']').toString();
+  }
+}
@@ -0,0 +1,91 @@
+/*
+ * JPPF.
+ * Copyright (C) 2005-2019 JPPF Team.
+ * http://www.jppf.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jppf.utils.streams;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+
+/**
+ * An output stream which writes into a fixed sequence of {@link ByteBuffer}s, from their position up to their limit.
+ * Attempting to write beyond the limit of the last buffer results in an {@link EOFException}.
+ * @author Laurent Cohen
+ * @exclude
+ */
+public class ByteBuffersOutputStream extends OutputStream {
+  /**
+   * The buffers to write into.
+   */
+  private final ByteBuffer[] buffers;
+  /**
+   * Index of the buffer currently written into.
+   */
+  private int index;
+  /**
+   * An arbitrary object which must remain reachable as long as this stream is.
+   */
+  private final Object owner;
+
+  /**
+   * Initialize this output stream with the specified buffers.
+   * @param owner an arbitrary object which must remain reachable as long as this stream is, may be {@code null}.
+   * @param buffers the buffers to write into.
+   */
+  public ByteBuffersOutputStream(final Object owner, final ByteBuffer...buffers) {
+    this.owner = owner;
+    this.buffers = buffers;
+  }
+
+  @Override
+  public void write(final int b) throws IOException {
+    current().put((byte) b);
+  }
+
+  @Override
+  public void write(final byte[] b, final int off, final int len) throws IOException {
+    int count = 0;
+    while (count < len) {
+      final ByteBuffer buf = current();
+      final int n = Math.min(buf.remaining(), len - count);
+      buf.put(b, off + count, n);
+      count += n;
+    }
+  }
+
+  /**
+   * Get the first buffer which still has room for writing.
+   * @return a {@link ByteBuffer}, never {@code null}.
+   * @throws EOFException if all the buffers are full.
+   */
+  private ByteBuffer current() throws EOFException {
+    while (index < buffers.length) {
+      if (buffers[index].hasRemaining()) return buffers[index];
+      index++;
+    }
+    throw new EOFException("no space left in " + this);
+  }
+
+  @Override
+  public String toString() {
+    return new StringBuilder(getClass().getSimpleName()).append('[')
+      .append("nbBuffers=").append(buffers.length)
+      .append(", index=").append(index)
+      .append(", owner=").append(owner)
+      .append(']').toString();
+  }
+}
@@ -23,6 +23,7 @@ import java.io.*;
 import java.net.*;
 import java.util.*;
 
+import org.jppf.classloader.resource.PersistentResourceStore;
 import org.jppf.node.protocol.TaskThreadLocals;
 import org.jppf.serialization.ObjectSerializer;
 import org.jppf.utils.*;
@@ -147,8 +148,23 @@ public abstract class AbstractJPPFClassLoader extends AbstractJPPFClassLoaderLif
     final String resName = name.replace('.', '/') + ".class";
     final Map<ResourceIdentifier, Object> map = new EnumMap<>(ResourceIdentifier.class);
     map.put(ResourceIdentifier.NAME, resName);
-    final JPPFResourceWrapper resource = loadResource(map);
-    if (resource != null) b = resource.getDefinition();
+    final PersistentResourceStore store = getPersistentStore();
+    final String digest = (store == null) ? null : store.getDigest(resName);
+    if (digest != null) map.put(ResourceIdentifier.DEFINITION_DIGEST, digest);
+    JPPFResourceWrapper resource = loadResource(map);
+    if ((digest != null) && (resource != null) && (Boolean) resource.getData(ResourceIdentifier.DEFINITION_UNCHANGED, false)) {
+      b = store.get(digest);
+      if (debugEnabled) log.debug(build("definition for resource [", name, "] is unchanged, ", b == null ? "not " : "", "found in persistent store"));
+      if (b == null) {
+        // the definition was evicted or corrupted after the request was sent
+        map.remove(ResourceIdentifier.DEFINITION_DIGEST);
+        resource = loadResource(map);
+      }
+    }
+    if ((b == null) && (resource != null)) {
+      b = resource.getDefinition();
+      if ((store != null) && (b != null) && (b.length > 0)) store.put(resName, b);
+    }
     if ((b == null) || (b.length == 0)) {
       if (debugEnabled) log.debug("definition for resource [" + name + "] not found");
       if ((resource != null) && (resource.getState() != JPPFResourceWrapper.State.NODE_RESPONSE_ERROR)) notFoundCache.add(name);
@@ -26,7 +26,7 @@ import java.util.concurrent.atomic.*;
 
 import org.jppf.JPPFNodeReconnectionNotification;
 import org.jppf.caching.*;
-import org.jppf.classloader.resource.ResourceCache;
+import org.jppf.classloader.resource.*;
 import org.jppf.node.connection.ConnectionReason;
 import org.jppf.node.protocol.TaskThreadLocals;
 import org.jppf.utils.*;
@@ -377,6 +377,15 @@ public abstract class AbstractJPPFClassLoaderLifeCycle extends URLClassLoader {
     return resourceCache;
   }
 
+  /**
+   * Get the persistent store of class definitions shared by the nodes on the same host.
+   * @return a {@link PersistentResourceStore} instance, or {@code null} if it is disabled or if this class loader is connected to a local driver.
+   * @exclude
+   */
+  protected PersistentResourceStore getPersistentStore() {
+    return (connection instanceof RemoteClassLoaderConnection) ? PersistentResourceStore.getInstance() : null;
+  }
+
   /**
    * Create a new resource cache instance.
    * @return a {@code ResourceCache} object.
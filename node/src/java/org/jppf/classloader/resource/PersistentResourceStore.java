@@ -0,0 +1,302 @@
+/*
+ * JPPF.
+ * Copyright (C) 2005-2019 JPPF Team.
+ * http://www.jppf.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jppf.classloader.resource;
+
+import java.io.*;
+import java.nio.channels.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.nio.file.attribute.FileTime;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.*;
+
+import org.jppf.utils.*;
+import org.jppf.utils.configuration.JPPFProperties;
+import org.slf4j.*;
+
+/**
+ * A persistent cache of resource definitions, which survives node restarts and is shared by all the nodes on the same host.
+ * <p>Definitions are stored in files named after the SHA-256 digest of their content, and an index maps resource names to the digest
+ * of their last downloaded definition. All files are written to a temporary file first, then atomically moved to their final location,
+ * so that concurrent nodes never see a partially written file.
+ * <p>The total size of the stored definitions is bounded: when it exceeds the maximum, the least recently used definitions are deleted,
+ * based on the last modification time of their files, which is updated each time a definition is read.
+ * @author Laurent Cohen
+ * @exclude
+ */
+public class PersistentResourceStore {
+  /**
+   * Logger for this class.
+   */
+  private static Logger log = LoggerFactory.getLogger(PersistentResourceStore.class);
+  /**
+   * Determines whether the debug level is enabled in the log configuration, without the cost of a method call.
+   */
+  private static boolean debugEnabled = log.isDebugEnabled();
+  /**
+   * The algorithm used to compute the digests of the definitions.
+   */
+  public static final String DIGEST_ALGORITHM = "SHA-256";
+  /**
+   * The singleton instance, created from the configuration.
+   */
+  private static PersistentResourceStore instance;
+  /**
+   * Whether the singleton instance was initialized.
+   */
+  private static boolean initialized;
+  /**
+   * Directory holding the resource definitions.
+   */
+  private final Path objectsDir;
+  /**
+   * Directory holding the mapping of resource names to digests.
+   */
+  private final Path namesDir;
+  /**
+   * File locked during an eviction, so that only one process evicts at a time.
+   */
+  private final Path lockFile;
+  /**
+   * Maximum total size of the stored definitions.
+   */
+  private final long maxSize;
+  /**
+   * Estimated total size of the stored definitions. It includes the definitions stored by this process since the last scan of the store.
+   */
+  private final AtomicLong estimatedSize = new AtomicLong(0L);
+
+  /**
+   * Initialize this store with the specified root directory and maximum size.
+   * @param root the root directory of the store.
+   * @param maxSize the maximum total size in bytes of the stored definitions.
+   * @throws IOException if the directories of the store could not be created.
+   */
+  public PersistentResourceStore(final File root, final long maxSize) throws IOException {
+    this.objectsDir = Files.createDirectories(root.toPath().resolve("objects"));
+    this.namesDir = Files.createDirectories(root.toPath().resolve("names"));
+    this.lockFile = root.toPath().resolve("store.lock");
+    this.maxSize = maxSize;
+    estimatedSize.set(scan().stream().mapToLong(f -> f.size).sum());
+    if (debugEnabled) log.debug("initialized persistent resource store in {} with size={}, maxSize={}", root, estimatedSize, maxSize);
+  }
+
+  /**
+   * Get the persistent store for this node, if it is enabled in the configuration.
+   * @return a {@code PersistentResourceStore} instance, or {@code null} if the persistent cache is disabled or could not be created.
+   */
+  public static synchronized PersistentResourceStore getInstance() {
+    if (!initialized) {
+      initialized = true;
+      if (JPPFConfiguration.get(JPPFProperties.RESOURCE_CACHE_PERSISTENT_ENABLED)) {
+        try {
+          final long size = JPPFConfiguration.get(JPPFProperties.RESOURCE_CACHE_PERSISTENT_SIZE) * 1024L * 1024L;
+          instance = new PersistentResourceStore(new File(FileUtils.getJPPFTempDir(), "resource-store"), size);
+        } catch (final Exception e) {
+          log.error("could not create the persistent resource store, it will be disabled", e);
+        }
+      }
+    }
+    return instance;
+  }
+
+  /**
+   * Get the digest of the last stored definition of the resource with the specified name.
+   * @param name the name of the resource.
+   * @return the digest as a hexadecimal string, or {@code null} if the resource is not in the store.
+   */
+  public String getDigest(final String name) {
+    final Path path = namesDir.resolve(CryptoUtils.computeHash(name, DIGEST_ALGORITHM));
+    try {
+      final String digest = new String(Files.readAllBytes(path), StandardCharsets.US_ASCII);
+      return (digest.length() == 64) && Files.exists(objectPath(digest)) ? digest : null;
+    } catch (@SuppressWarnings("unused") final NoSuchFileException e) {
+      return null;
+    } catch (final IOException e) {
+      if (debugEnabled) log.debug("error reading digest of resource {}", name, e);
+      return null;
+    }
+  }
+
+  /**
+   * Get the definition with the specified digest, and mark it as recently used.
+   * @param digest the digest of the definition.
+   * @return the definition as an array of bytes, or {@code null} if it is not in the store or if it is corrupted.
+   */
+  public byte[] get(final String digest) {
+    final Path path = objectPath(digest);
+    try {
+      final byte[] definition = Files.readAllBytes(path);
+      if (!digest.equals(CryptoUtils.computeHash(definition, DIGEST_ALGORITHM))) {
+        log.warn("deleting corrupted resource definition {}", path);
+        Files.deleteIfExists(path);
+        return null;
+      }
+      Files.setLastModifiedTime(path, FileTime.fromMillis(System.currentTimeMillis()));
+      return definition;
+    } catch (@SuppressWarnings("unused") final NoSuchFileException e) {
+      return null;
+    } catch (final IOException e) {
+      if (debugEnabled) log.debug("error reading resource definition {}", path, e);
+      return null;
+    }
+  }
+
+  /**
+   * Store the definition of a resource and map its name to the definition's digest.
+   * @param name the name of the resource.
+   * @param definition the definition of the resource.
+   */
+  public void put(final String name, final byte[] definition) {
+    final String digest = CryptoUtils.computeHash(definition, DIGEST_ALGORITHM);
+    try {
+      final Path path = objectPath(digest);
+      if (!Files.exists(path)) {
+        Files.createDirectories(path.getParent());
+        write(path, definition);
+        if (estimatedSize.addAndGet(definition.length) > maxSize) evict();
+      }
+      write(namesDir.resolve(CryptoUtils.computeHash(name, DIGEST_ALGORITHM)), digest.getBytes(StandardCharsets.US_ASCII));
+    } catch (final IOException e) {
+      if (debugEnabled) log.debug("error storing resource {}", name, e);
+      else log.warn("error storing resource {} : {}", name, ExceptionUtils.getMessage(e));
+    }
+  }
+
+  /**
+   * Get the estimated total size of the stored definitions.
+   * @return the size in bytes.
+   */
+  public long getEstimatedSize() {
+    return estimatedSize.get();
+  }
+
+  /**
+   * Delete the least recently used definitions until the total size of the store is below 90% of the maximum size.
+   * The name mappings which refer to a deleted definition are deleted as well.
+   * @throws IOException if any I/O error occurs.
+   */
+  synchronized void evict() throws IOException {
+    try (final FileChannel channel = FileChannel.open(lockFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+      final FileLock lock = channel.lock();
+      try {
+        final List<StoredFile> files = scan();
+        long size = files.stream().mapToLong(f -> f.size).sum();
+        final long target = maxSize - maxSize / 10L;
+        if (size > target) {
+          files.sort((f1, f2) -> Long.compare(f1.lastUsed, f2.lastUsed));
+          final Set<String> deleted = new HashSet<>();
+          for (final StoredFile file: files) {
+            if (size <= target) break;
+            if (Files.deleteIfExists(file.path)) deleted.add(file.path.getFileName().toString());
+            size -= file.size;
+          }
+          if (debugEnabled) log.debug("evicted {} resource definitions, size is now {}", deleted.size(), size);
+          try (final Stream<Path> names = Files.list(namesDir)) {
+            for (final Path path: names.collect(Collectors.toList())) {
+              try {
+                if (deleted.contains(new String(Files.readAllBytes(path), StandardCharsets.US_ASCII))) Files.deleteIfExists(path);
+              } catch (@SuppressWarnings("unused") final NoSuchFileException e) {
+                // deleted by another node
+              }
+            }
+          }
+        }
+        estimatedSize.set(size);
+      } finally {
+        lock.release();
+      }
+    }
+  }
+
+  /**
+   * List the stored definitions.
+   * @return a list of {@link StoredFile} instances.
+   * @throws IOException if any I/O error occurs.
+   */
+  private List<StoredFile> scan() throws IOException {
+    final List<StoredFile> result = new ArrayList<>();
+    try (final Stream<Path> paths = Files.walk(objectsDir)) {
+      for (final Path path: paths.collect(Collectors.toList())) {
+        try {
+          if (Files.isRegularFile(path) && !path.getFileName().toString().endsWith(".tmp"))
+            result.add(new StoredFile(path, Files.size(path), Files.getLastModifiedTime(path).toMillis()));
+        } catch (@SuppressWarnings("unused") final NoSuchFileException e) {
+          // deleted by another node
+        }
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Get the path of the file holding the definition with the specified digest.
+   * @param digest the digest of the definition.
+   * @return the path of the file.
+   */
+  private Path objectPath(final String digest) {
+    return objectsDir.resolve(digest.substring(0, 2)).resolve(digest);
+  }
+
+  /**
+   * Write the specified content to a temporary file, then atomically move it to the specified path.
+   * @param path the path of the file to write.
+   * @param content the content to write.
+   * @throws IOException if any I/O error occurs.
+   */
+  private static void write(final Path path, final byte[] content) throws IOException {
+    final Path tmp = Files.createTempFile(path.getParent(), path.getFileName().toString(), ".tmp");
+    try {
+      Files.write(tmp, content);
+      Files.move(tmp, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    } finally {
+      Files.deleteIfExists(tmp);
+    }
+  }
+
+  /**
+   * Information on a stored definition file.
+   */
+  private static final class StoredFile {
+    /**
+     * The path of the file.
+     */
+    private final Path path;
+    /**
+     * The size of the file.
+     */
+    private final long size;
+    /**
+     * The last time the file was used.
+     */
+    private final long lastUsed;
+
+    /**
+     * @param path the path of the file.
+     * @param size the size of the file.
+     * @param lastUsed the last time the file was used.
+     */
+    private StoredFile(final Path path, final long size, final long lastUsed) {
+      this.path = path;
+      this.size = size;
+      this.lastUsed = lastUsed;
+    }
+  }
+}
@@ -124,6 +124,8 @@ public class NodeLifeCycleEvent extends EventObject {
    * Get the tasks currently being executed.
    * <br>The tasks are available within <code>jobStarting()</code> and <code>jobEnding()</code> notifications only.
    * This method will return <code>null</code> in all other cases.
+   * <br>When the node executes the tasks while the job is still being received, the tasks available within <code>jobStarting()</code>
+   * are only those received when the execution starts, see {@link NodeLifeCycleListener#jobStarting(NodeLifeCycleEvent)}.
    * @return a list of {@link Task} instances, or null if the node is idle.
    */
   public List<Task<?>> getTasks() {
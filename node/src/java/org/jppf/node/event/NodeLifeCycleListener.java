@@ -46,6 +46,9 @@ public interface NodeLifeCycleListener extends EventListener {
 
   /**
    * Called before the node starts processing a job.
+   * <p>When streaming execution is enabled with the {@code jppf.node.streaming.execution} property, the node starts executing the tasks
+   * as soon as the first one is received. In this case, {@code event.getTasks()} only holds the first task received for execution, while
+   * {@code event.getJob().getTaskCount()} gives the total number of tasks. The complete list of tasks is available in {@link #jobEnding(NodeLifeCycleEvent)}.
    * @param event encapsulates information about the job.
    */
   void jobStarting(NodeLifeCycleEvent event);
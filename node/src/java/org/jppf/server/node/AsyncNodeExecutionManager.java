@@ -106,6 +106,12 @@ public class AsyncNodeExecutionManager extends AbstractAsyncExecutionManager {
     if (debugEnabled) log.debug("cleaned up bundle {}", bundle);
   }
 
+  @Override
+  protected boolean isPartialResultsEnabled(final TaskBundle bundle) {
+    // an offline node sends the results of a job only when it reconnects
+    return !node.isOffline() && super.isPartialResultsEnabled(bundle);
+  }
+
   @Override
   public void triggerConfigChanged() {
     super.triggerConfigChanged();
@@ -273,6 +273,11 @@ public abstract class JPPFNode extends AbstractCommonNode implements ClassLoader
     final TaskBundle bundle = bundleWithTasks.getBundle();
     final List<Task<?>> taskList = bundleWithTasks.getTasks();
     if (debugEnabled) log.debug("processing " + (taskList == null ? 0 : taskList.size()) + " task results for job '" + bundle.getName() + '\'');
+    if (bundle.isPartialResults()) {
+      nodeIO.writeResults(bundle, taskList);
+      if (!isJmxEnabled()) setExecutedTaskCount(getExecutedTaskCount() + taskList.size());
+      return;
+    }
     if (executionManager.checkConfigChanged() || bundle.isHandshake() || isOffline()) {
       if (debugEnabled) log.debug("detected configuration change or initial bundle request, sending new system information to the server, config=\n{}", configuration);
       final TypedProperties jppf = systemInformation.getJppf();
@@ -400,6 +405,24 @@ public abstract class JPPFNode extends AbstractCommonNode implements ClassLoader
     }
   }
 
+  @Override
+  public void tasksExecuted(final TaskBundle bundle, final List<Task<?>> tasks) {
+    try {
+      if (debugEnabled) log.debug("sending {} partial results of job {}", tasks.size(), bundle);
+      final TaskBundle header = new JPPFTaskBundle(bundle.getUuidPath());
+      header.setUuid(bundle.getUuid());
+      header.setName(bundle.getName());
+      header.setBundleId(bundle.getBundleId());
+      header.setTaskCount(tasks.size());
+      final int[] positions = new int[tasks.size()];
+      for (int i=0; i<positions.length; i++) positions[i] = tasks.get(i).getPosition();
+      header.setParameter(BundleParameter.PARTIAL_RESULTS_POSITIONS, positions);
+      getJobWriter().put(new BundleWithTasks(header, tasks));
+    } catch (final Exception e) {
+      log.error(e.getMessage(), e);
+    }
+  }
+
   /**
    * @exclude
    */
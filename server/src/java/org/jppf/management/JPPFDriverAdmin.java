@@ -172,6 +172,11 @@ public class JPPFDriverAdmin implements JPPFDriverAdminMBean {
     }
   }
 
+  @Override
+  public Map<String, Double> latencyPercentiles() throws Exception {
+    return getPercentiles(driver.getStatistics());
+  }
+
   @Override
   public String changeLoadBalancerSettings(final String algorithm, final Map<Object, Object> parameters) throws Exception {
     try {
@@ -295,4 +300,9 @@ public class JPPFDriverAdmin implements JPPFDriverAdminMBean {
   public boolean getBroadcasting() throws Exception {
     return driver.getInitializer().isBroadcasting();
   }
+
+  @Override
+  public ClassCacheStatistics classCacheStatistics() throws Exception {
+    return driver.getInitializer().getClassCache().getStatistics();
+  }
 }
@@ -158,7 +158,7 @@ abstract class AbstractJPPFDriver {
     new OutputRedirectHook().initializing(configuration);
     VersionUtils.logVersionInformation("driver", uuid);
     SystemUtils.printPidAndUuid("driver", uuid);
-    statistics = createServerStatistics();
+    statistics = createServerStatistics(configuration);
     systemInformation = new JPPFSystemInformation(configuration, uuid, false, true, statistics);
     statistics.addListener(new StatsSystemInformationUpdater(systemInformation));
     jppfDebugEnabled = configuration.get(JPPFProperties.DEBUG_ENABLED);
@@ -102,9 +102,9 @@ public class DriverInitializer {
    */
   private final NodeConnectionEventHandler nodeConnectionEventHandler = new NodeConnectionEventHandler();
   /**
-   * Holds the soft cache of classes downlaoded form the clients r from this driver's classpath.
+   * Holds the cache of classes downloaded from the clients or from this driver's classpath.
    */
-  private final ClassCache classCache = new ClassCache();
+  private final ClassCache classCache;
   /**
    * Supports built-in and custom discovery mechanisms.
    */
@@ -131,6 +131,7 @@ public class DriverInitializer {
   public DriverInitializer(final JPPFDriver driver, final TypedProperties config) {
     this.driver = driver;
     this.config = config;
+    this.classCache = new ClassCache(config.get(DRIVER_CLASS_CACHE_SIZE) * 1024L * 1024L);
     this.peerConnectionPoolHandler = new PeerConnectionPoolHandler(driver, config);
   }
 
@@ -395,6 +396,7 @@ public class DriverInitializer {
           final TypedProperties oldConfig = node.getSystemInformation().getJppf();
           oldConfig.clear();
           oldConfig.putAll(nodeConfig);
+          node.getSystemInformation().incrementModificationCount();
           if (node.getBundler() instanceof ChannelAwareness) ((ChannelAwareness) node.getBundler()).setChannelConfiguration(node.getSystemInformation());
         }
       };
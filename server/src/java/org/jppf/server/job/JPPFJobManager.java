@@ -27,6 +27,7 @@ import org.jppf.management.JPPFManagementInfo;
 import org.jppf.node.protocol.*;
 import org.jppf.server.JPPFDriver;
 import org.jppf.server.nio.nodeserver.NodeReservationHandler;
+import org.jppf.server.nio.nodeserver.async.AsyncNodeNioServer;
 import org.jppf.server.protocol.*;
 import org.jppf.server.submission.SubmissionStatus;
 import org.jppf.utils.*;
@@ -151,6 +152,7 @@ public class JPPFJobManager implements ServerJobChangeListener, JobNotificationE
     final JPPFStatistics stats = driver.getStatistics();
     stats.addValue(JPPFStatisticsHelper.JOB_DISPATCH_COUNT, -1);
     stats.addValue(JPPFStatisticsHelper.JOB_DISPATCH_TIME, System.currentTimeMillis() - nodeBundle.getDispatchStartTime());
+    signalJobScheduler(serverJob);
   }
 
   /**
@@ -199,6 +201,17 @@ public class JPPFJobManager implements ServerJobChangeListener, JobNotificationE
     //if (debugEnabled) log.debug("jobId '{}' updated", job.getName());
     if (headerUpdated) driver.getQueue().getPersistenceHandler().updateJobHeader((ServerJob) job);
     submitEvent(JobEventType.JOB_UPDATED, (ServerJob) job, null);
+    if (headerUpdated) signalJobScheduler(job);
+  }
+
+  /**
+   * Notify the job scheduler that the specified job may be dispatched again, for instance because its SLA
+   * was updated or because some of its tasks returned from a node.
+   * @param job the job to evaluate again.
+   */
+  private void signalJobScheduler(final AbstractServerJob job) {
+    final AsyncNodeNioServer server = driver.getAsyncNodeNioServer();
+    if ((server != null) && (server.getJobScheduler() != null)) server.getJobScheduler().jobChanged((ServerJob) job);
   }
 
   @Override
@@ -18,14 +18,21 @@
 
 package org.jppf.server.nio.classloader;
 
-import java.util.Map;
+import java.util.*;
+import java.util.concurrent.atomic.LongAdder;
 
+import org.jppf.management.ClassCacheStatistics;
 import org.jppf.utils.*;
-import org.jppf.utils.collections.SoftReferenceValuesMap;
 import org.slf4j.*;
 
 /**
  * A cache for resources loaded by client class loaders.
+ * <p>The cache is bounded by the total size of the resources it holds. It is split into stripes, selected by the hash of the resource keys,
+ * which each hold an equal share of the maximum size and are locked independently. Each stripe uses a segmented LRU eviction policy:
+ * new entries are put in a probationary segment, and promoted to a protected segment when they are looked up again. When the protected segment
+ * is full, its least recently used entries are moved back to the probationary segment. When the stripe is full, the least recently used entries
+ * of the probationary segment are evicted first. This way, resources requested by many nodes are not evicted by a burst of resources
+ * that are only requested once.
  * @author Laurent Cohen
  */
 public class ClassCache {
@@ -38,32 +45,60 @@ public class ClassCache {
    */
   private static boolean traceEnabled = log.isTraceEnabled();
   /**
-   * The cache of class definition, this is done to not flood the provider when it dispatch many tasks. it uses
-   * a soft map to minimize the OutOfMemory.
+   * Number of stripes, must be a power of 2.
    */
-  private final Map<CacheClassKey, CacheClassContent> classCache = new SoftReferenceValuesMap<>();
+  private static final int NB_STRIPES = 16;
   /**
-   * Total number of cache lookups.
+   * Percentage of the size of a stripe reserved for the protected segment.
    */
-  private long nbLookups;
+  private static final int PROTECTED_PCT = 80;
+  /**
+   * Approximate memory overhead in bytes of a cache entry, excluding the resource content and name.
+   */
+  private static final int ENTRY_OVERHEAD = 96;
+  /**
+   * The stripes of this cache.
+   */
+  private final Stripe[] stripes = new Stripe[NB_STRIPES];
+  /**
+   * Maximum total size in bytes of the cached resources.
+   */
+  private final long maxSize;
   /**
    * Total number of positive cache lookups.
    */
-  private long nbHits;
+  private final LongAdder nbHits = new LongAdder();
+  /**
+   * Total number of negative cache lookups.
+   */
+  private final LongAdder nbMisses = new LongAdder();
+  /**
+   * Total number of evicted entries.
+   */
+  private final LongAdder nbEvictions = new LongAdder();
+
+  /**
+   * Initialize this cache with the specified maximum size.
+   * @param maxSize the maximum total size in bytes of the cached resources. A value of 0 or less disables the cache.
+   */
+  public ClassCache(final long maxSize) {
+    this.maxSize = Math.max(0L, maxSize);
+    for (int i=0; i<NB_STRIPES; i++) stripes[i] = new Stripe(this.maxSize / NB_STRIPES);
+  }
 
   /**
    * Add a resource content to the class cache.
+   * Resources larger than the size of a stripe, that is 1/16th of the maximum size of the cache, are not cached.
    * @param uuid uuid of the resource provider.
    * @param name name of the resource.
    * @param content content of the resource.
    */
   public void setCacheContent(final String uuid, final String name, final byte[] content) {
     if (traceEnabled) log.trace("adding cache entry with key=[" + uuid + ", " + name + ']');
-    final CacheClassContent cacheContent = new CacheClassContent(content);
     final CacheClassKey cacheKey = new CacheClassKey(uuid, name);
-    synchronized (classCache) {
-      classCache.put(cacheKey, cacheContent);
-    }
+    final Entry entry = new Entry(content, ENTRY_OVERHEAD + content.length + 2 * (uuid.length() + name.length()));
+    final int evicted = stripeFor(cacheKey).put(cacheKey, entry);
+    if (evicted > 0) nbEvictions.add(evicted);
   }
 
   /**
@@ -73,14 +108,167 @@ public class ClassCache {
    * @return the content of the resource as an array of bytes.
    */
   public byte[] getCacheContent(final String uuid, final String name) {
-    final CacheClassContent content;
-    final boolean contentNull;
-    synchronized (classCache) {
-      contentNull = (content = classCache.get(new CacheClassKey(uuid, name))) == null;
-      nbLookups++;
-      if (!contentNull) nbHits++;
-      if (traceEnabled) log.trace(StringUtils.build("nbLookups=", nbLookups, ", nbHits=", nbHits, ", lookup for key=[", uuid, ", ", name, "] : ", ReflectionUtils.simpleDump(content)));
+    final CacheClassKey cacheKey = new CacheClassKey(uuid, name);
+    final Entry entry = stripeFor(cacheKey).get(cacheKey);
+    if (entry == null) nbMisses.increment();
+    else nbHits.increment();
+    if (traceEnabled) log.trace(StringUtils.build("nbHits=", nbHits, ", nbMisses=", nbMisses, ", lookup for key=[", uuid, ", ", name, "] : ", ReflectionUtils.simpleDump(entry)));
+    return (entry == null) ? null : entry.content;
+  }
+
+  /**
+   * Get a snapshot of the usage statistics of this cache.
+   * @return a {@link ClassCacheStatistics} instance.
+   */
+  public ClassCacheStatistics getStatistics() {
+    int entries = 0;
+    long size = 0L;
+    for (final Stripe stripe: stripes) {
+      synchronized(stripe) {
+        entries += stripe.probation.size() + stripe.protectedEntries.size();
+        size += stripe.probationSize + stripe.protectedSize;
+      }
+    }
+    return new ClassCacheStatistics(nbHits.sum(), nbMisses.sum(), nbEvictions.sum(), entries, size, maxSize);
+  }
+
+  /**
+   * Get the stripe for the specified key.
+   * @param key the key to lookup.
+   * @return the stripe which holds the key.
+   */
+  private Stripe stripeFor(final CacheClassKey key) {
+    final int h = key.hashCode();
+    return stripes[(h ^ (h >>> 16)) & (NB_STRIPES - 1)];
+  }
+
+  /**
+   * A cached resource.
+   */
+  private static final class Entry {
+    /**
+     * The content of the resource.
+     */
+    private final byte[] content;
+    /**
+     * The approximate memory footprint of this entry.
+     */
+    private final long size;
+
+    /**
+     * @param content the content of the resource.
+     * @param size the approximate memory footprint of this entry.
+     */
+    private Entry(final byte[] content, final long size) {
+      this.content = content;
+      this.size = size;
+    }
+  }
+
+  /**
+   * A stripe of the cache, with its own lock and segmented LRU eviction.
+   */
+  private static final class Stripe {
+    /**
+     * Entries looked up at most once since they were added, in least recently used order.
+     */
+    private final LinkedHashMap<CacheClassKey, Entry> probation = new LinkedHashMap<>(16, 0.75f, true);
+    /**
+     * Entries looked up at least twice, in least recently used order.
+     */
+    private final LinkedHashMap<CacheClassKey, Entry> protectedEntries = new LinkedHashMap<>(16, 0.75f, true);
+    /**
+     * Maximum total size of the entries in this stripe.
+     */
+    private final long maxSize;
+    /**
+     * Maximum total size of the entries in the protected segment.
+     */
+    private final long maxProtectedSize;
+    /**
+     * Total size of the entries in the probationary segment.
+     */
+    private long probationSize;
+    /**
+     * Total size of the entries in the protected segment.
+     */
+    private long protectedSize;
+
+    /**
+     * @param maxSize the maximum total size of the entries in this stripe.
+     */
+    private Stripe(final long maxSize) {
+      this.maxSize = maxSize;
+      this.maxProtectedSize = maxSize * PROTECTED_PCT / 100L;
+    }
+
+    /**
+     * Lookup an entry and promote it to the protected segment if it is found in the probationary segment.
+     * @param key the key of the entry.
+     * @return the entry, or {@code null} if it is not in the cache.
+     */
+    private synchronized Entry get(final CacheClassKey key) {
+      Entry entry = protectedEntries.get(key);
+      if (entry != null) return entry;
+      entry = probation.remove(key);
+      if (entry == null) return null;
+      probationSize -= entry.size;
+      protectedEntries.put(key, entry);
+      protectedSize += entry.size;
+      // demote the least recently used protected entries to the probationary segment
+      final Iterator<Map.Entry<CacheClassKey, Entry>> it = protectedEntries.entrySet().iterator();
+      while ((protectedSize > maxProtectedSize) && it.hasNext()) {
+        final Map.Entry<CacheClassKey, Entry> eldest = it.next();
+        if (eldest.getValue() == entry) break;
+        it.remove();
+        protectedSize -= eldest.getValue().size;
+        probation.put(eldest.getKey(), eldest.getValue());
+        probationSize += eldest.getValue().size;
+      }
+      return entry;
+    }
+
+    /**
+     * Add or replace an entry, then evict entries until the size of this stripe is within its maximum.
+     * @param key the key of the entry.
+     * @param entry the entry to add.
+     * @return the number of evicted entries.
+     */
+    private synchronized int put(final CacheClassKey key, final Entry entry) {
+      if (entry.size > maxSize) return 0;
+      final Entry old = protectedEntries.get(key);
+      if (old != null) {
+        protectedEntries.put(key, entry);
+        protectedSize += entry.size - old.size;
+      } else {
+        final Entry previous = probation.put(key, entry);
+        probationSize += entry.size - ((previous == null) ? 0L : previous.size);
+      }
+      int evicted = 0;
+      evicted += evict(probation, entry, true);
+      evicted += evict(protectedEntries, entry, false);
+      return evicted;
+    }
+
+    /**
+     * Evict the least recently used entries of the specified segment until the size of this stripe is within its maximum.
+     * @param segment the segment from which to evict entries.
+     * @param added the entry just added, which is not evicted.
+     * @param isProbation whether the segment is the probationary segment.
+     * @return the number of evicted entries.
+     */
+    private int evict(final LinkedHashMap<CacheClassKey, Entry> segment, final Entry added, final boolean isProbation) {
+      int evicted = 0;
+      final Iterator<Entry> it = segment.values().iterator();
+      while ((probationSize + protectedSize > maxSize) && it.hasNext()) {
+        final Entry eldest = it.next();
+        if (eldest == added) continue;
+        it.remove();
+        if (isProbation) probationSize -= eldest.size;
+        else protectedSize -= eldest.size;
+        evicted++;
+      }
+      return evicted;
     }
-    return contentNull ? null : content.getContent();
   }
 }
@@ -25,7 +25,7 @@ import java.util.concurrent.locks.*;
 import org.jppf.classloader.*;
 import org.jppf.nio.ClassLoaderNioMessage;
 import org.jppf.server.nio.classloader.*;
-import org.jppf.utils.ExceptionUtils;
+import org.jppf.utils.*;
 import org.jppf.utils.collections.*;
 import org.slf4j.*;
 
@@ -183,11 +183,29 @@ public class AsyncNodeClassContext extends AbstractAsyncClassContext implements
       setLocalResponse(response);
       AsyncNodeClassMessageWriter.handleResponseSent(this, response);
     } else {
+      stripUnchangedDefinitions(response);
       final ClassLoaderNioMessage message = serializeResource(response);
       offerMessageToSend(message);
     }
   }
 
+  /**
+   * Remove the definitions of the resources which match the digest sent by the node, and flag them as unchanged instead,
+   * so the node can load them from its persistent cache.
+   * @param response the response to send.
+   */
+  private static void stripUnchangedDefinitions(final JPPFResourceWrapper response) {
+    for (final JPPFResourceWrapper res: response.getResources()) {
+      final String digest = (String) res.getData(ResourceIdentifier.DEFINITION_DIGEST);
+      if (digest == null) continue;
+      final byte[] definition = res.getDefinition();
+      if ((definition != null) && digest.equals(CryptoUtils.computeHash(definition, "SHA-256"))) {
+        res.setDefinition(null);
+        res.setData(ResourceIdentifier.DEFINITION_UNCHANGED, true);
+      }
+    }
+  }
+
   /**
    * Get the number of pending responses.
    * @return the number of pending responses as an int.
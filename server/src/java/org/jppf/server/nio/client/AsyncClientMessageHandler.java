@@ -197,6 +197,7 @@ public class AsyncClientMessageHandler {
     final JPPFSystemInformation systemInformation = driver.getSystemInformation();
     systemInformation.getJppf().setInt(PeerAttributesHandler.PEER_TOTAL_THREADS, peerHandler.getTotalThreads());
     systemInformation.getJppf().setInt(PeerAttributesHandler.PEER_TOTAL_NODES, peerHandler.getTotalNodes());
+    systemInformation.incrementModificationCount();
     header.setParameter(BundleParameter.SYSTEM_INFO_PARAM, systemInformation);
     header.setSLA(null);
     header.setMetadata(null);
@@ -146,7 +146,7 @@ public final class HeartbeatNioServer extends StatelessNioServer<HeartbeatContex
   void closeConnection(final HeartbeatContext context) {
     try {
       messageHandler.removeChannel(context);
-      final SelectionKey key = context.getSocketChannel().keyFor(selector);
+      final SelectionKey key = keyFor(context.getSocketChannel());
       if (key != null) {
         key.cancel();
         key.channel().close();
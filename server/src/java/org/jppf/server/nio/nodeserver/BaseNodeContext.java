@@ -186,6 +186,7 @@ public abstract class BaseNodeContext extends AbstractNioContext implements  Exe
     if (update && debugEnabled) log.debug("updating node information for {}", systemInfo);
     this.systemInfo = systemInfo;
     systemInfo.getJppf().setProperty("jppf.channel.local", String.valueOf(isLocal()));
+    systemInfo.incrementModificationCount();
     if (managementInfo != null) managementInfo.setSystemInfo(systemInfo);
   }
 
@@ -319,6 +319,7 @@ public class NodeReservationHandler {
           // if node is not restarted, synchronize server version of the node's config
           if (!restart) {
             node.getSystemInformation().getJppf().putAll(config);
+            node.getSystemInformation().incrementModificationCount();
             transitionReservation(node);
           }
           jmx.updateConfiguration(config, restart);
@@ -116,6 +116,7 @@ public class PeerAttributesHandler implements NotificationListener {
       if ((nodes != newNodes) || (threads != newThreads)) {
         if (debugEnabled) log.debug("newNodes={}, newThreads={} for " + peer, newNodes, newThreads);
         jppf.setInt(PEER_TOTAL_NODES, newNodes).setInt(PEER_TOTAL_THREADS, newThreads);
+        info.incrementModificationCount();
         final Bundler<?> bundler = peer.getBundler();
         if (bundler instanceof ChannelAwareness) ((ChannelAwareness) bundler).setChannelConfiguration(info);
       }
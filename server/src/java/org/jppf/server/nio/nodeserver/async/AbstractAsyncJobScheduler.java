@@ -67,6 +67,10 @@ abstract class AbstractAsyncJobScheduler extends ThreadSynchronization implement
    * The list of idle node channels.
    */
   final Set<BaseNodeContext> idleChannels = new LinkedHashSet<>();
+  /**
+   * Index of the attributes of the idle channels, used to match the execution policies of the jobs. Guarded by {@link #idleChannels}.
+   */
+  final AttributeIndex<BaseNodeContext> attributeIndex = new AttributeIndex<>();
   /**
    * Holds information about the execution context.
    */
@@ -108,6 +112,18 @@ abstract class AbstractAsyncJobScheduler extends ThreadSynchronization implement
    * 
    */
   final JobDependenciesHandler dependencyHandler; 
+  /**
+   * Jobs that were added, requeued or updated since the last evaluation. Guarded by the monitor of this scheduler.
+   */
+  Set<ServerJob> pendingJobs = new LinkedHashSet<>();
+  /**
+   * Channels that became idle since the last evaluation. Guarded by the monitor of this scheduler.
+   */
+  Set<BaseNodeContext> pendingChannels = new LinkedHashSet<>();
+  /**
+   * Whether all the jobs should be evaluated against all the idle channels at the next evaluation. Guarded by the monitor of this scheduler.
+   */
+  boolean fullScanRequested = true;
 
   /**
    * Initialize this task queue checker with the specified node server.
@@ -174,16 +190,16 @@ abstract class AbstractAsyncJobScheduler extends ThreadSynchronization implement
       if (!channel.isClosed()) {
         if (!reservationHandler.transitionReservation(channel)) reservationHandler.removeReservation(channel);
         final boolean added;
+        final JPPFSystemInformation info = channel.getSystemInformation();
         synchronized(idleChannels) {
           added = idleChannels.add(channel);
+          // the modification count is not incremented: policies are only evaluated against idle nodes, for which this value never changes
+          if (added && (info != null)) info.getJppf().set(JPPFProperties.NODE_IDLE, true);
+          attributeIndex.add(channel, info);
         }
         channel.getIdle().set(true);
-        if (added) {
-          final JPPFSystemInformation info = channel.getSystemInformation();
-          if (info != null) info.getJppf().set(JPPFProperties.NODE_IDLE, true);
-          stats.addValue(JPPFStatisticsHelper.IDLE_NODES, 1);
-        }
-        wakeUp();
+        if (added) stats.addValue(JPPFStatisticsHelper.IDLE_NODES, 1);
+        channelChanged(channel);
       }
       else channel.handleException(null);
     });
@@ -199,6 +215,7 @@ abstract class AbstractAsyncJobScheduler extends ThreadSynchronization implement
     final boolean removed;
     synchronized(idleChannels) {
       removed = idleChannels.remove(channel);
+      attributeIndex.remove(channel);
     }
     channel.getIdle().set(false);
     if (removed) {
@@ -234,9 +251,40 @@ abstract class AbstractAsyncJobScheduler extends ThreadSynchronization implement
   void clearIdleChannels() {
     synchronized (idleChannels) {
       idleChannels.clear();
+      attributeIndex.clear();
     }
   }
 
+  /**
+   * Request that all the jobs be evaluated against all the idle channels and wake up the scheduler thread.
+   */
+  @Override
+  public synchronized void wakeUp() {
+    fullScanRequested = true;
+    super.wakeUp();
+  }
+
+  /**
+   * Signal that the specified job was added, requeued or updated, and wake up the scheduler thread.
+   * Only this job will need to be evaluated against the idle channels.
+   * @param job the job to evaluate.
+   */
+  public synchronized void jobChanged(final ServerJob job) {
+    if (job == null) return;
+    pendingJobs.add(job);
+    super.wakeUp();
+  }
+
+  /**
+   * Signal that the specified channel became idle and wake up the scheduler thread.
+   * Only this channel will need to be evaluated against the queued jobs.
+   * @param channel the channel to evaluate.
+   */
+  synchronized void channelChanged(final BaseNodeContext channel) {
+    pendingChannels.add(channel);
+    super.wakeUp();
+  }
+
   /**
    * Set the parameters needed as bounded variables for scripted execution policies.
    * @param policy the root policy to explore.
@@ -253,15 +301,17 @@ abstract class AbstractAsyncJobScheduler extends ThreadSynchronization implement
   /**
    * Filter the idle nodes according to the specified job's preference policy.
    * @param job the job whose preference policy to evaluate.
+   * @param candidates the idle nodes to evaluate.
    * @return a set of nodes that matched the highest possibly child policy of the preference. Possibly empty but never null;
    */
-  Set<BaseNodeContext> filterPreferredNodes(final ServerJob job) {
+  Set<BaseNodeContext> filterPreferredNodes(final ServerJob job, final Collection<BaseNodeContext> candidates) {
     final Preference preferencePolicy = job.getSLA().getPreferencePolicy();
     final Set<BaseNodeContext> result = new HashSet<>();
     for (final ExecutionPolicy policy: preferencePolicy.getChildren()) {
       preparePolicy(policy, job, stats, job.getNbChannels());
-      for (final BaseNodeContext node: idleChannels) {
-        if (policy.evaluate(node.getSystemInformation())) result.add(node);
+      final Set<BaseNodeContext> matches = (candidates.size() > 1) ? attributeIndex.matchingNodes(policy) : null;
+      for (final BaseNodeContext node: candidates) {
+        if ((matches != null) ? matches.contains(node) : policy.evaluate(node.getSystemInformation())) result.add(node);
       }
       if (!result.isEmpty()) return result;
     }
@@ -26,7 +26,7 @@ import org.jppf.execute.ExecutorStatus;
 import org.jppf.load.balancer.*;
 import org.jppf.load.balancer.spi.JPPFBundlerFactory;
 import org.jppf.management.*;
-import org.jppf.node.policy.ExecutionPolicy;
+import org.jppf.node.policy.*;
 import org.jppf.node.protocol.*;
 import org.jppf.server.nio.nodeserver.*;
 import org.jppf.server.protocol.*;
@@ -49,6 +49,18 @@ public class AsyncJobScheduler extends AbstractAsyncJobScheduler {
    * Determines whether DEBUG logging level is enabled.
    */
   private static final boolean debugEnabled = log.isDebugEnabled();
+  /**
+   * Maximum interval in milliseconds between two full evaluations of the jobs against the idle channels.
+   */
+  private final long rescanInterval;
+  /**
+   * Time of the last full evaluation of the jobs against the idle channels. Guarded by the monitor of this scheduler.
+   */
+  private long lastFullScan;
+  /**
+   * Whether the execution policies are evaluated in their compiled form, with their results cached for each node.
+   */
+  private final boolean policyCompilation;
 
   /**
    * Initialize this task queue checker with the specified node server.
@@ -59,6 +71,8 @@ public class AsyncJobScheduler extends AbstractAsyncJobScheduler {
    */
   AsyncJobScheduler(final AsyncNodeNioServer server, final JPPFPriorityQueue queue, final JPPFStatistics stats, final JPPFBundlerFactory bundlerFactory) {
     super(server, queue, stats, bundlerFactory);
+    this.rescanInterval = server.getDriver().getConfiguration().get(JPPFProperties.JOB_SCHEDULER_RESCAN_INTERVAL);
+    this.policyCompilation = server.getDriver().getConfiguration().get(JPPFProperties.POLICY_COMPILATION_ENABLED);
   }
 
   /**
@@ -70,7 +84,7 @@ public class AsyncJobScheduler extends AbstractAsyncJobScheduler {
     reservationHandler = server.getNodeReservationHandler();
     try {
       while (!isStopped()) {
-        if (!dispatch()) goToSleep(1000L);
+        if (!dispatch()) awaitSignal();
       }
     } catch (final Throwable t) {
       log.error("error in driver dispatch loop", t);
@@ -78,26 +92,77 @@ public class AsyncJobScheduler extends AbstractAsyncJobScheduler {
   }
 
   /**
-   * Perform the assignment of jobs to nodes.
+   * Wait until a job or channel is signaled, or until the next full evaluation is due, whichever happens first.
+   */
+  private synchronized void awaitSignal() {
+    if (fullScanRequested || !pendingJobs.isEmpty() || !pendingChannels.isEmpty() || isStopped()) return;
+    final long wait = lastFullScan + rescanInterval - System.currentTimeMillis();
+    if (wait > 0L) goToSleep(wait);
+  }
+
+  /**
+   * Perform the assignment of jobs to nodes, evaluating only the jobs and channels signaled since the last evaluation,
+   * unless a full evaluation was requested or is due.
    * @return true if a job was dispatched, false otherwise.
    */
   private boolean dispatch() {
+    queue.getBroadcastManager().processPendingBroadcasts();
+    final boolean fullScan;
+    final Set<ServerJob> jobs;
+    final Set<BaseNodeContext> channels;
+    synchronized(this) {
+      final long now = System.currentTimeMillis();
+      fullScan = fullScanRequested || (now - lastFullScan >= rescanInterval);
+      if (!fullScan && pendingJobs.isEmpty() && pendingChannels.isEmpty()) return false;
+      jobs = pendingJobs;
+      channels = pendingChannels;
+      pendingJobs = new LinkedHashSet<>();
+      pendingChannels = new LinkedHashSet<>();
+      fullScanRequested = false;
+      if (fullScan) lastFullScan = now;
+    }
+    final boolean dispatched = dispatch(fullScan, jobs, channels);
+    if (dispatched) {
+      // the evaluation stops at the first dispatch, the remaining (job, channel) pairs are evaluated at the next pass
+      synchronized(this) {
+        if (fullScan) fullScanRequested = true;
+        else {
+          pendingJobs.addAll(jobs);
+          pendingChannels.addAll(channels);
+        }
+      }
+    }
+    return dispatched;
+  }
+
+  /**
+   * Perform the assignment of jobs to nodes.
+   * @param fullScan whether to evaluate all the jobs against all the idle channels.
+   * @param jobs when {@code fullScan} is {@code false}, the jobs to evaluate against all the idle channels.
+   * @param channels when {@code fullScan} is {@code false}, the idle channels to evaluate against all the jobs.
+   * @return true if a job was dispatched, false otherwise.
+   */
+  private boolean dispatch(final boolean fullScan, final Set<ServerJob> jobs, final Set<BaseNodeContext> channels) {
     try {
-      queue.getBroadcastManager().processPendingBroadcasts();
       if (queue.isEmpty()) return false;
       BaseNodeContext channel = null;
       ServerTaskBundleNode nodeBundle = null;
       synchronized(idleChannels) {
         if (idleChannels.isEmpty()) return false;
         final List<ServerJob> allJobs = queue.getAllJobsFromPriorityMap();
-        if (debugEnabled) log.debug("there are {} idle channels and {} jobs in the queue", idleChannels.size(), allJobs.size());
+        if (debugEnabled) log.debug("there are {} idle channels and {} jobs in the queue, fullScan={}, signaled jobs={}, signaled channels={}",
+          idleChannels.size(), allJobs.size(), fullScan, jobs.size(), channels.size());
+        if (fullScan) attributeIndex.refresh();
+        else channels.retainAll(idleChannels);
         try {
           final Iterator<ServerJob> jobIterator = allJobs.iterator();
           while ((channel == null) && jobIterator.hasNext() && !idleChannels.isEmpty()) {
             final ServerJob job = jobIterator.next();
+            final Collection<BaseNodeContext> candidates = (fullScan || jobs.contains(job)) ? idleChannels : channels;
+            if (candidates.isEmpty()) continue;
             if (debugEnabled) log.debug("checking {}", job);
             if (!performJobChecks(job)) continue;
-            channel = findIdleChannelIndex(job);
+            channel = findIdleChannelIndex(job, candidates);
             if (channel == null) continue;
             synchronized(channel.getMonitor()) {
               if (job.getSLA().getDesiredNodeConfiguration() != null) {
@@ -202,22 +267,31 @@ public class AsyncJobScheduler extends AbstractAsyncJobScheduler {
   /**
    * Find a channel that can send the specified task bundle for execution.
    * @param job the bundle to execute.
+   * @param candidates the idle channels to evaluate.
    * @return the index of an available and acceptable channel, or -1 if no channel could be found.
    */
-  private BaseNodeContext findIdleChannelIndex(final ServerJob job) {
+  private BaseNodeContext findIdleChannelIndex(final ServerJob job, final Collection<BaseNodeContext> candidates) {
     if (debugEnabled) log.debug("checking {}", job);
     final JobSLA sla = job.getSLA();
     final JPPFNodeConfigSpec spec =  sla.getDesiredNodeConfiguration();
     final TypedProperties desiredConfiguration = (spec == null) ? null : spec.getConfiguration();
-    List<BaseNodeContext> acceptableChannels = new ArrayList<>(idleChannels.size());
+    List<BaseNodeContext> acceptableChannels = new ArrayList<>(candidates.size());
     final List<BaseNodeContext> toRemove = new LinkedList<>();
     Iterator<BaseNodeContext> nodeIterator = null;
     if (sla.getPreferencePolicy() != null) {
-      final Set<BaseNodeContext> preferedChannels = filterPreferredNodes(job);
+      final Set<BaseNodeContext> preferedChannels = filterPreferredNodes(job, candidates);
       if (preferedChannels.isEmpty()) return null;
       nodeIterator = preferedChannels.iterator();
     }
-    else nodeIterator = idleChannels.iterator();
+    else nodeIterator = candidates.iterator();
+    final ExecutionPolicy policy = sla.getExecutionPolicy();
+    Set<BaseNodeContext> policyMatches = null;
+    if ((policy != null) && (candidates.size() > 1)) {
+      // compute the matching nodes from the attributes index rather than evaluating the policy against each node
+      preparePolicy(policy, job, stats, job.getNbChannels());
+      policyMatches = attributeIndex.matchingNodes(policy);
+      if (debugEnabled && (policyMatches != null)) log.debug("{} idle nodes match the execution policy of {}", policyMatches.size(), job);
+    }
     while (nodeIterator.hasNext()) {
       final AsyncNodeContext channel = (AsyncNodeContext) nodeIterator.next();
       synchronized(channel.getMonitor()) {
@@ -247,7 +321,9 @@ public class AsyncJobScheduler extends AbstractAsyncJobScheduler {
             continue;
           }
         }
-        if (!checkExecutionPolicy(channel, job, sla.getExecutionPolicy(), info, job.getNbChannels())) continue;
+        if (policyMatches != null) {
+          if (!policyMatches.contains(channel)) continue;
+        } else if (!checkExecutionPolicy(channel, job, policy, info, job.getNbChannels())) continue;
         if (!checkMaxNodeGroups(channel, job)) continue;
         final Collection<String> readyNodes = (spec == null) ? null : reservationHandler.getReadyNodes(job.getUuid());
         if (debugEnabled) log.debug("jobUuid={}, readyNodes={}", job.getUuid(), readyNodes);
@@ -369,8 +445,12 @@ public class AsyncJobScheduler extends AbstractAsyncJobScheduler {
     if (debugEnabled) log.debug("job has an execution policy: {}\n{}", job, policy.toString().trim());
       boolean b = false;
       try {
-        preparePolicy(policy, job, stats, nbJobChannels);
-        b = policy.evaluate(info);
+        final CompiledPolicy compiled = policyCompilation ? CompiledPolicy.compile(policy) : null;
+        if ((compiled != null) && (info != null)) b = compiled.evaluate(info);
+        else {
+          preparePolicy(policy, job, stats, nbJobChannels);
+          b = policy.evaluate(info);
+        }
       } catch(final Exception ex) {
         log.error("An error occurred while running the execution policy to determine node participation.", ex);
       }
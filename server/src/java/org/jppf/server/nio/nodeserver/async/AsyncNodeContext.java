@@ -131,16 +131,17 @@ public class AsyncNodeContext extends BaseNodeContext {
       if ((tmpBundle != null) && !tmpBundle.getJob().isHandshake()) {
         final boolean applyMaxResubmit = tmpBundle.getJob().getSLA().isApplyMaxResubmitsUponNodeError();
         if (debugEnabled) log.debug("applyMaxResubmit={} for {}", applyMaxResubmit, this);
-        final List<DataLocation> results = new ArrayList<>(tmpBundle.getTaskList().size());
+        final List<ServerTask> remaining = tmpBundle.getRemainingTaskList();
+        final List<DataLocation> results = new ArrayList<>(remaining.size());
         if (!applyMaxResubmit) {
           tmpBundle.resubmit();
-          for (final ServerTask task: tmpBundle.getTaskList()) {
+          for (final ServerTask task: remaining) {
             results.add(task.getInitialTask());
             task.resubmit();
           }
         } else {
           int count = 0;
-          for (final ServerTask task: tmpBundle.getTaskList()) {
+          for (final ServerTask task: remaining) {
             results.add(task.getInitialTask());
             final int max = tmpBundle.getJob().getSLA().getMaxTaskResubmits();
             if (task.incResubmitCount() <= max) {
@@ -54,6 +54,10 @@ public class AsyncNodeMessageHandler {
    * Determines whether the debug level is enabled in the log configuration, without the cost of a method call.
    */
   private static final boolean debugEnabled = log.isDebugEnabled();
+  /**
+   * Maximum time in millis to wait for the partial results of a bundle to be processed before processing its final results.
+   */
+  private static final long PARTIAL_RESULTS_TIMEOUT = 30_000L;
   /**
    * Reference to the singleton JPPF driver.
    */
@@ -143,6 +147,7 @@ public class AsyncNodeMessageHandler {
     if (systemInfo != null) {
       systemInfo.getJppf().setBoolean("jppf.peer.driver", isPeer);
       systemInfo.getJppf().set(JPPFProperties.NODE_IDLE, true);
+      systemInfo.incrementModificationCount();
       context.setNodeInfo(systemInfo, false);
       if (log.isTraceEnabled()) log.trace("node network info:\nipv4: {}\nipv6: {}", systemInfo.getNetwork().getString("ipv4.addresses"), systemInfo.getNetwork().getString("ipv6.addresses"));
     } else if (debugEnabled) log.debug("no system info received for node {}", context);
@@ -195,7 +200,8 @@ public class AsyncNodeMessageHandler {
   public void resultsReceived(final AsyncNodeContext context, final AbstractTaskBundleMessage message)  throws Exception {
     if (debugEnabled) log.debug("node {} received {}", context, message);
     final NodeBundleResults received = context.deserializeBundle(message);
-    process(received, context);
+    if (received.bundle().isPartialResults()) processPartialResults(received, context);
+    else process(received, context);
   }
 
   /**
@@ -283,6 +289,12 @@ public class AsyncNodeMessageHandler {
    */
   private void process(final NodeBundleResults received, final AsyncNodeContext context) throws Exception {
     final TaskBundle bundle = received.first();
+    final int partialResultsCount = bundle.getParameter(PARTIAL_RESULTS_COUNT, 0);
+    if (partialResultsCount > 0) {
+      final ServerTaskBundleNode entry = context.getJobEntry(bundle.getUuid(), bundle.getBundleId());
+      if ((entry != null) && !entry.awaitPartialResults(partialResultsCount, PARTIAL_RESULTS_TIMEOUT))
+        log.warn("timeout waiting for {} partial results of {} from node {}", partialResultsCount, entry, context);
+    }
     final ServerTaskBundleNode nodeBundle = context.removeJobEntry(bundle.getUuid(), bundle.getBundleId());
     final ServerJob job = nodeBundle.getServerJob();
     boolean mustProcess = true;
@@ -317,6 +329,24 @@ public class AsyncNodeMessageHandler {
     }
   }
 
+  /**
+   * Process the results of some of the tasks of a bundle, received while the other tasks are still executing in the node.
+   * @param received holds the received bundle along with the tasks.
+   * @param context the channel from which the bundle was read.
+   * @throws Exception if any error occurs.
+   */
+  private static void processPartialResults(final NodeBundleResults received, final AsyncNodeContext context) throws Exception {
+    final TaskBundle bundle = received.bundle();
+    final ServerTaskBundleNode nodeBundle = context.getJobEntry(bundle.getUuid(), bundle.getBundleId());
+    if (nodeBundle == null) {
+      if (debugEnabled) log.debug("no dispatch found for partial results {} from node {}", bundle, context);
+      return;
+    }
+    final int[] positions = bundle.getParameter(PARTIAL_RESULTS_POSITIONS);
+    if (debugEnabled) log.debug("received {} partial results for {} from node {}", positions.length, nodeBundle, context);
+    nodeBundle.partialResultsReceived(positions, received.data());
+  }
+
   /**
    * Process the results received from the node.
    * @param context the context associated witht he node channel.
@@ -365,7 +395,7 @@ public class AsyncNodeMessageHandler {
       } else if (debugEnabled) log.debug("bundle has expired: {}", nodeBundle);
       if (debugEnabled) log.debug("nodeBundle={}", nodeBundle);
       bundler = updateBundlerAndStats(context, bundler, nodeBundle, newBundle);
-      nodeBundle.resultsReceived(received.data());
+      nodeBundle.resultsReceived(newBundle.getParameter(FINAL_RESULTS_POSITIONS, null), received.data());
       if (debugEnabled) log.debug("updated stats for {}", context);
     }
     final JPPFSystemInformation systemInfo = newBundle.getParameter(SYSTEM_INFO_PARAM);
@@ -403,13 +433,14 @@ public class AsyncNodeMessageHandler {
   private Bundler<?> updateBundlerAndStats(final AsyncNodeContext context, final Bundler<?> currentBundler, final ServerTaskBundleNode nodeBundle, final TaskBundle newBundle) {
     final long elapsed = System.nanoTime() - nodeBundle.getJob().getExecutionStartTime();
     final Bundler<?> bundler = (currentBundler == null) ? context.checkBundler(context.getServer().getBundlerFactory(), context.getServer().getJPPFContext()) : currentBundler;
-    if (bundler instanceof BundlerEx) {
+    if (bundler instanceof JobAwarenessEx) BundlerHelper.updateBundler(bundler, nodeBundle.getJob(), nodeBundle.getTaskCount(), elapsed);
+    else if (bundler instanceof BundlerEx) {
       final long accumulatedTime = newBundle.getParameter(NODE_BUNDLE_ELAPSED_PARAM, -1L);
-      BundlerHelper.updateBundler((BundlerEx<?>) bundler, newBundle.getTaskCount(), elapsed, accumulatedTime, elapsed - newBundle.getNodeExecutionTime());
-    } else BundlerHelper.updateBundler(bundler, newBundle.getTaskCount(), elapsed);
+      BundlerHelper.updateBundler((BundlerEx<?>) bundler, nodeBundle.getTaskCount(), elapsed, accumulatedTime, elapsed - newBundle.getNodeExecutionTime());
+    } else BundlerHelper.updateBundler(bundler, nodeBundle.getTaskCount(), elapsed);
     if (debugEnabled) log.debug("updated bundler for {}", context);
     context.getServer().getBundlerHandler().storeBundler(context.getNodeIdentifier(), bundler, context.getBundlerAlgorithm());
-    updateStats(newBundle.getTaskCount(), elapsed / 1_000_000L, newBundle.getNodeExecutionTime() / 1_000_000L);
+    updateStats(nodeBundle.getTaskCount(), elapsed / 1_000_000L, newBundle.getNodeExecutionTime() / 1_000_000L);
     return bundler;
   }
 
@@ -147,7 +147,7 @@ public final class AsyncNodeNioServer extends StatelessNioServer<AsyncNodeContex
       @Override
       public void bundleAdded(final QueueEvent<ServerJob, ServerTaskBundleClient, ServerTaskBundleNode> event) {
         if (debugEnabled) log.debug("received bundle added queue event {}", event);
-        jobScheduler.wakeUp();
+        jobScheduler.jobChanged(event.getJob());
       }
 
       @Override
@@ -68,7 +68,7 @@ public abstract class AbstractRemoteNode extends JPPFNode implements HeartbeatCo
 
   @Override
   public void initDataChannel() throws Exception {
-    (nodeConnection = new RemoteNodeConnection(connectionInfo, serializer)).init();
+    (nodeConnection = new RemoteNodeConnection(connectionInfo, serializer, configuration.get(JPPFProperties.NODE_NIO_ENABLED))).init();
     if (nodeIO == null) nodeIO = new RemoteNodeIO(this);
     if (configuration.get(JPPFProperties.RECOVERY_ENABLED)) {
       if (recoveryConnection == null) {
@@ -19,6 +19,7 @@ package org.jppf.server.node.remote;
 
 import java.util.List;
 import java.util.concurrent.*;
+import java.util.function.ObjIntConsumer;
 
 import org.jppf.classloader.AbstractJPPFClassLoader;
 import org.jppf.io.*;
@@ -75,29 +76,43 @@ public class JPPFRemoteContainer extends JPPFContainer {
    */
   @Override
   public int deserializeObjects(final Object[] list, final int count, final ExecutorService executor) throws Throwable {
+    return deserializeObjects(list, count, executor, null);
+  }
+
+  /**
+   * Deserialize a number of objects from a socket client, and notify the specified listener as soon as each object is deserialized.
+   * In this case, the deserialized objects are collected while the next objects are still being read from the socket.
+   * @param list a list holding the resulting deserialized objects.
+   * @param count the number of objects to deserialize.
+   * @param executor the number of objects to deserialize.
+   * @param listener receives each deserialized object along with its index in the list, in the reading thread. May be {@code null}.
+   * @return the new position in the source data after deserialization.
+   * @throws Throwable if an error occurs while deserializing.
+   */
+  public int deserializeObjects(final Object[] list, final int count, final ExecutorService executor, final ObjIntConsumer<Object> listener) throws Throwable {
     if (debugEnabled) log.debug("deserializing {} objects", count);
     final ClassLoader cl = Thread.currentThread().getContextClassLoader();
     try {
       Thread.currentThread().setContextClassLoader(classLoader);
       final CompletionService<ObjectDeserializationTask> completionService = new ExecutorCompletionService<>(executor, new ArrayBlockingQueue<Future<ObjectDeserializationTask>>(count));
-      final InputSource is = new SocketWrapperInputSource(nodeConnection.getChannel());
+      final Throwable[] firstThrowable = { null };
+      int throwableCount = 0, done = 0;
       for (int i = 0; i < count; i++) {
-        final DataLocation dl = IOHelper.readData(is);
+        final DataLocation dl = nodeConnection.readData();
         if (traceEnabled) log.trace("i = {}, read data size = {}", i, (dl == null) ? -1 : dl.getSize());
         completionService.submit(new ObjectDeserializationTask(this, (TaskBundle) list[0], dl, i));
-      }
-      Throwable t = null;
-      int throwableCount = 0;
-      for (int i=0; i<count; i++) {
-        final Future<ObjectDeserializationTask> f = completionService.take();
-        final ObjectDeserializationTask task = f.get();
-        final Object o = task.getObject();
-        if (o instanceof Throwable) {
-          throwableCount++;
-          if (t == null) t = (Throwable) o;
+        if (listener != null) {
+          Future<ObjectDeserializationTask> f;
+          while ((f = completionService.poll()) != null) {
+            if (collect(f.get(), list, listener, firstThrowable)) throwableCount++;
+            done++;
+          }
         }
-        list[task.getIndex() + 1] = o;
       }
+      for (; done<count; done++) {
+        if (collect(completionService.take().get(), list, listener, firstThrowable)) throwableCount++;
+      }
+      final Throwable t = firstThrowable[0];
       if (t != null) {
         if (debugEnabled) log.debug("tasks deserialization resulted in {} errors, first throwable = {}", throwableCount, ExceptionUtils.getMessage(t));
         throw t;
@@ -108,6 +123,25 @@ public class JPPFRemoteContainer extends JPPFContainer {
     }
   }
 
+  /**
+   * Store a deserialized object in the list and notify the listener, if any.
+   * @param task the deserialization task which completed.
+   * @param list a list holding the resulting deserialized objects.
+   * @param listener receives the deserialized object along with its index in the list. May be {@code null}.
+   * @param firstThrowable holds the first deserialized object which is a {@link Throwable}.
+   * @return {@code true} if the deserialized object is a {@link Throwable}, {@code false} otherwise.
+   */
+  private static boolean collect(final ObjectDeserializationTask task, final Object[] list, final ObjIntConsumer<Object> listener, final Throwable[] firstThrowable) {
+    final Object o = task.getObject();
+    list[task.getIndex() + 1] = o;
+    if (o instanceof Throwable) {
+      if (firstThrowable[0] == null) firstThrowable[0] = (Throwable) o;
+      return true;
+    }
+    if (listener != null) listener.accept(o, task.getIndex() + 1);
+    return false;
+  }
+
   /**
    * The node connection wrapper.
    * @param nodeConnection the node connection to set.
@@ -0,0 +1,305 @@
+/*
+ * JPPF.
+ * Copyright (C) 2005-2019 JPPF Team.
+ * http://www.jppf.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jppf.server.node.remote;
+
+import java.io.*;
+import java.nio.channels.*;
+import java.util.Queue;
+import java.util.concurrent.*;
+
+import org.jppf.io.*;
+import org.jppf.nio.*;
+import org.jppf.serialization.SerializationUtils;
+import org.jppf.utils.concurrent.ThreadUtils;
+import org.slf4j.*;
+
+/**
+ * A non-blocking job data channel between a node and a driver, served by a single selector thread.
+ * <p>The selector thread continuously reads the length-prefixed objects sent by the driver into memory-aware data locations,
+ * which are then consumed by the thread that deserializes the jobs, and writes the objects queued by the thread that sends the results.
+ * Thus, receiving the next bundles is never blocked by sending the results of the previous ones, and several bundles can be in flight
+ * over the same connection.
+ * @author Laurent Cohen
+ */
+class NodeNioChannel implements Runnable {
+  /**
+   * Logger for this class.
+   */
+  private static Logger log = LoggerFactory.getLogger(NodeNioChannel.class);
+  /**
+   * Determines whether the debug level is enabled in the logging configuration, without the cost of a method call.
+   */
+  private static boolean debugEnabled = log.isDebugEnabled();
+  /**
+   * Determines whether the trace level is enabled in the logging configuration, without the cost of a method call.
+   */
+  private static boolean traceEnabled = log.isTraceEnabled();
+  /**
+   * Placeholder in the queue of received objects for an object with an empty content.
+   */
+  private static final Object EMPTY = new Object();
+  /**
+   * The underlying socket channel.
+   */
+  private final SocketChannel channel;
+  /**
+   * The selector which multiplexes the read and write operations.
+   */
+  private final Selector selector;
+  /**
+   * The key of the channel registered with the selector.
+   */
+  private final SelectionKey key;
+  /**
+   * The objects received from the driver and not yet consumed. A {@link Throwable} in this queue means the channel failed.
+   */
+  private final BlockingQueue<Object> received = new LinkedBlockingQueue<>();
+  /**
+   * The objects to send to the driver.
+   */
+  private final Queue<DataLocation> toSend = new ConcurrentLinkedQueue<>();
+  /**
+   * Used to wait until all the queued objects are sent.
+   */
+  private final Object sendMonitor = new Object();
+  /**
+   * The number of queued objects not yet fully written to the channel.
+   */
+  private int pendingWrites;
+  /**
+   * Holds the length of the object being read.
+   */
+  private final MultipleBuffersLocation readLengthBuf = new MultipleBuffersLocation(4);
+  /**
+   * Holds the length of the object being written.
+   */
+  private final MultipleBuffersLocation writeLengthBuf = new MultipleBuffersLocation(4);
+  /**
+   * Reads the length of the object being read.
+   */
+  private final NioObject readLengthObject;
+  /**
+   * Writes the length of the object being written.
+   */
+  private final NioObject writeLengthObject;
+  /**
+   * The length of the object being read, or -1 if it is not yet known.
+   */
+  private int readLength = -1;
+  /**
+   * Reads the content of the object being read.
+   */
+  private NioObject readObject;
+  /**
+   * The object being written.
+   */
+  private DataLocation writeData;
+  /**
+   * Writes the content of the object being written, or {@code null} if its length is still being written.
+   */
+  private NioObject writeObject;
+  /**
+   * Whether this channel is closed.
+   */
+  private volatile boolean closed;
+
+  /**
+   * Initialize this channel with the specified connected socket channel.
+   * @param channel a socket channel connected to the driver.
+   * @throws IOException if any I/O error occurs.
+   */
+  NodeNioChannel(final SocketChannel channel) throws IOException {
+    this.channel = channel;
+    channel.configureBlocking(false);
+    selector = Selector.open();
+    key = channel.register(selector, SelectionKey.OP_READ);
+    readLengthObject = new PlainNioObject(channel, readLengthBuf);
+    writeLengthObject = new PlainNioObject(channel, writeLengthBuf);
+  }
+
+  /**
+   * Start the selector thread.
+   * @param name the name of the selector thread.
+   */
+  void start(final String name) {
+    ThreadUtils.startDaemonThread(this, name);
+  }
+
+  @Override
+  public void run() {
+    try {
+      while (!closed) {
+        key.interestOps(((writeData != null) || !toSend.isEmpty()) ? SelectionKey.OP_READ | SelectionKey.OP_WRITE : SelectionKey.OP_READ);
+        selector.select();
+        if (closed) break;
+        selector.selectedKeys().clear();
+        if (key.isReadable()) {
+          while (readNextObject());
+        }
+        if (key.isValid() && key.isWritable()) {
+          while (writeNextObject());
+        }
+      }
+    } catch (final Exception e) {
+      if (!closed) {
+        if (debugEnabled) log.debug("error on node channel, closing it", e);
+        received.offer(e);
+      }
+    } finally {
+      close();
+    }
+  }
+
+  /**
+   * Get the next object received from the driver, waiting if none is available yet.
+   * @return the received data, or {@code null} if the object has an empty content.
+   * @throws Exception if the channel failed or was closed.
+   */
+  DataLocation read() throws Exception {
+    final Object o = received.take();
+    if (o == EMPTY) return null;
+    if (o instanceof Throwable) {
+      // let the next readers fail as well
+      received.offer(o);
+      throw (o instanceof EOFException) ? (EOFException) o : new EOFException("node channel failed: " + o);
+    }
+    return (DataLocation) o;
+  }
+
+  /**
+   * Queue the specified data for sending to the driver.
+   * @param data the data to send.
+   * @throws IOException if the channel is closed.
+   */
+  void write(final DataLocation data) throws IOException {
+    synchronized(sendMonitor) {
+      if (closed) throw new EOFException("node channel is closed");
+      pendingWrites++;
+      toSend.offer(data);
+    }
+    selector.wakeup();
+  }
+
+  /**
+   * Wait until all the queued objects are written to the channel.
+   * @param timeout the maximum time to wait in milliseconds, 0 to wait indefinitely.
+   * @return {@code true} if all the objects were written, {@code false} if the timeout expired first.
+   * @throws IOException if the channel was closed before all the objects were written.
+   */
+  boolean flush(final long timeout) throws IOException {
+    final long start = System.nanoTime();
+    synchronized(sendMonitor) {
+      while (pendingWrites > 0) {
+        if (closed) throw new EOFException(String.format("node channel closed with %d objects not sent", pendingWrites));
+        long toWait = 0L;
+        if (timeout > 0L) {
+          toWait = timeout - (System.nanoTime() - start) / 1_000_000L;
+          if (toWait <= 0L) return false;
+        }
+        try {
+          sendMonitor.wait(toWait);
+        } catch (final InterruptedException e) {
+          throw (IOException) new InterruptedIOException("interrupted while flushing the node channel").initCause(e);
+        }
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Wait until this channel is closed, for instance by the driver.
+   */
+  void awaitClosed() {
+    try {
+      Object o;
+      while (!((o = received.take()) instanceof Throwable));
+      received.offer(o);
+    } catch (@SuppressWarnings("unused") final InterruptedException e) {
+    }
+  }
+
+  /**
+   * Close this channel and release the blocked readers.
+   */
+  void close() {
+    synchronized(sendMonitor) {
+      if (closed) return;
+      closed = true;
+      sendMonitor.notifyAll();
+    }
+    received.offer(new EOFException("node channel is closed"));
+    selector.wakeup();
+    try {
+      channel.close();
+      selector.close();
+    } catch (final IOException e) {
+      if (debugEnabled) log.debug("error closing node channel", e);
+    }
+  }
+
+  /**
+   * Read the next object from the channel.
+   * @return {@code true} if an object was fully read, {@code false} if more data is needed.
+   * @throws Exception if any I/O error occurs.
+   */
+  private boolean readNextObject() throws Exception {
+    if (readLength < 0) {
+      if (!readLengthObject.read()) return false;
+      try (final InputStream is = readLengthBuf.getInputStream()) {
+        readLength = SerializationUtils.readInt(is);
+      }
+      readLengthBuf.reset();
+      readLengthObject.reset();
+    }
+    if (readLength > 0) {
+      if (readObject == null) readObject = new PlainNioObject(channel, IOHelper.createDataLocationMemorySensitive(readLength));
+      if (!readObject.read()) return false;
+    }
+    if (traceEnabled) log.trace("received object with size = {}", readLength);
+    received.offer((readObject == null) ? EMPTY : readObject.getData());
+    readObject = null;
+    readLength = -1;
+    return true;
+  }
+
+  /**
+   * Write the next queued object to the channel.
+   * @return {@code true} if an object was fully written, {@code false} if there is nothing to write or the channel is not ready for writing.
+   * @throws Exception if any I/O error occurs.
+   */
+  private boolean writeNextObject() throws Exception {
+    if (writeData == null) {
+      if ((writeData = toSend.poll()) == null) return false;
+      SerializationUtils.writeInt(writeData.getSize(), writeLengthBuf.reset().getBuffer(0).buffer, 0);
+      writeLengthObject.reset();
+    }
+    if (writeObject == null) {
+      if (!writeLengthObject.write()) return false;
+      writeObject = new PlainNioObject(channel, writeData.copy());
+    }
+    if (!writeObject.write()) return false;
+    if (traceEnabled) log.trace("sent object with size = {}", writeData.getSize());
+    writeData = null;
+    writeObject = null;
+    synchronized(sendMonitor) {
+      if (--pendingWrites == 0) sendMonitor.notifyAll();
+    }
+    return true;
+  }
+}
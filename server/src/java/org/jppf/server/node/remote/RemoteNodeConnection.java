@@ -18,9 +18,12 @@
 
 package org.jppf.server.node.remote;
 
+import java.io.IOException;
+
 import org.jppf.JPPFNodeReconnectionNotification;
 import org.jppf.comm.interceptor.InterceptorHandler;
 import org.jppf.comm.socket.*;
+import org.jppf.io.*;
 import org.jppf.node.AbstractNodeConnection;
 import org.jppf.node.connection.*;
 import org.jppf.serialization.ObjectSerializer;
@@ -42,6 +45,10 @@ public class RemoteNodeConnection extends AbstractNodeConnection<SocketWrapper>
    * Determines whether the debug level is enabled in the log configuration, without the cost of a method call.
    */
   private static boolean debugEnabled = log.isDebugEnabled();
+  /**
+   * Maximum time in millis to wait for the queued objects to be sent when closing a non-blocking channel.
+   */
+  private static final long CLOSE_FLUSH_TIMEOUT = 5000L;
   /**
    * Used to synchronize access to the underlying socket from multiple threads.
    */
@@ -54,6 +61,14 @@ public class RemoteNodeConnection extends AbstractNodeConnection<SocketWrapper>
    * Server connection information.
    */
   private final DriverConnectionInfo connectionInfo;
+  /**
+   * Whether to use a non-blocking channel for plain connections.
+   */
+  private final boolean useNio;
+  /**
+   * The non-blocking channel, if any.
+   */
+  private NodeNioChannel nioChannel;
 
   /**
    * Initialize this connection with the specified serializer.
@@ -61,8 +76,19 @@ public class RemoteNodeConnection extends AbstractNodeConnection<SocketWrapper>
    * @param serializer the serializer to use.
    */
   public RemoteNodeConnection(final DriverConnectionInfo connectionInfo, final ObjectSerializer serializer) {
+    this(connectionInfo, serializer, false);
+  }
+
+  /**
+   * Initialize this connection with the specified serializer.
+   * @param connectionInfo the server connection information.
+   * @param serializer the serializer to use.
+   * @param useNio whether to use a non-blocking channel. This only applies to non-secure connections.
+   */
+  public RemoteNodeConnection(final DriverConnectionInfo connectionInfo, final ObjectSerializer serializer, final boolean useNio) {
     this.connectionInfo = connectionInfo;
     this.serializer = serializer;
+    this.useNio = useNio && !connectionInfo.isSecure();
   }
 
   @Override
@@ -70,7 +96,7 @@ public class RemoteNodeConnection extends AbstractNodeConnection<SocketWrapper>
     lock.lock();
     try {
       if (debugEnabled) log.debug("Initializing socket");
-      channel = new SocketClient();
+      channel = useNio ? new SocketChannelClient(true) : new SocketClient();
       channel.setHost(connectionInfo.getHost());
       channel.setPort(connectionInfo.getPort());
       channel.setSerializer(serializer);
@@ -86,6 +112,10 @@ public class RemoteNodeConnection extends AbstractNodeConnection<SocketWrapper>
       if (debugEnabled) log.debug("sending channel identifier");
       channel.writeInt(JPPFIdentifiers.NODE_JOB_DATA_CHANNEL);
       if (connectionInfo.isSecure()) channel = SSLHelper.createSSLClientConnection(channel);
+      else if (useNio) {
+        nioChannel = new NodeNioChannel(((SocketChannelClient) channel).getChannel());
+        nioChannel.start("NodeNioChannel");
+      }
       if (debugEnabled) log.debug("end socket initializer");
     } finally {
       lock.unlock();
@@ -96,6 +126,16 @@ public class RemoteNodeConnection extends AbstractNodeConnection<SocketWrapper>
   public void close() throws Exception {
     lock.lock();
     try {
+      if (nioChannel != null) {
+        try {
+          // results may still be queued, for instance when the node closes the connection to restart or reconnect
+          if (!nioChannel.flush(CLOSE_FLUSH_TIMEOUT)) log.warn("could not send all the queued data before closing the node channel");
+        } catch (final IOException e) {
+          if (debugEnabled) log.debug("error flushing the node channel before closing it", e);
+        }
+        nioChannel.close();
+        nioChannel = null;
+      }
       if (channel != null) {
         final SocketWrapper tmp = channel;
         channel = null;
@@ -105,4 +145,54 @@ public class RemoteNodeConnection extends AbstractNodeConnection<SocketWrapper>
       lock.unlock();
     }
   }
+
+  /**
+   * Read the next object sent by the server, waiting until it is fully received.
+   * @return the received data, or {@code null} if the object has an empty content.
+   * @throws Exception if any I/O error occurs.
+   */
+  public DataLocation readData() throws Exception {
+    final NodeNioChannel nio = nioChannel;
+    if (nio != null) return nio.read();
+    return IOHelper.readData(new SocketWrapperInputSource(channel));
+  }
+
+  /**
+   * Send an object to the server. With a non-blocking channel, the data is only queued for sending, see {@link #flush()}.
+   * @param data the data to send.
+   * @throws Exception if any I/O error occurs.
+   */
+  public void writeData(final DataLocation data) throws Exception {
+    final NodeNioChannel nio = nioChannel;
+    if (nio != null) nio.write(data);
+    else IOHelper.writeData(data, new SocketWrapperOutputDestination(channel));
+  }
+
+  /**
+   * Flush the objects sent to the server. With a non-blocking channel, this waits until all the queued objects are written to the channel.
+   * @throws Exception if any I/O error occurs.
+   */
+  public void flush() throws Exception {
+    final NodeNioChannel nio = nioChannel;
+    if (nio != null) nio.flush(0L);
+    else channel.flush();
+  }
+
+  /**
+   * Wait until the connection is closed by the server.
+   * @throws Exception if any I/O error occurs.
+   */
+  public void waitClosed() throws Exception {
+    final NodeNioChannel nio = nioChannel;
+    if (nio != null) nio.awaitClosed();
+    else channel.readInt();
+  }
+
+  /**
+   * Determine whether this connection uses a non-blocking channel.
+   * @return {@code true} if a non-blocking channel is used, {@code false} otherwise.
+   */
+  public boolean isNio() {
+    return nioChannel != null;
+  }
 }
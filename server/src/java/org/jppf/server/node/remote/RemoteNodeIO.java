@@ -25,12 +25,12 @@ import java.util.*;
 import java.util.concurrent.*;
 
 import org.jppf.JPPFSuspendedNodeException;
-import org.jppf.comm.socket.SocketWrapper;
 import org.jppf.io.*;
 import org.jppf.node.protocol.*;
 import org.jppf.node.protocol.graph.TaskGraphInfo;
 import org.jppf.serialization.ObjectSerializer;
 import org.jppf.server.node.*;
+import org.jppf.utils.configuration.JPPFProperties;
 import org.slf4j.*;
 
 /**
@@ -50,6 +50,10 @@ public class RemoteNodeIO extends AbstractNodeIO<AbstractRemoteNode> {
    * Determines whether the trace level is enabled in the logging configuration, without the cost of a method call.
    */
   private static boolean traceEnabled = log.isTraceEnabled();
+  /**
+   * Hands the tasks to the execution manager while the current bundle is received, if streaming execution is enabled.
+   */
+  private TaskStreamHandler taskStream;
 
   /**
    * Initialize this TaskIO with the specified node.
@@ -59,12 +63,34 @@ public class RemoteNodeIO extends AbstractNodeIO<AbstractRemoteNode> {
     super(node);
   }
 
+  @Override
+  public BundleWithTasks readJob() throws Exception {
+    BundleWithTasks result = null;
+    Throwable error = null;
+    try {
+      result = super.readJob();
+      error = result.getBundle().getParameter(NODE_EXCEPTION_PARAM);
+      return result;
+    } catch (final Exception|Error e) {
+      error = e;
+      throw e;
+    } finally {
+      final TaskStreamHandler stream = taskStream;
+      if (stream != null) {
+        taskStream = null;
+        final boolean streamed = stream.complete((result == null) ? Collections.<Task<?>>emptyList() : result.getTasks(), error);
+        if (result != null) result.setStreamed(streamed);
+      }
+    }
+  }
+
   @Override
   protected Object[] deserializeObjects() throws Exception {
     final ObjectSerializer ser = node.getHelper().getSerializer();
     if (debugEnabled) log.debug("waiting for next request. Serializer = " + ser + " (class loader = " + ser.getClass().getClassLoader() + ")");
     Object[] result = null;
-    final TaskBundle bundle = (TaskBundle) IOHelper.unwrappedData(getSocketWrapper(), ser);
+    final DataLocation header = getConnection().readData();
+    final TaskBundle bundle = (header == null) ? null : (TaskBundle) IOHelper.unwrappedData(header, ser);
     node.getExecutionManager().addPendingJobEntry(bundle);
     node.setExecuting(true);
     if (debugEnabled) log.debug("got bundle " + bundle);
@@ -72,7 +98,7 @@ public class RemoteNodeIO extends AbstractNodeIO<AbstractRemoteNode> {
     if (node.isOffline() && !bundle.isHandshake()) {
       if (debugEnabled) log.debug("waiting for channel closed");
       // channel is closed by the driver
-      waitChannelClosed(getSocketWrapper());
+      waitChannelClosed(getConnection());
       if (debugEnabled) log.debug("channel closed");
     }
     return result;
@@ -95,9 +121,10 @@ public class RemoteNodeIO extends AbstractNodeIO<AbstractRemoteNode> {
         cont.setNodeConnection((RemoteNodeConnection) node.getNodeConnection());
         if (!node.isOffline() && !bundle.getSLA().isRemoteClassLoadingEnabled()) cont.getClassLoader().setRemoteClassLoadingDisabled(true);
         node.getLifeCycleEventHandler().fireJobHeaderLoaded(bundle, cont.getClassLoader());
-        cont.deserializeObjects(list, 1 + count, node.getSerializationExecutor());
+        if (!node.isOffline() && node.getConfiguration().get(JPPFProperties.NODE_STREAMING_EXECUTION)) taskStream = new TaskStreamHandler(node, bundle);
+        cont.deserializeObjects(list, 1 + count, node.getSerializationExecutor(), taskStream);
       }
-      else  getSocketWrapper().receiveBytes(0); // skip null data provider
+      else  getConnection().readData(); // skip null data provider
       if (debugEnabled) log.debug("got all data");
     } catch(final Throwable t) {
       log.error("Exception occurred while deserializing the tasks", t);
@@ -115,14 +142,14 @@ public class RemoteNodeIO extends AbstractNodeIO<AbstractRemoteNode> {
   protected void handleReload() throws Exception {
     node.setClassLoader(null);
     node.initHelper();
-    getSocketWrapper().setSerializer(node.getHelper().getSerializer());
+    getConnection().getChannel().setSerializer(node.getHelper().getSerializer());
   }
 
   @Override
   protected void sendResults(final TaskBundle bundle, final List<Task<?>> tasks) throws Exception {
     if (debugEnabled) log.debug("writing results for " + bundle);
-    final SocketWrapper socketWrapper = getSocketWrapper();
-    if (socketWrapper == null) throw new SocketException("no connection to the server");
+    final RemoteNodeConnection connection = getConnection();
+    if (connection.getChannel() == null) throw new SocketException("no connection to the server");
     final ExecutorService executor = node.getSerializationExecutor();
     finalizeBundleData(bundle, tasks);
     final List<Future<DataLocation>> futureList = new ArrayList<>((tasks == null) ? 1 : tasks.size() + 1);
@@ -132,25 +159,24 @@ public class RemoteNodeIO extends AbstractNodeIO<AbstractRemoteNode> {
     if (tasks != null) {
       for (final Task<?> task : tasks) futureList.add(executor.submit(new ObjectSerializationTask(task, cont, bundle, submitCount++)));
     }
-    final OutputDestination dest = new SocketWrapperOutputDestination(socketWrapper);
     int count = 0;
     for (final Future<DataLocation> f: futureList) {
       final DataLocation dl = f.get();
       if (traceEnabled) log.trace("writing "  + (count == 0 ? "header" : "task[" + count + ']') + " with size = " + dl.getSize());
-      IOHelper.writeData(dl, dest);
+      connection.writeData(dl);
       count++;
     }
-    socketWrapper.flush();
+    connection.flush();
     if (debugEnabled) log.debug("wrote full results");
   }
 
   /**
    * Wait until the connection is closed by the other end.
-   * @param socketWrapper the connection to check.
+   * @param connection the connection to check.
    */
-  private void waitChannelClosed(final SocketWrapper socketWrapper) {
+  private void waitChannelClosed(final RemoteNodeConnection connection) {
     try {
-      socketWrapper.readInt();
+      connection.waitClosed();
     } catch (@SuppressWarnings("unused") final Exception ignore) {
     } catch (final Error e) {
       if (debugEnabled) log.debug("error closing socket: ", e);
@@ -166,13 +192,13 @@ public class RemoteNodeIO extends AbstractNodeIO<AbstractRemoteNode> {
   }
 
   /**
-   * Get the socket wrapper associated with the node connection.
-   * @return a {@link SocketWrapper} instance.
+   * Get the connection to the server.
+   * @return a {@link RemoteNodeConnection} instance.
    */
-  private SocketWrapper getSocketWrapper() {
-    final SocketWrapper socketWrapper = ((RemoteNodeConnection) node.getNodeConnection()).getChannel();
+  private RemoteNodeConnection getConnection() {
+    final RemoteNodeConnection connection = (RemoteNodeConnection) node.getNodeConnection();
     // happens when an android node gets in suspended state due to low battery charge, while the node is reading a job from the server
-    if ((socketWrapper == null) && node.isSuspended()) throw new JPPFSuspendedNodeException("node connection was closed by another thread");
-    return socketWrapper;
+    if ((connection.getChannel() == null) && node.isSuspended()) throw new JPPFSuspendedNodeException("node connection was closed by another thread");
+    return connection;
   }
 }
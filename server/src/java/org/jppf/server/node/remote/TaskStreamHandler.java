@@ -0,0 +1,166 @@
+/*
+ * JPPF.
+ * Copyright (C) 2005-2019 JPPF Team.
+ * http://www.jppf.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jppf.server.node.remote;
+
+import java.util.*;
+import java.util.function.ObjIntConsumer;
+
+import org.jppf.execute.async.*;
+import org.jppf.node.protocol.*;
+import org.jppf.node.protocol.graph.TaskGraphInfo;
+import org.jppf.utils.collections.CollectionMap;
+import org.slf4j.*;
+
+/**
+ * Hands the tasks of a bundle to the execution manager as soon as they are deserialized, while the rest of the bundle is still being received.
+ * <p>The tasks which depend on other tasks are only submitted once the bundle is fully received, since their dependencies
+ * are sent after all the tasks of the bundle. All the methods of this class are called by the thread which reads the bundle.
+ * @author Laurent Cohen
+ */
+class TaskStreamHandler implements ObjIntConsumer<Object> {
+  /**
+   * Logger for this class.
+   */
+  private static Logger log = LoggerFactory.getLogger(TaskStreamHandler.class);
+  /**
+   * Determines whether the debug level is enabled in the logging configuration, without the cost of a method call.
+   */
+  private static boolean debugEnabled = log.isDebugEnabled();
+  /**
+   * The node which receives the bundle.
+   */
+  private final AbstractRemoteNode node;
+  /**
+   * The bundle being received.
+   */
+  private final TaskBundle bundle;
+  /**
+   * The number of tasks in the bundle.
+   */
+  private final int taskCount;
+  /**
+   * Mapping of the positions of the tasks to the positions of their dependencies, or {@code null} if the tasks have no dependency.
+   */
+  private final CollectionMap<Integer, Integer> dependencyMapping;
+  /**
+   * Whether each task was submitted.
+   */
+  private final boolean[] submitted;
+  /**
+   * Tasks received before the data provider, mapped to their index in the bundle.
+   */
+  private final Map<Integer, Task<?>> waiting = new TreeMap<>();
+  /**
+   * Whether the data provider was received.
+   */
+  private boolean dataProviderReceived;
+  /**
+   * The data provider of the job.
+   */
+  private DataProvider dataProvider;
+  /**
+   * The entry to which the tasks are submitted, created when the first task is submitted.
+   */
+  private JobProcessingEntry jobEntry;
+
+  /**
+   * Initialize this handler.
+   * @param node the node which receives the bundle.
+   * @param bundle the bundle being received.
+   */
+  TaskStreamHandler(final AbstractRemoteNode node, final TaskBundle bundle) {
+    this.node = node;
+    this.bundle = bundle;
+    this.taskCount = bundle.getTaskCount();
+    this.submitted = new boolean[taskCount];
+    final TaskGraphInfo graphInfo = bundle.getParameter(BundleParameter.JOB_TASK_GRAPH_INFO, null);
+    this.dependencyMapping = ((graphInfo == null) || (graphInfo.getNbDependencies() <= 0)) ? null : graphInfo.getDependenciesMap();
+  }
+
+  /**
+   * Called when an object of the bundle is deserialized.
+   * @param object the deserialized object.
+   * @param index the index of the object: 1 for the data provider, followed by the tasks, then by their dependencies.
+   */
+  @Override
+  public void accept(final Object object, final int index) {
+    if (index == 1) {
+      dataProviderReceived = true;
+      if (object instanceof DataProvider) dataProvider = (DataProvider) object;
+      for (final Map.Entry<Integer, Task<?>> entry: waiting.entrySet()) submit(entry.getKey(), entry.getValue());
+      waiting.clear();
+      return;
+    }
+    final int taskIndex = index - 2;
+    if ((taskIndex >= taskCount) || !(object instanceof Task)) return;
+    final Task<?> task = (Task<?>) object;
+    if (hasDependencies(task)) return;
+    if (dataProviderReceived) submit(taskIndex, task);
+    else waiting.put(taskIndex, task);
+  }
+
+  /**
+   * Submit the remaining tasks once the bundle is fully received, and notify the execution manager that no more task will be submitted.
+   * @param taskList all the tasks of the bundle, in the order they were received.
+   * @param t an error which prevented the bundle from being fully received, if any.
+   * @return {@code true} if the tasks were handed to the execution manager, {@code false} if no task was submitted or if an error occurred.
+   */
+  boolean complete(final List<Task<?>> taskList, final Throwable t) {
+    if (jobEntry == null) return false;
+    final AsyncExecutionManager manager = node.getExecutionManager();
+    if (t == null) {
+      int count = 0;
+      for (int i=0; i<taskList.size(); i++) {
+        if (!submitted[i]) {
+          manager.submitStreamedTask(jobEntry, taskList.get(i));
+          count++;
+        }
+      }
+      if (debugEnabled) log.debug("submitted {} tasks with dependencies after {} was received", count, bundle);
+    }
+    manager.endStreaming(jobEntry, (t == null) ? taskList : Collections.<Task<?>>emptyList(), t);
+    return t == null;
+  }
+
+  /**
+   * Submit the specified task.
+   * @param taskIndex the index of the task in the bundle.
+   * @param task the task to submit.
+   */
+  private void submit(final int taskIndex, final Task<?> task) {
+    task.setDataProvider(dataProvider).setInNode(true).setNode(node).setJob(bundle);
+    submitted[taskIndex] = true;
+    if (jobEntry == null) {
+      final List<Task<?>> tasks = new ArrayList<>(taskCount);
+      tasks.add(task);
+      jobEntry = node.getExecutionManager().startStreaming(new BundleWithTasks(bundle, tasks));
+    } else node.getExecutionManager().submitStreamedTask(jobEntry, task);
+  }
+
+  /**
+   * Determine whether the specified task depends on other tasks.
+   * @param task the task to check.
+   * @return {@code true} if the task has dependencies, {@code false} otherwise.
+   */
+  private boolean hasDependencies(final Task<?> task) {
+    if (dependencyMapping == null) return false;
+    final Collection<Integer> deps = dependencyMapping.getValues(task.getPosition());
+    return (deps != null) && !deps.isEmpty();
+  }
+}
@@ -146,21 +146,24 @@ public class ServerJob extends AbstractServerJobBase {
   /**
    * Called to notify that the results of a number of tasks have been received from the server.
    * @param bundle  the executing job.
+   * @param positions the positions of the tasks whose results are received, or {@code null} if the results are in the same order as the remaining tasks of the bundle.
    * @param results the list of tasks whose results have been received from the server.
    */
-  public void resultsReceived(final ServerTaskBundleNode bundle, final List<DataLocation> results) {
+  public void resultsReceived(final ServerTaskBundleNode bundle, final int[] positions, final List<DataLocation> results) {
     if (debugEnabled) log.debug("received {} results from {}", (results == null ? "null" : results.size()), bundle);
-    if ((results != null) && results.isEmpty()) return;
+    // when all the results were sent as partial results, the final results are empty but must still be processed
+    if ((results != null) && results.isEmpty() && (positions == null)) return;
     final CollectionMap<ServerTaskBundleClient, ServerTask> map = new SetIdentityMap<>();
     final List<ServerTask> bundleTasks;
     final boolean b;
     lock.lock();
     try {
-      bundleTasks = (bundle == null) ? new ArrayList<>(tasks.values()) : bundle.getTaskList();
+      bundleTasks = (bundle == null) ? new ArrayList<>(tasks.values()) : bundle.getRemainingTaskList();
       b = isJobExpired() || isCancelled() || (bundle.isExpired() && bundle.isOffline());
       if (b) {
         for (final ServerTask task : bundleTasks) map.putValue(task.getBundle(), task);
       } else if (results != null) {
+        final List<DataLocation> locations = (bundle == null) ? results : bundle.matchResults(bundleTasks, positions, results);
         int nbResubmits = 0, maxPos = 0, minPos = Integer.MAX_VALUE;
         for (int i=0; i<bundleTasks.size(); i++) {
           final ServerTask task = bundleTasks.get(i);
@@ -177,8 +180,10 @@ public class ServerJob extends AbstractServerJobBase {
               dispatchedTasks.remove(pos);
               taskGraph.nodeDone(pos);
             }
-            final DataLocation location = results.get(i);
-            task.resultReceived(location);
+            final DataLocation location = locations.get(i);
+            // a task without result had its partial result ignored, because it was cancelled
+            if (location != null) task.resultReceived(location);
+            else if (task.getState() != TaskState.CANCELLED) task.cancel();
             map.putValue(task.getBundle(), task);
           }
         }
@@ -205,7 +210,7 @@ public class ServerJob extends AbstractServerJobBase {
     lock.lock();
     try {
       int nbResubmits = 0, maxPos = 0, minPos = Integer.MAX_VALUE;
-      for (final ServerTask task : bundle.getTaskList()) {
+      for (final ServerTask task : bundle.getRemainingTaskList()) {
         final int pos = task.getPosition();
         if (task.getState() == TaskState.RESUBMIT) {
           if (traceEnabled) log.trace("task to resubmit: {}", task);
@@ -248,13 +253,48 @@ public class ServerJob extends AbstractServerJobBase {
     });
     taskCompleted(bundle, throwable);
     if (getJob().getParameter(BundleParameter.FROM_PERSISTENCE, false) || submissionStatus.get() == SubmissionStatus.COMPLETE) {
-      map.forEach((clientBundle, tasks) -> {
+      final Set<ServerTaskBundleClient> toCheck = Collections.newSetFromMap(new IdentityHashMap<>());
+      toCheck.addAll(map.keySet());
+      // client bundles whose tasks in this dispatch were all received as partial results
+      if ((bundle != null) && bundle.hasPartialResults()) {
+        for (final ServerTask task: bundle.getTaskList()) toCheck.add(task.getBundle());
+      }
+      toCheck.forEach(clientBundle -> {
         if (debugEnabled) log.debug("checking bundleEnded() for {}", clientBundle);
         if (clientBundle.getPendingTasksCount() <= 0) clientBundle.bundleEnded();
       });
     }
   }
 
+  /**
+   * Called when the results of some of the tasks of a dispatch are received while the other tasks are still executing in the node.
+   * @param bundle the dispatch to which the tasks belong.
+   * @param bundleTasks the tasks whose results are received.
+   * @param results the results, in the same order as the tasks.
+   */
+  public void partialResultsReceived(final ServerTaskBundleNode bundle, final List<ServerTask> bundleTasks, final List<DataLocation> results) {
+    if (debugEnabled) log.debug("received {} partial results from {}", results.size(), bundle);
+    final CollectionMap<ServerTaskBundleClient, ServerTask> map = new SetIdentityMap<>();
+    lock.lock();
+    try {
+      for (int i=0; i<bundleTasks.size(); i++) {
+        final ServerTask task = bundleTasks.get(i);
+        if (taskGraph != null) {
+          dispatchedTasks.remove(task.getPosition());
+          taskGraph.nodeDone(task.getPosition());
+        }
+        task.resultReceived(results.get(i));
+        map.putValue(task.getBundle(), task);
+      }
+    } finally {
+      lock.unlock();
+    }
+    map.forEach((clientBundle, tasks) -> {
+      clientBundle.resultReceived(tasks);
+      ((JPPFJobManager) notificationEmitter).jobResultsReceived(bundle.getChannel(), this, tasks);
+    });
+  }
+
   /**
    * Utility method - extract DataLocation from list of server tasks and add them to list.
    * @param dst destination list of {@code DataLocation}.
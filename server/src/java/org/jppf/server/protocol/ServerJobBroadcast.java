@@ -189,7 +189,7 @@ public class ServerJobBroadcast extends ServerJob {
   }
 
   @Override
-  public void resultsReceived(final ServerTaskBundleNode bundle, final List<DataLocation> results) {
+  public void resultsReceived(final ServerTaskBundleNode bundle, final int[] positions, final List<DataLocation> results) {
     if (debugEnabled) log.debug("received results for {}", this);
     pendingTasksCount -= bundle.getTaskCount();
     taskCompleted(bundle, null);
@@ -112,6 +112,18 @@ public class ServerTaskBundleNode {
    * Info on the dependenencies of the tasks in this bundle.
    */
   private TaskGraphInfo graphInfo;
+  /**
+   * The tasks whose results were received before the final results of this bundle, lazily created.
+   */
+  private Set<ServerTask> partialTasks;
+  /**
+   * Mapping of the tasks of this bundle to their position, lazily created.
+   */
+  private Map<Integer, ServerTask> tasksByPosition;
+  /**
+   * The number of partial results processed for this bundle.
+   */
+  private int partialResultsCount;
 
   /**
    * Initialize this task bundle and set its build number.
@@ -205,11 +217,113 @@ public class ServerTaskBundleNode {
    * @param results the list of tasks whose results have been received from the server.
    */
   public void resultsReceived(final List<DataLocation> results) {
+    resultsReceived(null, results);
+  }
+
+  /**
+   * Called to notify that the results of a number of tasks have been received from the server.
+   * @param positions the positions of the tasks whose results are received, or {@code null} if the results are in the same order as {@link #getRemainingTaskList()}.
+   * @param results the list of tasks whose results have been received from the server.
+   */
+  public void resultsReceived(final int[] positions, final List<DataLocation> results) {
     taskCompleted(null);
-    job.resultsReceived(this, results);
+    job.resultsReceived(this, positions, results);
     this.channel = null;
   }
 
+  /**
+   * Called when the results of some of the tasks are received while the other tasks are still executing in the node.
+   * The results are ignored if this bundle was cancelled, expired or requeued in the meantime.
+   * @param positions the positions of the tasks whose results are received.
+   * @param results the results, in the same order as the positions.
+   */
+  public void partialResultsReceived(final int[] positions, final List<DataLocation> results) {
+    try {
+      final List<ServerTask> tasks = new ArrayList<>(positions.length);
+      final List<DataLocation> locations = new ArrayList<>(positions.length);
+      synchronized(this) {
+        if (cancelled || expired || requeued) {
+          if (debugEnabled) log.debug("ignoring {} partial results for {}", positions.length, this);
+          return;
+        }
+        if (tasksByPosition == null) {
+          tasksByPosition = new HashMap<>(taskList.size());
+          for (final ServerTask task: taskList) tasksByPosition.put(task.getPosition(), task);
+          partialTasks = Collections.newSetFromMap(new IdentityHashMap<>());
+        }
+        for (int i=0; i<positions.length; i++) {
+          final ServerTask task = tasksByPosition.get(positions[i]);
+          if ((task != null) && (task.getState() == TaskState.PENDING) && partialTasks.add(task)) {
+            tasks.add(task);
+            locations.add(results.get(i));
+          }
+        }
+      }
+      if (!tasks.isEmpty()) job.partialResultsReceived(this, tasks, locations);
+    } finally {
+      synchronized(this) {
+        partialResultsCount++;
+        notifyAll();
+      }
+    }
+  }
+
+  /**
+   * Wait until the specified number of partial results have been processed. Partial results are read before the final results
+   * of a bundle, but they may be processed concurrently by different threads.
+   * @param count the number of partial results to wait for.
+   * @param timeout the maximum time to wait in milliseconds.
+   * @return {@code true} if the partial results were processed, {@code false} if the timeout expired.
+   * @throws InterruptedException if the current thread is interrupted while waiting.
+   */
+  public synchronized boolean awaitPartialResults(final int count, final long timeout) throws InterruptedException {
+    final long end = System.nanoTime() + timeout * 1_000_000L;
+    while (partialResultsCount < count) {
+      final long remaining = (end - System.nanoTime()) / 1_000_000L;
+      if (remaining <= 0L) return false;
+      wait(remaining);
+    }
+    return true;
+  }
+
+  /**
+   * Determine whether the results of some of the tasks of this bundle were received as partial results.
+   * @return {@code true} if partial results were received, {@code false} otherwise.
+   */
+  public synchronized boolean hasPartialResults() {
+    return (partialTasks != null) && !partialTasks.isEmpty();
+  }
+
+  /**
+   * Get the tasks whose results were not received as partial results.
+   * @return a list of {@link ServerTask} instances, in the same order as in {@link #getTaskList()}.
+   */
+  public synchronized List<ServerTask> getRemainingTaskList() {
+    if ((partialTasks == null) || partialTasks.isEmpty()) return taskList;
+    final List<ServerTask> remaining = new ArrayList<>(taskList.size() - partialTasks.size());
+    for (final ServerTask task: taskList) {
+      if (!partialTasks.contains(task)) remaining.add(task);
+    }
+    return remaining;
+  }
+
+  /**
+   * Match the final results of this bundle with the specified tasks.
+   * @param tasks the tasks whose results were not received as partial results, as returned by {@link #getRemainingTaskList()}.
+   * @param positions the positions of the tasks in the final results, or {@code null} if the results are in the same order as the tasks.
+   * @param results the final results.
+   * @return the result of each task, in the same order as the tasks, with a {@code null} element for each task that is not in the results.
+   * This happens when the node sent the result of a task as partial results, but they were ignored because this bundle was cancelled, expired or requeued.
+   */
+  public List<DataLocation> matchResults(final List<ServerTask> tasks, final int[] positions, final List<DataLocation> results) {
+    if (positions == null) return results;
+    final Map<Integer, DataLocation> resultsByPosition = new HashMap<>(positions.length);
+    for (int i=0; i<positions.length; i++) resultsByPosition.put(positions[i], results.get(i));
+    final List<DataLocation> matched = new ArrayList<>(tasks.size());
+    for (final ServerTask task: tasks) matched.add(resultsByPosition.get(task.getPosition()));
+    return matched;
+  }
+
   /**
    * Called to notify that throwable eventually raised while receiving the results.
    * @param throwable the throwable that was raised while receiving the results.
@@ -240,7 +354,7 @@ public class ServerTaskBundleNode {
     if (getJob().getSLA().isBroadcastJob()) return; // broadcast jobs cannot be resubmitted.
     synchronized (this) {
       requeued = true;
-      for (final ServerTask task: taskList) task.resubmit();
+      for (final ServerTask task: getRemainingTaskList()) task.resubmit();
     }
   }
 
@@ -251,7 +365,7 @@ public class ServerTaskBundleNode {
     if (getJob().getSLA().isBroadcastJob()) return; // broadcast jobs cannot expire.
     final int max = job.getSLA().getMaxDispatchExpirations();
     synchronized (this) {
-      for (final ServerTask task: taskList) {
+      for (final ServerTask task: getRemainingTaskList()) {
         if (task.incExpirationCount() > max) task.cancel();
         else task.resubmit();
       }
@@ -272,7 +386,7 @@ public class ServerTaskBundleNode {
    */
   public synchronized void cancel() {
     this.cancelled = true;
-    for (ServerTask task: taskList) task.cancel();
+    for (ServerTask task: getRemainingTaskList()) task.cancel();
   }
 
   /**
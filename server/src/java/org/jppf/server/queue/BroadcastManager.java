@@ -229,7 +229,7 @@ public class BroadcastManager {
     broadcastJob.setQueueEntryTime(System.currentTimeMillis());
     broadcastJob.setJobReceivedTime(broadcastJob.getQueueEntryTime());
     broadcastJob.addOnDone(new RemoveBundleAction(queue, broadcastJob));
-    queue.getPriorityMap().putValue(broadcastJob.getSLA().getPriority(), broadcastJob);
+    queue.getPriorityIndex().add(broadcastJob.getSLA().getPriority(), broadcastJob);
     if (debugEnabled) log.debug("adding bundle with " + broadcastJob);
     queue.scheduleManager.handleStartJobSchedule(broadcastJob);
     queue.scheduleManager.handleExpirationJobSchedule(queue.driver, broadcastJob);
@@ -18,8 +18,6 @@
 
 package org.jppf.server.queue;
 
-import static org.jppf.utils.collections.CollectionUtils.formatSizeMapInfo;
-
 import java.util.*;
 import java.util.concurrent.Callable;
 import java.util.concurrent.locks.*;
@@ -34,7 +32,6 @@ import org.jppf.server.nio.nodeserver.BaseNodeContext;
 import org.jppf.server.protocol.*;
 import org.jppf.server.submission.SubmissionStatus;
 import org.jppf.utils.*;
-import org.jppf.utils.collections.LinkedListSortedMap;
 import org.jppf.utils.stats.JPPFStatisticsHelper;
 import org.slf4j.*;
 
@@ -84,6 +81,10 @@ public class JPPFPriorityQueue extends AbstractJPPFQueue<ServerJob, ServerTaskBu
    * The job dependency graph handler.
    */
   private final JobDependenciesHandler dependenciesHandler;
+  /**
+   * The queued jobs, ordered by descending priority. Modified while holding the queue lock, but read without it.
+   */
+  private final JobPriorityIndex priorityIndex = new JobPriorityIndex();
 
   /**
    * Initialize this queue.
@@ -105,14 +106,13 @@ public class JPPFPriorityQueue extends AbstractJPPFQueue<ServerJob, ServerTaskBu
     final JobSLA sla = clientBundle.getSLA();
     final String jobUuid = clientBundle.getUuid();
     ServerJob serverJob = null;
-    boolean cancel = false;
+    boolean cancel = false, persist = false, newJob = false;
     lock.lock();
     try {
       if (sla.isBroadcastJob()) {
         if (debugEnabled) log.debug("before processing broadcast job {}", clientBundle.getJob());
         broadcastManager.processBroadcastJob(clientBundle);
       } else {  
-        boolean newJob = false;
         boolean done = false;
         boolean added = false;
         while (!done) {
@@ -136,11 +136,10 @@ public class JPPFPriorityQueue extends AbstractJPPFQueue<ServerJob, ServerTaskBu
           }
         }
         if (added) {
-          if (!newJob) priorityMap.removeValue(sla.getPriority(), serverJob);
-          else cancel = (serverJob.getSLA().getDependencySpec().getId() != null) && dependenciesHandler.jobQueued(serverJob);
+          if (newJob) cancel = (serverJob.getSLA().getDependencySpec().getId() != null) && dependenciesHandler.jobQueued(serverJob);
         } else return serverJob;
         if (!sla.isBroadcastJob() || serverJob.getBroadcastUUID() != null) {
-          priorityMap.putValue(sla.getPriority(), serverJob);
+          priorityIndex.add(sla.getPriority(), serverJob);
           incrementSizeCount(getSize(serverJob));
         }
         updateLatestMaxSize();
@@ -148,14 +147,24 @@ public class JPPFPriorityQueue extends AbstractJPPFQueue<ServerJob, ServerTaskBu
         final TaskBundle header = clientBundle.getJob();
         if (!header.getParameter(BundleParameter.FROM_PERSISTENCE, false) && !header.getParameter(BundleParameter.ALREADY_PERSISTED, false)) {
           header.setParameter(BundleParameter.ALREADY_PERSISTED, true);
-          persistenceHandler.storeJob(serverJob, clientBundle, !newJob);
+          // the job lock is acquired before the queue lock is released, so no task can be dispatched before the job is persisted
+          persist = persistenceHandler.isPersistent(serverJob);
+          if (persist) serverJob.getLock().lock();
         }
         if (!cancel) fireBundleAdded(new QueueEvent<>(this, serverJob, false));
       }
-      if (debugEnabled) log.debug("Maps size information: {}", formatSizeMapInfo("priorityMap", priorityMap));
+      if (debugEnabled) log.debug("priority index: {}", priorityIndex);
     } finally {
       lock.unlock();
     }
+    if (persist) {
+      // persisting may involve a lot of I/O, it is only done while holding the lock of the job
+      try {
+        persistenceHandler.storeJob(serverJob, clientBundle, !newJob);
+      } finally {
+        serverJob.getLock().unlock();
+      }
+    }
     driver.getStatistics().addValue(JPPFStatisticsHelper.TASK_QUEUE_TOTAL, clientBundle.getTaskCount());
     driver.getStatistics().addValue(JPPFStatisticsHelper.TASK_QUEUE_COUNT, clientBundle.getTaskCount());
     if (cancel) serverJob.cancel(driver, true);
@@ -215,7 +224,7 @@ public class JPPFPriorityQueue extends AbstractJPPFQueue<ServerJob, ServerTaskBu
     try {
       if (!jobMap.containsKey(job.getUuid())) throw new IllegalStateException("Job " + job + " not managed");
       if (debugEnabled) log.debug("requeuing job {}", job);
-      priorityMap.putValue(job.getSLA().getPriority(), job);
+      priorityIndex.add(job.getSLA().getPriority(), job);
       incrementSizeCount(getSize(job));
       fireBundleAdded(new QueueEvent<>(this, job, true));
     } finally {
@@ -245,10 +254,10 @@ public class JPPFPriorityQueue extends AbstractJPPFQueue<ServerJob, ServerTaskBu
         result = serverJob.createNodeDispatch(effectiveNbTasks);
         incrementSizeCount(size);
         // to ensure that other jobs with same priority are also processed without waiting
-        priorityMap.moveToEndOfList(serverJob.getSLA().getPriority(), serverJob);
+        priorityIndex.moveToEnd(serverJob);
       }
       updateLatestMaxSize();
-      if (debugEnabled) log.debug("Maps size information: {}", formatSizeMapInfo("priorityMap", priorityMap));
+      if (debugEnabled) log.debug("priority index: {}", priorityIndex);
     } finally {
       lock.unlock();
     }
@@ -284,7 +293,7 @@ public class JPPFPriorityQueue extends AbstractJPPFQueue<ServerJob, ServerTaskBu
         if (cond != null) cond.signalAll();
       }
       if (debugEnabled) log.debug("removing job from queue, jobName= {}, removeFromJobMap={}", serverJob.getName(), removeFromJobMap);
-      if (priorityMap.removeValue(serverJob.getSLA().getPriority(), serverJob)) {
+      if (priorityIndex.remove(serverJob)) {
         for (final ServerTaskBundleClient clientBundle : serverJob.getCompletionBundles()) {
           if (debugEnabled) log.debug("adding completion bundle for job={} : {}", serverJob.getName(), clientBundle);
           addBundle(clientBundle);
@@ -306,8 +315,7 @@ public class JPPFPriorityQueue extends AbstractJPPFQueue<ServerJob, ServerTaskBu
       final int oldPriority = job.getSLA().getPriority();
       if (oldPriority != newPriority) {
         job.getSLA().setPriority(newPriority);
-        priorityMap.removeValue(oldPriority, job);
-        priorityMap.putValue(newPriority, job);
+        priorityIndex.updatePriority(job, newPriority);
         job.fireJobUpdated(true);
       }
     } finally {
@@ -317,18 +325,15 @@ public class JPPFPriorityQueue extends AbstractJPPFQueue<ServerJob, ServerTaskBu
 
   @Override
   public boolean cancelJob(final String jobId) {
+    final ServerJob job = jobMap.get(jobId);
+    if (job == null) return false;
     lock.lock();
     try {
-      final ServerJob job = jobMap.get(jobId);
-      boolean res = job != null;
-      if (res) {
-        decrementSizeCount(getSize(job));
-        res &= job.cancel(driver, false);
-      }
-      return res;
+      decrementSizeCount(getSize(job));
     } finally {
       lock.unlock();
     }
+    return job.cancel(driver, false);
   }
 
   /**
@@ -341,7 +346,7 @@ public class JPPFPriorityQueue extends AbstractJPPFQueue<ServerJob, ServerTaskBu
       synchronized(queueListeners) {
         queueListeners.clear();
       }
-      priorityMap.clear();
+      priorityIndex.clear();
       sizeMap.clear();
     } finally {
       lock.unlock();
@@ -354,12 +359,7 @@ public class JPPFPriorityQueue extends AbstractJPPFQueue<ServerJob, ServerTaskBu
    * @return a <code>ServerJob</code> instance.
    */
   public ServerJob getJob(final String jobId) {
-    lock.lock();
-    try {
-      return jobMap.get(jobId);
-    } finally {
-      lock.unlock();
-    }
+    return jobMap.get(jobId);
   }
 
   /**
@@ -368,15 +368,10 @@ public class JPPFPriorityQueue extends AbstractJPPFQueue<ServerJob, ServerTaskBu
    * @return a <code>ServerJob</code> instance.
    */
   public ServerJob getJobFromPriorityMap(final String jobId) {
-    lock.lock();
-    try {
-      for (ServerJob job: priorityMap) {
-        if (job.getUuid().equals(jobId)) return job;
-      }
-      return null;
-    } finally {
-      lock.unlock();
+    for (final ServerJob job: priorityIndex) {
+      if (job.getUuid().equals(jobId)) return job;
     }
+    return null;
   }
 
   /**
@@ -385,12 +380,7 @@ public class JPPFPriorityQueue extends AbstractJPPFQueue<ServerJob, ServerTaskBu
    */
   @Override
   public Set<String> getAllJobIds() {
-    lock.lock();
-    try {
-      return new HashSet<>(jobMap.keySet());
-    } finally {
-      lock.unlock();
-    }
+    return new HashSet<>(jobMap.keySet());
   }
 
   /**
@@ -398,12 +388,7 @@ public class JPPFPriorityQueue extends AbstractJPPFQueue<ServerJob, ServerTaskBu
    * @return a list of {@link ServerJob} instances.
    */
   public List<ServerJob> getAllJobs() {
-    lock.lock();
-    try {
-      return new ArrayList<>(jobMap.values());
-    } finally {
-      lock.unlock();
-    }
+    return new ArrayList<>(jobMap.values());
   }
 
   /**
@@ -411,14 +396,9 @@ public class JPPFPriorityQueue extends AbstractJPPFQueue<ServerJob, ServerTaskBu
    * @return a set of ids as strings.
    */
   public Set<String> getAllJobIdsFromPriorityMap() {
-    lock.lock();
-    try {
-      final Set<String> set = new HashSet<>();
-      for (ServerJob job: priorityMap.allValues()) set.add(job.getUuid());
-      return set;
-    } finally {
-      lock.unlock();
-    }
+    final Set<String> set = new HashSet<>();
+    for (final ServerJob job: priorityIndex) set.add(job.getUuid());
+    return set;
   }
 
   /**
@@ -427,12 +407,25 @@ public class JPPFPriorityQueue extends AbstractJPPFQueue<ServerJob, ServerTaskBu
    * and can be modified without affecting this queue.
    */
   public List<ServerJob> getAllJobsFromPriorityMap() {
-    lock.lock();
-    try {
-      return priorityMap.allValues();
-    } finally {
-      lock.unlock();
-    }
+    return priorityIndex.values();
+  }
+
+  @Override
+  public boolean isEmpty() {
+    return priorityIndex.isEmpty();
+  }
+
+  /**
+   * Get the number of jobs in the queue.
+   * @return the number of jobs as an int.
+   */
+  public int getQueueSize() {
+    return priorityIndex.size();
+  }
+
+  @Override
+  public Iterator<ServerJob> iterator() {
+    return priorityIndex.iterator();
   }
 
   @Override
@@ -469,10 +462,10 @@ public class JPPFPriorityQueue extends AbstractJPPFQueue<ServerJob, ServerTaskBu
   }
 
   /**
-   * @return the priority map.
+   * @return the index of the jobs ordered by priority.
    */
-  LinkedListSortedMap<Integer, ServerJob> getPriorityMap() {
-    return priorityMap;
+  JobPriorityIndex getPriorityIndex() {
+    return priorityIndex;
   }
 
   /**
@@ -500,13 +493,8 @@ public class JPPFPriorityQueue extends AbstractJPPFQueue<ServerJob, ServerTaskBu
   public List<ServerJob> selectJobs(final JobSelector selector) {
     if ((selector == null) || (selector instanceof AllJobsSelector)) return getAllJobs();
     final List<ServerJob> list = new ArrayList<>();
-    lock.lock();
-    try {
-      for (final ServerJob job: jobMap.values()) {
-        if (selector.accepts(job)) list.add(job);
-      }
-    } finally {
-      lock.unlock();
+    for (final ServerJob job: jobMap.values()) {
+      if (selector.accepts(job)) list.add(job);
     }
     return list;
   }
@@ -0,0 +1,168 @@
+/*
+ * JPPF.
+ * Copyright (C) 2005-2019 JPPF Team.
+ * http://www.jppf.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.jppf.server.queue;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+import org.jppf.server.protocol.ServerJob;
+
+/**
+ * An index of the queued jobs, ordered by descending priority, then by insertion order among the jobs with the same priority.
+ * <p>Modifications must be performed while holding the queue lock. The jobs can be read without any lock, for instance by the job scheduler,
+ * so that it does not contend with the submission, dispatch and completion of jobs. These reads are weakly consistent:
+ * a job that is moved while it is being read may be seen twice.
+ * @author Laurent Cohen
+ */
+class JobPriorityIndex implements Iterable<ServerJob> {
+  /**
+   * The jobs, ordered by their key.
+   */
+  private final ConcurrentSkipListMap<Key, ServerJob> jobs = new ConcurrentSkipListMap<>();
+  /**
+   * Mapping of the jobs to their current key. Only accessed while holding the queue lock.
+   */
+  private final Map<ServerJob, Key> keys = new IdentityHashMap<>();
+  /**
+   * Sequence number of the next insertion. Only accessed while holding the queue lock.
+   */
+  private long sequence;
+  /**
+   * The number of jobs in this index.
+   */
+  private volatile int size;
+
+  /**
+   * Add the specified job after the other jobs with the same priority. If the job is already in this index, it is moved.
+   * @param priority the priority of the job.
+   * @param job the job to add.
+   */
+  void add(final int priority, final ServerJob job) {
+    final Key key = new Key(priority, sequence++);
+    // the new entry is added before the old one is removed, so concurrent readers do not miss the job
+    jobs.put(key, job);
+    final Key oldKey = keys.put(job, key);
+    if (oldKey != null) jobs.remove(oldKey);
+    else size++;
+  }
+
+  /**
+   * Remove the specified job.
+   * @param job the job to remove.
+   * @return {@code true} if the job was in this index, {@code false} otherwise.
+   */
+  boolean remove(final ServerJob job) {
+    final Key key = keys.remove(job);
+    if (key == null) return false;
+    jobs.remove(key);
+    size--;
+    return true;
+  }
+
+  /**
+   * Move the specified job after the other jobs with the same priority, so they can be processed without waiting.
+   * @param job the job to move.
+   */
+  void moveToEnd(final ServerJob job) {
+    final Key key = keys.get(job);
+    if (key == null) return;
+    final Key next = jobs.higherKey(key);
+    if ((next != null) && (next.priority == key.priority)) add(key.priority, job);
+  }
+
+  /**
+   * Change the priority of the specified job, if it is in this index.
+   * @param job the job to update.
+   * @param priority the new priority of the job.
+   */
+  void updatePriority(final ServerJob job, final int priority) {
+    if (keys.containsKey(job)) add(priority, job);
+  }
+
+  /**
+   * Remove all the jobs.
+   */
+  void clear() {
+    keys.clear();
+    jobs.clear();
+    size = 0;
+  }
+
+  /**
+   * @return whether this index is empty.
+   */
+  boolean isEmpty() {
+    return size <= 0;
+  }
+
+  /**
+   * @return the number of jobs in this index.
+   */
+  int size() {
+    return size;
+  }
+
+  /**
+   * @return a list of the jobs in this index, in priority order.
+   */
+  List<ServerJob> values() {
+    return new ArrayList<>(jobs.values());
+  }
+
+  @Override
+  public Iterator<ServerJob> iterator() {
+    return Collections.unmodifiableCollection(jobs.values()).iterator();
+  }
+
+  @Override
+  public String toString() {
+    return new StringBuilder(getClass().getSimpleName()).append("[size=").append(size).append(']').toString();
+  }
+
+  /**
+   * The sort key of a job in the index.
+   */
+  private static final class Key implements Comparable<Key> {
+    /**
+     * The priority of the job.
+     */
+    private final int priority;
+    /**
+     * The insertion sequence number.
+     */
+    private final long sequence;
+
+    /**
+     * @param priority the priority of the job.
+     * @param sequence the insertion sequence number.
+     */
+    private Key(final int priority, final long sequence) {
+      this.priority = priority;
+      this.sequence = sequence;
+    }
+
+    @Override
+    public int compareTo(final Key other) {
+      // higher priorities first
+      if (priority != other.priority) return (priority > other.priority) ? -1 : 1;
+      return Long.compare(sequence, other.sequence);
+    }
+  }
+}
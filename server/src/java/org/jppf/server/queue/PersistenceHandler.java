@@ -297,7 +297,7 @@ public class PersistenceHandler {
    * @param job the job to check.
    * @return {@code true} if the job is persistent and job persistence is active, {@code false} otherwise.
    */
-  private boolean isPersistent(final ServerJob job) {
+  boolean isPersistent(final ServerJob job) {
     return isPersistenceReady() && job.isPersistent() && job.getJob().getParameter(BundleParameter.ALREADY_PERSISTED, false)
       && !job.getJob().getParameter(BundleParameter.ALREADY_PERSISTED_P2P, false);
   }
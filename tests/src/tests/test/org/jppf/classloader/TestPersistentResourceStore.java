@@ -0,0 +1,138 @@
+/*
+ * JPPF.
+ * Copyright (C) 2005-2019 JPPF Team.
+ * http://www.jppf.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package test.org.jppf.classloader;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.nio.file.*;
+import java.nio.file.attribute.FileTime;
+import java.util.stream.Stream;
+
+import org.jppf.classloader.resource.PersistentResourceStore;
+import org.jppf.utils.*;
+import org.junit.*;
+
+import test.org.jppf.test.setup.BaseTest;
+
+/**
+ * Unit tests for {@link PersistentResourceStore}.
+ * @author Laurent Cohen
+ */
+public class TestPersistentResourceStore extends BaseTest {
+  /**
+   * The root directory of the store.
+   */
+  private static final File ROOT = new File("persistent_resource_store");
+
+  /**
+   * Delete the root directory of the store.
+   * @throws Exception if any error occurs.
+   */
+  @Before
+  @After
+  public void cleanup() throws Exception {
+    if (ROOT.exists()) Files.walkFileTree(ROOT.toPath(), new DeleteFileVisitor());
+  }
+
+  /**
+   * Test storing definitions and reading them from another instance of the store on the same directory.
+   * @throws Exception if any error occurs.
+   */
+  @Test(timeout = 10000)
+  public void testStoreAndLookup() throws Exception {
+    final PersistentResourceStore store = new PersistentResourceStore(ROOT, 1024L * 1024L);
+    assertNull(store.getDigest("org/example/A.class"));
+    final byte[] def1 = "definition 1".getBytes(), def2 = "definition 2".getBytes();
+    store.put("org/example/A.class", def1);
+    final String digest1 = store.getDigest("org/example/A.class");
+    assertEquals(CryptoUtils.computeHash(def1, PersistentResourceStore.DIGEST_ALGORITHM), digest1);
+    // an identical definition under another name is stored once
+    store.put("org/example/B.class", def1);
+    assertEquals(digest1, store.getDigest("org/example/B.class"));
+    assertEquals(def1.length, store.getEstimatedSize());
+    final PersistentResourceStore other = new PersistentResourceStore(ROOT, 1024L * 1024L);
+    assertEquals(def1.length, other.getEstimatedSize());
+    assertArrayEquals(def1, other.get(digest1));
+    // a new version of a resource replaces the mapping of its name
+    other.put("org/example/A.class", def2);
+    final String digest2 = store.getDigest("org/example/A.class");
+    assertEquals(CryptoUtils.computeHash(def2, PersistentResourceStore.DIGEST_ALGORITHM), digest2);
+    assertArrayEquals(def2, store.get(digest2));
+    assertArrayEquals(def1, store.get(digest1));
+  }
+
+  /**
+   * Test that a corrupted definition is detected and deleted.
+   * @throws Exception if any error occurs.
+   */
+  @Test(timeout = 10000)
+  public void testCorruptedDefinition() throws Exception {
+    final PersistentResourceStore store = new PersistentResourceStore(ROOT, 1024L * 1024L);
+    store.put("A.class", "definition".getBytes());
+    final String digest = store.getDigest("A.class");
+    final Path path = ROOT.toPath().resolve("objects").resolve(digest.substring(0, 2)).resolve(digest);
+    Files.write(path, "corrupted".getBytes());
+    assertNull(store.get(digest));
+    assertFalse(Files.exists(path));
+    assertNull(store.getDigest("A.class"));
+  }
+
+  /**
+   * Test that the least recently used definitions are evicted when the maximum size is exceeded.
+   * @throws Exception if any error occurs.
+   */
+  @Test(timeout = 10000)
+  public void testEviction() throws Exception {
+    final int nbDefs = 10, defSize = 1000;
+    final PersistentResourceStore store = new PersistentResourceStore(ROOT, nbDefs * defSize);
+    final String[] digests = new String[nbDefs];
+    for (int i=0; i<nbDefs; i++) {
+      final byte[] def = new byte[defSize];
+      def[0] = (byte) i;
+      store.put("R" + i, def);
+      digests[i] = store.getDigest("R" + i);
+      // make the usage order deterministic regardless of the file system timestamp resolution
+      setLastUsed(digests[i], 1_000_000L * (i + 1));
+    }
+    // R0 becomes the most recently used definition
+    assertNotNull(store.get(digests[0]));
+    final byte[] def = new byte[defSize];
+    def[0] = (byte) nbDefs;
+    store.put("R" + nbDefs, def);
+    assertTrue(store.getEstimatedSize() <= nbDefs * defSize - (nbDefs * defSize) / 10);
+    assertNotNull(store.getDigest("R0"));
+    assertNull(store.getDigest("R1"));
+    assertNull(store.get(digests[1]));
+    assertNotNull(store.getDigest("R" + nbDefs));
+    try (final Stream<Path> names = Files.list(ROOT.toPath().resolve("names"))) {
+      assertEquals(nbDefs - 1, names.count());
+    }
+  }
+
+  /**
+   * Set the last usage time of a stored definition.
+   * @param digest the digest of the definition.
+   * @param time the time to set.
+   * @throws Exception if any error occurs.
+   */
+  private static void setLastUsed(final String digest, final long time) throws Exception {
+    Files.setLastModifiedTime(ROOT.toPath().resolve("objects").resolve(digest.substring(0, 2)).resolve(digest), FileTime.fromMillis(time));
+  }
+}
@@ -21,7 +21,7 @@ package test.org.jppf.client;
 import static org.jppf.utils.configuration.JPPFProperties.*;
 import static org.junit.Assert.*;
 
-import java.util.List;
+import java.util.*;
 import java.util.concurrent.*;
 
 import org.jppf.client.*;
@@ -80,6 +80,38 @@ public class TestJPPFJob extends Setup1D1N {
     }
   }
 
+  /**
+   * Test that the future returned by {@link JPPFJob#toCompletableFuture()} is completed with all the results in the order of
+   * the tasks, and that a {@link org.jppf.client.event.TaskResultListener} is notified once for each task.
+   * @throws Exception if any error occurs
+   */
+  @Test(timeout=10000)
+  public void testCompletableFutureAndTaskResultListener() throws Exception {
+    try (final JPPFClient client = BaseSetup.createClient(null, true, BaseSetup.DEFAULT_CONFIG)) {
+      BaseSetup.checkDriverAndNodesInitialized(client, BaseSetup.nbDrivers(), BaseSetup.nbNodes(), true);
+      final int nbTasks = 20;
+      final JPPFJob job = BaseTestHelper.createJob(ReflectionUtils.getCurrentClassAndMethod(), false, nbTasks, LifeCycleTask.class, 10L);
+      final Set<Integer> positions = new ConcurrentSkipListSet<>();
+      job.addTaskResultListener(event -> {
+        assertSame(job, event.getJob());
+        positions.add(event.getTask().getPosition());
+      });
+      final CompletableFuture<List<Task<?>>> future = job.toCompletableFuture();
+      assertFalse(future.isDone());
+      final CompletableFuture<Integer> count = future.thenApply(List::size);
+      client.submitAsync(job);
+      assertEquals(nbTasks, count.get().intValue());
+      assertEquals(nbTasks, positions.size());
+      final List<Task<?>> results = future.get();
+      for (int i=0; i<nbTasks; i++) {
+        assertEquals(i, results.get(i).getPosition());
+        assertNotNull(results.get(i).getResult());
+      }
+      assertSame(future, job.toCompletableFuture());
+      assertTrue(job.isDone());
+    }
+  }
+
   /**
    * Test that a job can cancel itself.
    * @throws Exception if any error occurs
@@ -0,0 +1,174 @@
+/*
+ * JPPF.
+ * Copyright (C) 2005-2019 JPPF Team.
+ * http://www.jppf.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package test.org.jppf.client;
+
+import static org.junit.Assert.*;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+import org.jppf.client.JobResults;
+import org.jppf.node.protocol.Task;
+import org.jppf.serialization.*;
+import org.junit.Test;
+
+import test.org.jppf.test.setup.BaseTest;
+import test.org.jppf.test.setup.common.LifeCycleTask;
+
+/**
+ * Unit tests for the serialization of {@link JobResults}.
+ * @author Laurent Cohen
+ */
+public class TestJobResults extends BaseTest {
+  /**
+   * The positions of the results in the tests.
+   */
+  private static final int[] POSITIONS = { 0, 3, 40 };
+
+  /**
+   * Test that job results are copied accurately with the Java and JPPF serialization schemes.
+   * @throws Exception if any error occurs.
+   */
+  @Test(timeout = 5000L)
+  public void testSerialization() throws Exception {
+    final JobResults results = new JobResults();
+    results.addResults(createTasks());
+    for (final JPPFSerialization serialization: new JPPFSerialization[] { new DefaultJavaSerialization(), new DefaultJPPFSerialization() }) {
+      final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+      serialization.serialize(results, baos);
+      checkResults((JobResults) serialization.deserialize(new ByteArrayInputStream(baos.toByteArray())));
+    }
+  }
+
+  /**
+   * Test that job results serialized by a previous version, where they were held in a sorted map, are read accurately.
+   * @throws Exception if any error occurs.
+   */
+  @Test(timeout = 5000L)
+  public void testReadLegacyForm() throws Exception {
+    final LegacyJobResults legacy = new LegacyJobResults();
+    for (final Task<?> task: createTasks()) legacy.resultMap.put(task.getPosition(), task);
+    final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+    try (final ObjectOutputStream oos = new ObjectOutputStream(baos)) {
+      oos.writeObject(legacy);
+    }
+    final byte[] bytes = renameClass(baos.toByteArray(), LegacyJobResults.class.getName(), JobResults.class.getName());
+    try (final ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
+      checkResults((JobResults) ois.readObject());
+    }
+  }
+
+  /**
+   * Test that the serialized form of the job results still holds the results in a sorted map, so previous versions can read it.
+   * @throws Exception if any error occurs.
+   */
+  @Test(timeout = 5000L)
+  public void testLegacySerialForm() throws Exception {
+    final ObjectStreamClass desc = ObjectStreamClass.lookup(JobResults.class);
+    assertEquals(1L, desc.getSerialVersionUID());
+    assertEquals(2, desc.getFields().length);
+    assertEquals(SortedMap.class, desc.getField("resultMap").getType());
+    assertEquals(String.class, desc.getField("jobName").getType());
+  }
+
+  /**
+   * Create tasks at the positions in {@link #POSITIONS}.
+   * @return a list of tasks.
+   */
+  private static List<Task<?>> createTasks() {
+    final List<Task<?>> tasks = new ArrayList<>();
+    for (final int pos: POSITIONS) {
+      final LifeCycleTask task = new LifeCycleTask(0L);
+      task.setId("task-" + pos);
+      tasks.add(task.setPosition(pos));
+    }
+    return tasks;
+  }
+
+  /**
+   * Check that the specified results hold the tasks created by {@link #createTasks()}.
+   * @param results the results to check.
+   */
+  private static void checkResults(final JobResults results) {
+    assertEquals(POSITIONS.length, results.size());
+    for (final int pos: POSITIONS) {
+      assertTrue(results.hasResult(pos));
+      assertEquals("task-" + pos, results.getResultTask(pos).getId());
+    }
+    assertFalse(results.hasResult(1));
+    assertEquals(POSITIONS.length, results.getResultsList().size());
+    // results can still be added after deserialization
+    results.addResults(Collections.<Task<?>>singletonList(new LifeCycleTask(0L).setPosition(100)));
+    assertEquals(POSITIONS.length + 1, results.size());
+  }
+
+  /**
+   * Replace the name of a class in a Java serialization stream.
+   * @param bytes the serialized stream.
+   * @param oldName the name to replace.
+   * @param newName the replacement name.
+   * @return the modified stream.
+   */
+  private static byte[] renameClass(final byte[] bytes, final String oldName, final String newName) {
+    final byte[] oldBytes = utf(oldName), newBytes = utf(newName);
+    for (int i=0; i<=bytes.length - oldBytes.length; i++) {
+      if (Arrays.equals(oldBytes, Arrays.copyOfRange(bytes, i, i + oldBytes.length))) {
+        final byte[] result = new byte[bytes.length - oldBytes.length + newBytes.length];
+        System.arraycopy(bytes, 0, result, 0, i);
+        System.arraycopy(newBytes, 0, result, i, newBytes.length);
+        System.arraycopy(bytes, i + oldBytes.length, result, i + newBytes.length, bytes.length - i - oldBytes.length);
+        return result;
+      }
+    }
+    throw new IllegalStateException(oldName + " not found in the stream");
+  }
+
+  /**
+   * Encode a class name as it appears in a Java serialization stream: its length on 2 bytes, followed by its UTF-8 bytes.
+   * @param name the class name to encode.
+   * @return the encoded name.
+   */
+  private static byte[] utf(final String name) {
+    final byte[] chars = name.getBytes(StandardCharsets.UTF_8);
+    final byte[] result = new byte[chars.length + 2];
+    result[0] = (byte) (chars.length >>> 8);
+    result[1] = (byte) chars.length;
+    System.arraycopy(chars, 0, result, 2, chars.length);
+    return result;
+  }
+
+  /**
+   * Has the same serialized form as the job results in previous versions.
+   */
+  public static class LegacyJobResults implements Serializable {
+    /**
+     * Explicit serialVersionUID.
+     */
+    private static final long serialVersionUID = 1L;
+    /**
+     * The results, mapped to their position.
+     */
+    private final SortedMap<Integer, Task<?>> resultMap = new TreeMap<>();
+    /**
+     * The name of the job.
+     */
+    private String jobName = "legacy";
+  }
+}
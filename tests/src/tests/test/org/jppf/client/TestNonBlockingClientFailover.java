@@ -0,0 +1,86 @@
+/*
+ * JPPF.
+ * Copyright (C) 2005-2019 JPPF Team.
+ * http://www.jppf.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package test.org.jppf.client;
+
+import static org.junit.Assert.*;
+
+import java.util.*;
+
+import org.jppf.client.*;
+import org.jppf.job.JobEventType;
+import org.jppf.management.JMXDriverConnectionWrapper;
+import org.jppf.node.protocol.Task;
+import org.jppf.utils.*;
+import org.junit.*;
+
+import test.org.jppf.test.setup.*;
+import test.org.jppf.test.setup.common.*;
+
+/**
+ * Test the failover of jobs submitted over non-blocking client connections.
+ * The client is connected to 2 drivers with 1 node each, and sends its jobs to the driver with the highest priority
+ * until it is shut down, then to the other driver.
+ * @author Laurent Cohen
+ */
+public class TestNonBlockingClientFailover extends AbstractNonStandardSetup {
+  /**
+   * Launches 2 drivers with 1 node attached to each and start the client.
+   * @throws Exception if a process could not be started.
+   */
+  @BeforeClass
+  public static void setup() throws Exception {
+    final TestConfiguration config = createConfig("client_nio");
+    client = BaseSetup.setup(2, 2, true, true, config);
+    final List<JPPFConnectionPool> pools = client.awaitConnectionPools(Operator.EQUAL, 2, Operator.EQUAL, 1, 5000L, JPPFClientConnectionStatus.ACTIVE);
+    assertEquals(2, pools.size());
+  }
+
+  /**
+   * Submit concurrent jobs, which are multiplexed over the connection to the first driver, and shut down this driver while the jobs
+   * are executing. Check that the jobs still queued or awaiting results are resubmitted to the other driver, and complete with all their results.
+   * @throws Exception if any error occurs.
+   */
+  @Test(timeout = 30_000L)
+  public void testFailover() throws Exception {
+    final int nbJobs = 5, nbTasks = 10;
+    final String name = ReflectionUtils.getCurrentMethodName();
+    final List<JPPFJob> jobs = new ArrayList<>(nbJobs);
+    try (final JMXDriverConnectionWrapper jmx = new JMXDriverConnectionWrapper("localhost", DRIVER_MANAGEMENT_PORT_BASE + 1, false)) {
+      assertTrue(jmx.connectAndWait(5_000L));
+      final AwaitJobNotificationListener listener = new AwaitJobNotificationListener(jmx, JobEventType.JOB_DISPATCHED);
+      for (int i=1; i<=nbJobs; i++) jobs.add(client.submitAsync(BaseTestHelper.createJob(name + '-' + i, false, nbTasks, LifeCycleTask.class, 100L)));
+      print(false, false, "awaiting JOB_DISPATCHED notification");
+      listener.await();
+      print(false, false, "shutting down the first driver");
+      jmx.restartShutdown(100L, 5_000L);
+    }
+    int n2Count = 0;
+    for (final JPPFJob job: jobs) {
+      final List<Task<?>> results = job.awaitResults();
+      assertNotNull(results);
+      assertEquals(nbTasks, results.size());
+      for (final Task<?> task: results) {
+        assertTrue(task instanceof LifeCycleTask);
+        assertNotNull(task.getId(), task.getResult());
+        if ("n2".equals(((LifeCycleTask) task).getNodeUuid())) n2Count++;
+      }
+    }
+    assertTrue("no task was executed on the second driver", n2Count > 0);
+  }
+}
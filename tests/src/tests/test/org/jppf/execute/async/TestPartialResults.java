@@ -0,0 +1,227 @@
+/*
+ * JPPF.
+ * Copyright (C) 2005-2019 JPPF Team.
+ * http://www.jppf.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package test.org.jppf.execute.async;
+
+import static org.junit.Assert.*;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+import org.jppf.execute.async.*;
+import org.jppf.node.protocol.*;
+import org.jppf.utils.TypedProperties;
+import org.jppf.utils.configuration.JPPFProperties;
+import org.junit.*;
+
+import test.org.jppf.test.setup.BaseTest;
+
+/**
+ * Unit tests for the results sent by the execution manager while other tasks of the same bundle are still executing.
+ * @author Laurent Cohen
+ */
+public class TestPartialResults extends BaseTest {
+  /**
+   * The execution manager to test.
+   */
+  private TestExecutionManager manager;
+  /**
+   * Receives the partial results.
+   */
+  private final BlockingQueue<List<Task<?>>> partialResults = new LinkedBlockingQueue<>();
+  /**
+   * Receives the final results.
+   */
+  private final BlockingQueue<List<Task<?>>> finalResults = new LinkedBlockingQueue<>();
+
+  /**
+   * Shutdown the execution manager.
+   * @throws Exception if any error occurs.
+   */
+  @After
+  public void shutdownManager() throws Exception {
+    if (manager != null) manager.shutdown();
+  }
+
+  /**
+   * Test that the results are sent in batches of the configured size, and that the final results only include the remaining tasks.
+   * @throws Exception if any error occurs.
+   */
+  @Test(timeout = 10000)
+  public void testBatchSize() throws Exception {
+    createManager(2, 0L);
+    final TaskBundle bundle = createBundle(5);
+    final List<Task<?>> tasks = new ArrayList<>();
+    for (int i=0; i<5; i++) tasks.add(new MyTask(bundle, i, null));
+    manager.execute(new BundleWithTasks(bundle, tasks));
+    final List<Task<?>> finalTasks = finalResults.take();
+    assertEquals(2, partialResults.size());
+    final Set<Task<?>> received = Collections.newSetFromMap(new IdentityHashMap<>());
+    for (final List<Task<?>> batch: partialResults) {
+      assertEquals(2, batch.size());
+      received.addAll(batch);
+    }
+    assertEquals(1, finalTasks.size());
+    received.addAll(finalTasks);
+    assertEquals(5, received.size());
+    assertEquals(1, bundle.getTaskCount());
+    assertEquals(2, (int) bundle.getParameter(BundleParameter.PARTIAL_RESULTS_COUNT, 0));
+    final int[] positions = bundle.getParameter(BundleParameter.FINAL_RESULTS_POSITIONS);
+    assertNotNull(positions);
+    assertEquals(1, positions.length);
+    assertEquals(finalTasks.get(0).getPosition(), positions[0]);
+  }
+
+  /**
+   * Test that a result is sent when the time window has elapsed, even if the batch is not full.
+   * @throws Exception if any error occurs.
+   */
+  @Test(timeout = 10000)
+  public void testTimeWindow() throws Exception {
+    createManager(0, 100L);
+    final TaskBundle bundle = createBundle(2);
+    final CountDownLatch release = new CountDownLatch(1);
+    final MyTask task1 = new MyTask(bundle, 0, null), task2 = new MyTask(bundle, 1, release);
+    manager.execute(new BundleWithTasks(bundle, new ArrayList<>(Arrays.<Task<?>>asList(task1, task2))));
+    final List<Task<?>> batch = partialResults.take();
+    assertEquals(1, batch.size());
+    assertSame(task1, batch.get(0));
+    assertNull(finalResults.poll(100L, TimeUnit.MILLISECONDS));
+    release.countDown();
+    final List<Task<?>> finalTasks = finalResults.take();
+    assertEquals(1, finalTasks.size());
+    assertSame(task2, finalTasks.get(0));
+    assertTrue(partialResults.isEmpty());
+  }
+
+  /**
+   * Test that no partial result is sent when partial results are disabled.
+   * @throws Exception if any error occurs.
+   */
+  @Test(timeout = 10000)
+  public void testDisabled() throws Exception {
+    createManager(0, 0L);
+    final TaskBundle bundle = createBundle(3);
+    final List<Task<?>> tasks = new ArrayList<>();
+    for (int i=0; i<3; i++) tasks.add(new MyTask(bundle, i, null));
+    manager.execute(new BundleWithTasks(bundle, tasks));
+    assertEquals(3, finalResults.take().size());
+    assertTrue(partialResults.isEmpty());
+    assertEquals(3, bundle.getTaskCount());
+    assertNull(bundle.getParameter(BundleParameter.PARTIAL_RESULTS_COUNT));
+    assertNull(bundle.getParameter(BundleParameter.FINAL_RESULTS_POSITIONS));
+  }
+
+  /**
+   * Create the execution manager with a single processing thread.
+   * @param batchSize the maximum number of results in a partial result.
+   * @param window the time window of partial results in millis.
+   */
+  private void createManager(final int batchSize, final long window) {
+    final TypedProperties config = new TypedProperties()
+      .set(JPPFProperties.PROCESSING_THREADS, 1)
+      .set(JPPFProperties.NODE_PARTIAL_RESULTS_BATCH_SIZE, batchSize)
+      .set(JPPFProperties.NODE_PARTIAL_RESULTS_WINDOW, window);
+    manager = new TestExecutionManager(config);
+    manager.addExecutionManagerListener(new ExecutionManagerListener() {
+      @Override
+      public void bundleExecuted(final TaskBundle bundle, final List<Task<?>> tasks, final Throwable t) {
+        finalResults.offer(new ArrayList<>(tasks));
+      }
+
+      @Override
+      public void tasksExecuted(final TaskBundle bundle, final List<Task<?>> tasks) {
+        partialResults.offer(new ArrayList<>(tasks));
+      }
+    });
+  }
+
+  /**
+   * Create a bundle with the specified number of tasks.
+   * @param taskCount the number of tasks.
+   * @return a new {@link TaskBundle}.
+   */
+  private static TaskBundle createBundle(final int taskCount) {
+    final TaskBundle bundle = new JPPFTaskBundle();
+    bundle.setUuid(UUID.randomUUID().toString());
+    bundle.setName("partial");
+    bundle.setBundleId(1L);
+    bundle.setTaskCount(taskCount);
+    return bundle;
+  }
+
+  /**
+   * An execution manager which does not require a node.
+   */
+  private static class TestExecutionManager extends AbstractAsyncExecutionManager {
+    /**
+     * @param config the configuration to use.
+     */
+    private TestExecutionManager(final TypedProperties config) {
+      super(config, JPPFProperties.PROCESSING_THREADS);
+    }
+
+    @Override
+    protected JobProcessingEntry setup(final BundleWithTasks bundleWithTasks) {
+      final JobProcessingEntry jobEntry = new JobProcessingEntry();
+      jobEntry.bundle = bundleWithTasks.getBundle();
+      jobEntry.taskList = bundleWithTasks.getTasks();
+      jobEntry.taskWrapperList = new ArrayList<>();
+      return jobEntry;
+    }
+
+    @Override
+    protected void cleanup(final JobProcessingEntry jobEntry) {
+    }
+  }
+
+  /**
+   * A task which optionally waits until it is released.
+   */
+  private static class MyTask extends AbstractTask<String> {
+    /**
+     * Explicit serialVersionUID.
+     */
+    private static final long serialVersionUID = 1L;
+    /**
+     * Released to let the task complete, may be {@code null}.
+     */
+    private final transient CountDownLatch release;
+
+    /**
+     * @param bundle the bundle the task is a part of.
+     * @param position the position of the task in the bundle.
+     * @param release released to let the task complete, may be {@code null}.
+     */
+    private MyTask(final TaskBundle bundle, final int position, final CountDownLatch release) {
+      this.release = release;
+      setJob(bundle);
+      setPosition(position);
+    }
+
+    @Override
+    public void run() {
+      try {
+        if (release != null) release.await();
+        setResult("done");
+      } catch (final InterruptedException e) {
+        setThrowable(e);
+      }
+    }
+  }
+}
@@ -0,0 +1,209 @@
+/*
+ * JPPF.
+ * Copyright (C) 2005-2019 JPPF Team.
+ * http://www.jppf.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package test.org.jppf.execute.async;
+
+import static org.junit.Assert.*;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+import org.jppf.execute.async.*;
+import org.jppf.node.protocol.*;
+import org.jppf.utils.TypedProperties;
+import org.jppf.utils.configuration.JPPFProperties;
+import org.junit.*;
+
+import test.org.jppf.test.setup.BaseTest;
+
+/**
+ * Unit tests for the execution of tasks submitted while a bundle is still being received.
+ * @author Laurent Cohen
+ */
+public class TestStreamingExecution extends BaseTest {
+  /**
+   * The execution manager to test.
+   */
+  private TestExecutionManager manager;
+  /**
+   * Receives the notifications of completed bundles.
+   */
+  private final BlockingQueue<List<Task<?>>> results = new LinkedBlockingQueue<>();
+
+  /**
+   * Create the execution manager.
+   * @throws Exception if any error occurs.
+   */
+  @Before
+  public void setupManager() throws Exception {
+    manager = new TestExecutionManager();
+    manager.addExecutionManagerListener((bundle, tasks, t) -> results.offer(new ArrayList<>(tasks)));
+  }
+
+  /**
+   * Shutdown the execution manager.
+   * @throws Exception if any error occurs.
+   */
+  @After
+  public void shutdownManager() throws Exception {
+    if (manager != null) manager.shutdown();
+  }
+
+  /**
+   * Test that the results are only sent once the streaming has ended, even if all submitted tasks completed before.
+   * @throws Exception if any error occurs.
+   */
+  @Test(timeout = 10000)
+  public void testResultsSentAfterEndOfStreaming() throws Exception {
+    final TaskBundle bundle = createBundle(2);
+    final MyTask task1 = new MyTask(bundle, null), task2 = new MyTask(bundle, null);
+    final JobProcessingEntry jobEntry = manager.startStreaming(new BundleWithTasks(bundle, new ArrayList<>(Arrays.<Task<?>>asList(task1))));
+    task1.executed.await();
+    assertNull(results.poll(200L, TimeUnit.MILLISECONDS));
+    manager.submitStreamedTask(jobEntry, task2);
+    task2.executed.await();
+    assertNull(results.poll(200L, TimeUnit.MILLISECONDS));
+    manager.endStreaming(jobEntry, Arrays.<Task<?>>asList(task1, task2), null);
+    final List<Task<?>> tasks = results.take();
+    assertEquals(2, tasks.size());
+    assertSame(task1, tasks.get(0));
+    assertSame(task2, tasks.get(1));
+    assertEquals("done", task1.getResult());
+    assertEquals("done", task2.getResult());
+    assertNull(results.poll(200L, TimeUnit.MILLISECONDS));
+    assertEquals(0, manager.getNbBundles(bundle.getUuid()));
+  }
+
+  /**
+   * Test that the results are sent as soon as the last task completes when the streaming ended before.
+   * @throws Exception if any error occurs.
+   */
+  @Test(timeout = 10000)
+  public void testResultsSentAfterLastTask() throws Exception {
+    final TaskBundle bundle = createBundle(1);
+    final CountDownLatch release = new CountDownLatch(1);
+    final MyTask task = new MyTask(bundle, release);
+    final List<Task<?>> taskList = new ArrayList<>(Arrays.<Task<?>>asList(task));
+    final JobProcessingEntry jobEntry = manager.startStreaming(new BundleWithTasks(bundle, taskList));
+    manager.endStreaming(jobEntry, taskList, null);
+    assertNull(results.poll(200L, TimeUnit.MILLISECONDS));
+    release.countDown();
+    final List<Task<?>> tasks = results.take();
+    assertEquals(1, tasks.size());
+    assertEquals("done", task.getResult());
+  }
+
+  /**
+   * Test that the tasks are cancelled and the results discarded when the bundle could not be fully received.
+   * @throws Exception if any error occurs.
+   */
+  @Test(timeout = 10000)
+  public void testResultsDiscardedOnError() throws Exception {
+    final TaskBundle bundle = createBundle(2);
+    final MyTask task = new MyTask(bundle, new CountDownLatch(1));
+    final JobProcessingEntry jobEntry = manager.startStreaming(new BundleWithTasks(bundle, new ArrayList<>(Arrays.<Task<?>>asList(task))));
+    task.executed.await();
+    manager.endStreaming(jobEntry, Collections.<Task<?>>emptyList(), new Exception("connection lost"));
+    while (manager.getNbBundles(bundle.getUuid()) > 0) Thread.sleep(10L);
+    assertTrue(manager.cleanedUp);
+    assertNull(results.poll(200L, TimeUnit.MILLISECONDS));
+  }
+
+  /**
+   * Create a bundle with the specified number of tasks.
+   * @param taskCount the number of tasks.
+   * @return a new {@link TaskBundle}.
+   */
+  private static TaskBundle createBundle(final int taskCount) {
+    final TaskBundle bundle = new JPPFTaskBundle();
+    bundle.setUuid(UUID.randomUUID().toString());
+    bundle.setName("streaming");
+    bundle.setBundleId(1L);
+    bundle.setTaskCount(taskCount);
+    return bundle;
+  }
+
+  /**
+   * An execution manager which does not require a node.
+   */
+  private static class TestExecutionManager extends AbstractAsyncExecutionManager {
+    /**
+     * Whether the cleanup was performed.
+     */
+    private volatile boolean cleanedUp;
+
+    /**
+     * Initialize with 2 processing threads.
+     */
+    private TestExecutionManager() {
+      super(new TypedProperties().set(JPPFProperties.PROCESSING_THREADS, 2), JPPFProperties.PROCESSING_THREADS);
+    }
+
+    @Override
+    protected JobProcessingEntry setup(final BundleWithTasks bundleWithTasks) {
+      final JobProcessingEntry jobEntry = new JobProcessingEntry();
+      jobEntry.bundle = bundleWithTasks.getBundle();
+      jobEntry.taskList = bundleWithTasks.getTasks();
+      jobEntry.taskWrapperList = new ArrayList<>();
+      return jobEntry;
+    }
+
+    @Override
+    protected void cleanup(final JobProcessingEntry jobEntry) {
+      cleanedUp = true;
+    }
+  }
+
+  /**
+   * A task which optionally waits until it is released.
+   */
+  private static class MyTask extends AbstractTask<String> {
+    /**
+     * Explicit serialVersionUID.
+     */
+    private static final long serialVersionUID = 1L;
+    /**
+     * Counted down when the task starts executing.
+     */
+    private final transient CountDownLatch executed = new CountDownLatch(1);
+    /**
+     * Released to let the task complete, may be {@code null}.
+     */
+    private final transient CountDownLatch release;
+
+    /**
+     * @param bundle the bundle the task is a part of.
+     * @param release released to let the task complete, may be {@code null}.
+     */
+    private MyTask(final TaskBundle bundle, final CountDownLatch release) {
+      this.release = release;
+      setJob(bundle);
+    }
+
+    @Override
+    public void run() {
+      executed.countDown();
+      try {
+        if (release != null) release.await();
+        setResult("done");
+      } catch (final InterruptedException e) {
+        setThrowable(e);
+      }
+    }
+  }
+}
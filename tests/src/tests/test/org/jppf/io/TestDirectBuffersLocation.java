@@ -0,0 +1,127 @@
+/*
+ * JPPF.
+ * Copyright (C) 2005-2019 JPPF Team.
+ * http://www.jppf.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package test.org.jppf.io;
+
+import static org.junit.Assert.*;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.Pipe;
+
+import org.jppf.io.*;
+import org.jppf.utils.concurrent.ThreadUtils;
+import org.junit.Test;
+
+import test.org.jppf.test.setup.BaseTest;
+
+/**
+ * Unit tests for {@link DirectBuffersLocation}.
+ * @author Laurent Cohen
+ */
+public class TestDirectBuffersLocation extends BaseTest {
+  /**
+   * Test a blocking round trip through a direct buffers location and one of its copies.
+   * @throws Exception if any error occurs
+   */
+  @Test(timeout = 10000)
+  public void testBlockingTransfers() throws Exception {
+    final byte[] data = createData(3 * IO.TEMP_BUFFER_SIZE + 17);
+    final DirectBuffersLocation location = DirectBuffersLocation.create(data.length);
+    assertNotNull(location);
+    assertEquals(data.length, location.transferFrom(new StreamInputSource(new ByteArrayInputStream(data)), true));
+    final DataLocation copy = location.copy();
+    final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+    assertEquals(data.length, copy.transferTo(new StreamOutputDestination(baos), true));
+    assertArrayEquals(data, baos.toByteArray());
+    assertArrayEquals(data, readFully(location.getInputStream(), data.length));
+  }
+
+  /**
+   * Test a non-blocking read from a channel into a direct buffers location.
+   * @throws Exception if any error occurs
+   */
+  @Test(timeout = 10000)
+  public void testNonBlockingChannelRead() throws Exception {
+    final byte[] data = createData(5 * IO.TEMP_BUFFER_SIZE - 3);
+    final Pipe pipe = Pipe.open();
+    ThreadUtils.startDaemonThread(() -> {
+      try {
+        final ByteBuffer buf = ByteBuffer.wrap(data);
+        while (buf.hasRemaining()) pipe.sink().write(buf);
+      } catch (final Exception e) {
+        e.printStackTrace();
+      }
+    }, "PipeWriter");
+    final DirectBuffersLocation location = DirectBuffersLocation.create(data.length);
+    assertNotNull(location);
+    final InputSource source = new ChannelInputSource(pipe.source());
+    int count = 0;
+    while (count < data.length) {
+      final int n = location.transferFrom(source, false);
+      assertTrue(n >= 0);
+      count += n;
+    }
+    assertEquals(data.length, count);
+    assertArrayEquals(data, readFully(location.getInputStream(), data.length));
+  }
+
+  /**
+   * Test that writing beyond the size of the location through its output stream fails.
+   * @throws Exception if any error occurs
+   */
+  @Test(timeout = 10000, expected = EOFException.class)
+  public void testOutputStreamOverflow() throws Exception {
+    final DirectBuffersLocation location = DirectBuffersLocation.create(10);
+    assertNotNull(location);
+    try (final OutputStream os = location.getOutputStream()) {
+      os.write(new byte[11]);
+    }
+  }
+
+  /**
+   * Create an array of bytes with a recognizable content.
+   * @param size the size of the array.
+   * @return the created array.
+   */
+  private static byte[] createData(final int size) {
+    final byte[] data = new byte[size];
+    for (int i=0; i<size; i++) data[i] = (byte) (i * 31);
+    return data;
+  }
+
+  /**
+   * Read the specified number of bytes from the specified stream.
+   * @param is the stream to read from.
+   * @param size the number of bytes to read.
+   * @return the bytes read.
+   * @throws Exception if any error occurs
+   */
+  private static byte[] readFully(final InputStream is, final int size) throws Exception {
+    final byte[] result = new byte[size];
+    int count = 0;
+    while (count < size) {
+      final int n = is.read(result, count, size - count);
+      if (n < 0) break;
+      count += n;
+    }
+    assertEquals(size, count);
+    assertEquals(-1, is.read());
+    return result;
+  }
+}
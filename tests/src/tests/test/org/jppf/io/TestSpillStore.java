@@ -0,0 +1,190 @@
+/*
+ * JPPF.
+ * Copyright (C) 2005-2019 JPPF Team.
+ * http://www.jppf.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package test.org.jppf.io;
+
+import static org.junit.Assert.*;
+
+import java.io.*;
+
+import org.jppf.io.*;
+import org.jppf.utils.FileUtils;
+import org.jppf.utils.concurrent.ConcurrentUtils;
+import org.junit.*;
+
+import test.org.jppf.test.setup.BaseTest;
+
+/**
+ * Unit tests for {@link SpillStore} and {@link SpillDataLocation}.
+ * Regions are given back to the store when their locations are garbage-collected, so the tests drop their references to the locations to free them.
+ * @author Laurent Cohen
+ */
+public class TestSpillStore extends BaseTest {
+  /**
+   * Number of allocation blocks in the store's single segment.
+   */
+  private static final int NB_BLOCKS = 8;
+  /**
+   * The allocation granularity of the store.
+   */
+  private static int blockSize;
+  /**
+   * The store to test.
+   */
+  private SpillStore store;
+
+  /**
+   * Determine the allocation granularity of the store.
+   * @throws Exception if any error occurs.
+   */
+  @BeforeClass
+  public static void setupBlockSize() throws Exception {
+    final SpillStore store = new SpillStore(FileUtils.getJPPFTempDir(), 1024 * 1024, 1);
+    final DataLocation location = store.allocate(1);
+    assertNotNull(location);
+    blockSize = (int) store.getAllocatedSize();
+    assertTrue(blockSize > 1);
+  }
+
+  /**
+   * Create a store with a single segment of {@link #NB_BLOCKS} blocks.
+   * @throws Exception if any error occurs.
+   */
+  @Before
+  public void createStore() throws Exception {
+    store = new SpillStore(FileUtils.getJPPFTempDir(), NB_BLOCKS * blockSize, 1);
+  }
+
+  /**
+   * Allocate and free regions in interleaved order, and check that adjacent free regions are merged and reused,
+   * without altering the content of the regions which are still allocated.
+   * @throws Exception if any error occurs.
+   */
+  @Test(timeout = 15000L)
+  public void testAllocateAndFree() throws Exception {
+    final DataLocation[] locations = new DataLocation[NB_BLOCKS];
+    for (int i=0; i<NB_BLOCKS; i++) locations[i] = allocateAndWrite(blockSize, i);
+    assertNull("the store should be full", store.allocate(1));
+    // free two regions separated by an allocated one
+    locations[1] = locations[3] = null;
+    awaitAllocatedSize(NB_BLOCKS - 2);
+    assertNull("two non-adjacent free blocks should not be merged", store.allocate(2 * blockSize));
+    // free the region in between: it must be merged with the regions on both sides
+    locations[2] = null;
+    awaitAllocatedSize(NB_BLOCKS - 3);
+    final DataLocation merged = allocateAndWrite(3 * blockSize, 100);
+    // free a region, then the one just before it
+    locations[6] = null;
+    awaitAllocatedSize(NB_BLOCKS - 1);
+    locations[5] = null;
+    awaitAllocatedSize(NB_BLOCKS - 2);
+    final DataLocation merged2 = allocateAndWrite(2 * blockSize, 101);
+    assertNull("the store should be full", store.allocate(1));
+    for (final int i: new int[] { 0, 4, 7 }) checkContent(locations[i], i);
+    checkContent(merged, 100);
+    checkContent(merged2, 101);
+  }
+
+  /**
+   * Check that once all the regions are freed, the whole segment is available again as a single region.
+   * @throws Exception if any error occurs.
+   */
+  @Test(timeout = 15000L)
+  public void testFreeAll() throws Exception {
+    final DataLocation[] locations = new DataLocation[NB_BLOCKS];
+    for (int i=0; i<NB_BLOCKS; i++) locations[i] = allocateAndWrite(blockSize, i);
+    for (final int i: new int[] { 6, 0, 3, 7, 1, 5, 2, 4 }) locations[i] = null;
+    awaitAllocatedSize(0);
+    final DataLocation all = allocateAndWrite(NB_BLOCKS * blockSize, 200);
+    assertNull("the store should be full", store.allocate(1));
+    checkContent(all, 200);
+  }
+
+  /**
+   * Check the content of locations whose size is not a multiple of the block size, and of their copies.
+   * @throws Exception if any error occurs.
+   */
+  @Test(timeout = 15000L)
+  public void testReadBack() throws Exception {
+    final int[] sizes = { 1, blockSize - 1, blockSize + 1, 2 * blockSize };
+    final DataLocation[] locations = new DataLocation[sizes.length];
+    for (int i=0; i<sizes.length; i++) {
+      locations[i] = allocateAndWrite(sizes[i], i);
+      assertEquals(sizes[i], locations[i].getSize());
+    }
+    assertEquals(6 * blockSize, store.getAllocatedSize());
+    for (int i=0; i<sizes.length; i++) {
+      checkContent(locations[i], i);
+      final DataLocation copy = locations[i].copy();
+      assertEquals(sizes[i], copy.getSize());
+      checkContent(copy, i);
+    }
+    assertNull("a location larger than a segment cannot be allocated", store.allocate(NB_BLOCKS * blockSize + 1));
+  }
+
+  /**
+   * Allocate a location and fill it with data derived from the specified seed.
+   * @param size the size of the location.
+   * @param seed the seed of the data.
+   * @return the allocated location.
+   * @throws Exception if any error occurs.
+   */
+  private DataLocation allocateAndWrite(final int size, final int seed) throws Exception {
+    final DataLocation location = store.allocate(size);
+    assertNotNull("could not allocate " + size + " bytes in " + store, location);
+    try (final OutputStream os = location.getOutputStream()) {
+      for (int i=0; i<size; i++) os.write(valueAt(seed, i));
+    }
+    return location;
+  }
+
+  /**
+   * Check that the specified location holds the data derived from the specified seed.
+   * @param location the location to check.
+   * @param seed the seed of the data.
+   * @throws Exception if any error occurs.
+   */
+  private static void checkContent(final DataLocation location, final int seed) throws Exception {
+    try (final InputStream is = location.getInputStream()) {
+      for (int i=0; i<location.getSize(); i++) assertEquals("wrong byte at index " + i + " in " + location, valueAt(seed, i), is.read());
+    }
+  }
+
+  /**
+   * Compute the byte value at the specified index in the data derived from the specified seed.
+   * @param seed the seed of the data.
+   * @param index the index of the byte.
+   * @return a byte value in the range [0, 255].
+   */
+  private static int valueAt(final int seed, final int index) {
+    return (31 * seed + index) & 0xFF;
+  }
+
+  /**
+   * Wait until the regions of the unreferenced locations are given back to the store and its allocated size reaches the expected number of blocks.
+   * @param nbBlocks the expected number of allocated blocks.
+   * @throws Exception if any error occurs.
+   */
+  private void awaitAllocatedSize(final int nbBlocks) throws Exception {
+    final long expected = (long) nbBlocks * blockSize;
+    ConcurrentUtils.awaitCondition(() -> {
+      System.gc();
+      return store.getAllocatedSize() == expected;
+    }, 10_000L, 10L, true);
+  }
+}
@@ -0,0 +1,267 @@
+/*
+ * JPPF.
+ * Copyright (C) 2005-2019 JPPF Team.
+ * http://www.jppf.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package test.org.jppf.job.persistence;
+
+import static org.junit.Assert.*;
+
+import java.io.*;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+import org.jppf.io.MultipleBuffersLocation;
+import org.jppf.job.persistence.*;
+import org.jppf.job.persistence.impl.SegmentLogPersistence;
+import org.jppf.utils.DeleteFileVisitor;
+import org.junit.*;
+
+import test.org.jppf.test.setup.BaseTest;
+
+/**
+ * Unit tests for {@link SegmentLogPersistence}.
+ * @author Laurent Cohen
+ */
+public class TestSegmentLogPersistence extends BaseTest {
+  /**
+   * The root directory of the persistence.
+   */
+  private static final Path ROOT = Paths.get("segment_log_persistence");
+
+  /**
+   * Delete the persistence root directory.
+   * @throws Exception if any error occurs.
+   */
+  @Before
+  @After
+  public void cleanup() throws Exception {
+    if (Files.exists(ROOT)) Files.walkFileTree(ROOT, new DeleteFileVisitor());
+  }
+
+  /**
+   * Test storing and loading job elements, including after the persistence is re-created from the same directory.
+   * @throws Exception if any error occurs.
+   */
+  @Test(timeout = 10000)
+  public void testStoreAndReload() throws Exception {
+    final String uuid = "job1";
+    JobPersistence persistence = new SegmentLogPersistence(ROOT.toString());
+    assertFalse(persistence.isJobPersisted(uuid));
+    persistence.store(Arrays.asList(info(uuid, PersistenceObjectType.JOB_HEADER, -1, "header"), info(uuid, PersistenceObjectType.DATA_PROVIDER, -1, "dp")));
+    final List<PersistenceInfo> tasks = new ArrayList<>();
+    for (int i=0; i<10; i++) tasks.add(info(uuid, PersistenceObjectType.TASK, i, "task-" + i));
+    persistence.store(tasks);
+    persistence.store(Arrays.asList(info(uuid, PersistenceObjectType.TASK_RESULT, 3, "result-3"), info(uuid, PersistenceObjectType.TASK_RESULT, 7, "result-7")));
+    persistence.store(Arrays.asList(info(uuid, PersistenceObjectType.JOB_HEADER, -1, "header2")));
+    for (int n=0; n<2; n++) {
+      assertTrue(persistence.isJobPersisted(uuid));
+      assertEquals(Arrays.asList(uuid), persistence.getPersistedJobUuids());
+      assertArrayEquals(new int[] {0, 1, 2, 3, 4, 5, 6, 7, 8, 9}, persistence.getTaskPositions(uuid));
+      assertArrayEquals(new int[] {3, 7}, persistence.getTaskResultPositions(uuid));
+      assertEquals(Arrays.asList("header2", "dp", "task-5", "result-7"), load(persistence, uuid, PersistenceObjectType.JOB_HEADER, -1,
+        PersistenceObjectType.DATA_PROVIDER, -1, PersistenceObjectType.TASK, 5, PersistenceObjectType.TASK_RESULT, 7));
+      // the job is replayed from its segments by a new instance
+      persistence = new SegmentLogPersistence(ROOT.toString());
+    }
+    persistence.deleteJob(uuid);
+    assertFalse(persistence.isJobPersisted(uuid));
+    assertTrue(persistence.getPersistedJobUuids().isEmpty());
+    assertEquals(0, persistence.getTaskPositions(uuid).length);
+  }
+
+  /**
+   * Test that an incomplete record at the end of a segment is discarded when the job is replayed.
+   * @throws Exception if any error occurs.
+   */
+  @Test(timeout = 10000)
+  public void testIncompleteRecord() throws Exception {
+    final String uuid = "job2";
+    JobPersistence persistence = new SegmentLogPersistence(ROOT.toString());
+    persistence.store(Arrays.asList(info(uuid, PersistenceObjectType.JOB_HEADER, -1, "header"), info(uuid, PersistenceObjectType.TASK, 0, "task-0")));
+    persistence.store(Arrays.asList(info(uuid, PersistenceObjectType.TASK, 1, "task-1")));
+    final Path segment = ROOT.resolve(uuid).resolve("segment-0.log");
+    // simulate a crash in the middle of writing the last record
+    try (final FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+      channel.truncate(channel.size() - 3);
+    }
+    persistence = new SegmentLogPersistence(ROOT.toString());
+    assertArrayEquals(new int[] {0}, persistence.getTaskPositions(uuid));
+    persistence.store(Arrays.asList(info(uuid, PersistenceObjectType.TASK, 2, "task-2")));
+    persistence = new SegmentLogPersistence(ROOT.toString());
+    assertArrayEquals(new int[] {0, 2}, persistence.getTaskPositions(uuid));
+    assertEquals(Arrays.asList("header", "task-2"), load(persistence, uuid, PersistenceObjectType.JOB_HEADER, -1, PersistenceObjectType.TASK, 2));
+  }
+
+  /**
+   * Test that the log of a job is compacted once the results supersede the tasks, and that it can still be replayed.
+   * @throws Exception if any error occurs.
+   */
+  @Test(timeout = 20000)
+  public void testCompaction() throws Exception {
+    final String uuid = "job3";
+    final int nbTasks = 40;
+    final String padding = new String(new char[64 * 1024]).replace('\0', 'x');
+    JobPersistence persistence = new SegmentLogPersistence(ROOT.toString(), "1");
+    persistence.store(Arrays.asList(info(uuid, PersistenceObjectType.JOB_HEADER, -1, "header")));
+    for (int i=0; i<nbTasks; i++) persistence.store(Arrays.asList(info(uuid, PersistenceObjectType.TASK, i, "task-" + i + padding)));
+    final long sizeBefore = directorySize(ROOT.resolve(uuid));
+    for (int i=0; i<nbTasks - 1; i++) persistence.store(Arrays.asList(info(uuid, PersistenceObjectType.TASK_RESULT, i, "result-" + i)));
+    // wait for the background compaction
+    final long timeout = System.currentTimeMillis() + 10_000L;
+    while ((directorySize(ROOT.resolve(uuid)) >= sizeBefore / 2L) && (System.currentTimeMillis() < timeout)) Thread.sleep(50L);
+    assertTrue(directorySize(ROOT.resolve(uuid)) < sizeBefore / 2L);
+    for (int n=0; n<2; n++) {
+      assertEquals(nbTasks, persistence.getTaskPositions(uuid).length);
+      assertEquals(nbTasks - 1, persistence.getTaskResultPositions(uuid).length);
+      final int last = nbTasks - 1;
+      assertEquals(Arrays.asList("header", "task-" + last + padding, "result-5"), load(persistence, uuid, PersistenceObjectType.JOB_HEADER, -1,
+        PersistenceObjectType.TASK, last, PersistenceObjectType.TASK_RESULT, 5));
+      persistence = new SegmentLogPersistence(ROOT.toString(), "1");
+    }
+  }
+
+  /**
+   * Test that all the reported task positions of a compacted job can be loaded, as done when a client retrieves a persisted job.
+   * Tasks whose data was discarded by the compaction are loaded as their result.
+   * @throws Exception if any error occurs.
+   */
+  @Test(timeout = 20000)
+  public void testLoadAllTasksAfterCompaction() throws Exception {
+    final String uuid = "job5";
+    final int nbTasks = 40;
+    final String padding = new String(new char[64 * 1024]).replace('\0', 'x');
+    JobPersistence persistence = new SegmentLogPersistence(ROOT.toString(), "1");
+    persistence.store(Arrays.asList(info(uuid, PersistenceObjectType.JOB_HEADER, -1, "header")));
+    persistence.store(Arrays.asList(info(uuid, PersistenceObjectType.DATA_PROVIDER, -1, "dp")));
+    for (int i=0; i<nbTasks; i++) persistence.store(Arrays.asList(info(uuid, PersistenceObjectType.TASK, i, "task-" + i + padding)));
+    final long sizeBefore = directorySize(ROOT.resolve(uuid));
+    for (int i=0; i<nbTasks; i+=2) persistence.store(Arrays.asList(info(uuid, PersistenceObjectType.TASK_RESULT, i, "result-" + i)));
+    for (int i=1; i<nbTasks - 1; i+=2) persistence.store(Arrays.asList(info(uuid, PersistenceObjectType.TASK_RESULT, i, "result-" + i)));
+    final long timeout = System.currentTimeMillis() + 10_000L;
+    while ((directorySize(ROOT.resolve(uuid)) >= sizeBefore / 2L) && (System.currentTimeMillis() < timeout)) Thread.sleep(50L);
+    assertTrue(directorySize(ROOT.resolve(uuid)) < sizeBefore / 2L);
+    for (int n=0; n<2; n++) {
+      // same requests as JPPFDriverJobPersistence.retrieveJob(): the data provider, all the task positions, then all the result positions
+      final int[] taskPositions = persistence.getTaskPositions(uuid), resultPositions = persistence.getTaskResultPositions(uuid);
+      assertEquals(nbTasks, taskPositions.length);
+      assertEquals(nbTasks - 1, resultPositions.length);
+      Arrays.sort(taskPositions);
+      Arrays.sort(resultPositions);
+      final List<Object> request = new ArrayList<>(Arrays.asList(PersistenceObjectType.DATA_PROVIDER, -1));
+      for (final int pos: taskPositions) request.addAll(Arrays.asList(PersistenceObjectType.TASK, pos));
+      for (final int pos: resultPositions) request.addAll(Arrays.asList(PersistenceObjectType.TASK_RESULT, pos));
+      final List<String> loaded = load(persistence, uuid, request.toArray());
+      assertEquals(1 + taskPositions.length + resultPositions.length, loaded.size());
+      assertEquals("dp", loaded.get(0));
+      // a task whose result was persisted after the last compaction still has its own data
+      int nbSuperseded = 0;
+      for (int i=0; i<nbTasks - 1; i++) {
+        final String task = loaded.get(1 + i);
+        if (task.equals("result-" + i)) nbSuperseded++;
+        else assertTrue("unexpected data for task " + i, task.equals("task-" + i + padding));
+      }
+      assertTrue(nbSuperseded > 0);
+      assertTrue(loaded.get(nbTasks).equals("task-" + (nbTasks - 1) + padding));
+      for (int i=0; i<nbTasks - 1; i++) assertEquals("result-" + i, loaded.get(1 + nbTasks + i));
+      persistence = new SegmentLogPersistence(ROOT.toString(), "1");
+    }
+  }
+
+  /**
+   * Test concurrent store operations on the same job.
+   * @throws Exception if any error occurs.
+   */
+  @Test(timeout = 20000)
+  public void testConcurrentStores() throws Exception {
+    final String uuid = "job4";
+    final int nbThreads = 8, nbTasksPerThread = 50;
+    final JobPersistence persistence = new SegmentLogPersistence(ROOT.toString());
+    persistence.store(Arrays.asList(info(uuid, PersistenceObjectType.JOB_HEADER, -1, "header")));
+    final ExecutorService executor = Executors.newFixedThreadPool(nbThreads);
+    try {
+      final List<Future<?>> futures = new ArrayList<>();
+      for (int t=0; t<nbThreads; t++) {
+        final int start = t * nbTasksPerThread;
+        futures.add(executor.submit(() -> {
+          for (int i=start; i<start + nbTasksPerThread; i++) persistence.store(Arrays.asList(info(uuid, PersistenceObjectType.TASK, i, "task-" + i)));
+          return null;
+        }));
+      }
+      for (final Future<?> future: futures) future.get();
+    } finally {
+      executor.shutdownNow();
+    }
+    final int[] positions = new SegmentLogPersistence(ROOT.toString()).getTaskPositions(uuid);
+    assertEquals(nbThreads * nbTasksPerThread, positions.length);
+    assertEquals(Arrays.asList("task-123"), load(persistence, uuid, PersistenceObjectType.TASK, 123));
+  }
+
+  /**
+   * Create a persistence information object for the specified data.
+   * @param uuid the job uuid.
+   * @param type the type of job element.
+   * @param position the position of the task or result.
+   * @param data the data to persist.
+   * @return a {@link PersistenceInfo} instance.
+   */
+  private static PersistenceInfo info(final String uuid, final PersistenceObjectType type, final int position, final String data) {
+    return new PersistenceInfoImpl(uuid, null, type, position, new MultipleBuffersLocation(data.getBytes()));
+  }
+
+  /**
+   * Load the specified job elements as strings.
+   * @param persistence the persistence to load from.
+   * @param uuid the job uuid.
+   * @param typesAndPositions alternating types of job elements and their positions.
+   * @return the loaded elements.
+   * @throws Exception if any error occurs.
+   */
+  private static List<String> load(final JobPersistence persistence, final String uuid, final Object...typesAndPositions) throws Exception {
+    final List<PersistenceInfo> infos = new ArrayList<>();
+    for (int i=0; i<typesAndPositions.length; i+=2) infos.add(new PersistenceInfoImpl(uuid, null, (PersistenceObjectType) typesAndPositions[i], (Integer) typesAndPositions[i + 1], null));
+    final List<String> result = new ArrayList<>();
+    for (final InputStream is: persistence.load(infos)) {
+      final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+      int n;
+      while ((n = is.read()) >= 0) baos.write(n);
+      result.add(new String(baos.toByteArray()));
+    }
+    return result;
+  }
+
+  /**
+   * Compute the total size of the files in a directory.
+   * @param dir the directory.
+   * @return the size in bytes.
+   * @throws Exception if any error occurs.
+   */
+  private static long directorySize(final Path dir) throws Exception {
+    long size = 0L;
+    try (final DirectoryStream<Path> ds = Files.newDirectoryStream(dir)) {
+      for (final Path path: ds) {
+        try {
+          size += Files.size(path);
+        } catch (@SuppressWarnings("unused") final NoSuchFileException e) {
+          // the file was deleted by a compaction
+        }
+      }
+    }
+    return size;
+  }
+}
@@ -0,0 +1,129 @@
+/*
+ * JPPF.
+ * Copyright (C) 2005-2019 JPPF Team.
+ * http://www.jppf.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package test.org.jppf.load.balancer;
+
+import static org.junit.Assert.*;
+
+import java.io.*;
+
+import org.jppf.load.balancer.BundlerHelper;
+import org.jppf.load.balancer.impl.*;
+import org.jppf.node.protocol.*;
+import org.jppf.utils.TypedProperties;
+import org.junit.Test;
+
+import test.org.jppf.test.setup.BaseTest;
+
+/**
+ * Unit tests for the {@link CostModelBundler}.
+ * @author Laurent Cohen
+ */
+public class TestCostModelBundler extends BaseTest {
+  /**
+   * Test that the bundle sizes of jobs with very different task durations, executed alternately on the same node,
+   * each match the target round-trip time.
+   * @throws Exception if any error occurs.
+   */
+  @Test(timeout = 5000L)
+  public void testAlternatingJobs() throws Exception {
+    final CostModelBundler bundler = new CostModelBundler(createProfile(new TypedProperties()));
+    final TaskBundle shortJob = createJob("short", 1000), longJob = createJob("long", 1000);
+    bundler.setJob(shortJob);
+    assertEquals(5, bundler.getBundleSize());
+    for (int i=0; i<10; i++) {
+      // 1 ms and 50 ms per task, with a target of 100 ms
+      BundlerHelper.updateBundler(bundler, shortJob, 20, 20 * 1_000_000d);
+      BundlerHelper.updateBundler(bundler, longJob, 20, 20 * 50_000_000d);
+      bundler.setJob(shortJob);
+      assertEquals(100, bundler.getBundleSize());
+      bundler.setJob(longJob);
+      assertEquals(2, bundler.getBundleSize());
+    }
+    bundler.setJob(createJob("unknown", 1000));
+    assertEquals(5, bundler.getBundleSize());
+    // the size is capped by the number of tasks in the job
+    bundler.setJob(createJob("short", 40));
+    assertEquals(40, bundler.getBundleSize());
+  }
+
+  /**
+   * Test that jobs with the same value of the configured metadata share the same estimate,
+   * and that the least recently used estimates are evicted.
+   * @throws Exception if any error occurs.
+   */
+  @Test(timeout = 5000L)
+  public void testMetadataKeyAndEviction() throws Exception {
+    final CostModelBundler bundler = new CostModelBundler(createProfile(new TypedProperties().setString("metadataKey", "kind").setInt("estimateCacheSize", 2)));
+    final TaskBundle job1 = createJob("job1", 1000), job2 = createJob("job2", 1000);
+    job1.getMetadata().setParameter("kind", "render");
+    job2.getMetadata().setParameter("kind", "render");
+    bundler.feedback(job1, 10, 10 * 10_000_000d);
+    bundler.setJob(job2);
+    assertEquals(10, bundler.getBundleSize());
+    bundler.feedback(createJob("other1", 1000), 10, 10 * 1_000_000d);
+    bundler.feedback(createJob("other2", 1000), 10, 10 * 1_000_000d);
+    assertEquals(5, bundler.getBundleSize());
+  }
+
+  /**
+   * Test that the estimates are preserved by the persistence of the bundler state.
+   * @throws Exception if any error occurs.
+   */
+  @Test(timeout = 5000L)
+  public void testPersistentState() throws Exception {
+    final CostModelProfile profile = createProfile(new TypedProperties());
+    final CostModelBundler bundler = new CostModelBundler(profile);
+    final TaskBundle job = createJob("job", 1000);
+    bundler.feedback(job, 10, 10 * 4_000_000d);
+    final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+    try (final ObjectOutputStream out = new ObjectOutputStream(baos)) {
+      out.writeObject(bundler.getState());
+    }
+    final CostModelBundler restored = new CostModelBundler(profile);
+    try (final ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(baos.toByteArray()))) {
+      restored.setState(in.readObject());
+    }
+    restored.setJob(job);
+    assertEquals(25, restored.getBundleSize());
+  }
+
+  /**
+   * Create a profile with a target time of 100 ms, no relative size limit and the specified additional parameters.
+   * @param config the additional parameters.
+   * @return a {@link CostModelProfile} instance.
+   */
+  private static CostModelProfile createProfile(final TypedProperties config) {
+    return new CostModelProfile(config.setDouble("targetTime", 100d).setDouble("maxRelativeSize", 1d));
+  }
+
+  /**
+   * Create a job header with the specified name and number of tasks.
+   * @param name the name of the job.
+   * @param nbTasks the number of tasks in the job.
+   * @return a {@link TaskBundle} instance.
+   */
+  private static TaskBundle createJob(final String name, final int nbTasks) {
+    final TaskBundle job = new JPPFTaskBundle();
+    job.setName(name);
+    job.setTaskCount(nbTasks);
+    job.setMetadata(new JPPFJobMetadata());
+    return job;
+  }
+}
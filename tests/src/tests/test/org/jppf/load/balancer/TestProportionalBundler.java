@@ -0,0 +1,71 @@
+/*
+ * JPPF.
+ * Copyright (C) 2005-2019 JPPF Team.
+ * http://www.jppf.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package test.org.jppf.load.balancer;
+
+import static org.junit.Assert.*;
+
+import org.jppf.load.balancer.impl.*;
+import org.jppf.utils.TypedProperties;
+import org.junit.Test;
+
+import test.org.jppf.test.setup.BaseTest;
+
+/**
+ * Unit tests for the {@link ProportionalBundler}.
+ * @author Laurent Cohen
+ */
+public class TestProportionalBundler extends BaseTest {
+  /**
+   * Test that the bundle sizes are proportional to the inverse of the mean execution times, and that they are updated
+   * when the performance of a node changes or when a node is removed.
+   * @throws Exception if any error occurs.
+   */
+  @Test(timeout = 5000L)
+  public void testBundleSizes() throws Exception {
+    final ProportionalProfile profile = new ProportionalProfile(new TypedProperties());
+    final ProportionalBundler[] bundlers = new ProportionalBundler[3];
+    try {
+      for (int i=0; i<bundlers.length; i++) {
+        bundlers[i] = new ProportionalBundler(profile);
+        bundlers[i].setup();
+      }
+      // 1, 2 and 4 ms per task: the weights are in a 4:2:1 ratio, out of a max size of 300
+      for (int i=0; i<bundlers.length; i++) bundlers[i].feedback(10, 10 * (1_000_000d * (1 << i)));
+      assertEquals(171, bundlers[0].getBundleSize(), 1);
+      assertEquals(86, bundlers[1].getBundleSize(), 1);
+      assertEquals(43, bundlers[2].getBundleSize(), 1);
+      bundlers[2].dispose();
+      assertEquals(200, bundlers[0].getBundleSize(), 1);
+      assertEquals(100, bundlers[1].getBundleSize(), 1);
+      // the second node becomes as fast as the first one
+      final ProportionalBundler faster = new ProportionalBundler(profile);
+      faster.setup();
+      bundlers[2] = faster;
+      faster.feedback(10, 10 * 1_000_000d);
+      bundlers[1].dispose();
+      assertEquals(150, bundlers[0].getBundleSize(), 1);
+      assertEquals(150, faster.getBundleSize(), 1);
+    } finally {
+      for (final ProportionalBundler bundler: bundlers) {
+        if (bundler != null) bundler.dispose();
+      }
+    }
+  }
+}
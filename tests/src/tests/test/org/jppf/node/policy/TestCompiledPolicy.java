@@ -0,0 +1,180 @@
+/*
+ * JPPF.
+ * Copyright (C) 2005-2019 JPPF Team.
+ * http://www.jppf.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package test.org.jppf.node.policy;
+
+import static org.junit.Assert.*;
+
+import java.util.*;
+
+import org.jppf.management.JPPFSystemInformation;
+import org.jppf.node.policy.*;
+import org.jppf.utils.*;
+import org.junit.Test;
+
+import test.org.jppf.test.setup.BaseTest;
+
+/**
+ * Unit tests for {@link CompiledPolicy}.
+ * @author Laurent Cohen
+ */
+public class TestCompiledPolicy extends BaseTest {
+  /**
+   * Test that the compiled policies give the same results as the policies they were compiled from.
+   * @throws Exception if any error occurs.
+   */
+  @Test(timeout=5000)
+  public void testCompiledRules() throws Exception {
+    final Map<String, PropertiesCollection<String>> nodes = createNodes(20);
+    final ExecutionPolicy[] policies = {
+      new Equal("string", false, "value3"), new Equal("string", true, "VALUE3"), new Equal("int", 4), new Equal("int", -0d), new Equal("boolean", true),
+      new Equal("boolean", false), new Equal("missing", false, "x"), new MoreThan("int", 3), new AtLeast("int", 3), new AtMost("int", 0), new LessThan("int", 0),
+      new LessThan("missing", 2), new OneOf("int", 1, 3, 5), new OneOf("string", true, "VALUE1", "value2"), new OneOf("string", false, "value4", null),
+      new RegExp("string", "value[0-2]"), new Contains("string", true, "UE1"), new MoreThan("int", 1).and(new Contains("string", false, "1")),
+      new Equal("int", 1).or(new Equal("boolean", true)), new Equal("int", 2).not(), new MoreThan("int", 2).xor(new Equal("boolean", true)),
+      new AcceptAll().and(new RejectAll().not()),
+    };
+    for (final ExecutionPolicy policy: policies) {
+      final CompiledPolicy compiled = CompiledPolicy.compile(policy);
+      assertNotNull(policy.toString(), compiled);
+      for (final PropertiesCollection<String> info: nodes.values()) assertEquals(policy.toString(), policy.evaluate(info), compiled.evaluate(info));
+    }
+    assertNull(CompiledPolicy.compile(new Equal("int", 1).or(new OddPolicy())));
+    assertNull(CompiledPolicy.compile(new Equal("int", 1).and(new IsInIPv4Subnet("192.168.1.0/24"))));
+  }
+
+  /**
+   * Test that identical policies share the same compiled form.
+   * @throws Exception if any error occurs.
+   */
+  @Test(timeout=5000)
+  public void testSharedCompiledPolicy() throws Exception {
+    final CompiledPolicy compiled = CompiledPolicy.compile(new AtLeast("int", 2).and(new Equal("boolean", true)));
+    assertNotNull(compiled);
+    assertSame(compiled, CompiledPolicy.compile(new AtLeast("int", 2).and(new Equal("boolean", true))));
+    assertNotSame(compiled, CompiledPolicy.compile(new AtLeast("int", 3).and(new Equal("boolean", true))));
+  }
+
+  /**
+   * Test that the cached results are invalidated when the node information is modified.
+   * @throws Exception if any error occurs.
+   */
+  @Test(timeout=15000)
+  public void testCachedResults() throws Exception {
+    final JPPFSystemInformation info = new JPPFSystemInformation(new TypedProperties(), "node-uuid", false, true);
+    info.getJppf().setString("test.property", "a");
+    final CompiledPolicy compiled = CompiledPolicy.compile(new Equal("test.property", false, "a"));
+    assertNotNull(compiled);
+    assertTrue(compiled.evaluate(info));
+    // the cached result is used as long as the modification count does not change
+    info.getJppf().setString("test.property", "b");
+    assertTrue(compiled.evaluate(info));
+    info.incrementModificationCount();
+    assertFalse(compiled.evaluate(info));
+    // adding a set of properties also invalidates the cached results
+    info.getJppf().remove("test.property");
+    info.addProperties("test", new TypedProperties().setString("test.property", "a"));
+    assertTrue(compiled.evaluate(info));
+  }
+
+  /**
+   * Create the specified number of nodes.
+   * @param nbNodes the number of nodes to create.
+   * @return a mapping of node names to their attributes.
+   */
+  private static Map<String, PropertiesCollection<String>> createNodes(final int nbNodes) {
+    final Map<String, PropertiesCollection<String>> nodes = new LinkedHashMap<>();
+    for (int i=0; i<nbNodes; i++) nodes.put("node-" + i, createNode(i));
+    return nodes;
+  }
+
+  /**
+   * Create the attributes of a node.
+   * @param n the node number.
+   * @return the attributes of the node.
+   */
+  private static PropertiesCollection<String> createNode(final int n) {
+    final TypedProperties props = new TypedProperties().setInt("index", n).setString("string", "value" + (n % 5)).setBoolean("boolean", n % 3 == 0);
+    // a node with a value of -0.0, which is equal to 0.0 for numeric comparisons
+    if (n % 7 == 0) props.setString("int", "-0");
+    else if (n % 6 != 5) props.setInt("int", n % 6);
+    final TestProperties info = new TestProperties();
+    info.addProperties("test", props);
+    return info;
+  }
+
+  /**
+   * A policy which cannot be computed from the index, accepting the nodes with an odd index.
+   */
+  private static class OddPolicy extends CustomPolicy {
+    /**
+     * Explicit serialVersionUID.
+     */
+    private static final long serialVersionUID = 1L;
+
+    @Override
+    public boolean accepts(final PropertiesCollection<String> info) {
+      return Integer.valueOf(info.getProperty("index")) % 2 == 1;
+    }
+  }
+
+  /**
+   * A simple properties collection.
+   */
+  private static class TestProperties implements PropertiesCollection<String> {
+    /**
+     * Explicit serialVersionUID.
+     */
+    private static final long serialVersionUID = 1L;
+    /**
+     * The properties in this collection.
+     */
+    private final Map<String, TypedProperties> map = new LinkedHashMap<>();
+
+    @Override
+    public void addProperties(final String key, final TypedProperties properties) {
+      map.put(key, properties);
+    }
+
+    @Override
+    public TypedProperties getProperties(final String key) {
+      return map.get(key);
+    }
+
+    @Override
+    public TypedProperties[] getPropertiesArray() {
+      return map.values().toArray(new TypedProperties[map.size()]);
+    }
+
+    @Override
+    public String getProperty(final String name) {
+      for (final TypedProperties props: map.values()) {
+        if (props.containsKey(name)) return props.getProperty(name);
+      }
+      return null;
+    }
+
+    @Override
+    public boolean containsKey(final String name) {
+      for (final TypedProperties props: map.values()) {
+        if (props.containsKey(name)) return true;
+      }
+      return false;
+    }
+  }
+}
@@ -23,9 +23,12 @@ import static org.junit.Assert.*;
 import java.text.SimpleDateFormat;
 import java.time.*;
 import java.util.Date;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.jppf.scheduling.*;
 import org.jppf.utils.*;
+import org.jppf.utils.configuration.JPPFProperties;
 import org.junit.Test;
 
 import test.org.jppf.test.setup.BaseTest;
@@ -143,6 +146,66 @@ public class TestJPPFSchedule extends BaseTest {
     testCancelSchedule(new JPPFSchedule(Duration.ofMillis(BASE_TIMEOUT)));
   }
 
+  /**
+   * Test that many actions scheduled with the same delay all expire, except those which are cancelled.
+   * @throws Exception if any error occurs.
+   */
+  @Test(timeout=10000L)
+  public void testManySchedulesWithCancellation() throws Exception {
+    final int nbActions = 10_000;
+    final AtomicInteger count = new AtomicInteger(0);
+    final CountDownLatch latch = new CountDownLatch(nbActions / 2);
+    for (int i=0; i<nbActions; i++) {
+      handler.scheduleAction("key-" + i, new JPPFSchedule(BASE_TIMEOUT), () -> {
+        count.incrementAndGet();
+        latch.countDown();
+      });
+      // cancel right away, so the action cannot expire before it is cancelled, however long the scheduling loop takes
+      if (i % 2 == 0) handler.cancelAction("key-" + i);
+    }
+    latch.await();
+    Thread.sleep(BASE_TIMEOUT);
+    assertEquals(nbActions / 2, count.get());
+    for (int i=0; i<nbActions; i++) assertFalse(handler.hasAction("key-" + i));
+  }
+
+  /**
+   * Test that actions scheduled further than one turn of the timer wheel expire at the expected time.
+   * @throws Exception if any error occurs.
+   */
+  @Test(timeout=5000L)
+  public void testScheduleLongerThanWheelTurn() throws Exception {
+    final JPPFScheduleHandler smallWheelHandler;
+    try {
+      // one turn of the wheel lasts 4 * 5 = 20 ms
+      JPPFConfiguration.set(JPPFProperties.SCHEDULING_WHEEL_TICK, 5L).set(JPPFProperties.SCHEDULING_WHEEL_SIZE, 4);
+      smallWheelHandler = new JPPFScheduleHandler("SmallWheelTest");
+    } finally {
+      JPPFConfiguration.remove(JPPFProperties.SCHEDULING_WHEEL_TICK);
+      JPPFConfiguration.remove(JPPFProperties.SCHEDULING_WHEEL_SIZE);
+    }
+    try {
+      final long start = System.currentTimeMillis();
+      final long[] times = new long[3];
+      final CountDownLatch latch = new CountDownLatch(times.length);
+      for (int i=0; i<times.length; i++) {
+        final int n = i;
+        smallWheelHandler.scheduleAction("key-" + i, new JPPFSchedule((i + 1) * BASE_TIMEOUT), () -> {
+          times[n] = System.currentTimeMillis() - start;
+          latch.countDown();
+        }, start);
+      }
+      latch.await();
+      for (int i=0; i<times.length; i++) {
+        print(false, false, "expected time: %,d, measured time: %,d", (i + 1) * BASE_TIMEOUT, times[i]);
+        assertCompare(Operator.AT_LEAST, (i + 1) * BASE_TIMEOUT, times[i]);
+        assertCompare(Operator.AT_MOST, (i + 1) * BASE_TIMEOUT + MAX_ERROR, times[i]);
+      }
+    } finally {
+      smallWheelHandler.clear(true);
+    }
+  }
+
   /**
    * Test that the specified schedule expires at the expected time.
    * @param schedule the schedule to test.
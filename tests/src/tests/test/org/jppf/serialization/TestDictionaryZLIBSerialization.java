@@ -0,0 +1,156 @@
+/*
+ * JPPF.
+ * Copyright (C) 2005-2019 JPPF Team.
+ * http://www.jppf.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package test.org.jppf.serialization;
+
+import static org.junit.Assert.*;
+
+import java.io.*;
+import java.util.*;
+import java.util.zip.ZipException;
+
+import org.jppf.serialization.*;
+import org.jppf.utils.JPPFConfiguration;
+import org.jppf.utils.configuration.JPPFProperties;
+import org.junit.*;
+
+import test.org.jppf.test.setup.BaseTest;
+
+/**
+ * Unit tests for the {@link DictionaryZLIBSerialization} composite serialization and the {@link CompressionDictionary} class.
+ * @author Laurent Cohen
+ */
+public class TestDictionaryZLIBSerialization extends BaseTest {
+  /**
+   * Restore the default serialization and dictionary.
+   */
+  @After
+  public void cleanup() {
+    JPPFConfiguration.remove(JPPFProperties.OBJECT_SERIALIZATION_CLASS);
+    JPPFSerialization.Factory.reset();
+    CompressionDictionary.setDefault(null);
+  }
+
+  /**
+   * Test that small objects are copied accurately, and are smaller than with {@link ZLIBSerialization}.
+   * @throws Exception if any error occurs.
+   */
+  @Test(timeout = 10_000L)
+  public void testRoundTrip() throws Exception {
+    final JPPFSerialization zlib = configure("ZLIB");
+    final JPPFSerialization dict = configure("ZLIB_DICT");
+    assertTrue(dict instanceof DictionaryZLIBSerialization);
+    for (int i=0; i<10; i++) {
+      final SmallTask task = new SmallTask(i);
+      final byte[] bytes = serialize(dict, task);
+      final SmallTask copy = (SmallTask) dict.deserialize(new ByteArrayInputStream(bytes));
+      assertEquals(task.id, copy.id);
+      assertEquals(task.name, copy.name);
+      assertEquals(task.values, copy.values);
+      assertTrue(String.format("dict size = %d, zlib size = %d", bytes.length, serialize(zlib, task).length), bytes.length < serialize(zlib, task).length);
+    }
+  }
+
+  /**
+   * Test that a trained dictionary compresses better than the built-in one, and that a stream compressed with
+   * an unknown dictionary is rejected.
+   * @throws Exception if any error occurs.
+   */
+  @Test(timeout = 10_000L)
+  public void testTrainedDictionary() throws Exception {
+    final JPPFSerialization dict = configure("ZLIB_DICT");
+    final JPPFSerialization java = new DefaultJavaSerialization();
+    final List<byte[]> samples = new ArrayList<>();
+    for (int i=0; i<20; i++) samples.add(serialize(java, new SmallTask(i)));
+    final SmallTask task = new SmallTask(100);
+    final int defaultSize = serialize(dict, task).length;
+    final CompressionDictionary trained = CompressionDictionary.train(samples, CompressionDictionary.MAX_SIZE);
+    assertTrue(trained.getData().length > 0);
+    CompressionDictionary.setDefault(trained);
+    final byte[] bytes = serialize(dict, task);
+    assertTrue(String.format("trained size = %d, default size = %d", bytes.length, defaultSize), bytes.length < defaultSize);
+    assertEquals(task.name, ((SmallTask) dict.deserialize(new ByteArrayInputStream(bytes))).name);
+    final CompressionDictionary unknown = new CompressionDictionary("not registered".getBytes("UTF-8"));
+    CompressionDictionary.setDefault(unknown);
+    final byte[] unknownBytes = serialize(dict, task);
+    CompressionDictionary.setDefault(trained);
+    // emulate a peer which does not know this dictionary by corrupting the dictionary id in the zlib header
+    unknownBytes[2] ^= 0xFF;
+    try {
+      dict.deserialize(new ByteArrayInputStream(unknownBytes));
+      fail("deserialization should have failed");
+    } catch (final ZipException e) {
+      assertTrue(e.getMessage(), e.getMessage().contains("unknown compression dictionary"));
+    }
+  }
+
+  /**
+   * Configure the specified composite on top of the Java serialization.
+   * @param composite the name of the composite serialization.
+   * @return the configured serialization.
+   */
+  private static JPPFSerialization configure(final String composite) {
+    JPPFConfiguration.set(JPPFProperties.OBJECT_SERIALIZATION_CLASS, composite + " " + DefaultJavaSerialization.class.getName());
+    JPPFSerialization.Factory.reset();
+    return JPPFSerialization.Factory.getSerialization();
+  }
+
+  /**
+   * Serialize an object with the specified serialization.
+   * @param serialization the serialization to use.
+   * @param o the object to serialize.
+   * @return the serialized object.
+   * @throws Exception if any error occurs.
+   */
+  private static byte[] serialize(final JPPFSerialization serialization, final Object o) throws Exception {
+    final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+    serialization.serialize(o, baos);
+    return baos.toByteArray();
+  }
+
+  /**
+   * A small serializable object.
+   */
+  public static class SmallTask implements Serializable {
+    /**
+     * Explicit serialVersionUID.
+     */
+    private static final long serialVersionUID = 1L;
+    /**
+     * An identifier.
+     */
+    private final int id;
+    /**
+     * A name.
+     */
+    private final String name;
+    /**
+     * A list of values.
+     */
+    private final List<String> values = new ArrayList<>();
+
+    /**
+     * @param id the identifier.
+     */
+    public SmallTask(final int id) {
+      this.id = id;
+      this.name = "small task " + id;
+      for (int i=0; i<3; i++) values.add("value-" + i);
+    }
+  }
+}
@@ -0,0 +1,145 @@
+/*
+ * JPPF.
+ * Copyright (C) 2005-2019 JPPF Team.
+ * http://www.jppf.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package test.org.jppf.serialization;
+
+import static org.junit.Assert.*;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+import org.jppf.serialization.*;
+import org.junit.Test;
+
+import test.org.jppf.test.setup.BaseTest;
+
+/**
+ * Unit tests for the class schema checks of the {@link SchemaCachedSerialization}.
+ * @author Laurent Cohen
+ */
+public class TestSchemaCachedSerialization extends BaseTest {
+  /**
+   * The serialization to test.
+   */
+  private final JPPFSerialization serialization = new SchemaCachedSerialization();
+
+  /**
+   * Test that objects whose class has the same fields on both sides are copied accurately, including the fields of their super class.
+   * @throws Exception if any error occurs.
+   */
+  @Test(timeout = 5000L)
+  public void testSameSchema() throws Exception {
+    final SchemaV1 o = new SchemaV1();
+    o.base = "base";
+    o.count = 3;
+    o.values.add("value");
+    final SchemaV1 copy = (SchemaV1) serialization.deserialize(new ByteArrayInputStream(serialize(o)));
+    assertEquals("base", copy.base);
+    assertEquals(3, copy.count);
+    assertEquals(o.values, copy.values);
+  }
+
+  /**
+   * Test that reading an object whose class has different fields on the reading side fails with an explicit error,
+   * instead of silently assigning the data to the wrong fields.
+   * @throws Exception if any error occurs.
+   */
+  @Test(timeout = 5000L)
+  public void testSchemaMismatch() throws Exception {
+    final byte[] bytes = serialize(new SchemaV1());
+    // emulate a reading side where the class has a different layout, by substituting a class whose name has the same length
+    replace(bytes, SchemaV1.class.getSimpleName(), SchemaV2.class.getSimpleName());
+    try {
+      serialization.deserialize(new ByteArrayInputStream(bytes));
+      fail("deserialization should have failed");
+    } catch (final InvalidClassException e) {
+      assertEquals(SchemaV2.class.getName(), e.classname);
+      assertTrue(e.getMessage(), e.getMessage().contains("do not match"));
+    }
+  }
+
+  /**
+   * Serialize an object.
+   * @param o the object to serialize.
+   * @return the serialized object.
+   * @throws Exception if any error occurs.
+   */
+  private byte[] serialize(final Object o) throws Exception {
+    final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+    serialization.serialize(o, baos);
+    return baos.toByteArray();
+  }
+
+  /**
+   * Replace all the occurrences of an ASCII string in the specified bytes with another string of the same length.
+   * @param bytes the bytes to modify.
+   * @param from the string to replace.
+   * @param to the replacement string.
+   */
+  private static void replace(final byte[] bytes, final String from, final String to) {
+    final byte[] src = from.getBytes(StandardCharsets.US_ASCII), dest = to.getBytes(StandardCharsets.US_ASCII);
+    int count = 0;
+    for (int i=0; i<=bytes.length - src.length; i++) {
+      if (Arrays.equals(src, Arrays.copyOfRange(bytes, i, i + src.length))) {
+        System.arraycopy(dest, 0, bytes, i, dest.length);
+        count++;
+      }
+    }
+    assertTrue(count > 0);
+  }
+
+  /**
+   * A super class with a field.
+   */
+  public static class SchemaBase {
+    /**
+     * A field of the super class.
+     */
+    String base;
+  }
+
+  /**
+   * A class as seen by the writing side.
+   */
+  public static class SchemaV1 extends SchemaBase {
+    /**
+     * An int field.
+     */
+    int count;
+    /**
+     * A list field.
+     */
+    List<String> values = new ArrayList<>();
+  }
+
+  /**
+   * The same class as {@link SchemaV1}, with a different layout, as seen by the reading side.
+   */
+  public static class SchemaV2 extends SchemaBase {
+    /**
+     * A field with the same name and a different type.
+     */
+    long count;
+    /**
+     * A list field.
+     */
+    List<String> values = new ArrayList<>();
+  }
+}
@@ -60,10 +60,11 @@ public class TestSerialization extends AbstractNonStandardSetup {
    */
   @Parameters
   public static Collection<Object[]> data() {
-    final String[] exts = { "", "LZ4 ", "ZLIB " };
+    final String[] exts = { "", "LZ4 ", "ZLIB ", "ZLIB_DICT " };
     final Object[][] classes = {
       { DefaultJavaSerialization.class, false },
       { DefaultJPPFSerialization.class, true },
+      { SchemaCachedSerialization.class, true },
       { KryoSerialization.class, true },
       { XstreamSerialization.class, false }
     };
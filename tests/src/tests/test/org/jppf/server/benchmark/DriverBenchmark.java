@@ -0,0 +1,323 @@
+/*
+ * JPPF.
+ * Copyright (C) 2005-2019 JPPF Team.
+ * http://www.jppf.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package test.org.jppf.server.benchmark;
+
+import java.lang.management.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+import org.jppf.client.*;
+import org.jppf.management.JPPFSystemInformation;
+import org.jppf.node.protocol.*;
+import org.jppf.server.JPPFDriver;
+import org.jppf.utils.*;
+import org.jppf.utils.concurrent.ConcurrentUtils;
+import org.jppf.utils.configuration.JPPFProperties;
+import org.jppf.utils.stats.*;
+
+/**
+ * An in-process benchmark of the driver's dispatch path, from the client connections to the nodes connections.
+ * <p>It starts a driver and a number of {@link SimulatedNode}s in the current JVM, then submits jobs with a {@link JPPFClient}
+ * and reports the task throughput, the percentiles of the jobs round-trip time seen by the client and of the latencies recorded
+ * by the driver, along with the allocation rate of all the threads other than the simulated nodes.
+ * <p>Usage: {@code DriverBenchmark [name=value ...]} with the following parameters:
+ * <ul>
+ * <li>{@code nodes}: number of simulated nodes, defaults to 1000</li>
+ * <li>{@code jobs}: number of measured jobs, defaults to 200</li>
+ * <li>{@code warmup}: number of jobs submitted before the measurements, defaults to 20</li>
+ * <li>{@code tasks}: number of tasks per job, defaults to 100</li>
+ * <li>{@code concurrency}: number of jobs submitted concurrently, defaults to 4</li>
+ * <li>{@code connections}: size of the client connection pool, defaults to the concurrency</li>
+ * <li>{@code nio}: whether the client uses its non-blocking connections, defaults to false</li>
+ * <li>{@code duration}: simulated execution time of each task in milliseconds, defaults to 0</li>
+ * <li>{@code payload}: size in bytes of the data held by each task, defaults to 0</li>
+ * <li>{@code serializers}: number of client threads serializing the tasks, defaults to the client's "jppf.client.serialization.threads"</li>
+ * <li>{@code port}: port of the driver, defaults to 11111</li>
+ * </ul>
+ * Any parameter whose name starts with "jppf." is added to the driver configuration, for instance
+ * {@code jppf.load.balancing.algorithm=proportional}. By default, the driver uses the "manual" load-balancer with a bundle size of 5.
+ * @author Laurent Cohen
+ */
+public class DriverBenchmark {
+  /**
+   * The benchmark parameters.
+   */
+  private final TypedProperties params;
+  /**
+   * The port of the driver.
+   */
+  private final int port;
+
+  /**
+   * Initialize this benchmark with the specified parameters.
+   * @param params the benchmark parameters.
+   */
+  public DriverBenchmark(final TypedProperties params) {
+    this.params = params;
+    this.port = params.getInt("port", 11111);
+  }
+
+  /**
+   * Entry point.
+   * @param args the parameters of the benchmark, in the form "name=value".
+   */
+  public static void main(final String[] args) {
+    try {
+      final TypedProperties params = new TypedProperties();
+      for (final String arg: args) {
+        final int idx = arg.indexOf('=');
+        if (idx <= 0) throw new IllegalArgumentException("invalid argument '" + arg + "', expected name=value");
+        params.setString(arg.substring(0, idx).trim(), arg.substring(idx + 1).trim());
+      }
+      System.out.println(new DriverBenchmark(params).run());
+    } catch (final Exception e) {
+      System.err.println(ExceptionUtils.getStackTrace(e));
+    }
+    System.exit(0);
+  }
+
+  /**
+   * Start the driver, nodes and client, run the jobs and shut everything down.
+   * @return the results of the benchmark.
+   * @throws Exception if any error occurs.
+   */
+  public Results run() throws Exception {
+    final int nbNodes = params.getInt("nodes", 1000);
+    final JPPFDriver driver = new JPPFDriver(createDriverConfig()).start();
+    final List<SimulatedNode> nodes = new ArrayList<>(nbNodes);
+    JPPFClient client = null;
+    try {
+      final JPPFSystemInformation systemInfo = new JPPFSystemInformation(new TypedProperties(), "simulated", false, true);
+      final long taskDurationNanos = (long) (params.getDouble("duration", 0d) * 1_000_000d);
+      for (int i=1; i<=nbNodes; i++) nodes.add(new SimulatedNode("localhost", port, String.format("sn%05d", i), systemInfo, taskDurationNanos).start());
+      final JPPFSnapshot nodesSnapshot = driver.getStatistics().getSnapshot(JPPFStatisticsHelper.NODES);
+      if (!ConcurrentUtils.awaitCondition(() -> nodesSnapshot.getLatest() >= nbNodes, 60_000L, 100L, false))
+        throw new IllegalStateException(String.format("only %d nodes out of %d connected to the driver", (int) nodesSnapshot.getLatest(), nbNodes));
+      client = new JPPFClient(createClientConfig());
+      client.awaitWorkingConnectionPool();
+      runJobs(client, params.getInt("warmup", 20), null);
+      driver.getStatistics().reset();
+      final Results results = new Results();
+      final long allocatedBefore = allocatedBytes();
+      final long start = System.nanoTime();
+      results.taskCount = runJobs(client, params.getInt("jobs", 200), results.jobLatency);
+      results.elapsedNanos = System.nanoTime() - start;
+      final long allocatedAfter = allocatedBytes();
+      results.allocatedBytes = ((allocatedBefore < 0L) || (allocatedAfter < 0L)) ? -1L : allocatedAfter - allocatedBefore;
+      results.driverPercentiles = JPPFStatisticsHelper.getPercentiles(driver.getStatistics());
+      return results;
+    } finally {
+      if (client != null) client.close();
+      for (final SimulatedNode node: nodes) node.stop();
+      driver.shutdown();
+    }
+  }
+
+  /**
+   * Submit the specified number of jobs, with the configured concurrency.
+   * @param client the client which submits the jobs.
+   * @param nbJobs the number of jobs to submit.
+   * @param jobLatency records the round-trip time of each job, may be {@code null}.
+   * @return the total number of tasks that were processed.
+   * @throws Exception if any error occurs.
+   */
+  private long runJobs(final JPPFClient client, final int nbJobs, final JPPFSnapshot jobLatency) throws Exception {
+    final int nbTasks = params.getInt("tasks", 100);
+    final int payload = params.getInt("payload", 0);
+    final ExecutorService executor = Executors.newFixedThreadPool(params.getInt("concurrency", 4));
+    try {
+      final List<Future<Integer>> futures = new ArrayList<>(nbJobs);
+      for (int i=0; i<nbJobs; i++) {
+        final JPPFJob job = new JPPFJob().setName("benchmark-" + i);
+        for (int j=0; j<nbTasks; j++) job.add(new BenchmarkTask(payload)).setId(job.getName() + "-task-" + j);
+        futures.add(executor.submit(() -> {
+          final long start = System.nanoTime();
+          final List<Task<?>> results = client.submit(job);
+          if (jobLatency != null) jobLatency.addValues((System.nanoTime() - start) / 1e6d, 1L);
+          if (results.size() != nbTasks) throw new IllegalStateException(String.format("job %s has %d results, expected %d", job.getName(), results.size(), nbTasks));
+          return results.size();
+        }));
+      }
+      long count = 0L;
+      for (final Future<Integer> future: futures) count += future.get();
+      return count;
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  /**
+   * Create the configuration of the driver.
+   * @return a {@link TypedProperties} instance.
+   */
+  private TypedProperties createDriverConfig() {
+    final TypedProperties config = new TypedProperties()
+      .set(JPPFProperties.SERVER_PORT, port)
+      .set(JPPFProperties.SERVER_SSL_PORT, -1)
+      .set(JPPFProperties.DISCOVERY_ENABLED, false)
+      .set(JPPFProperties.PEER_DISCOVERY_ENABLED, false)
+      .set(JPPFProperties.LOCAL_NODE_ENABLED, false)
+      .set(JPPFProperties.STATISTICS_HISTOGRAMS_ENABLED, true)
+      .set(JPPFProperties.LOAD_BALANCING_ALGORITHM, "manual")
+      .set(JPPFProperties.LOAD_BALANCING_PROFILE, "benchmark")
+      .setInt("jppf.load.balancing.profile.benchmark.size", 5);
+    for (final String name: params.stringPropertyNames()) {
+      if (name.startsWith("jppf.")) config.setString(name, params.getString(name));
+    }
+    return config;
+  }
+
+  /**
+   * Create the configuration of the client.
+   * @return a {@link TypedProperties} instance.
+   */
+  private TypedProperties createClientConfig() {
+    return new TypedProperties()
+      .set(JPPFProperties.DISCOVERY_ENABLED, false)
+      .setString("jppf.drivers", "benchmark")
+      .setString("benchmark.jppf.server.host", "localhost")
+      .setInt("benchmark.jppf.server.port", port)
+      .setInt("benchmark.jppf.pool.size", params.getInt("connections", params.getInt("concurrency", 4)))
+      .set(JPPFProperties.CLIENT_NIO_ENABLED, params.getBoolean("nio", false))
+      .set(JPPFProperties.CLIENT_SERIALIZATION_THREADS, params.getInt("serializers", JPPFProperties.CLIENT_SERIALIZATION_THREADS.getDefaultValue()));
+  }
+
+  /**
+   * Compute the number of bytes allocated so far by all the live threads, except for the simulated nodes.
+   * @return the number of allocated bytes, or -1 if the JVM does not support measuring it.
+   */
+  private static long allocatedBytes() {
+    final ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+    if (!(bean instanceof com.sun.management.ThreadMXBean)) return -1L;
+    final com.sun.management.ThreadMXBean sunBean = (com.sun.management.ThreadMXBean) bean;
+    if (!sunBean.isThreadAllocatedMemorySupported() || !sunBean.isThreadAllocatedMemoryEnabled()) return -1L;
+    long total = 0L;
+    for (final ThreadInfo info: bean.getThreadInfo(bean.getAllThreadIds())) {
+      if ((info == null) || info.getThreadName().startsWith(SimulatedNode.THREAD_NAME_PREFIX)) continue;
+      final long n = sunBean.getThreadAllocatedBytes(info.getThreadId());
+      if (n > 0L) total += n;
+    }
+    return total;
+  }
+
+  /**
+   * The results of a benchmark run.
+   */
+  public static class Results {
+    /**
+     * Round-trip time of the jobs in milliseconds, as seen by the client.
+     */
+    final HistogramSnapshot jobLatency = new HistogramSnapshot("job.latency");
+    /**
+     * The percentiles of the latencies recorded by the driver.
+     */
+    Map<String, Double> driverPercentiles;
+    /**
+     * The total number of tasks processed.
+     */
+    long taskCount;
+    /**
+     * The duration of the run in nanoseconds.
+     */
+    long elapsedNanos;
+    /**
+     * The number of bytes allocated during the run by the driver and the client, or -1 if it could not be measured.
+     */
+    long allocatedBytes;
+
+    /**
+     * Get the number of tasks processed per second.
+     * @return the throughput as a double value.
+     */
+    public double getTasksPerSecond() {
+      return (elapsedNanos <= 0L) ? 0d : taskCount * 1e9d / elapsedNanos;
+    }
+
+    /**
+     * Get the total number of tasks processed.
+     * @return the number of tasks.
+     */
+    public long getTaskCount() {
+      return taskCount;
+    }
+
+    /**
+     * Get the round-trip time of the jobs in milliseconds, as seen by the client.
+     * @return a {@link HistogramSnapshot} instance.
+     */
+    public HistogramSnapshot getJobLatency() {
+      return jobLatency;
+    }
+
+    /**
+     * Get the percentiles of the latencies recorded by the driver.
+     * @return a mapping of names in the form "&lt;label&gt;.pXX" to the corresponding values in milliseconds.
+     */
+    public Map<String, Double> getDriverPercentiles() {
+      return driverPercentiles;
+    }
+
+    /**
+     * Get the allocation rate of the driver and the client.
+     * @return the allocation rate in MB/s, or -1 if it could not be measured.
+     */
+    public double getAllocationRate() {
+      return ((allocatedBytes < 0L) || (elapsedNanos <= 0L)) ? -1d : allocatedBytes / (1024d * 1024d) / (elapsedNanos / 1e9d);
+    }
+
+    @Override
+    public String toString() {
+      final StringBuilder sb = new StringBuilder();
+      sb.append(String.format("tasks: %,d in %,.1f ms, throughput: %,.1f tasks/s%n", taskCount, elapsedNanos / 1e6d, getTasksPerSecond()));
+      final double[] values = jobLatency.getValuesAtPercentiles(50d, 90d, 99d, 99.9d);
+      sb.append(String.format("job round-trip (ms): p50=%,.2f p90=%,.2f p99=%,.2f p999=%,.2f max=%,.2f%n", values[0], values[1], values[2], values[3], jobLatency.getMax()));
+      sb.append("driver latencies (ms):\n");
+      for (final Map.Entry<String, Double> entry: driverPercentiles.entrySet()) sb.append(String.format("  %-30s %,12.3f%n", entry.getKey(), entry.getValue()));
+      if (allocatedBytes < 0L) sb.append("allocation rate: not supported by this JVM");
+      else sb.append(String.format("allocation rate (driver + client): %,.1f MB/s, total: %,.1f MB", getAllocationRate(), allocatedBytes / (1024d * 1024d)));
+      return sb.toString();
+    }
+  }
+
+  /**
+   * A task which only carries some data. It is never executed, since the simulated nodes send it back as is.
+   */
+  public static class BenchmarkTask extends AbstractTask<String> {
+    /**
+     * Explicit serialVersionUID.
+     */
+    private static final long serialVersionUID = 1L;
+    /**
+     * The data carried by this task.
+     */
+    private final byte[] payload;
+
+    /**
+     * @param size the size of the data carried by this task.
+     */
+    public BenchmarkTask(final int size) {
+      this.payload = new byte[size];
+    }
+
+    @Override
+    public void run() {
+      setResult("payload size = " + payload.length);
+    }
+  }
+}
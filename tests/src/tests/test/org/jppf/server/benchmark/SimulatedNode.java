@@ -0,0 +1,209 @@
+/*
+ * JPPF.
+ * Copyright (C) 2005-2019 JPPF Team.
+ * http://www.jppf.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package test.org.jppf.server.benchmark;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.jppf.comm.socket.*;
+import org.jppf.io.*;
+import org.jppf.management.JPPFSystemInformation;
+import org.jppf.node.protocol.*;
+import org.jppf.serialization.ObjectSerializer;
+import org.jppf.utils.*;
+import org.slf4j.*;
+
+/**
+ * A lightweight node which speaks the node protocol to a driver over a plain socket, without executing anything.
+ * <p>The tasks of each received bundle are sent back as is, after an optional simulated execution time, so that neither
+ * the tasks nor the data provider are ever deserialized. This allows a single JVM to host thousands of nodes, each
+ * using a single thread with a small stack.
+ * @author Laurent Cohen
+ */
+public class SimulatedNode implements Runnable {
+  /**
+   * Logger for this class.
+   */
+  private static Logger log = LoggerFactory.getLogger(SimulatedNode.class);
+  /**
+   * Determines whether the debug level is enabled in the log configuration, without the cost of a method call.
+   */
+  private static boolean debugEnabled = log.isDebugEnabled();
+  /**
+   * Prefix for the names of the nodes threads.
+   */
+  public static final String THREAD_NAME_PREFIX = "SimulatedNode-";
+  /**
+   * Stack size of the nodes threads.
+   */
+  private static final long STACK_SIZE = 256L * 1024L;
+  /**
+   * The host of the driver to connect to.
+   */
+  private final String host;
+  /**
+   * The port of the driver to connect to.
+   */
+  private final int port;
+  /**
+   * The uuid of this node.
+   */
+  private final String uuid;
+  /**
+   * The system information sent to the driver during the handshake. It can be shared by several nodes since it is only read.
+   */
+  private final JPPFSystemInformation systemInfo;
+  /**
+   * Simulated execution time of each task in nanoseconds.
+   */
+  private final long taskDurationNanos;
+  /**
+   * Serializer for the bundles headers.
+   */
+  private final ObjectSerializer serializer = new ObjectSerializerImpl();
+  /**
+   * Total number of tasks processed by this node.
+   */
+  private final AtomicLong taskCount = new AtomicLong(0L);
+  /**
+   * The connection to the driver.
+   */
+  private volatile SocketWrapper socket;
+  /**
+   * Whether this node is stopped.
+   */
+  private volatile boolean stopped;
+
+  /**
+   * Initialize this node.
+   * @param host the host of the driver to connect to.
+   * @param port the port of the driver to connect to.
+   * @param uuid the uuid of this node.
+   * @param systemInfo the system information sent to the driver during the handshake.
+   * @param taskDurationNanos simulated execution time of each task in nanoseconds.
+   */
+  public SimulatedNode(final String host, final int port, final String uuid, final JPPFSystemInformation systemInfo, final long taskDurationNanos) {
+    this.host = host;
+    this.port = port;
+    this.uuid = uuid;
+    this.systemInfo = systemInfo;
+    this.taskDurationNanos = taskDurationNanos;
+  }
+
+  /**
+   * Start this node in a new thread.
+   * @return this node, for method call chaining.
+   */
+  public SimulatedNode start() {
+    final Thread thread = new Thread(null, this, THREAD_NAME_PREFIX + uuid, STACK_SIZE);
+    thread.setDaemon(true);
+    thread.start();
+    return this;
+  }
+
+  @Override
+  public void run() {
+    try {
+      final SocketWrapper channel = new SocketClient(host, port, serializer);
+      socket = channel;
+      channel.writeInt(JPPFIdentifiers.NODE_JOB_DATA_CHANNEL);
+      channel.flush();
+      final InputSource input = new SocketWrapperInputSource(channel);
+      final OutputDestination output = new SocketWrapperOutputDestination(channel);
+      while (!stopped) {
+        final TaskBundle bundle = (TaskBundle) IOHelper.unwrappedData(IOHelper.readData(input), serializer);
+        final List<DataLocation> tasks;
+        if (bundle.isHandshake()) {
+          IOHelper.readData(input); // skip null data provider
+          bundle.setParameter(BundleParameter.NODE_UUID_PARAM, uuid);
+          bundle.setParameter(BundleParameter.SYSTEM_INFO_PARAM, systemInfo);
+          tasks = Collections.emptyList();
+        } else {
+          final long start = System.nanoTime();
+          IOHelper.readData(input); // skip the data provider
+          final int count = bundle.getTaskCount();
+          tasks = new ArrayList<>(count);
+          for (int i=0; i<count; i++) tasks.add(IOHelper.readData(input));
+          simulateExecution(count);
+          bundle.setSLA(null);
+          bundle.setMetadata(null);
+          bundle.setNodeExecutionTime(System.nanoTime() - start);
+          taskCount.addAndGet(count);
+        }
+        IOHelper.writeData(IOHelper.serializeData(bundle, serializer), output);
+        for (final DataLocation task: tasks) IOHelper.writeData(task, output);
+        channel.flush();
+      }
+    } catch (final Exception e) {
+      if (!stopped) log.error("error in node {} : {}", uuid, ExceptionUtils.getMessage(e));
+      else if (debugEnabled) log.debug("node {} stopped: {}", uuid, ExceptionUtils.getMessage(e));
+    } finally {
+      close();
+    }
+  }
+
+  /**
+   * Wait for the simulated execution time of the specified number of tasks.
+   * @param count the number of tasks to simulate.
+   * @throws InterruptedException if the thread is interrupted while waiting.
+   */
+  private void simulateExecution(final int count) throws InterruptedException {
+    if (taskDurationNanos <= 0L) return;
+    final long nanos = count * taskDurationNanos;
+    Thread.sleep(nanos / 1_000_000L, (int) (nanos % 1_000_000L));
+  }
+
+  /**
+   * Stop this node and close its connection to the driver.
+   */
+  public void stop() {
+    stopped = true;
+    close();
+  }
+
+  /**
+   * Close the connection to the driver.
+   */
+  private synchronized void close() {
+    if (socket != null) {
+      try {
+        socket.close();
+      } catch (final Exception e) {
+        if (debugEnabled) log.debug("error closing node {} : {}", uuid, ExceptionUtils.getMessage(e));
+      }
+      socket = null;
+    }
+  }
+
+  /**
+   * Get the total number of tasks processed by this node.
+   * @return the number of tasks as a long.
+   */
+  public long getTaskCount() {
+    return taskCount.get();
+  }
+
+  /**
+   * Get the uuid of this node.
+   * @return the uuid as a string.
+   */
+  public String getUuid() {
+    return uuid;
+  }
+}
@@ -0,0 +1,98 @@
+/*
+ * JPPF.
+ * Copyright (C) 2005-2019 JPPF Team.
+ * http://www.jppf.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package test.org.jppf.server.benchmark;
+
+import static org.junit.Assert.*;
+
+import org.jppf.utils.TypedProperties;
+import org.junit.Test;
+
+import test.org.jppf.test.setup.BaseTest;
+
+/**
+ * Test that the {@link DriverBenchmark} harness runs to completion with a small number of simulated nodes.
+ * @author Laurent Cohen
+ */
+public class TestDriverBenchmark extends BaseTest {
+  /**
+   * Run a short benchmark and check the reported results.
+   * @throws Exception if any error occurs.
+   */
+  @Test(timeout = 30_000L)
+  public void testSmallBenchmark() throws Exception {
+    final TypedProperties params = new TypedProperties()
+      .setInt("port", 11150)
+      .setInt("nodes", 20)
+      .setInt("warmup", 2)
+      .setInt("jobs", 10)
+      .setInt("tasks", 50)
+      .setInt("concurrency", 2)
+      .setInt("payload", 64);
+    final DriverBenchmark.Results results = new DriverBenchmark(params).run();
+    print(false, false, "benchmark results:%n%s", results);
+    assertEquals(500L, results.getTaskCount());
+    assertTrue(results.getTasksPerSecond() > 0d);
+    assertEquals(10L, results.getJobLatency().getValueCount());
+    assertTrue(results.getDriverPercentiles().containsKey("job.dispatch.time.p99"));
+    assertTrue(results.getDriverPercentiles().get("job.dispatch.time.p50") > 0d);
+  }
+
+  /**
+   * Run a small benchmark where the client serializes the tasks in parallel, and check that all the tasks are returned.
+   * @throws Exception if any error occurs.
+   */
+  @Test(timeout = 30_000L)
+  public void testParallelClientSerialization() throws Exception {
+    final TypedProperties params = new TypedProperties()
+      .setInt("port", 11151)
+      .setInt("nodes", 5)
+      .setInt("warmup", 2)
+      .setInt("jobs", 10)
+      .setInt("tasks", 200)
+      .setInt("concurrency", 2)
+      .setInt("payload", 256)
+      .setInt("serializers", 4);
+    final DriverBenchmark.Results results = new DriverBenchmark(params).run();
+    print(false, false, "benchmark results:%n%s", results);
+    assertEquals(2000L, results.getTaskCount());
+    assertEquals(10L, results.getJobLatency().getValueCount());
+  }
+
+  /**
+   * Run a small benchmark where many concurrent jobs are multiplexed over a single non-blocking client connection,
+   * and check that all the tasks are returned.
+   * @throws Exception if any error occurs.
+   */
+  @Test(timeout = 30_000L)
+  public void testNonBlockingClientConnection() throws Exception {
+    final TypedProperties params = new TypedProperties()
+      .setInt("port", 11152)
+      .setInt("nodes", 5)
+      .setInt("warmup", 2)
+      .setInt("jobs", 20)
+      .setInt("tasks", 50)
+      .setInt("concurrency", 4)
+      .setInt("connections", 1)
+      .setBoolean("nio", true);
+    final DriverBenchmark.Results results = new DriverBenchmark(params).run();
+    print(false, false, "benchmark results:%n%s", results);
+    assertEquals(1000L, results.getTaskCount());
+    assertEquals(20L, results.getJobLatency().getValueCount());
+  }
+}
@@ -0,0 +1,127 @@
+/*
+ * JPPF.
+ * Copyright (C) 2005-2019 JPPF Team.
+ * http://www.jppf.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package test.org.jppf.server.nio.classloader;
+
+import static org.junit.Assert.*;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+import org.jppf.management.ClassCacheStatistics;
+import org.jppf.server.nio.classloader.ClassCache;
+import org.junit.Test;
+
+import test.org.jppf.test.setup.BaseTest;
+
+/**
+ * Unit tests for {@link ClassCache}.
+ * @author Laurent Cohen
+ */
+public class TestClassCache extends BaseTest {
+  /**
+   * Test that hits and misses are counted.
+   * @throws Exception if any error occurs.
+   */
+  @Test(timeout = 10000)
+  public void testHitsAndMisses() throws Exception {
+    final ClassCache cache = new ClassCache(1024L * 1024L);
+    assertNull(cache.getCacheContent("uuid", "a.class"));
+    final byte[] content = new byte[100];
+    cache.setCacheContent("uuid", "a.class", content);
+    assertSame(content, cache.getCacheContent("uuid", "a.class"));
+    assertSame(content, cache.getCacheContent("uuid", "a.class"));
+    assertNull(cache.getCacheContent("other", "a.class"));
+    final ClassCacheStatistics stats = cache.getStatistics();
+    assertEquals(2L, stats.getHits());
+    assertEquals(2L, stats.getMisses());
+    assertEquals(0L, stats.getEvictions());
+    assertEquals(1, stats.getEntries());
+    assertTrue(stats.getSize() >= 100L);
+    assertEquals(0.5d, stats.getHitRate(), 0d);
+  }
+
+  /**
+   * Test that the size of the cache remains within its maximum, and that frequently used entries survive a burst of entries used only once.
+   * @throws Exception if any error occurs.
+   */
+  @Test(timeout = 10000)
+  public void testEviction() throws Exception {
+    final long maxSize = 256L * 1024L;
+    final ClassCache cache = new ClassCache(maxSize);
+    final byte[] hot = new byte[1024];
+    cache.setCacheContent("uuid", "hot.class", hot);
+    assertNotNull(cache.getCacheContent("uuid", "hot.class"));
+    for (int i=0; i<2000; i++) {
+      cache.setCacheContent("uuid", "cold" + i + ".class", new byte[1024]);
+      assertTrue(cache.getStatistics().getSize() <= maxSize);
+    }
+    final ClassCacheStatistics stats = cache.getStatistics();
+    assertTrue(stats.getEvictions() > 0L);
+    assertTrue(stats.getEntries() < 2000);
+    assertSame(hot, cache.getCacheContent("uuid", "hot.class"));
+    // an entry larger than a stripe is not cached
+    cache.setCacheContent("uuid", "big.class", new byte[(int) maxSize]);
+    assertNull(cache.getCacheContent("uuid", "big.class"));
+  }
+
+  /**
+   * Test that a cache with a maximum size of 0 does not hold any entry.
+   * @throws Exception if any error occurs.
+   */
+  @Test(timeout = 10000)
+  public void testDisabled() throws Exception {
+    final ClassCache cache = new ClassCache(0L);
+    cache.setCacheContent("uuid", "a.class", new byte[10]);
+    assertNull(cache.getCacheContent("uuid", "a.class"));
+    assertEquals(0, cache.getStatistics().getEntries());
+  }
+
+  /**
+   * Test concurrent lookups and updates.
+   * @throws Exception if any error occurs.
+   */
+  @Test(timeout = 20000)
+  public void testConcurrentAccess() throws Exception {
+    final long maxSize = 512L * 1024L;
+    final ClassCache cache = new ClassCache(maxSize);
+    final int nbThreads = 8, nbOps = 20_000;
+    final ExecutorService executor = Executors.newFixedThreadPool(nbThreads);
+    try {
+      final List<Future<?>> futures = new ArrayList<>();
+      for (int t=0; t<nbThreads; t++) {
+        final long seed = t;
+        futures.add(executor.submit(() -> {
+          final Random rand = new Random(seed);
+          for (int i=0; i<nbOps; i++) {
+            final String name = "class" + rand.nextInt(1000);
+            if (cache.getCacheContent("uuid", name) == null) cache.setCacheContent("uuid", name, new byte[512 + rand.nextInt(512)]);
+          }
+          return null;
+        }));
+      }
+      for (final Future<?> future: futures) future.get();
+    } finally {
+      executor.shutdownNow();
+    }
+    final ClassCacheStatistics stats = cache.getStatistics();
+    assertEquals((long) nbThreads * nbOps, stats.getHits() + stats.getMisses());
+    assertTrue(stats.getHits() > 0L);
+    assertTrue(stats.getSize() <= maxSize);
+  }
+}
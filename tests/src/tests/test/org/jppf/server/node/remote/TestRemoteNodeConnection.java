@@ -0,0 +1,178 @@
+/*
+ * JPPF.
+ * Copyright (C) 2005-2019 JPPF Team.
+ * http://www.jppf.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package test.org.jppf.server.node.remote;
+
+import static org.junit.Assert.*;
+
+import java.io.*;
+import java.net.*;
+import java.util.concurrent.*;
+
+import org.jppf.io.*;
+import org.jppf.node.connection.JPPFDriverConnectionInfo;
+import org.jppf.server.node.remote.RemoteNodeConnection;
+import org.jppf.utils.JPPFIdentifiers;
+import org.junit.Test;
+
+import test.org.jppf.test.setup.BaseTest;
+
+/**
+ * Unit tests for {@link RemoteNodeConnection}.
+ * @author Laurent Cohen
+ */
+public class TestRemoteNodeConnection extends BaseTest {
+  /**
+   * Test exchanging data over a blocking connection.
+   * @throws Exception if any error occurs.
+   */
+  @Test(timeout = 10000)
+  public void testBlocking() throws Exception {
+    checkConnection(false);
+  }
+
+  /**
+   * Test exchanging data over a non-blocking connection, including objects larger than the socket buffers.
+   * @throws Exception if any error occurs.
+   */
+  @Test(timeout = 10000)
+  public void testNio() throws Exception {
+    checkConnection(true);
+  }
+
+  /**
+   * Test that the objects written over a non-blocking connection are all received by the driver when the connection is closed right after writing them.
+   * @throws Exception if any error occurs.
+   */
+  @Test(timeout = 20000)
+  public void testNioCloseAfterWrite() throws Exception {
+    checkCloseAfterWrite(true);
+  }
+
+  /**
+   * Test that the objects written over a blocking connection are all received by the driver when the connection is closed right after writing them.
+   * @throws Exception if any error occurs.
+   */
+  @Test(timeout = 20000)
+  public void testBlockingCloseAfterWrite() throws Exception {
+    checkCloseAfterWrite(false);
+  }
+
+  /**
+   * Write objects larger than the socket buffers, close the connection immediately, then check that the simulated driver received all of them.
+   * @param useNio whether to use a non-blocking connection.
+   * @throws Exception if any error occurs.
+   */
+  private static void checkCloseAfterWrite(final boolean useNio) throws Exception {
+    final byte[][] objects = { new byte[] { 1, 2, 3 }, new byte[8 * 1024 * 1024], new byte[] { 4 } };
+    objects[1][objects[1].length - 1] = 5;
+    try (final ServerSocket server = new ServerSocket(0, 1, InetAddress.getLoopbackAddress())) {
+      final ExecutorService executor = Executors.newFixedThreadPool(1);
+      final RemoteNodeConnection connection = new RemoteNodeConnection(new JPPFDriverConnectionInfo(false, "localhost", server.getLocalPort(), false), null, useNio);
+      connection.init();
+      try (final Socket socket = server.accept()) {
+        final DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+        assertEquals(JPPFIdentifiers.NODE_JOB_DATA_CHANNEL, in.readInt());
+        final Future<?> receiver = executor.submit(() -> {
+          for (final byte[] object: objects) {
+            assertEquals(object.length, in.readInt());
+            final byte[] bytes = new byte[object.length];
+            in.readFully(bytes);
+            assertArrayEquals(object, bytes);
+          }
+          return null;
+        });
+        for (final byte[] object: objects) connection.writeData(new MultipleBuffersLocation(object));
+        connection.close();
+        receiver.get();
+      } finally {
+        connection.close();
+        executor.shutdownNow();
+      }
+    }
+  }
+
+  /**
+   * Connect to a simulated driver, then check that the objects sent by either side are received in the same order by the other side.
+   * @param useNio whether to use a non-blocking connection.
+   * @throws Exception if any error occurs.
+   */
+  private static void checkConnection(final boolean useNio) throws Exception {
+    final byte[][] objects = { new byte[] { 1, 2, 3 }, new byte[0], new byte[4 * 1024 * 1024], new byte[] { 4 } };
+    objects[2][objects[2].length - 1] = 5;
+    try (final ServerSocket server = new ServerSocket(0, 1, InetAddress.getLoopbackAddress())) {
+      final ExecutorService executor = Executors.newFixedThreadPool(1);
+      final RemoteNodeConnection connection = new RemoteNodeConnection(new JPPFDriverConnectionInfo(false, "localhost", server.getLocalPort(), false), null, useNio);
+      connection.init();
+      assertEquals(useNio, connection.isNio());
+      try (final Socket socket = server.accept()) {
+        final DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+        final DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+        assertEquals(JPPFIdentifiers.NODE_JOB_DATA_CHANNEL, in.readInt());
+        final Future<?> sender = executor.submit(() -> {
+          for (final byte[] object: objects) {
+            out.writeInt(object.length);
+            out.write(object);
+          }
+          out.flush();
+          return null;
+        });
+        for (final byte[] object: objects) {
+          final DataLocation dl = connection.readData();
+          if (object.length == 0) assertNull(dl);
+          else assertArrayEquals(object, toBytes(dl));
+        }
+        sender.get();
+        final Future<?> resultSender = executor.submit(() -> {
+          for (final byte[] object: objects) {
+            if (object.length > 0) connection.writeData(new MultipleBuffersLocation(object));
+          }
+          connection.flush();
+          return null;
+        });
+        for (final byte[] object: objects) {
+          if (object.length == 0) continue;
+          assertEquals(object.length, in.readInt());
+          final byte[] bytes = new byte[object.length];
+          in.readFully(bytes);
+          assertArrayEquals(object, bytes);
+        }
+        resultSender.get();
+      } finally {
+        connection.close();
+        executor.shutdownNow();
+      }
+    }
+  }
+
+  /**
+   * Get the content of a data location.
+   * @param dl the location to read.
+   * @return the content as an array of bytes.
+   * @throws Exception if any error occurs.
+   */
+  private static byte[] toBytes(final DataLocation dl) throws Exception {
+    final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+    try (final InputStream is = dl.getInputStream()) {
+      final byte[] buf = new byte[8192];
+      int n;
+      while ((n = is.read(buf)) > 0) baos.write(buf, 0, n);
+    }
+    return baos.toByteArray();
+  }
+}
@@ -0,0 +1,168 @@
+/*
+ * JPPF.
+ * Copyright (C) 2005-2019 JPPF Team.
+ * http://www.jppf.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package test.org.jppf.server.protocol;
+
+import static org.junit.Assert.*;
+
+import java.util.*;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.jppf.io.*;
+import org.jppf.node.protocol.*;
+import org.jppf.server.protocol.*;
+import org.junit.*;
+
+import test.org.jppf.test.setup.BaseTest;
+
+/**
+ * Unit tests for the processing of partial and final results in {@link ServerTaskBundleNode}.
+ * @author Laurent Cohen
+ */
+public class TestServerTaskBundleNode extends BaseTest {
+  /**
+   * Number of tasks in the dispatch.
+   */
+  private static final int NB_TASKS = 5;
+  /**
+   * The tasks whose partial results were forwarded to the job.
+   */
+  private final List<ServerTask> forwarded = new ArrayList<>();
+  /**
+   * The results sent by the node, mapped to the position of their task.
+   */
+  private final Map<Integer, DataLocation> resultsByPosition = new HashMap<>();
+  /**
+   * The dispatch to test.
+   */
+  private ServerTaskBundleNode nodeBundle;
+
+  /**
+   * Create a dispatch with {@link #NB_TASKS} tasks.
+   * @throws Exception if any error occurs.
+   */
+  @Before
+  public void createDispatch() throws Exception {
+    final TaskBundle header = new JPPFTaskBundle();
+    header.setName("test");
+    header.setSLA(new JobSLA());
+    final int[] positions = new int[NB_TASKS];
+    final List<DataLocation> data = new ArrayList<>(NB_TASKS);
+    for (int i=0; i<NB_TASKS; i++) {
+      positions[i] = i;
+      data.add(new MultipleBuffersLocation(new byte[] { (byte) i }));
+    }
+    header.setParameter(BundleParameter.TASK_POSITIONS, positions);
+    header.setTaskCount(NB_TASKS);
+    final ServerTaskBundleClient clientBundle = new ServerTaskBundleClient(header, null, data, false);
+    final ServerJob job = new ServerJob(new ReentrantLock(), null, header, null) {
+      @Override
+      public void partialResultsReceived(final ServerTaskBundleNode bundle, final List<ServerTask> bundleTasks, final List<DataLocation> results) {
+        forwarded.addAll(bundleTasks);
+      }
+    };
+    nodeBundle = new ServerTaskBundleNode(job, header.copy(), clientBundle.getTaskList());
+  }
+
+  /**
+   * Test that the final results are matched to the tasks whose results were not received as partial results.
+   * @throws Exception if any error occurs.
+   */
+  @Test(timeout = 5000)
+  public void testPartialResultsReceived() throws Exception {
+    nodeBundle.partialResultsReceived(new int[] { 3, 1 }, results(3, 1));
+    assertEquals(2, forwarded.size());
+    assertEquals(3, forwarded.get(0).getPosition());
+    assertEquals(1, forwarded.get(1).getPosition());
+    assertTrue(nodeBundle.awaitPartialResults(1, 0L));
+    final List<ServerTask> remaining = nodeBundle.getRemainingTaskList();
+    assertEquals(Arrays.asList(0, 2, 4), positionsOf(remaining));
+    final List<DataLocation> matched = nodeBundle.matchResults(remaining, new int[] { 0, 2, 4 }, results(0, 2, 4));
+    assertResults(matched, 0, 2, 4);
+  }
+
+  /**
+   * Test that when a partial result is ignored because the dispatch expired, the final results are matched to their tasks by position.
+   * @throws Exception if any error occurs.
+   */
+  @Test(timeout = 5000)
+  public void testPartialResultsDroppedAfterExpiration() throws Exception {
+    nodeBundle.expire();
+    nodeBundle.partialResultsReceived(new int[] { 3, 1 }, results(3, 1));
+    assertTrue(forwarded.isEmpty());
+    assertFalse(nodeBundle.hasPartialResults());
+    // the node does not send the tasks it already sent as partial results
+    final List<ServerTask> remaining = nodeBundle.getRemainingTaskList();
+    assertEquals(NB_TASKS, remaining.size());
+    final List<DataLocation> matched = nodeBundle.matchResults(remaining, new int[] { 0, 2, 4 }, results(0, 2, 4));
+    assertResults(matched, 0, -1, 2, -1, 4);
+  }
+
+  /**
+   * Test that when a partial result is ignored because the dispatch was cancelled, the final results are matched to their tasks by position.
+   * @throws Exception if any error occurs.
+   */
+  @Test(timeout = 5000)
+  public void testPartialResultsDroppedAfterCancellation() throws Exception {
+    nodeBundle.partialResultsReceived(new int[] { 4 }, results(4));
+    nodeBundle.cancel();
+    nodeBundle.partialResultsReceived(new int[] { 0, 2 }, results(0, 2));
+    assertEquals(1, forwarded.size());
+    assertTrue(nodeBundle.awaitPartialResults(2, 0L));
+    final List<ServerTask> remaining = nodeBundle.getRemainingTaskList();
+    assertEquals(Arrays.asList(0, 1, 2, 3), positionsOf(remaining));
+    for (final ServerTask task: remaining) assertEquals(TaskState.CANCELLED, task.getState());
+    final List<DataLocation> matched = nodeBundle.matchResults(remaining, new int[] { 1, 3 }, results(1, 3));
+    assertResults(matched, -1, 1, -1, 3);
+  }
+
+  /**
+   * Get the results of the tasks at the specified positions.
+   * @param positions the positions of the tasks.
+   * @return a list of data locations.
+   */
+  private List<DataLocation> results(final int...positions) {
+    final List<DataLocation> results = new ArrayList<>(positions.length);
+    for (final int pos: positions) results.add(resultsByPosition.computeIfAbsent(pos, p -> new MultipleBuffersLocation(new byte[] { (byte) (int) p })));
+    return results;
+  }
+
+  /**
+   * Check that the specified matched results are those of the tasks at the expected positions.
+   * @param matched the results to check.
+   * @param positions the expected positions, -1 denotes a missing result.
+   */
+  private void assertResults(final List<DataLocation> matched, final int...positions) {
+    assertEquals(positions.length, matched.size());
+    for (int i=0; i<positions.length; i++) {
+      if (positions[i] < 0) assertNull(matched.get(i));
+      else assertSame(resultsByPosition.get(positions[i]), matched.get(i));
+    }
+  }
+
+  /**
+   * Get the positions of the specified tasks.
+   * @param tasks the tasks to process.
+   * @return a list of positions.
+   */
+  private static List<Integer> positionsOf(final List<ServerTask> tasks) {
+    final List<Integer> positions = new ArrayList<>(tasks.size());
+    for (final ServerTask task: tasks) positions.add(task.getPosition());
+    return positions;
+  }
+}
@@ -0,0 +1,360 @@
+/*
+ * JPPF.
+ * Copyright (C) 2005-2019 JPPF Team.
+ * http://www.jppf.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package test.org.jppf.utils.stats;
+
+import static org.junit.Assert.*;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.*;
+
+import org.jppf.serialization.*;
+import org.jppf.utils.TypedProperties;
+import org.jppf.utils.configuration.JPPFProperties;
+import org.jppf.utils.stats.*;
+import org.junit.Test;
+
+import test.org.jppf.test.setup.BaseTest;
+
+/**
+ * Unit tests for the {@link JPPFSnapshot} implementations.
+ * @author Laurent Cohen
+ */
+public class TestJPPFSnapshot extends BaseTest {
+  /**
+   * Test that concurrent updates of cumulative and non-cumulative snapshots are not lost.
+   * @throws Exception if any error occurs.
+   */
+  @Test(timeout = 15_000L)
+  public void testConcurrentUpdates() throws Exception {
+    final JPPFStatistics stats = new JPPFStatistics();
+    final JPPFSnapshot cumulative = stats.createSnapshot(true, "cumulative");
+    final JPPFSnapshot nonCumulative = stats.createSnapshot(false, "non.cumulative");
+    final JPPFSnapshot single = stats.createSingleValueSnapshot("single");
+    final int nbThreads = 8, nbUpdates = 50_000;
+    final ExecutorService executor = Executors.newFixedThreadPool(nbThreads);
+    try {
+      final List<Future<?>> futures = new ArrayList<>();
+      for (int i=0; i<nbThreads; i++) {
+        futures.add(executor.submit(() -> {
+          for (int j=1; j<=nbUpdates; j++) {
+            stats.addValue("cumulative", 1d);
+            stats.addValue("cumulative", -1d);
+            stats.addValue("non.cumulative", j);
+            stats.addValue("single", 1d);
+          }
+        }));
+      }
+      for (final Future<?> future: futures) future.get();
+    } finally {
+      executor.shutdownNow();
+    }
+    assertEquals(0d, cumulative.getLatest(), 0d);
+    assertEquals(0d, cumulative.getTotal(), 0d);
+    assertEquals(2L * nbThreads * nbUpdates, cumulative.getValueCount());
+    assertTrue(cumulative.getMax() >= 1d);
+    assertTrue(cumulative.getMax() <= nbThreads);
+    assertEquals((long) nbThreads * nbUpdates, nonCumulative.getValueCount());
+    assertEquals(nbThreads * (nbUpdates * (nbUpdates + 1d) / 2d), nonCumulative.getTotal(), 0d);
+    assertEquals(1d, nonCumulative.getMin(), 0d);
+    assertEquals(nbUpdates, nonCumulative.getMax(), 0d);
+    assertEquals((nbUpdates + 1d) / 2d, nonCumulative.getAvg(), 1e-9);
+    assertEquals((double) nbThreads * nbUpdates, single.getTotal(), 0d);
+  }
+
+  /**
+   * Test the percentiles computed by a histogram snapshot.
+   * @throws Exception if any error occurs.
+   */
+  @Test(timeout = 5000L)
+  public void testHistogramPercentiles() throws Exception {
+    final JPPFStatistics stats = new JPPFStatistics();
+    final HistogramSnapshot histogram = (HistogramSnapshot) stats.createHistogramSnapshot("histogram");
+    assertTrue(JPPFStatisticsHelper.isHistogram(histogram));
+    assertTrue(JPPFStatisticsHelper.isNonCumulative(histogram));
+    assertEquals(0d, histogram.getMedian(), 0d);
+    for (int i=1; i<=10_000; i++) stats.addValue("histogram", i);
+    assertEquals(5000d, histogram.getMedian(), 5000d * 0.02d);
+    assertEquals(9000d, histogram.getValueAtPercentile(90d), 9000d * 0.02d);
+    assertEquals(9900d, histogram.getValueAtPercentile(99d), 9900d * 0.02d);
+    assertEquals(1d, histogram.getValueAtPercentile(0d), 0.02d);
+    assertEquals(10_000d, histogram.getValueAtPercentile(100d), 0d);
+    assertEquals(5000.5d, histogram.getAvg(), 1e-9);
+    histogram.addValues(0.5d, 2L);
+    assertEquals(0.25d, histogram.getMin(), 0d);
+    histogram.reset();
+    assertEquals(0L, histogram.getValueCount());
+    assertEquals(0d, histogram.getValueAtPercentile(50d), 0d);
+  }
+
+  /**
+   * Test that the server latencies are recorded as histograms when enabled in the configuration, and that their percentiles are exported.
+   * @throws Exception if any error occurs.
+   */
+  @Test(timeout = 5000L)
+  public void testServerLatencyPercentiles() throws Exception {
+    // histograms are disabled by default, so that consoles of previous versions can read the server statistics
+    assertFalse(JPPFStatisticsHelper.isHistogram(JPPFStatisticsHelper.createServerStatistics(new TypedProperties()).getSnapshot(JPPFStatisticsHelper.EXECUTION)));
+    final JPPFStatistics stats = JPPFStatisticsHelper.createServerStatistics(new TypedProperties().set(JPPFProperties.STATISTICS_HISTOGRAMS_ENABLED, true));
+    for (final String label: new String[] { JPPFStatisticsHelper.EXECUTION, JPPFStatisticsHelper.TASK_QUEUE_TIME, JPPFStatisticsHelper.JOB_DISPATCH_TIME }) {
+      assertTrue(label, JPPFStatisticsHelper.isHistogram(stats.getSnapshot(label)));
+    }
+    assertFalse(JPPFStatisticsHelper.isHistogram(stats.getSnapshot(JPPFStatisticsHelper.JOB_TASKS)));
+    for (int i=1; i<=1000; i++) stats.addValue(JPPFStatisticsHelper.TASK_QUEUE_TIME, i);
+    final Map<String, Double> percentiles = JPPFStatisticsHelper.getPercentiles(stats);
+    assertEquals(500d, percentiles.get("task.queue.time.p50"), 500d * 0.02d);
+    assertEquals(990d, percentiles.get("task.queue.time.p99"), 990d * 0.02d);
+    assertEquals(0d, percentiles.get("job.time.p99"), 0d);
+    final TypedProperties props = new TypedProperties();
+    JPPFStatisticsHelper.toProperties(props, stats.getSnapshot(JPPFStatisticsHelper.TASK_QUEUE_TIME));
+    assertEquals(percentiles.get("task.queue.time.p999"), props.getDouble("task.queue.time.p999"), 0d);
+  }
+
+  /**
+   * Test that the snapshots are preserved by copy and by serialization.
+   * @throws Exception if any error occurs.
+   */
+  @Test(timeout = 5000L)
+  public void testCopyAndSerialization() throws Exception {
+    final JPPFStatistics stats = new JPPFStatistics();
+    stats.createSnapshot(true, "cumulative");
+    stats.createSnapshot(false, "non.cumulative");
+    stats.createSingleValueSnapshot("single");
+    stats.createHistogramSnapshot("histogram");
+    for (int i=1; i<=100; i++) {
+      for (final String label: new String[] { "cumulative", "non.cumulative", "single", "histogram" }) stats.addValue(label, i);
+    }
+    final JPPFSerialization[] serializations = { new DefaultJavaSerialization(), new DefaultJPPFSerialization() };
+    for (final JPPFSerialization serialization: serializations) {
+      final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+      serialization.serialize(stats.copy(), baos);
+      final JPPFStatistics copy = (JPPFStatistics) serialization.deserialize(new ByteArrayInputStream(baos.toByteArray()));
+      for (final JPPFSnapshot expected: stats) {
+        final JPPFSnapshot actual = copy.getSnapshot(expected.getLabel());
+        final String msg = serialization.getClass().getSimpleName() + ": " + expected.getLabel();
+        assertNotNull(msg, actual);
+        assertEquals(msg, expected.getClass(), actual.getClass());
+        assertEquals(msg, expected.getTotal(), actual.getTotal(), 0d);
+        assertEquals(msg, expected.getLatest(), actual.getLatest(), 0d);
+        assertEquals(msg, expected.getMin(), actual.getMin(), 0d);
+        assertEquals(msg, expected.getMax(), actual.getMax(), 0d);
+        assertEquals(msg, expected.getAvg(), actual.getAvg(), 0d);
+        assertEquals(msg, expected.getValueCount(), actual.getValueCount());
+      }
+      final HistogramSnapshot histogram = (HistogramSnapshot) copy.getSnapshot("histogram");
+      assertEquals(((HistogramSnapshot) stats.getSnapshot("histogram")).getValueAtPercentile(95d), histogram.getValueAtPercentile(95d), 0d);
+      copy.addValue("cumulative", 1d);
+      assertEquals(stats.getSnapshot("cumulative").getLatest() + 1d, copy.getSnapshot("cumulative").getLatest(), 0d);
+    }
+  }
+
+  /**
+   * Test that a snapshot serialized by a previous version, where the values were held in plain fields, is read accurately.
+   * @throws Exception if any error occurs.
+   */
+  @Test(timeout = 5000L)
+  public void testReadLegacyForm() throws Exception {
+    final LegacyNonCumulativeSnapshot legacy = new LegacyNonCumulativeSnapshot();
+    final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+    try (final ObjectOutputStream oos = new ObjectOutputStream(baos)) {
+      oos.writeObject(legacy);
+    }
+    final byte[] bytes = renameLegacyClasses(baos.toByteArray(), true);
+    final NonCumulativeSnapshot snapshot;
+    try (final ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
+      snapshot = (NonCumulativeSnapshot) ois.readObject();
+    }
+    assertEquals("legacy", snapshot.getLabel());
+    assertEquals(60d, snapshot.getTotal(), 0d);
+    assertEquals(30d, snapshot.getLatest(), 0d);
+    assertEquals(10d, snapshot.getMin(), 0d);
+    assertEquals(30d, snapshot.getMax(), 0d);
+    assertEquals(20d, snapshot.getAvg(), 0d);
+    assertEquals(3L, snapshot.getValueCount());
+    assertEquals(12345L, snapshot.getLastUpdateNanos());
+    // the snapshot can still be updated after deserialization
+    snapshot.addValues(40d, 1L);
+    assertEquals(25d, snapshot.getAvg(), 0d);
+    assertEquals(40d, snapshot.getMax(), 0d);
+  }
+
+  /**
+   * Test that a snapshot serialized by this version can be read by a previous version.
+   * @throws Exception if any error occurs.
+   */
+  @Test(timeout = 5000L)
+  public void testWriteLegacyForm() throws Exception {
+    final NonCumulativeSnapshot snapshot = (NonCumulativeSnapshot) new JPPFStatistics().createSnapshot(false, "current");
+    for (int i=1; i<=3; i++) snapshot.addValues(10d * i, 1L);
+    final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+    try (final ObjectOutputStream oos = new ObjectOutputStream(baos)) {
+      oos.writeObject(snapshot);
+    }
+    final byte[] bytes = renameLegacyClasses(baos.toByteArray(), false);
+    final LegacyNonCumulativeSnapshot legacy;
+    try (final ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
+      legacy = (LegacyNonCumulativeSnapshot) ois.readObject();
+    }
+    assertEquals("current", legacy.label);
+    assertEquals(60d, legacy.total, 0d);
+    assertEquals(30d, legacy.latest, 0d);
+    assertEquals(10d, legacy.min, 0d);
+    assertEquals(30d, legacy.max, 0d);
+    assertEquals(20d, legacy.avg, 0d);
+    assertEquals(3L, legacy.valueCount);
+    assertEquals(snapshot.getLastUpdateNanos(), legacy.updateNanos);
+  }
+
+  /**
+   * Test that the serialized form of the snapshots has the same fields as in previous versions.
+   * @throws Exception if any error occurs.
+   */
+  @Test(timeout = 5000L)
+  public void testLegacySerialForm() throws Exception {
+    final ObjectStreamClass base = ObjectStreamClass.lookup(AbstractBaseJPPFSnapshot.class);
+    assertEquals(1L, base.getSerialVersionUID());
+    assertEquals(3, base.getFields().length);
+    assertEquals(String.class, base.getField("label").getType());
+    assertEquals(double.class, base.getField("total").getType());
+    assertEquals(long.class, base.getField("updateNanos").getType());
+    final ObjectStreamClass desc = ObjectStreamClass.lookup(AbstractJPPFSnapshot.class);
+    assertEquals(1L, desc.getSerialVersionUID());
+    assertEquals(5, desc.getFields().length);
+    for (final String name: new String[] { "latest", "min", "max", "avg" }) assertEquals(name, double.class, desc.getField(name).getType());
+    assertEquals(long.class, desc.getField("valueCount").getType());
+  }
+
+  /**
+   * Replace the names of the legacy snapshot classes with those of the current classes in a Java serialization stream, or the other way around.
+   * @param bytes the serialized stream.
+   * @param toCurrent {@code true} to replace the legacy names with the current ones, {@code false} for the opposite.
+   * @return the modified stream.
+   */
+  private static byte[] renameLegacyClasses(final byte[] bytes, final boolean toCurrent) {
+    final Class<?>[][] mapping = {
+      { LegacyNonCumulativeSnapshot.class, NonCumulativeSnapshot.class },
+      { LegacyAbstractSnapshot.class, AbstractJPPFSnapshot.class },
+      { LegacyBaseSnapshot.class, AbstractBaseJPPFSnapshot.class }
+    };
+    byte[] result = bytes;
+    for (final Class<?>[] pair: mapping) {
+      final Class<?> from = toCurrent ? pair[0] : pair[1], to = toCurrent ? pair[1] : pair[0];
+      result = renameClass(result, from.getName(), to.getName());
+    }
+    return result;
+  }
+
+  /**
+   * Replace the name of a class in a Java serialization stream.
+   * @param bytes the serialized stream.
+   * @param oldName the name to replace.
+   * @param newName the replacement name.
+   * @return the modified stream.
+   */
+  private static byte[] renameClass(final byte[] bytes, final String oldName, final String newName) {
+    final byte[] oldBytes = utf(oldName), newBytes = utf(newName);
+    for (int i=0; i<=bytes.length - oldBytes.length; i++) {
+      if (Arrays.equals(oldBytes, Arrays.copyOfRange(bytes, i, i + oldBytes.length))) {
+        final byte[] result = new byte[bytes.length - oldBytes.length + newBytes.length];
+        System.arraycopy(bytes, 0, result, 0, i);
+        System.arraycopy(newBytes, 0, result, i, newBytes.length);
+        System.arraycopy(bytes, i + oldBytes.length, result, i + newBytes.length, bytes.length - i - oldBytes.length);
+        return result;
+      }
+    }
+    throw new IllegalStateException(oldName + " not found in the stream");
+  }
+
+  /**
+   * Encode a class name as it appears in a Java serialization stream: its length on 2 bytes, followed by its UTF-8 bytes.
+   * @param name the class name to encode.
+   * @return the encoded name.
+   */
+  private static byte[] utf(final String name) {
+    final byte[] chars = name.getBytes(StandardCharsets.UTF_8);
+    final byte[] result = new byte[chars.length + 2];
+    result[0] = (byte) (chars.length >>> 8);
+    result[1] = (byte) chars.length;
+    System.arraycopy(chars, 0, result, 2, chars.length);
+    return result;
+  }
+
+  /**
+   * Has the same serialized form as {@link AbstractBaseJPPFSnapshot} in previous versions.
+   */
+  public static class LegacyBaseSnapshot implements Serializable {
+    /**
+     * Explicit serialVersionUID.
+     */
+    private static final long serialVersionUID = 1L;
+    /**
+     * The snapshot label.
+     */
+    String label = "legacy";
+    /**
+     * The total cumulated values.
+     */
+    double total = 60d;
+    /**
+     * The last update time.
+     */
+    long updateNanos = 12345L;
+  }
+
+  /**
+   * Has the same serialized form as {@link AbstractJPPFSnapshot} in previous versions.
+   */
+  public static class LegacyAbstractSnapshot extends LegacyBaseSnapshot {
+    /**
+     * Explicit serialVersionUID.
+     */
+    private static final long serialVersionUID = 1L;
+    /**
+     * The most recent value.
+     */
+    double latest = 30d;
+    /**
+     * The minimum value.
+     */
+    double min = 10d;
+    /**
+     * The maximum value.
+     */
+    double max = 30d;
+    /**
+     * The average value.
+     */
+    double avg = 20d;
+    /**
+     * Count of values.
+     */
+    long valueCount = 3L;
+  }
+
+  /**
+   * Has the same serialized form as {@link NonCumulativeSnapshot} in previous versions.
+   */
+  public static class LegacyNonCumulativeSnapshot extends LegacyAbstractSnapshot {
+    /**
+     * Explicit serialVersionUID.
+     */
+    private static final long serialVersionUID = 1L;
+  }
+}